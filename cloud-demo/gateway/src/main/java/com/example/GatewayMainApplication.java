@@ -3,7 +3,11 @@ package com.example;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 
+import com.example.common.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class) // lb:// 路由依延遲選擇實例
 @EnableDiscoveryClient
 @SpringBootApplication
 public class GatewayMainApplication {
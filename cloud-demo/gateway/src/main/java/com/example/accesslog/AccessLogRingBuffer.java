@@ -0,0 +1,115 @@
+package com.example.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 存取日誌的無鎖環形緩衝區（多寫入、單讀取）
+ *
+ * 欄位預先配置成平行陣列，每筆紀錄只寫入基本型別和請求中已存在的物件參考（路由 id、方法、路徑），
+ * 記錄時不建立新物件。寫入端以 CAS 取得序號，寫完欄位後發布序號；
+ * 讀取端只有 AccessLogWriter 的寫入線程，依序號讀取已發布的紀錄。
+ * 緩衝區滿時 offer 直接回傳 false，不等待讀取端，Netty 事件迴圈不會被阻塞。
+ */
+public class AccessLogRingBuffer {
+
+    private final int mask;
+
+    private final long[] startNanos;
+
+    private final long[] durationNanos;
+
+    private final int[] status;
+
+    private final long[] bytes;
+
+    private final Object[] routeId;
+
+    private final Object[] method;
+
+    private final Object[] path;
+
+    /**
+     * 每個位置目前發布的序號，讀取端以此判斷該位置的紀錄是否寫完
+     */
+    private final AtomicLongArray published;
+
+    private final AtomicLong writeSequence = new AtomicLong();
+
+    private final AtomicLong readSequence = new AtomicLong();
+
+    public AccessLogRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.startNanos = new long[capacity];
+        this.durationNanos = new long[capacity];
+        this.status = new int[capacity];
+        this.bytes = new long[capacity];
+        this.routeId = new Object[capacity];
+        this.method = new Object[capacity];
+        this.path = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * 寫入一筆紀錄，緩衝區已滿時回傳 false
+     */
+    public boolean offer(long start, long duration, int statusCode, long contentLength,
+                         String route, Object httpMethod, Object requestPath) {
+        long sequence;
+        do {
+            sequence = writeSequence.get();
+            if (sequence - readSequence.get() >= capacity()) {
+                return false;
+            }
+        } while (!writeSequence.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) (sequence & mask);
+        startNanos[index] = start;
+        durationNanos[index] = duration;
+        status[index] = statusCode;
+        bytes[index] = contentLength;
+        routeId[index] = route;
+        method[index] = httpMethod;
+        path[index] = requestPath;
+        published.set(index, sequence);
+        return true;
+    }
+
+    /**
+     * 讀取下一筆已發布的紀錄交給 consumer，沒有紀錄時回傳 false，只能由單一線程調用
+     */
+    public boolean poll(Consumer consumer) {
+        long sequence = readSequence.get();
+        int index = (int) (sequence & mask);
+        if (published.get(index) != sequence) {
+            return false;
+        }
+        consumer.accept(startNanos[index], durationNanos[index], status[index], bytes[index],
+                (String) routeId[index], method[index], path[index]);
+        // 釋放物件參考，避免緩衝區讓請求物件無法回收
+        routeId[index] = null;
+        method[index] = null;
+        path[index] = null;
+        readSequence.lazySet(sequence + 1);
+        return true;
+    }
+
+    public long size() {
+        return writeSequence.get() - readSequence.get();
+    }
+
+    @FunctionalInterface
+    public interface Consumer {
+
+        void accept(long startNanos, long durationNanos, int status, long bytes,
+                    String routeId, Object method, Object path);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.accesslog;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.config.AccessLogProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 存取日誌寫入器
+ *
+ * RtGlobalFilter 在事件迴圈上只把幾個欄位寫入 AccessLogRingBuffer，
+ * 格式化、寫日誌和記錄延遲直方圖都在這裡的背景線程完成：
+ * - 日誌寫到 ACCESS_LOG logger，由 logback-spring.xml 的非同步 appender 輸出到 gateway-access.log
+ * - 每個路由一個 gateway.access.latency Timer，帶百分位直方圖
+ * - 緩衝區滿時丟棄的紀錄數記在 gateway.access.log.dropped
+ */
+@Slf4j
+@Component
+public class AccessLogWriter {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("ACCESS_LOG");
+
+    /**
+     * 沒有匹配到路由的請求（例如 404）使用的路由標籤
+     */
+    static final String NO_ROUTE = "none";
+
+    @Autowired
+    private AccessLogProperties accessLogProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private AccessLogRingBuffer buffer;
+
+    private Counter droppedCounter;
+
+    // 只在寫入線程存取
+    private final Map<String, Timer> latencyTimers = new HashMap<>();
+
+    // nanoTime 與系統時間的對照，用來在寫入線程換算請求開始的時間
+    private long baseEpochMillis;
+
+    private long baseNanos;
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    private Thread writerThread;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        buffer = new AccessLogRingBuffer(accessLogProperties.getBufferSize());
+        baseEpochMillis = System.currentTimeMillis();
+        baseNanos = System.nanoTime();
+        droppedCounter = Counter.builder("gateway.access.log.dropped")
+                .description("Access log records dropped because the ring buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("gateway.access.log.pending", buffer, AccessLogRingBuffer::size)
+                .description("Access log records waiting for the writer thread")
+                .register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::writeLoop, "gateway-access-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("AccessLogWriter initialized - enabled: {}, bufferSize: {}",
+                accessLogProperties.isEnabled(), buffer.capacity());
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * 記錄一次請求，在事件迴圈上調用，不建立物件、不等待
+     */
+    public void record(long startNanos, long endNanos, int status, long bytes,
+                       String routeId, Object method, Object path) {
+        if (!buffer.offer(startNanos, endNanos - startNanos, status, bytes, routeId, method, path)) {
+            droppedCounter.increment();
+        }
+    }
+
+    private void writeLoop() {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(accessLogProperties.getIdleSleepMillis());
+        while (running || buffer.size() > 0) {
+            boolean drained = false;
+            while (buffer.poll(this::write)) {
+                drained = true;
+            }
+            if (!drained) {
+                LockSupport.parkNanos(idleNanos);
+            }
+        }
+    }
+
+    private void write(long startNanos, long durationNanos, int status, long bytes,
+                       String routeId, Object method, Object path) {
+        String route = routeId != null ? routeId : NO_ROUTE;
+        try {
+            latencyTimers.computeIfAbsent(route, this::latencyTimer).record(durationNanos, TimeUnit.NANOSECONDS);
+            if (accessLogProperties.isEnabled() && accessLog.isInfoEnabled()) {
+                long startMillis = baseEpochMillis + TimeUnit.NANOSECONDS.toMillis(startNanos - baseNanos);
+                line.setLength(0);
+                line.append(Instant.ofEpochMilli(startMillis)).append(' ')
+                        .append(method).append(' ')
+                        .append(path).append(' ')
+                        .append(status).append(' ')
+                        .append(bytes < 0 ? "-" : String.valueOf(bytes)).append(' ')
+                        .append(TimeUnit.NANOSECONDS.toMicros(durationNanos) / 1000.0).append("ms ")
+                        .append("route=").append(route);
+                accessLog.info(line.toString());
+            }
+        } catch (RuntimeException e) {
+            // 單筆紀錄失敗不能讓寫入線程結束
+            log.warn("Failed to write access log record, error: {}", e.getMessage());
+        }
+    }
+
+    private Timer latencyTimer(String route) {
+        return Timer.builder("gateway.access.latency")
+                .description("Gateway request latency measured by RtGlobalFilter")
+                .tag("route", route)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
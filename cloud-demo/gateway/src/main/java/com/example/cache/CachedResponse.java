@@ -0,0 +1,25 @@
+package com.example.cache;
+
+import java.nio.ByteBuffer;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * 快取的回應，body 存在 direct ByteBuffer，寫回客戶端時以 duplicate() 共用同一份記憶體
+ *
+ * @param status    狀態碼
+ * @param headers   回應 header（唯讀）
+ * @param body      回應 body（唯讀的 direct ByteBuffer）
+ * @param ttlNanos  此路由設定的存活時間
+ */
+public record CachedResponse(int status, HttpHeaders headers, ByteBuffer body, long ttlNanos) {
+
+    /**
+     * 大約的 header 大小，計入快取容量
+     */
+    private static final int HEADER_OVERHEAD = 256;
+
+    public int weight() {
+        return body.capacity() + HEADER_OVERHEAD;
+    }
+}
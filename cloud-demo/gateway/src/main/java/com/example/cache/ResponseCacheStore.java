@@ -0,0 +1,89 @@
+package com.example.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.config.ResponseCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 回應快取的儲存
+ *
+ * 以 body 的大小為權重，所有 body 合計不超過 maxSizeBytes，超過時淘汰較少使用的回應；
+ * 每筆回應依所屬路由的 TTL 過期。body 是 direct ByteBuffer，不佔用 Java heap，
+ * 淘汰後的記憶體在 ByteBuffer 被 GC 回收時釋放。
+ *
+ * 指標：gateway.response.cache（命中率、淘汰數等 Caffeine 指標）、gateway.response.cache.bytes
+ */
+@Component
+public class ResponseCacheStore {
+
+    @Autowired
+    private ResponseCacheProperties responseCacheProperties;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, CachedResponse> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(responseCacheProperties.getMaxSizeBytes())
+                .weigher((String key, CachedResponse response) -> response.weight())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return response.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime,
+                                                  long currentDuration) {
+                        return response.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.response.cache");
+            Gauge.builder("gateway.response.cache.bytes", this, ResponseCacheStore::weightedSize)
+                    .description("Off-heap bytes held by cached gateway responses")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, CachedResponse response) {
+        cache.put(key, response);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 快取佔用的位元組數；先處理寫入緩衝，剛放入的回應也計算在內
+     */
+    public long weightedSize() {
+        cache.cleanUp();
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+}
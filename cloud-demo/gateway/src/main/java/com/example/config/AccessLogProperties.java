@@ -0,0 +1,30 @@
+package com.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 存取日誌的設定 -> AccessLogWriter
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.access-log")
+@Data
+public class AccessLogProperties {
+
+    /**
+     * 是否記錄存取日誌，關閉時仍記錄延遲指標
+     */
+    private boolean enabled = true;
+
+    /**
+     * 環形緩衝區大小，會調整為 2 的次方；寫入線程跟不上時新的紀錄會被丟棄並計數
+     */
+    private int bufferSize = 16384;
+
+    /**
+     * 緩衝區沒有紀錄時，寫入線程休眠多久（毫秒）再檢查
+     */
+    private long idleSleepMillis = 1;
+}
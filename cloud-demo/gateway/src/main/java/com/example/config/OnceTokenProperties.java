@@ -0,0 +1,35 @@
+package com.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * OnceToken 的設定 -> OnceTokenGatewayFilterFactory
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.once-token")
+@Data
+public class OnceTokenProperties {
+
+    /**
+     * JWT 的 HMAC-SHA256 簽章金鑰，至少 32 bytes；沒有設定時啟動時隨機產生，重啟後舊 token 無法驗證
+     */
+    private String jwtSecret;
+
+    /**
+     * JWT header 的 kid，方便驗證端輪替金鑰
+     */
+    private String jwtKeyId;
+
+    /**
+     * JWT 的 iss
+     */
+    private String jwtIssuer = "gateway";
+
+    /**
+     * JWT 的有效時間（秒）
+     */
+    private long jwtTtlSeconds = 300;
+}
@@ -0,0 +1,65 @@
+package com.example.config;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 限流的設定 -> RedisRateLimitGatewayFilterFactory、TokenBatchRateLimiter
+ * 每個路由的速率和容量寫在路由的 filter 參數中，這裡是所有路由共用的設定
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    /**
+     * 是否啟用限流，關閉時 RedisRateLimit filter 直接放行
+     */
+    private boolean enabled = true;
+
+    /**
+     * Redis 中令牌桶 key 的前綴
+     */
+    private String keyPrefix = "gateway:rate-limit";
+
+    /**
+     * 以使用者限流時識別使用者的 header，只採用 trustedProxies 送來的值，其他情況以登入使用者或來源 IP 識別
+     */
+    private String userHeader = "X-User-Id";
+
+    /**
+     * 可信任的上游（驗證使用者後設定 userHeader 的代理）IP，空時不採用 userHeader，
+     * 用戶端自己帶的 header 可以任意更換，不能作為限流的依據
+     */
+    private Set<String> trustedProxies = new HashSet<>();
+
+    /**
+     * 本地預取的令牌有效時間（毫秒），過期未用完的令牌直接丟棄，避免單一實例囤積令牌
+     */
+    private long localTokenTtlMillis = 1000;
+
+    /**
+     * 本地剩餘令牌低於一批的此比例時，在背景先向 Redis 借下一批
+     */
+    private double prefetchRatio = 0.25;
+
+    /**
+     * 向 Redis 借令牌的逾時（毫秒）
+     */
+    private long redisTimeoutMillis = 100;
+
+    /**
+     * Redis 無法使用時是否放行（fail-open），false 時拒絕
+     */
+    private boolean failOpen = true;
+
+    /**
+     * 本地最多保留幾個令牌桶（以使用者限流時每個使用者一個），超過時淘汰最久未使用的
+     */
+    private long maxLocalBuckets = 100_000;
+}
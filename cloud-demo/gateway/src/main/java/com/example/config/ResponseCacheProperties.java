@@ -0,0 +1,36 @@
+package com.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 回應快取的設定 -> ResponseCacheGatewayFilterFactory、ResponseCacheStore
+ * 每個路由的 TTL 和快取 key 寫在路由的 filter 參數中，這裡是所有路由共用的設定
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.response-cache")
+@Data
+public class ResponseCacheProperties {
+
+    /**
+     * 是否啟用回應快取，關閉時 ResponseCache filter 直接轉發
+     */
+    private boolean enabled = true;
+
+    /**
+     * 所有快取回應的 body 合計上限（bytes），body 存在堆外記憶體（direct ByteBuffer）
+     */
+    private long maxSizeBytes = 64L * 1024 * 1024;
+
+    /**
+     * 單一回應的 body 上限（bytes），超過的回應不快取
+     */
+    private int maxEntryBytes = 1024 * 1024;
+
+    /**
+     * 同一個 key 的請求等待第一個請求回應的最長時間（毫秒），逾時後自行轉發
+     */
+    private long collapseTimeoutMillis = 3000;
+}
@@ -0,0 +1,20 @@
+package com.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 路由索引的設定 -> IndexedRoutePredicateHandlerMapping
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.route-index")
+@Data
+public class RouteIndexProperties {
+
+    /**
+     * 是否以路徑前綴索引縮小需要檢查的路由，關閉時依序檢查所有路由
+     */
+    private boolean enabled = true;
+}
@@ -0,0 +1,30 @@
+package com.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 路由指標的設定 -> RouteMetricsGlobalFilter、SlowRoutesEndpoint
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.route-metrics")
+@Data
+public class RouteMetricsProperties {
+
+    /**
+     * 是否記錄每個路由的上游延遲、回應大小和錯誤類型
+     */
+    private boolean enabled = true;
+
+    /**
+     * slowroutes 端點預設統計最近幾分鐘
+     */
+    private int windowMinutes = 5;
+
+    /**
+     * 最多追蹤的路由數，超過的路由合併到 other 標籤，避免標籤數量無限增長
+     */
+    private int maxRoutes = 200;
+}
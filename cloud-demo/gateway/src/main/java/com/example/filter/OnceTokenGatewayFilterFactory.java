@@ -1,40 +1,104 @@
 package com.example.filter;
 
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
 import java.util.UUID;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.factory.AbstractNameValueGatewayFilterFactory;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 
+import com.example.config.OnceTokenProperties;
+import com.example.token.JwtTokenGenerator;
+import com.example.token.TimeOrderedIdGenerator;
+import com.example.token.TokenGenerator;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
 /**
  * 自訂filter，非全域
- * 在 application 中加入
+ * 在 application 中加入，例如：OnceToken=X-Request-token, jwt
+ * value 決定 token 的產生方式，在 apply 時就決定好，請求時不再比對設定值：
+ * - uuid：UUID.randomUUID()，使用 SecureRandom
+ * - id：TimeOrderedIdGenerator，依時間排序的 id，不使用 SecureRandom，高流量下成本較低
+ * - jwt：以 HMAC-SHA256 簽章的 JWT，金鑰設定在 gateway.once-token
  */
+@Slf4j
 @Component
 public class OnceTokenGatewayFilterFactory extends AbstractNameValueGatewayFilterFactory {
 
+    /**
+     * 隨機產生的 JWT 金鑰長度（bytes）
+     */
+    private static final int GENERATED_SECRET_LENGTH = 32;
+
+    @Autowired
+    private OnceTokenProperties onceTokenProperties;
+
+    private TokenGenerator idGenerator;
+
+    private TokenGenerator jwtGenerator;
+
+    @PostConstruct
+    public void init() {
+        idGenerator = new TimeOrderedIdGenerator();
+        byte[] secret;
+        if (StringUtils.hasText(onceTokenProperties.getJwtSecret())) {
+            secret = onceTokenProperties.getJwtSecret().getBytes(StandardCharsets.UTF_8);
+        } else {
+            secret = new byte[GENERATED_SECRET_LENGTH];
+            new SecureRandom().nextBytes(secret);
+            log.info("gateway.once-token.jwt-secret is not set, using a generated key");
+        }
+        jwtGenerator = new JwtTokenGenerator(secret, onceTokenProperties.getJwtKeyId(),
+                onceTokenProperties.getJwtIssuer(), onceTokenProperties.getJwtTtlSeconds(), idGenerator);
+    }
+
     @Override
     public GatewayFilter apply(NameValueConfig config) {
+        String name = config.getName();
+        TokenGenerator generator = generator(config.getValue());
         return new GatewayFilter() {
             @Override
             public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-                return chain.filter(exchange).then(Mono.fromRunnable(() -> {
-                    ServerHttpResponse response = exchange.getResponse();
-                    HttpHeaders headers = response.getHeaders();
-                    String value = config.getValue();
-                    if ("uuid".equals(value)) {
-                        headers.add(config.getName(), UUID.randomUUID().toString());
-                    } else if ("jwt".equals(value)) {
-                        headers.add(config.getName(), "this is a test jwt token");
-                    }
-                }));
+                if (generator == null) {
+                    return chain.filter(exchange);
+                }
+                // 回應送出後 header 就不能修改，在送出前加入
+                ServerHttpResponse response = exchange.getResponse();
+                response.beforeCommit(() -> {
+                    response.getHeaders().add(name, generator.next());
+                    return Mono.empty();
+                });
+                return chain.filter(exchange);
+            }
+
+            @Override
+            public String toString() {
+                return String.format("OnceToken: %s=%s", name, config.getValue());
             }
         };
     }
+
+    /**
+     * 依設定值決定 token 的產生方式，不支援的值不加入 header
+     */
+    TokenGenerator generator(String value) {
+        if ("uuid".equals(value)) {
+            return () -> UUID.randomUUID().toString();
+        } else if ("id".equals(value)) {
+            return idGenerator;
+        } else if ("jwt".equals(value)) {
+            return jwtGenerator;
+        }
+        log.warn("Unsupported OnceToken value: {}, expected uuid, id or jwt", value);
+        return null;
+    }
 }
@@ -0,0 +1,190 @@
+package com.example.filter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.config.RateLimitProperties;
+import com.example.ratelimit.TokenBatchRateLimiter;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 自訂filter，以 Redis 令牌桶限流，超過速率時回應 429
+ * 在 application 中加入，例如：RedisRateLimit=user, 20, 40
+ * - scope：route 整個路由共用一個桶，user 每個使用者一個桶
+ *   （使用者依序為登入的 Principal、可信任上游設定的 gateway.rate-limit.user-header、來源 IP）
+ * - replenishRate：每秒補充的令牌數
+ * - burstCapacity：桶容量
+ * - batchSize：每個實例每次向 Redis 借的令牌數，預設 10
+ *
+ * 排在 ResponseCache 之前，不論宣告順序，命中快取的讀取同樣受限流。
+ */
+@Component
+public class RedisRateLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<RedisRateLimitGatewayFilterFactory.Config> {
+
+    static final String SCOPE_ROUTE = "route";
+
+    static final String SCOPE_USER = "user";
+
+    /**
+     * 使用者識別的最大長度，避免過長的 header 成為 Redis key
+     */
+    private static final int MAX_USER_LENGTH = 128;
+
+    @Autowired
+    private RateLimitProperties rateLimitProperties;
+
+    @Autowired
+    private TokenBatchRateLimiter tokenBatchRateLimiter;
+
+    public RedisRateLimitGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    /**
+     * 簡短寫法
+     */
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList("scope", "replenishRate", "burstCapacity", "batchSize");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        boolean perUser = SCOPE_USER.equalsIgnoreCase(config.getScope());
+        TokenBatchRateLimiter.Limit limit = new TokenBatchRateLimiter.Limit(config.getReplenishRate(),
+                config.getBurstCapacity(), config.getBatchSize());
+        GatewayFilter filter = new GatewayFilter() {
+            @Override
+            public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+                if (!rateLimitProperties.isEnabled()) {
+                    return chain.filter(exchange);
+                }
+                Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+                String routeId = route != null ? route.getId() : "none";
+                Mono<String> key = perUser ? user(exchange).map(user -> routeId + ":" + user) : Mono.just(routeId);
+                return key.flatMap(k -> tokenBatchRateLimiter.tryAcquire(routeId, k, limit)).flatMap(admitted -> {
+                    if (admitted) {
+                        return chain.filter(exchange);
+                    }
+                    ServerWebExchangeUtils.setResponseStatus(exchange, HttpStatus.TOO_MANY_REQUESTS);
+                    // 令牌每 1/replenishRate 秒補充一個，1 秒後一定有新的令牌
+                    exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                    return exchange.getResponse().setComplete();
+                });
+            }
+
+            @Override
+            public String toString() {
+                return String.format("RedisRateLimit: scope=%s, replenishRate=%d, burstCapacity=%d, batchSize=%d",
+                        perUser ? SCOPE_USER : SCOPE_ROUTE, limit.replenishRate(), limit.burstCapacity(),
+                        limit.batchSize());
+            }
+        };
+        // 排在 ResponseCache 之前，命中快取的請求也要先取得令牌
+        return new OrderedGatewayFilter(filter, ResponseCacheGatewayFilterFactory.FILTER_ORDER - 1);
+    }
+
+    /**
+     * 使用者識別：登入的 Principal，沒有時採用可信任上游設定的 user-header，再沒有時用來源 IP
+     * 用戶端直接帶的 user-header 不採用，否則每次換一個值就能繞過限流
+     */
+    private Mono<String> user(ServerWebExchange exchange) {
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .filter(StringUtils::hasText)
+                .map(RedisRateLimitGatewayFilterFactory::truncate)
+                .defaultIfEmpty("")
+                .map(principal -> principal.isEmpty() ? unauthenticatedUser(exchange) : principal);
+    }
+
+    private String unauthenticatedUser(ServerWebExchange exchange) {
+        String remoteIp = remoteIp(exchange);
+        if (remoteIp != null && rateLimitProperties.getTrustedProxies().contains(remoteIp)) {
+            String user = exchange.getRequest().getHeaders().getFirst(rateLimitProperties.getUserHeader());
+            if (StringUtils.hasText(user)) {
+                return truncate(user);
+            }
+        }
+        return remoteIp != null ? remoteIp : "anonymous";
+    }
+
+    private static String remoteIp(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress != null && remoteAddress.getAddress() != null) {
+            return remoteAddress.getAddress().getHostAddress();
+        }
+        return null;
+    }
+
+    private static String truncate(String user) {
+        return user.length() > MAX_USER_LENGTH ? user.substring(0, MAX_USER_LENGTH) : user;
+    }
+
+    /**
+     * 限流的設定
+     */
+    public static class Config {
+
+        /**
+         * route 或 user
+         */
+        private String scope = SCOPE_ROUTE;
+
+        private int replenishRate;
+
+        private int burstCapacity;
+
+        private int batchSize = 10;
+
+        public String getScope() {
+            return scope;
+        }
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setScope(String scope) {
+            this.scope = scope;
+        }
+
+        public void setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+}
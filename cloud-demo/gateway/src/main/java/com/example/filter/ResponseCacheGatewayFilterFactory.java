@@ -0,0 +1,437 @@
+package com.example.filter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.cache.CachedResponse;
+import com.example.cache.ResponseCacheStore;
+import com.example.config.ResponseCacheProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * 自訂filter，快取冪等 GET 請求的回應，命中時不轉發到後端
+ * 在 application 中加入，例如：ResponseCache=30s，或以 args 設定 ttl / query-params / headers
+ *
+ * 1. 快取 key：路由 id + 路徑（去掉結尾的 /）+ 查詢參數（依名稱排序）+ 指定的 header
+ *    - queryParams 沒有設定時使用所有查詢參數，有設定時只使用這些參數，其餘參數不影響快取
+ *    - headers 預設為 Accept、Accept-Encoding，不同格式或壓縮方式的回應分開快取
+ * 2. 只快取 200、沒有 Set-Cookie、Cache-Control 不含 no-store / no-cache / private 且不超過 maxEntryBytes 的回應
+ * 3. 帶 Authorization 或 Cookie 的請求（RFC 9111 §3.5）只使用和儲存 Cache-Control 含 public 的回應，
+ *    其他情況直接轉發，也不參與 request collapsing，避免把某個使用者的回應給了其他使用者
+ * 4. 同一個 key 同時未命中時只有第一個請求轉發到後端，其他請求等待並共用它的回應（request collapsing）；
+ *    第一個請求的回應無法快取或等待逾時時，其他請求各自轉發
+ * 5. 回應 header 加上 X-Cache：HIT / MISS
+ *
+ * 排在 NettyWriteResponseFilter 之前，才能在寫回客戶端時取得回應 body；
+ * 命中快取的請求不經過之後的路由 filter，RedisRateLimit 因此排在此 filter 之前，命中快取的請求同樣受限流。
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    static final String CACHE_HEADER = "X-Cache";
+
+    static final String HIT = "HIT";
+
+    static final String MISS = "MISS";
+
+    /**
+     * filter 的順序，在 NettyWriteResponseFilter 之前
+     */
+    static final int FILTER_ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private static final List<String> UNCACHEABLE_DIRECTIVES = List.of("no-store", "no-cache", "private");
+
+    private static final String PUBLIC_DIRECTIVE = "public";
+
+    @Autowired
+    private ResponseCacheProperties responseCacheProperties;
+
+    @Autowired
+    private ResponseCacheStore responseCacheStore;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 正在轉發到後端的 key -> 等待此回應的請求共用的結果
+     */
+    private final Map<String, Sinks.One<CachedResponse>> inflight = new ConcurrentHashMap<>();
+
+    private Counter collapsedCounter;
+
+    public ResponseCacheGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (meterRegistry != null) {
+            collapsedCounter = Counter.builder("gateway.response.cache.collapsed")
+                    .description("Cache misses served by waiting for a concurrent request to the same key")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 簡短寫法
+     */
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        long ttlNanos = config.getTtl().toNanos();
+        List<String> queryParams = config.getQueryParams().stream().sorted().toList();
+        List<String> headers = config.getHeaders().stream()
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .sorted()
+                .toList();
+        GatewayFilter filter = new GatewayFilter() {
+            @Override
+            public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+                if (!responseCacheProperties.isEnabled() || exchange.getRequest().getMethod() != HttpMethod.GET) {
+                    return chain.filter(exchange);
+                }
+                String key = cacheKey(exchange, queryParams, headers);
+                boolean credentialed = hasCredentials(exchange.getRequest());
+                CachedResponse cached = responseCacheStore.get(key);
+                if (cached != null && (!credentialed || isPublic(cached.headers()))) {
+                    return write(exchange, cached);
+                }
+                Sinks.One<CachedResponse> sink = Sinks.one();
+                if (credentialed) {
+                    // 不登記為 inflight，回應只在明確為 public 時存入快取
+                    exchange.getResponse().getHeaders().set(CACHE_HEADER, MISS);
+                    ServerHttpResponse response = new CachingResponse(exchange.getResponse(), key, ttlNanos, sink, true);
+                    return chain.filter(exchange.mutate().response(response).build());
+                }
+                Sinks.One<CachedResponse> leader = inflight.putIfAbsent(key, sink);
+                if (leader != null) {
+                    return awaitLeader(exchange, chain, leader);
+                }
+                exchange.getResponse().getHeaders().set(CACHE_HEADER, MISS);
+                ServerHttpResponse response = new CachingResponse(exchange.getResponse(), key, ttlNanos, sink, false);
+                return chain.filter(exchange.mutate().response(response).build())
+                        .doFinally(signal -> complete(key, sink, null));
+            }
+
+            @Override
+            public String toString() {
+                return String.format("ResponseCache: ttl=%s, queryParams=%s, headers=%s", config.getTtl(),
+                        queryParams, headers);
+            }
+        };
+        return new OrderedGatewayFilter(filter, FILTER_ORDER);
+    }
+
+    /**
+     * 等待同一個 key 的第一個請求，拿到可快取的回應就直接寫回，否則自行轉發
+     */
+    private Mono<Void> awaitLeader(ServerWebExchange exchange, GatewayFilterChain chain,
+                                   Sinks.One<CachedResponse> leader) {
+        return leader.asMono()
+                .timeout(Duration.ofMillis(responseCacheProperties.getCollapseTimeoutMillis()))
+                .onErrorResume(TimeoutException.class, e -> Mono.empty())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(response -> {
+                    if (response.isEmpty()) {
+                        return chain.filter(exchange);
+                    }
+                    if (collapsedCounter != null) {
+                        collapsedCounter.increment();
+                    }
+                    return write(exchange, response.get());
+                });
+    }
+
+    /**
+     * 第一個請求結束，通知等待中的請求；response 為 null 表示回應無法快取
+     */
+    private void complete(String key, Sinks.One<CachedResponse> sink, CachedResponse response) {
+        if (!inflight.remove(key, sink)) {
+            return;
+        }
+        if (response != null) {
+            sink.tryEmitValue(response);
+        } else {
+            sink.tryEmitEmpty();
+        }
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.headers());
+        headers.setContentLength(cached.body().remaining());
+        headers.set(CACHE_HEADER, HIT);
+        // duplicate() 讓每個請求有自己的讀取位置，body 不複製到 heap
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body().duplicate())));
+    }
+
+    /**
+     * 請求是否帶有使用者的身分資訊
+     */
+    static boolean hasCredentials(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return headers.containsKey(HttpHeaders.AUTHORIZATION) || headers.containsKey(HttpHeaders.COOKIE);
+    }
+
+    /**
+     * Cache-Control 是否明確允許共用快取
+     */
+    static boolean isPublic(HttpHeaders headers) {
+        return hasDirective(headers.getCacheControl(), PUBLIC_DIRECTIVE);
+    }
+
+    private static boolean hasDirective(String cacheControl, String directive) {
+        if (cacheControl == null) {
+            return false;
+        }
+        for (String token : cacheControl.split(",")) {
+            String name = token.trim();
+            int equals = name.indexOf('=');
+            if (equals >= 0) {
+                name = name.substring(0, equals).trim();
+            }
+            if (name.equalsIgnoreCase(directive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 快取 key：路由 id、路徑、排序後的查詢參數和指定的 header
+     */
+    static String cacheKey(ServerWebExchange exchange, List<String> queryParams, List<String> headers) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        StringBuilder key = new StringBuilder(128);
+        key.append(route != null ? route.getId() : "").append(' ');
+
+        String path = request.getPath().pathWithinApplication().value();
+        if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        key.append(path);
+
+        MultiValueMap<String, String> params = request.getQueryParams();
+        Iterable<String> names = queryParams.isEmpty() ? new TreeMap<>(params).keySet() : queryParams;
+        char separator = '?';
+        for (String name : names) {
+            List<String> values = params.get(name);
+            if (values == null) {
+                continue;
+            }
+            for (String value : values) {
+                key.append(separator).append(name).append('=').append(value != null ? value : "");
+                separator = '&';
+            }
+        }
+
+        for (String name : headers) {
+            List<String> values = request.getHeaders().get(name);
+            key.append('\n').append(name).append(':');
+            if (values != null) {
+                key.append(String.join(",", values).trim());
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * 第一個請求的回應，寫回客戶端的同時複製 body，完成後存入快取
+     * 串流回應（例如 text/event-stream）經由 writeAndFlushWith 寫出，不快取
+     */
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+
+        private final long ttlNanos;
+
+        private final Sinks.One<CachedResponse> sink;
+
+        /**
+         * 請求帶有 Authorization 或 Cookie，只快取 public 的回應
+         */
+        private final boolean credentialed;
+
+        private CachingResponse(ServerHttpResponse delegate, String key, long ttlNanos,
+                                Sinks.One<CachedResponse> sink, boolean credentialed) {
+            super(delegate);
+            this.key = key;
+            this.ttlNanos = ttlNanos;
+            this.sink = sink;
+            this.credentialed = credentialed;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCacheable()) {
+                return super.writeWith(body);
+            }
+            BodyCapture capture = new BodyCapture(responseCacheProperties.getMaxEntryBytes());
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(capture::append)
+                    .doOnComplete(() -> {
+                        CachedResponse response = capture.toResponse(getStatusCode().value(), getHeaders(), ttlNanos);
+                        if (response != null) {
+                            responseCacheStore.put(key, response);
+                        }
+                        complete(key, sink, response);
+                    }));
+        }
+
+        private boolean isCacheable() {
+            HttpStatusCode status = getStatusCode();
+            HttpHeaders headers = getHeaders();
+            if (status == null || status.value() != HttpStatus.OK.value()
+                    || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+                return false;
+            }
+            String cacheControl = headers.getCacheControl();
+            for (String directive : UNCACHEABLE_DIRECTIVES) {
+                if (hasDirective(cacheControl, directive)) {
+                    return false;
+                }
+            }
+            return !credentialed || hasDirective(cacheControl, PUBLIC_DIRECTIVE);
+        }
+    }
+
+    /**
+     * 複製回應 body，不改變 DataBuffer 的讀取位置；超過上限時放棄
+     */
+    private static final class BodyCapture {
+
+        private final int maxBytes;
+
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private BodyCapture(int maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        private void append(DataBuffer buffer) {
+            if (bytes == null) {
+                return;
+            }
+            if (bytes.size() + buffer.readableByteCount() > maxBytes) {
+                bytes = null;
+                return;
+            }
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    ByteBuffer source = iterator.next();
+                    byte[] chunk = new byte[source.remaining()];
+                    source.get(chunk);
+                    bytes.write(chunk, 0, chunk.length);
+                }
+            }
+        }
+
+        private CachedResponse toResponse(int status, HttpHeaders headers, long ttlNanos) {
+            if (bytes == null) {
+                return null;
+            }
+            ByteBuffer body = ByteBuffer.allocateDirect(bytes.size());
+            body.put(bytes.toByteArray()).flip();
+            HttpHeaders copy = new HttpHeaders();
+            headers.forEach((name, values) -> {
+                if (!HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name) && !CACHE_HEADER.equalsIgnoreCase(name)) {
+                    copy.put(name, new ArrayList<>(values));
+                }
+            });
+            return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(copy), body.asReadOnlyBuffer(),
+                    ttlNanos);
+        }
+    }
+
+    /**
+     * 回應快取的設定
+     */
+    public static class Config {
+
+        /**
+         * 快取存活時間
+         */
+        private Duration ttl = Duration.ofSeconds(60);
+
+        /**
+         * 納入快取 key 的查詢參數，空白時使用所有查詢參數
+         */
+        private List<String> queryParams = new ArrayList<>();
+
+        /**
+         * 納入快取 key 的 header
+         */
+        private List<String> headers = new ArrayList<>(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public List<String> getQueryParams() {
+            return queryParams;
+        }
+
+        public List<String> getHeaders() {
+            return headers;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public void setQueryParams(List<String> queryParams) {
+            this.queryParams = queryParams;
+        }
+
+        public void setHeaders(List<String> headers) {
+            this.headers = headers;
+        }
+    }
+}
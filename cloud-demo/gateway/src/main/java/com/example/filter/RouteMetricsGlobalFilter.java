@@ -0,0 +1,186 @@
+package com.example.filter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import java.net.ConnectException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.config.RouteMetricsProperties;
+import com.example.metrics.RouteLatencyWindow;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+/**
+ * 全域路由指標Filter，排在轉發到上游（NettyRoutingFilter）之前，量測的是上游延遲
+ *
+ * 每個路由記錄到 Micrometer：
+ * - gateway.route.upstream：請求數（速率）和延遲百分位，標籤 route / outcome / error
+ * - gateway.route.response.size：回應大小
+ * 同時寫入 RouteLatencyWindow，供 /actuator/slowroutes 查詢最近 N 分鐘最慢的路由。
+ *
+ * 標籤數量有上限：route 只用設定中的路由 id（超過 maxRoutes 時為 other），
+ * outcome 為狀態碼類別，error 只分成 none / timeout / connect / cancelled / other。
+ */
+@Component
+public class RouteMetricsGlobalFilter implements GlobalFilter, Ordered {
+
+    static final String NO_ROUTE = "none";
+
+    static final String OTHER_ROUTE = "other";
+
+    @Autowired
+    private RouteMetricsProperties routeMetricsProperties;
+
+    @Autowired
+    private RouteLatencyWindow routeLatencyWindow;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!routeMetricsProperties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        long startTime = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnSuccess(ignored -> record(exchange, startTime, ErrorClass.NONE))
+                .doOnError(error -> record(exchange, startTime, ErrorClass.of(error)))
+                .doOnCancel(() -> record(exchange, startTime, ErrorClass.CANCELLED));
+    }
+
+    private void record(ServerWebExchange exchange, long startTime, ErrorClass errorClass) {
+        long duration = System.nanoTime() - startTime;
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        String routeTag = routeTag(route);
+        ServerHttpResponse response = exchange.getResponse();
+        HttpStatusCode status = response.getStatusCode();
+        Outcome outcome = errorClass != ErrorClass.NONE && (status == null || status.is2xxSuccessful())
+                ? Outcome.SERVER_ERROR : Outcome.of(status);
+        long responseBytes = response.getHeaders().getContentLength();
+
+        RouteMeters routeMeters = meters.computeIfAbsent(routeTag, RouteMeters::new);
+        routeMeters.timer(outcome, errorClass).record(duration, TimeUnit.NANOSECONDS);
+        if (responseBytes >= 0) {
+            routeMeters.responseSize.record(responseBytes);
+        }
+        routeLatencyWindow.record(routeTag, duration, responseBytes,
+                errorClass != ErrorClass.NONE || outcome == Outcome.SERVER_ERROR);
+    }
+
+    private String routeTag(Route route) {
+        if (route == null) {
+            return NO_ROUTE;
+        }
+        String id = route.getId();
+        if (meters.containsKey(id) || meters.size() < routeMetricsProperties.getMaxRoutes()) {
+            return id;
+        }
+        return OTHER_ROUTE;
+    }
+
+    /**
+     * 單一路由的所有 Meter，outcome 和 error 的組合有限，建立後快取在陣列中，避免每次請求查找註冊表
+     */
+    private final class RouteMeters {
+
+        private final String route;
+
+        private final Timer[][] timers = new Timer[Outcome.values().length][ErrorClass.values().length];
+
+        private final DistributionSummary responseSize;
+
+        private RouteMeters(String route) {
+            this.route = route;
+            this.responseSize = DistributionSummary.builder("gateway.route.response.size")
+                    .description("Response body size per gateway route")
+                    .baseUnit("bytes")
+                    .tag("route", route)
+                    .register(meterRegistry);
+        }
+
+        private Timer timer(Outcome outcome, ErrorClass errorClass) {
+            Timer timer = timers[outcome.ordinal()][errorClass.ordinal()];
+            if (timer == null) {
+                // 同時建立時 MeterRegistry 回傳同一個 Timer
+                timer = Timer.builder("gateway.route.upstream")
+                        .description("Upstream latency per gateway route")
+                        .tags("route", route, "outcome", outcome.name(), "error", errorClass.tag)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry);
+                timers[outcome.ordinal()][errorClass.ordinal()] = timer;
+            }
+            return timer;
+        }
+    }
+
+    private enum Outcome {
+        INFORMATIONAL, SUCCESS, REDIRECTION, CLIENT_ERROR, SERVER_ERROR, UNKNOWN;
+
+        private static Outcome of(HttpStatusCode status) {
+            if (status == null) {
+                return UNKNOWN;
+            }
+            return switch (status.value() / 100) {
+                case 1 -> INFORMATIONAL;
+                case 2 -> SUCCESS;
+                case 3 -> REDIRECTION;
+                case 4 -> CLIENT_ERROR;
+                case 5 -> SERVER_ERROR;
+                default -> UNKNOWN;
+            };
+        }
+    }
+
+    private enum ErrorClass {
+        NONE("none"), TIMEOUT("timeout"), CONNECT("connect"), CANCELLED("cancelled"), OTHER("other");
+
+        private final String tag;
+
+        ErrorClass(String tag) {
+            this.tag = tag;
+        }
+
+        private static ErrorClass of(Throwable error) {
+            for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+                if (cause instanceof TimeoutException
+                        || cause instanceof io.netty.handler.timeout.TimeoutException) {
+                    return TIMEOUT;
+                }
+                if (cause instanceof ConnectException) {
+                    return CONNECT;
+                }
+                if (cause instanceof ResponseStatusException statusException
+                        && statusException.getStatusCode().value() == 504) {
+                    return TIMEOUT;
+                }
+            }
+            return OTHER;
+        }
+    }
+}
@@ -1,37 +1,58 @@
 package com.example.filter;
 
-import java.time.LocalDateTime;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 
-import lombok.extern.slf4j.Slf4j;
+import com.example.accesslog.AccessLogWriter;
+
 import reactor.core.publisher.Mono;
 
 /**
  * 全域自訂Filter，所有請求都會經過此Filter
  * 只要實作 GlobalFilter 就會是全域
+ *
+ * 記錄每個請求的耗時：事件迴圈上只取 nanoTime 和幾個欄位寫入環形緩衝區，
+ * 日誌格式化、輸出和延遲直方圖由 AccessLogWriter 的背景線程處理
  */
-@Slf4j
 @Component
 public class RtGlobalFilter implements GlobalFilter, Ordered {
 
+    @Autowired
+    private AccessLogWriter accessLogWriter;
+
+    /**
+     * 排在 ResponseCache filter 之前，命中回應快取的請求也會記錄
+     */
     @Override
     public int getOrder() {
-        return 0;
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        long startTime = System.currentTimeMillis();
-        log.info("請求【{}】開始時間:{} 路徑:{}", exchange.getRequest().getURI(), LocalDateTime.now(), exchange.getRequest().getPath());
-        return chain.filter(exchange).doFinally((res) -> {
-            long endTime = System.currentTimeMillis();
-            log.info("請求【{}】結束時間:{} 路徑:{} 耗時:{}ms", exchange.getRequest().getURI(), LocalDateTime.now(), exchange.getRequest().getPath(), endTime - startTime);
-        });
+        long startTime = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> record(exchange, startTime));
     }
 
+    private void record(ServerWebExchange exchange, long startTime) {
+        long endTime = System.nanoTime();
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+        HttpStatusCode status = response.getStatusCode();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        accessLogWriter.record(startTime, endTime, status != null ? status.value() : 0,
+                response.getHeaders().getContentLength(), route != null ? route.getId() : null,
+                request.getMethod(), request.getPath());
+    }
 }
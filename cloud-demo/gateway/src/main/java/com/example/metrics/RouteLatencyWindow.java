@@ -0,0 +1,198 @@
+package com.example.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * 每個路由最近 60 分鐘的延遲統計，每分鐘一個桶
+ *
+ * Micrometer 的 Timer 是從啟動以來的累計值，無法回答「最近 N 分鐘哪個路由最慢」，
+ * 這裡另外以分鐘桶保留請求數、錯誤數、總延遲、最大延遲和指數分布的延遲直方圖，
+ * 查詢時合併最近 N 個桶計算平均值和 p95。
+ * 分鐘切換時重設桶，與同時寫入的請求之間不加鎖，統計結果是近似值。
+ */
+@Component
+public class RouteLatencyWindow {
+
+    static final int MAX_MINUTES = 60;
+
+    /**
+     * 直方圖的上界：100 微秒起每個桶增加 50%，最後一個桶約 12 分鐘
+     */
+    private static final long[] BOUNDS_NANOS = new long[40];
+
+    static {
+        double bound = TimeUnit.MICROSECONDS.toNanos(100);
+        for (int i = 0; i < BOUNDS_NANOS.length; i++) {
+            BOUNDS_NANOS[i] = (long) bound;
+            bound *= 1.5;
+        }
+    }
+
+    private final Map<String, MinuteBucket[]> routes = new ConcurrentHashMap<>();
+
+    public void record(String route, long durationNanos, long responseBytes, boolean error) {
+        long minute = currentMinute();
+        MinuteBucket[] buckets = routes.computeIfAbsent(route, key -> newBuckets());
+        buckets[(int) (minute % MAX_MINUTES)].current(minute).record(durationNanos, responseBytes, error);
+    }
+
+    /**
+     * 最近 minutes 分鐘內依 p95 延遲由高到低排序的路由
+     */
+    public List<RouteLatencySummary> slowest(int minutes, int limit) {
+        int window = Math.max(1, Math.min(MAX_MINUTES, minutes));
+        long now = currentMinute();
+        List<RouteLatencySummary> summaries = new ArrayList<>();
+        routes.forEach((route, buckets) -> {
+            RouteLatencySummary summary = summarize(route, buckets, now, window);
+            if (summary.requests() > 0) {
+                summaries.add(summary);
+            }
+        });
+        summaries.sort(Comparator.comparingDouble(RouteLatencySummary::p95Millis)
+                .thenComparingDouble(RouteLatencySummary::avgMillis)
+                .reversed());
+        return summaries.size() > limit ? summaries.subList(0, limit) : summaries;
+    }
+
+    public int routeCount() {
+        return routes.size();
+    }
+
+    private static RouteLatencySummary summarize(String route, MinuteBucket[] buckets, long now, int window) {
+        long requests = 0;
+        long errors = 0;
+        long totalNanos = 0;
+        long maxNanos = 0;
+        long totalBytes = 0;
+        long[] histogram = new long[BOUNDS_NANOS.length];
+        for (MinuteBucket bucket : buckets) {
+            long age = now - bucket.minute;
+            if (age < 0 || age >= window) {
+                continue;
+            }
+            requests += bucket.count.sum();
+            errors += bucket.errors.sum();
+            totalNanos += bucket.totalNanos.sum();
+            totalBytes += bucket.totalBytes.sum();
+            maxNanos = Math.max(maxNanos, bucket.maxNanos.get());
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += bucket.histogram.get(i);
+            }
+        }
+        if (requests == 0) {
+            return new RouteLatencySummary(route, 0, 0, 0, 0, 0, 0, 0);
+        }
+        return new RouteLatencySummary(route, requests,
+                requests / (window * 60.0),
+                toMillis(totalNanos / (double) requests),
+                // 直方圖只能得到桶的上界，不超過實際的最大值
+                toMillis(Math.min(percentile(histogram, requests, 0.95), maxNanos)),
+                toMillis(maxNanos),
+                errors,
+                totalBytes / (double) requests);
+    }
+
+    private static long percentile(long[] histogram, long total, double percentile) {
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return BOUNDS_NANOS[i];
+            }
+        }
+        return BOUNDS_NANOS[BOUNDS_NANOS.length - 1];
+    }
+
+    private static double toMillis(double nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static int bucketIndex(long durationNanos) {
+        for (int i = 0; i < BOUNDS_NANOS.length - 1; i++) {
+            if (durationNanos <= BOUNDS_NANOS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS_NANOS.length - 1;
+    }
+
+    long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+    }
+
+    private static MinuteBucket[] newBuckets() {
+        MinuteBucket[] buckets = new MinuteBucket[MAX_MINUTES];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new MinuteBucket();
+        }
+        return buckets;
+    }
+
+    private static final class MinuteBucket {
+
+        private volatile long minute = -1;
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final LongAdder totalBytes = new LongAdder();
+
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private final AtomicLongArray histogram = new AtomicLongArray(BOUNDS_NANOS.length);
+
+        private MinuteBucket current(long currentMinute) {
+            if (minute != currentMinute) {
+                synchronized (this) {
+                    if (minute != currentMinute) {
+                        count.reset();
+                        errors.reset();
+                        totalNanos.reset();
+                        totalBytes.reset();
+                        maxNanos.set(0);
+                        for (int i = 0; i < histogram.length(); i++) {
+                            histogram.set(i, 0);
+                        }
+                        minute = currentMinute;
+                    }
+                }
+            }
+            return this;
+        }
+
+        private void record(long durationNanos, long responseBytes, boolean error) {
+            count.increment();
+            if (error) {
+                errors.increment();
+            }
+            totalNanos.add(durationNanos);
+            if (responseBytes > 0) {
+                totalBytes.add(responseBytes);
+            }
+            maxNanos.accumulateAndGet(durationNanos, Math::max);
+            histogram.incrementAndGet(bucketIndex(durationNanos));
+        }
+    }
+
+    /**
+     * 單一路由在統計區間內的延遲摘要
+     */
+    public record RouteLatencySummary(String route, long requests, double requestsPerSecond, double avgMillis,
+                                      double p95Millis, double maxMillis, long errors, double avgResponseBytes) {
+    }
+}
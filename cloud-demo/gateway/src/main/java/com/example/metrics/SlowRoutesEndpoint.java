@@ -0,0 +1,35 @@
+package com.example.metrics;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.example.config.RouteMetricsProperties;
+
+/**
+ * 最近 N 分鐘最慢的路由，依上游 p95 延遲排序
+ * GET /actuator/slowroutes?minutes=5&limit=10
+ */
+@Component
+@Endpoint(id = "slowroutes")
+public class SlowRoutesEndpoint {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    @Autowired
+    private RouteLatencyWindow routeLatencyWindow;
+
+    @Autowired
+    private RouteMetricsProperties routeMetricsProperties;
+
+    @ReadOperation
+    public List<RouteLatencyWindow.RouteLatencySummary> slowestRoutes(@Nullable Integer minutes,
+                                                                     @Nullable Integer limit) {
+        return routeLatencyWindow.slowest(minutes != null ? minutes : routeMetricsProperties.getWindowMinutes(),
+                limit != null && limit > 0 ? limit : DEFAULT_LIMIT);
+    }
+}
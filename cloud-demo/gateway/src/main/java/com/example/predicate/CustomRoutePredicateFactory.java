@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.function.Predicate;
 
 import org.springframework.cloud.gateway.handler.predicate.AbstractRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.GatewayPredicate;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
@@ -33,20 +34,75 @@ public class CustomRoutePredicateFactory extends AbstractRoutePredicateFactory<C
 
     /**
      * 自訂參數的規則
-     * 規則的值寫在application中
+     * 規則的值寫在application中，建立路由時就算好要比對的內容，不在每個請求重新處理設定
      */
     @Override
     public Predicate<ServerWebExchange> apply(Config config) {
-        return new Predicate<ServerWebExchange>() {
+        return new QueryValuePredicate(config);
+    }
+
+    /**
+     * 查詢參數 param 的第一個值等於 value
+     * 查詢字串沒有編碼字元（% +）時直接在原始字串上比對，不解析整個查詢字串；
+     * 有編碼字元時才用 getQueryParams 解碼後比對，結果與 getQueryParams().getFirst 相同
+     */
+    static final class QueryValuePredicate implements GatewayPredicate {
 
-            @Override
-            public boolean test(ServerWebExchange exchange) {
-                ServerHttpRequest request = exchange.getRequest();
-                String paramValue = request.getQueryParams().getFirst(config.getParam());
-                return paramValue != null && paramValue.equals(config.getValue());
+        private final Config config;
+
+        private final String param;
+
+        private final String value;
+
+        QueryValuePredicate(Config config) {
+            this.config = config;
+            this.param = config.getParam();
+            this.value = config.getValue();
+        }
+
+        @Override
+        public boolean test(ServerWebExchange exchange) {
+            ServerHttpRequest request = exchange.getRequest();
+            String query = request.getURI().getRawQuery();
+            if (query == null || query.isEmpty()) {
+                return false;
+            }
+            if (query.indexOf('%') >= 0 || query.indexOf('+') >= 0) {
+                return value.equals(request.getQueryParams().getFirst(param));
             }
+            int start = 0;
+            while (start < query.length()) {
+                int end = query.indexOf('&', start);
+                if (end < 0) {
+                    end = query.length();
+                }
+                if (end > start) {
+                    if (query.charAt(start) == '=') {
+                        // 沒有參數名稱的片段，交給 getQueryParams 的解析規則處理
+                        return value.equals(request.getQueryParams().getFirst(param));
+                    }
+                    int eq = query.indexOf('=', start);
+                    int nameEnd = eq >= 0 && eq < end ? eq : end;
+                    if (nameEnd - start == param.length() && query.startsWith(param, start)) {
+                        // 只比對第一個同名參數
+                        return nameEnd < end && end - nameEnd - 1 == value.length()
+                                && query.startsWith(value, nameEnd + 1);
+                    }
+                }
+                start = end + 1;
+            }
+            return false;
+        }
 
-        };
+        @Override
+        public Object getConfig() {
+            return config;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Custom: %s=%s", param, value);
+        }
     }
 
     /**
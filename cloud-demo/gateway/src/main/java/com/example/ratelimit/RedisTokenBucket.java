@@ -0,0 +1,50 @@
+package com.example.ratelimit;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import com.example.config.RateLimitProperties;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 存在 Redis 的令牌桶，所有 Gateway 實例共用
+ * 以 Lua 腳本原子地補充令牌並一次借出一批，腳本 -> resources/scripts/token_bucket_borrow.lua
+ */
+@Component
+public class RedisTokenBucket {
+
+    private static final RedisScript<Long> BORROW_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/token_bucket_borrow.lua"), Long.class);
+
+    @Autowired
+    private ReactiveStringRedisTemplate redisTemplate;
+
+    @Autowired
+    private RateLimitProperties rateLimitProperties;
+
+    /**
+     * 從桶中借出最多 requested 個令牌
+     *
+     * @param key           桶的 key，例如 order-route 或 order-route:user-1
+     * @param replenishRate 每秒補充的令牌數
+     * @param capacity      桶容量
+     * @param requested     要借的令牌數
+     * @return 實際借出的令牌數
+     */
+    public Mono<Long> borrow(String key, int replenishRate, int capacity, int requested) {
+        // {key} 讓兩個 key 在 Redis Cluster 中落在同一個 slot
+        String prefix = rateLimitProperties.getKeyPrefix() + ":{" + key + "}";
+        List<String> keys = List.of(prefix + ".tokens", prefix + ".timestamp");
+        return redisTemplate.execute(BORROW_SCRIPT, keys,
+                        List.of(String.valueOf(replenishRate), String.valueOf(capacity),
+                                String.valueOf(System.currentTimeMillis()), String.valueOf(requested)))
+                .next()
+                .defaultIfEmpty(0L);
+    }
+}
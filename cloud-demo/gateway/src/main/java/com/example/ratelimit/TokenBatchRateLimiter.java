@@ -0,0 +1,242 @@
+package com.example.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 分散式限流，令牌存在 Redis（RedisTokenBucket），每個 Gateway 實例在本地預取一批令牌
+ *
+ * 1. 本地還有令牌時直接扣除放行，不需要調用 Redis
+ * 2. 本地令牌用完時向 Redis 借一批（batchSize 個），同一個桶同時只有一個借用請求，
+ *    等待中的請求共用借用結果；借不到令牌時拒絕，並在下一個令牌產生前不再調用 Redis
+ * 3. 剩餘令牌低於一批的 prefetchRatio 時在背景先借下一批，請求不需要等待 Redis
+ * 4. 本地令牌超過 localTokenTtlMillis 未用完即丟棄，避免單一實例囤積令牌，
+ *    代價是整體放行的請求數可能略低於設定的速率
+ * 5. Redis 逾時或錯誤時依 failOpen 決定放行或拒絕
+ *
+ * 每個路由記錄到 Micrometer：gateway.ratelimit.admitted / rejected / borrowed（向 Redis 借到的令牌數）/ redis.errors
+ */
+@Slf4j
+@Component
+public class TokenBatchRateLimiter {
+
+    private static final Mono<Boolean> ADMITTED = Mono.just(Boolean.TRUE);
+
+    private static final Mono<Boolean> REJECTED = Mono.just(Boolean.FALSE);
+
+    /**
+     * 借用失敗時 borrow 回傳的值
+     */
+    private static final long BORROW_FAILED = -1;
+
+    @Autowired
+    private RateLimitProperties rateLimitProperties;
+
+    @Autowired
+    private RedisTokenBucket redisTokenBucket;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, LocalBucket> buckets;
+
+    private final Map<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        buckets = Caffeine.newBuilder()
+                .maximumSize(rateLimitProperties.getMaxLocalBuckets())
+                .expireAfterAccess(Duration.ofMinutes(1))
+                .build();
+    }
+
+    /**
+     * 取得一個令牌
+     *
+     * @param routeId 路由 id，作為指標的標籤
+     * @param key     令牌桶的 key，以路由限流時為路由 id，以使用者限流時加上使用者
+     * @param limit   此桶的速率和容量
+     * @return 是否放行
+     */
+    public Mono<Boolean> tryAcquire(String routeId, String key, Limit limit) {
+        RouteMeters routeMeters = meters.computeIfAbsent(routeId, RouteMeters::new);
+        LocalBucket bucket = buckets.get(key, LocalBucket::new);
+        long now = nanoTime();
+        Mono<Long> borrowing;
+        synchronized (bucket) {
+            if (bucket.take(now)) {
+                boolean prefetch = bucket.tokens < limit.batchSize() * rateLimitProperties.getPrefetchRatio();
+                if (prefetch && bucket.borrowing == null) {
+                    startBorrow(bucket, limit, routeMeters).subscribe();
+                }
+                routeMeters.admitted.increment();
+                return ADMITTED;
+            }
+            if (bucket.isExhausted(now)) {
+                routeMeters.rejected.increment();
+                return REJECTED;
+            }
+            borrowing = bucket.borrowing != null ? bucket.borrowing : startBorrow(bucket, limit, routeMeters);
+        }
+        return borrowing.map(granted -> {
+            boolean admitted;
+            if (granted == BORROW_FAILED) {
+                admitted = rateLimitProperties.isFailOpen();
+            } else {
+                synchronized (bucket) {
+                    admitted = bucket.take(nanoTime());
+                }
+            }
+            (admitted ? routeMeters.admitted : routeMeters.rejected).increment();
+            return admitted;
+        });
+    }
+
+    /**
+     * 向 Redis 借一批令牌，呼叫時必須持有 bucket 的鎖
+     */
+    private Mono<Long> startBorrow(LocalBucket bucket, Limit limit, RouteMeters routeMeters) {
+        Mono<Long> borrowing = redisTokenBucket
+                .borrow(bucket.key, limit.replenishRate(), limit.burstCapacity(), limit.batchSize())
+                .timeout(Duration.ofMillis(rateLimitProperties.getRedisTimeoutMillis()))
+                .onErrorResume(e -> {
+                    log.warn("Borrow tokens from redis failed, key: {}, error: {}", bucket.key, e.toString());
+                    routeMeters.redisErrors.increment();
+                    return Mono.just(BORROW_FAILED);
+                })
+                .map(granted -> {
+                    synchronized (bucket) {
+                        bucket.borrowing = null;
+                        if (granted > 0) {
+                            routeMeters.borrowed.increment(granted);
+                            bucket.refill(granted, nanoTime() + TimeUnit.MILLISECONDS.toNanos(
+                                    rateLimitProperties.getLocalTokenTtlMillis()));
+                        } else if (granted == 0) {
+                            // 桶已空，下一個令牌產生前直接拒絕
+                            bucket.exhausted(nanoTime() + TimeUnit.SECONDS.toNanos(1) / limit.replenishRate());
+                        }
+                    }
+                    return granted;
+                })
+                .cache();
+        bucket.borrowing = borrowing;
+        return borrowing;
+    }
+
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 令牌桶的速率和容量
+     *
+     * @param replenishRate 每秒補充的令牌數
+     * @param burstCapacity 桶容量，允許的瞬間突發請求數
+     * @param batchSize     每次向 Redis 借的令牌數
+     */
+    public record Limit(int replenishRate, int burstCapacity, int batchSize) {
+
+        public Limit {
+            if (replenishRate <= 0 || burstCapacity <= 0) {
+                throw new IllegalArgumentException("replenishRate and burstCapacity must be positive");
+            }
+            batchSize = Math.max(1, Math.min(batchSize, burstCapacity));
+        }
+    }
+
+    /**
+     * 本地預取的令牌，所有欄位在持有此物件的鎖時存取
+     */
+    private static final class LocalBucket {
+
+        private final String key;
+
+        private long tokens;
+
+        private long expiresAt;
+
+        private boolean exhausted;
+
+        private long exhaustedUntil;
+
+        private Mono<Long> borrowing;
+
+        private LocalBucket(String key) {
+            this.key = key;
+        }
+
+        private boolean take(long now) {
+            if (tokens > 0 && now - expiresAt >= 0) {
+                tokens = 0;
+            }
+            if (tokens == 0) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private void refill(long granted, long expiresAt) {
+            this.tokens += granted;
+            this.expiresAt = expiresAt;
+            this.exhausted = false;
+        }
+
+        private void exhausted(long until) {
+            this.exhausted = true;
+            this.exhaustedUntil = until;
+        }
+
+        private boolean isExhausted(long now) {
+            return exhausted && now - exhaustedUntil < 0;
+        }
+    }
+
+    /**
+     * 單一路由的限流指標
+     */
+    private final class RouteMeters {
+
+        private final Counter admitted;
+
+        private final Counter rejected;
+
+        private final Counter borrowed;
+
+        private final Counter redisErrors;
+
+        private RouteMeters(String route) {
+            admitted = Counter.builder("gateway.ratelimit.admitted")
+                    .description("Requests admitted by the rate limiter")
+                    .tag("route", route)
+                    .register(meterRegistry);
+            rejected = Counter.builder("gateway.ratelimit.rejected")
+                    .description("Requests rejected by the rate limiter")
+                    .tag("route", route)
+                    .register(meterRegistry);
+            borrowed = Counter.builder("gateway.ratelimit.borrowed")
+                    .description("Tokens borrowed from the redis token bucket")
+                    .tag("route", route)
+                    .register(meterRegistry);
+            redisErrors = Counter.builder("gateway.ratelimit.redis.errors")
+                    .description("Failed or timed out token borrows from redis")
+                    .tag("route", route)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.route;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.config.RouteIndexProperties;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 以 RouteIndex 查找路由的 HandlerMapping，取代 Gateway 預設的 RoutePredicateHandlerMapping
+ *
+ * 預設實作對每個請求依序執行所有路由的斷言；這裡先用請求路徑在 RouteIndex 中取出候選路由，
+ * 再依原本的順序執行候選路由的完整斷言，第一個通過的就是匹配的路由。
+ * 索引在第一次查找時建立，路由刷新（RefreshRoutesEvent）完成後重建。
+ */
+@Component
+public class IndexedRoutePredicateHandlerMapping extends RoutePredicateHandlerMapping {
+
+    private final RouteLocator routeLocator;
+
+    private final RouteDefinitionLocator routeDefinitionLocator;
+
+    @Autowired
+    private RouteIndexProperties routeIndexProperties;
+
+    private volatile Mono<RouteIndex> routeIndex;
+
+    public IndexedRoutePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator,
+                                               RouteDefinitionLocator routeDefinitionLocator,
+                                               GlobalCorsProperties globalCorsProperties, Environment environment) {
+        super(webHandler, routeLocator, globalCorsProperties, environment);
+        this.routeLocator = routeLocator;
+        this.routeDefinitionLocator = routeDefinitionLocator;
+        this.routeIndex = buildIndex();
+    }
+
+    @Override
+    protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
+        if (!routeIndexProperties.isEnabled()) {
+            return super.lookupRoute(exchange);
+        }
+        return routeIndex
+                .flatMap(index -> Flux.fromIterable(
+                                index.candidates(exchange.getRequest().getPath().pathWithinApplication()))
+                        .concatMap(route -> Mono.just(route)
+                                .filterWhen(candidate -> {
+                                    exchange.getAttributes().put(GATEWAY_PREDICATE_ROUTE_ATTR, candidate.getId());
+                                    return candidate.getPredicate().apply(exchange);
+                                })
+                                .doOnError(e -> logger.error("Error applying predicate for route: " + route.getId(), e))
+                                .onErrorResume(e -> Mono.empty()))
+                        .next())
+                .map(route -> {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Route matched: " + route.getId());
+                    }
+                    validateRoute(route, exchange);
+                    return route;
+                });
+    }
+
+    /**
+     * CachingRouteLocator 刷新完成後重建索引，刷新失敗時路由沒有變動，沿用舊索引
+     */
+    @EventListener
+    public void onRefreshRoutesResult(RefreshRoutesResultEvent event) {
+        if (event.isSuccess()) {
+            routeIndex = buildIndex();
+        }
+    }
+
+    private Mono<RouteIndex> buildIndex() {
+        return Mono.zip(routeLocator.getRoutes().collectList(),
+                        routeDefinitionLocator.getRouteDefinitions().collectMap(RouteDefinition::getId))
+                .map(tuple -> RouteIndex.build(tuple.getT1(), tuple.getT2()))
+                .doOnNext(index -> logger.info("Route index built: " + index.getRoutes().size() + " routes, "
+                        + index.unindexedCount() + " without path prefix"))
+                // 建立失敗（例如路由定義來源暫時無法讀取）不快取，下一個請求重試
+                .cache(index -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+}
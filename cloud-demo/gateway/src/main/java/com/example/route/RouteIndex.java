@@ -0,0 +1,189 @@
+package com.example.route;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.support.NameUtils;
+import org.springframework.http.server.PathContainer;
+
+/**
+ * 路由索引：以 Path 斷言的固定前綴建立路徑字典樹
+ *
+ * 預設的 RoutePredicateHandlerMapping 對每個請求依序執行所有路由的斷言，路由數增加時成本線性成長。
+ * 這裡把每個路由 Path 斷言中第一個萬用字元（* ? {）之前的路徑段放進字典樹，
+ * 查詢時沿著請求路徑走訪字典樹，只取出前綴相符的路由，再照原本的順序執行完整斷言，
+ * 走訪成本取決於請求路徑的段數和候選路由數，幾乎不隨路由總數增加。
+ *
+ * 沒有 Path 斷言、或 Path 無法解析（SpEL、非 / 開頭、含編碼字元）的路由一律列為候選，
+ * 候選集合一定包含所有可能匹配的路由，匹配結果與線性走訪相同。
+ */
+public final class RouteIndex {
+
+    private static final String PATH_PREDICATE = NameUtils.normalizeRoutePredicateName(PathRoutePredicateFactory.class);
+
+    private final List<Route> routes;
+
+    private final Node root;
+
+    /**
+     * 無法索引、每次都要檢查的路由位置
+     */
+    private final int[] unindexed;
+
+    private RouteIndex(List<Route> routes, Node root, int[] unindexed) {
+        this.routes = routes;
+        this.root = root;
+        this.unindexed = unindexed;
+    }
+
+    /**
+     * 以 RouteLocator 排序後的路由和對應的路由定義建立索引
+     *
+     * @param routes      依 order 排序的路由
+     * @param definitions 路由 id -> 路由定義，找不到定義的路由（例如 Java DSL 建立的）不索引
+     */
+    public static RouteIndex build(List<Route> routes, Map<String, RouteDefinition> definitions) {
+        Node root = new Node();
+        List<Integer> unindexed = new ArrayList<>();
+        for (int i = 0; i < routes.size(); i++) {
+            List<String> patterns = pathPatterns(definitions.get(routes.get(i).getId()));
+            if (patterns == null) {
+                unindexed.add(i);
+                continue;
+            }
+            for (String pattern : patterns) {
+                Node node = root;
+                for (String segment : literalPrefix(pattern)) {
+                    node = node.children.computeIfAbsent(segment, key -> new Node());
+                }
+                node.add(i);
+            }
+        }
+        return new RouteIndex(List.copyOf(routes), root.compact(),
+                unindexed.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * 可能匹配此路徑的路由，保持路由原本的順序
+     */
+    public List<Route> candidates(PathContainer path) {
+        if (routes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // 同一路由有多個 pattern 時可能出現在走訪路徑上的多個節點，用 BitSet 去重並保持順序
+        BitSet positions = new BitSet(routes.size());
+        mark(unindexed, positions);
+        Node node = root;
+        mark(node.routes, positions);
+        for (PathContainer.Element element : path.elements()) {
+            if (!(element instanceof PathContainer.PathSegment segment)) {
+                continue;
+            }
+            node = node.children.get(segment.valueToMatch());
+            if (node == null) {
+                break;
+            }
+            mark(node.routes, positions);
+        }
+        List<Route> candidates = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            candidates.add(routes.get(i));
+        }
+        return candidates;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public int unindexedCount() {
+        return unindexed.length;
+    }
+
+    private static void mark(int[] source, BitSet positions) {
+        for (int position : source) {
+            positions.set(position);
+        }
+    }
+
+    /**
+     * 路由定義中 Path 斷言的所有 pattern，無法索引時回傳 null
+     * 多個 Path 斷言是 AND 關係，只取第一個即可縮小候選範圍
+     */
+    static List<String> pathPatterns(RouteDefinition definition) {
+        if (definition == null) {
+            return null;
+        }
+        for (PredicateDefinition predicate : definition.getPredicates()) {
+            if (!PATH_PREDICATE.equals(predicate.getName())) {
+                continue;
+            }
+            List<String> patterns = new ArrayList<>();
+            for (Map.Entry<String, String> arg : predicate.getArgs().entrySet()) {
+                if (arg.getKey().startsWith("matchTrailingSlash")) {
+                    continue;
+                }
+                for (String pattern : arg.getValue().split(",")) {
+                    pattern = pattern.trim();
+                    if (!pattern.startsWith("/") || pattern.indexOf('%') >= 0) {
+                        return null;
+                    }
+                    patterns.add(pattern);
+                }
+            }
+            return patterns.isEmpty() ? null : patterns;
+        }
+        return null;
+    }
+
+    /**
+     * pattern 中第一個萬用字元所在的路徑段之前的固定路徑段，例如 /api/product/** -> [api, product]
+     */
+    static List<String> literalPrefix(String pattern) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : pattern.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0
+                    || segment.indexOf(';') >= 0) {
+                break;
+            }
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    private static final class Node {
+
+        private Map<String, Node> children = new HashMap<>();
+
+        private int[] routes = new int[0];
+
+        private void add(int position) {
+            if (routes.length > 0 && routes[routes.length - 1] == position) {
+                return;
+            }
+            routes = Arrays.copyOf(routes, routes.length + 1);
+            routes[routes.length - 1] = position;
+        }
+
+        /**
+         * 建立完成後改為不可變的 Map，查詢時不需同步
+         */
+        private Node compact() {
+            children.values().forEach(Node::compact);
+            children = Map.copyOf(children);
+            return this;
+        }
+    }
+}
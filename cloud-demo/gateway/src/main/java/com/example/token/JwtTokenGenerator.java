@@ -0,0 +1,70 @@
+package com.example.token;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * 以 HMAC-SHA256（HS256）簽章的 JWT
+ *
+ * 簽章金鑰只在建立時解析一次；Mac 不是線程安全的，每個線程從原型 clone 一個重複使用，
+ * 請求時不再呼叫 Mac.getInstance / init。header 固定，建立時就先編碼好。
+ * claims：iss、iat、exp、jti（TimeOrderedIdGenerator 產生）
+ */
+public final class JwtTokenGenerator implements TokenGenerator {
+
+    static final String ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final String encodedHeader;
+
+    private final String issuer;
+
+    private final long ttlSeconds;
+
+    private final TokenGenerator idGenerator;
+
+    private final ThreadLocal<Mac> mac;
+
+    public JwtTokenGenerator(byte[] secret, String keyId, String issuer, long ttlSeconds, TokenGenerator idGenerator) {
+        Mac prototype;
+        try {
+            prototype = Mac.getInstance(ALGORITHM);
+            prototype.init(new SecretKeySpec(secret, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to init jwt signing key", e);
+        }
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException("Mac is not cloneable: " + prototype.getProvider(), e);
+            }
+        });
+        String header = keyId != null && !keyId.isEmpty()
+                ? "{\"alg\":\"HS256\",\"typ\":\"JWT\",\"kid\":\"" + keyId + "\"}"
+                : "{\"alg\":\"HS256\",\"typ\":\"JWT\"}";
+        this.encodedHeader = encode(header.getBytes(StandardCharsets.UTF_8));
+        this.issuer = issuer;
+        this.ttlSeconds = ttlSeconds;
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public String next() {
+        long now = System.currentTimeMillis() / 1000;
+        String claims = "{\"iss\":\"" + issuer + "\",\"iat\":" + now + ",\"exp\":" + (now + ttlSeconds)
+                + ",\"jti\":\"" + idGenerator.next() + "\"}";
+        String signingInput = encodedHeader + "." + encode(claims.getBytes(StandardCharsets.UTF_8));
+        byte[] signature = mac.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + encode(signature);
+    }
+
+    private static String encode(byte[] bytes) {
+        return ENCODER.encodeToString(bytes);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.token;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 依時間排序的 id，32 個十六進位字元（128 bits），不使用 SecureRandom，適合高流量下當作請求 id
+ *
+ * - 前 48 bits：產生時間（毫秒），id 大致依時間排序
+ * - 16 bits：線程編號，每個線程各自產生，不需要同步
+ * - 32 bits：實例編號，啟動時隨機產生一次，區分不同的 Gateway 實例
+ * - 32 bits：線程內的流水號
+ *
+ * 不是加密用的隨機值，無法防止猜測，需要無法預測的 token 時使用 uuid 或 jwt。
+ */
+public final class TimeOrderedIdGenerator implements TokenGenerator {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final AtomicInteger THREAD_SLOTS = new AtomicInteger();
+
+    private final long instanceId = (long) new SecureRandom().nextInt() << 32;
+
+    private final ThreadLocal<ThreadState> state = ThreadLocal.withInitial(
+            () -> new ThreadState(THREAD_SLOTS.getAndIncrement() & 0xFFFF));
+
+    @Override
+    public String next() {
+        ThreadState thread = state.get();
+        long high = (System.currentTimeMillis() << 16) | thread.slot;
+        long low = instanceId | (thread.sequence++ & 0xFFFFFFFFL);
+        char[] chars = thread.chars;
+        toHex(high, chars, 0);
+        toHex(low, chars, 16);
+        return new String(chars);
+    }
+
+    private static void toHex(long value, char[] chars, int offset) {
+        for (int i = 15; i >= 0; i--) {
+            chars[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private static final class ThreadState {
+
+        private final int slot;
+
+        private int sequence;
+
+        private final char[] chars = new char[32];
+
+        private ThreadState(int slot) {
+            this.slot = slot;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.token;
+
+/**
+ * OnceToken 的 token 產生方式，在 OnceTokenGatewayFilterFactory.apply 時決定，請求時只呼叫 next()
+ */
+@FunctionalInterface
+public interface TokenGenerator {
+
+    String next();
+}
@@ -0,0 +1,34 @@
+-- 令牌桶：一次借出最多 requested 個令牌 -> RedisTokenBucket.java
+-- KEYS[1] 剩餘令牌數，KEYS[2] 上次補充的時間（毫秒）
+-- ARGV[1] 每秒補充的令牌數，ARGV[2] 桶容量，ARGV[3] 現在時間（毫秒），ARGV[4] 要借的令牌數
+-- 回傳實際借出的令牌數，0 表示桶已空
+local tokens_key = KEYS[1]
+local timestamp_key = KEYS[2]
+
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+local now = tonumber(ARGV[3])
+local requested = tonumber(ARGV[4])
+
+-- 桶從空到滿所需時間的兩倍後過期，過期等同於桶已補滿
+local ttl = math.max(1, math.ceil(capacity / rate * 2))
+
+local last_tokens = tonumber(redis.call("get", tokens_key))
+if last_tokens == nil then
+  last_tokens = capacity
+end
+
+local last_refreshed = tonumber(redis.call("get", timestamp_key))
+if last_refreshed == nil then
+  last_refreshed = now
+end
+
+-- 各實例的時鐘可能有些微差距，時間不往回走
+local refreshed = math.max(now, last_refreshed)
+local filled = math.min(capacity, last_tokens + (refreshed - last_refreshed) * rate / 1000)
+local granted = math.max(0, math.min(requested, math.floor(filled)))
+
+redis.call("setex", tokens_key, ttl, filled - granted)
+redis.call("setex", timestamp_key, ttl, refreshed)
+
+return granted
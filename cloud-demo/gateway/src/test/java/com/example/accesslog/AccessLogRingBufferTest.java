@@ -0,0 +1,137 @@
+package com.example.accesslog;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * AccessLogRingBuffer 單元測試
+ * 測試容量調整、依序讀取、緩衝區滿時丟棄，以及多個寫入端並發寫入時每筆紀錄恰好讀到一次
+ */
+@DisplayName("AccessLogRingBuffer 存取日誌環形緩衝區測試")
+class AccessLogRingBufferTest {
+
+    @Test
+    @DisplayName("容量調整為不小於要求的 2 的次方，最小為 4")
+    void testCapacityRoundedUpToPowerOfTwo() {
+        assertEquals(4, new AccessLogRingBuffer(1).capacity());
+        assertEquals(8, new AccessLogRingBuffer(5).capacity());
+        assertEquals(8, new AccessLogRingBuffer(8).capacity());
+        assertEquals(16384, new AccessLogRingBuffer(16384).capacity());
+    }
+
+    @Test
+    @DisplayName("依寫入順序讀出全部欄位，讀完後沒有紀錄")
+    void testPollInOrder() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(8);
+        assertTrue(buffer.offer(100, 10, 200, 512, "order-route", "GET", "/api/order/1"));
+        assertTrue(buffer.offer(200, 20, 404, -1, null, "POST", "/unknown"));
+        assertEquals(2, buffer.size());
+
+        List<String> records = new ArrayList<>();
+        AccessLogRingBuffer.Consumer consumer = (start, duration, status, bytes, route, method, path) ->
+                records.add(String.join(" ", String.valueOf(start), String.valueOf(duration), String.valueOf(status),
+                        String.valueOf(bytes), route, String.valueOf(method), String.valueOf(path)));
+        assertTrue(buffer.poll(consumer));
+        assertTrue(buffer.poll(consumer));
+        assertFalse(buffer.poll(consumer));
+
+        assertEquals(List.of("100 10 200 512 order-route GET /api/order/1", "200 20 404 -1 null POST /unknown"),
+                records);
+        assertEquals(0, buffer.size());
+        // 讀取後釋放請求物件的參考
+        assertArrayEquals(new Object[8], (Object[]) ReflectionTestUtils.getField(buffer, "path"));
+    }
+
+    @Test
+    @DisplayName("緩衝區滿時 offer 回傳 false 且不覆蓋未讀的紀錄，讀出後可以再寫入")
+    void testOfferRejectedWhenFull() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i, 0, 200, 0, "r", "GET", "/" + i));
+        }
+
+        assertFalse(buffer.offer(4, 0, 200, 0, "r", "GET", "/4"));
+        assertEquals(4, buffer.size());
+
+        List<Long> starts = new ArrayList<>();
+        assertTrue(buffer.poll((start, duration, status, bytes, route, method, path) -> starts.add(start)));
+        assertTrue(buffer.offer(5, 0, 200, 0, "r", "GET", "/5"));
+        assertFalse(buffer.offer(6, 0, 200, 0, "r", "GET", "/6"));
+        while (buffer.poll((start, duration, status, bytes, route, method, path) -> starts.add(start))) {
+            // 讀完為止
+        }
+
+        // 繞回開頭的位置後仍依序讀出，被拒絕的紀錄不會出現
+        assertEquals(List.of(0L, 1L, 2L, 3L, 5L), starts);
+    }
+
+    @Test
+    @DisplayName("多個寫入端並發寫入，單一讀取端讀到每筆紀錄恰好一次且各寫入端的順序不變")
+    void testConcurrentOffer() throws Exception {
+        int producers = 4;
+        int perProducer = 10_000;
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(256);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int rejected = 0;
+                    for (int i = 0; i < perProducer; i++) {
+                        // 緩衝區小於總筆數，滿時重試，讓寫入端和讀取端交錯經過同一個位置
+                        while (!buffer.offer(producer, i, 200, i, "r", "GET", "/")) {
+                            rejected++;
+                            Thread.yield();
+                        }
+                    }
+                    return rejected;
+                }));
+            }
+            start.countDown();
+
+            long[] next = new long[producers];
+            int received = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (received < producers * perProducer) {
+                assertTrue(System.nanoTime() < deadline, "讀取端未在時間內讀完全部紀錄");
+                boolean polled = buffer.poll((producer, sequence, status, bytes, route, method, path) -> {
+                    int p = (int) producer;
+                    assertEquals(next[p], sequence, "同一寫入端的紀錄應依序讀出");
+                    assertEquals(sequence, bytes, "同一筆紀錄的欄位應一起發布");
+                    next[p]++;
+                });
+                if (polled) {
+                    received++;
+                } else {
+                    Thread.yield();
+                }
+            }
+            for (Future<Integer> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+
+            for (long count : next) {
+                assertEquals(perProducer, count);
+            }
+            assertEquals(0, buffer.size());
+            assertFalse(buffer.poll((producer, sequence, status, bytes, route, method, path) ->
+                    fail("不應有多餘的紀錄")));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.accesslog;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.config.AccessLogProperties;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * AccessLogWriter 單元測試
+ * 測試寫入線程取出紀錄並按路由記錄延遲、緩衝區滿時的丟棄計數，以及關閉時先寫完緩衝區中的紀錄
+ */
+@DisplayName("AccessLogWriter 存取日誌寫入器測試")
+class AccessLogWriterTest {
+
+    private AccessLogProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AccessLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AccessLogProperties();
+        properties.setBufferSize(8);
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new AccessLogWriter();
+        ReflectionTestUtils.setField(writer, "accessLogProperties", properties);
+        ReflectionTestUtils.setField(writer, "meterRegistry", meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.destroy();
+    }
+
+    @Test
+    @DisplayName("寫入線程取出紀錄並按路由記錄延遲，沒有路由的請求記在 none")
+    void testRecordsDrainedIntoLatencyTimers() throws Exception {
+        writer.init();
+
+        writer.record(0, TimeUnit.MILLISECONDS.toNanos(5), 200, 128, "order-route", "GET", "/api/order/1");
+        writer.record(0, TimeUnit.MILLISECONDS.toNanos(15), 200, -1, "order-route", "GET", "/api/order/2");
+        writer.record(0, TimeUnit.MILLISECONDS.toNanos(1), 404, 0, null, "GET", "/unknown");
+
+        awaitPending(0);
+        Timer orderTimer = meterRegistry.get("gateway.access.latency").tag("route", "order-route").timer();
+        assertEquals(2, orderTimer.count());
+        assertEquals(20, orderTimer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, meterRegistry.get("gateway.access.latency").tag("route", AccessLogWriter.NO_ROUTE)
+                .timer().count());
+        assertEquals(0, meterRegistry.get("gateway.access.log.dropped").counter().count());
+    }
+
+    @Test
+    @DisplayName("寫入線程跟不上時丟棄超出緩衝區的紀錄並計數，關閉時寫完已緩衝的紀錄")
+    void testDropWhenFullAndDrainOnShutdown() throws Exception {
+        // 寫入線程閒置時長時間休眠，讓紀錄堆積在緩衝區中
+        properties.setIdleSleepMillis(TimeUnit.MINUTES.toMillis(1));
+        writer.init();
+        Thread writerThread = (Thread) ReflectionTestUtils.getField(writer, "writerThread");
+        awaitState(writerThread, Thread.State.TIMED_WAITING);
+
+        for (int i = 0; i < 11; i++) {
+            writer.record(0, TimeUnit.MILLISECONDS.toNanos(1), 200, 0, "order-route", "GET", "/api/order/" + i);
+        }
+        assertEquals(8, meterRegistry.get("gateway.access.log.pending").gauge().value());
+        assertEquals(3, meterRegistry.get("gateway.access.log.dropped").counter().count());
+
+        writer.destroy();
+
+        assertFalse(writerThread.isAlive());
+        assertEquals(0, meterRegistry.get("gateway.access.log.pending").gauge().value());
+        assertEquals(8, meterRegistry.get("gateway.access.latency").tag("route", "order-route").timer().count());
+    }
+
+    private void awaitPending(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("gateway.access.log.pending").gauge().value() != expected
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        // 紀錄寫完才推進讀取序號，待處理數歸零時延遲已經記錄
+        assertEquals(expected, meterRegistry.get("gateway.access.log.pending").gauge().value());
+    }
+
+    private static void awaitState(Thread thread, Thread.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != state && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(state, thread.getState());
+    }
+}
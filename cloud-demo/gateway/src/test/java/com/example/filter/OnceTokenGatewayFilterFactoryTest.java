@@ -0,0 +1,99 @@
+package com.example.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractNameValueGatewayFilterFactory.NameValueConfig;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.config.OnceTokenProperties;
+import com.example.token.TokenGenerator;
+
+/**
+ * OnceTokenGatewayFilterFactory 單元測試
+ * 測試各種 token 的格式、JWT 簽章可驗證、id 不重複且依時間排序，以及 header 在回應送出前加入
+ */
+@DisplayName("OnceTokenGatewayFilterFactory token 產生測試")
+class OnceTokenGatewayFilterFactoryTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private OnceTokenGatewayFilterFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        OnceTokenProperties properties = new OnceTokenProperties();
+        properties.setJwtSecret(SECRET);
+        properties.setJwtKeyId("k1");
+        factory = new OnceTokenGatewayFilterFactory();
+        ReflectionTestUtils.setField(factory, "onceTokenProperties", properties);
+        factory.init();
+    }
+
+    @Test
+    @DisplayName("回應送出時加入 token header，不支援的設定值不加入")
+    void testHeaderAddedBeforeCommit() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/order/1"));
+        filter("X-Request-token", "id").filter(exchange, e -> e.getResponse().setComplete()).block();
+        assertEquals(32, exchange.getResponse().getHeaders().getFirst("X-Request-token").length());
+
+        MockServerWebExchange unsupported = MockServerWebExchange.from(MockServerHttpRequest.get("/order/1"));
+        filter("X-Request-token", "other").filter(unsupported, e -> e.getResponse().setComplete()).block();
+        assertFalse(unsupported.getResponse().getHeaders().containsKey("X-Request-token"));
+    }
+
+    @Test
+    @DisplayName("id：32 個十六進位字元，不重複且同一線程內遞增")
+    void testTimeOrderedId() {
+        TokenGenerator generator = factory.generator("id");
+        Set<String> ids = new HashSet<>();
+        String previous = "";
+        for (int i = 0; i < 100_000; i++) {
+            String id = generator.next();
+            assertTrue(id.matches("[0-9a-f]{32}"), id);
+            assertTrue(id.compareTo(previous) > 0, previous + " -> " + id);
+            assertTrue(ids.add(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    @DisplayName("jwt：HS256 簽章可用設定的金鑰驗證，claims 含 iss / exp / jti")
+    void testSignedJwt() throws Exception {
+        String token = factory.generator("jwt").next();
+        String[] parts = token.split("\\.");
+        assertEquals(3, parts.length);
+
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        assertEquals("{\"alg\":\"HS256\",\"typ\":\"JWT\",\"kid\":\"k1\"}",
+                new String(decoder.decode(parts[0]), StandardCharsets.UTF_8));
+        String claims = new String(decoder.decode(parts[1]), StandardCharsets.UTF_8);
+        assertTrue(claims.matches("\\{\"iss\":\"gateway\",\"iat\":\\d+,\"exp\":\\d+,\"jti\":\"[0-9a-f]{32}\"}"),
+                claims);
+
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] expected = mac.doFinal((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+        assertArrayEquals(expected, decoder.decode(parts[2]));
+    }
+
+    private GatewayFilter filter(String name, String value) {
+        NameValueConfig config = new NameValueConfig();
+        config.setName(name);
+        config.setValue(value);
+        return factory.apply(config);
+    }
+}
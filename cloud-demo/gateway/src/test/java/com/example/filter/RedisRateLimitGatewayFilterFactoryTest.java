@@ -0,0 +1,122 @@
+package com.example.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.config.RateLimitProperties;
+import com.example.ratelimit.TokenBatchRateLimiter;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * RedisRateLimitGatewayFilterFactory 單元測試
+ * 測試以使用者限流時令牌桶 key 的來源：用戶端的 header 不採用，可信任上游的 header 和登入使用者優先於來源 IP，
+ * 以及排在 ResponseCache 之前
+ */
+@DisplayName("RedisRateLimitGatewayFilterFactory 限流測試")
+class RedisRateLimitGatewayFilterFactoryTest {
+
+    private static final Route ROUTE = Route.async().id("order-route").uri("http://localhost")
+            .predicate(exchange -> true).build();
+
+    private RateLimitProperties properties;
+
+    private final List<String> keys = new ArrayList<>();
+
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        TokenBatchRateLimiter limiter = mock(TokenBatchRateLimiter.class);
+        when(limiter.tryAcquire(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            keys.add(invocation.getArgument(1));
+            return Mono.just(keys.size() <= 1);
+        });
+        RedisRateLimitGatewayFilterFactory factory = new RedisRateLimitGatewayFilterFactory();
+        ReflectionTestUtils.setField(factory, "rateLimitProperties", properties);
+        ReflectionTestUtils.setField(factory, "tokenBatchRateLimiter", limiter);
+        RedisRateLimitGatewayFilterFactory.Config config = new RedisRateLimitGatewayFilterFactory.Config();
+        config.setScope("user");
+        config.setReplenishRate(1);
+        config.setBurstCapacity(1);
+        filter = factory.apply(config);
+    }
+
+    @Test
+    @DisplayName("用戶端直接帶的使用者 header 不採用，更換 header 仍使用同一個來源 IP 的桶")
+    void testClientHeaderIgnored() {
+        MockServerWebExchange first = exchange("203.0.113.7", "alice");
+        filter.filter(first, exchange -> Mono.empty()).block();
+        MockServerWebExchange second = exchange("203.0.113.7", "bob");
+        filter.filter(second, exchange -> Mono.empty()).block();
+
+        assertEquals(List.of("order-route:203.0.113.7", "order-route:203.0.113.7"), keys);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, second.getResponse().getStatusCode());
+    }
+
+    @Test
+    @DisplayName("可信任上游送來的使用者 header 作為 key")
+    void testTrustedProxyHeader() {
+        properties.setTrustedProxies(Set.of("10.0.0.5"));
+
+        filter.filter(exchange("10.0.0.5", "alice"), exchange -> Mono.empty()).block();
+        filter.filter(exchange("10.0.0.5", null), exchange -> Mono.empty()).block();
+
+        assertEquals(List.of("order-route:alice", "order-route:10.0.0.5"), keys);
+    }
+
+    @Test
+    @DisplayName("登入使用者優先於 header 和來源 IP")
+    void testPrincipal() {
+        properties.setTrustedProxies(Set.of("10.0.0.5"));
+        Principal principal = () -> "carol";
+        ServerWebExchange exchange = exchange("10.0.0.5", "alice").mutate()
+                .principal(Mono.just(principal))
+                .build();
+
+        filter.filter(exchange, e -> Mono.empty()).block();
+
+        assertEquals(List.of("order-route:carol"), keys);
+    }
+
+    @Test
+    @DisplayName("排在 ResponseCache 之前，命中快取的請求同樣受限流")
+    void testOrderedBeforeResponseCache() {
+        assertInstanceOf(OrderedGatewayFilter.class, filter);
+        assertTrue(((OrderedGatewayFilter) filter).getOrder() < ResponseCacheGatewayFilterFactory.FILTER_ORDER);
+    }
+
+    private MockServerWebExchange exchange(String remoteIp, String user) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/order/create")
+                .remoteAddress(new InetSocketAddress(remoteIp, 40000));
+        if (user != null) {
+            request.header(properties.getUserHeader(), user);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+}
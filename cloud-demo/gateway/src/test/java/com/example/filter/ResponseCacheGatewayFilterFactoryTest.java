@@ -0,0 +1,224 @@
+package com.example.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.cache.ResponseCacheStore;
+import com.example.config.ResponseCacheProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * ResponseCacheGatewayFilterFactory 單元測試
+ * 測試快取命中、key 正規化、同時未命中的請求合併、無法快取的回應、帶身分資訊的請求和容量上限
+ */
+@DisplayName("ResponseCacheGatewayFilterFactory 回應快取測試")
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private static final Route ROUTE = Route.async().id("product-route").uri("http://localhost")
+            .predicate(exchange -> true).build();
+
+    private ResponseCacheProperties properties;
+
+    private ResponseCacheStore store;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ResponseCacheGatewayFilterFactory factory;
+
+    private final AtomicInteger backendCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResponseCacheProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        store = new ResponseCacheStore();
+        ReflectionTestUtils.setField(store, "responseCacheProperties", properties);
+        ReflectionTestUtils.setField(store, "meterRegistry", meterRegistry);
+        store.init();
+        factory = new ResponseCacheGatewayFilterFactory();
+        ReflectionTestUtils.setField(factory, "responseCacheProperties", properties);
+        ReflectionTestUtils.setField(factory, "responseCacheStore", store);
+        ReflectionTestUtils.setField(factory, "meterRegistry", meterRegistry);
+        factory.init();
+    }
+
+    @Test
+    @DisplayName("第二次請求命中快取，不轉發到後端，回應內容相同")
+    void testHitAfterMiss() {
+        GatewayFilter filter = factory.apply(new ResponseCacheGatewayFilterFactory.Config());
+
+        MockServerWebExchange first = exchange("/api/product/product/1");
+        filter.filter(first, backend(HttpStatus.OK, "product-1", Duration.ZERO)).block();
+        MockServerWebExchange second = exchange("/api/product/product/1");
+        filter.filter(second, backend(HttpStatus.OK, "product-1", Duration.ZERO)).block();
+
+        assertEquals(1, backendCalls.get());
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("product-1", second.getResponse().getBodyAsString().block());
+        assertEquals(HttpStatus.OK, second.getResponse().getStatusCode());
+        assertEquals(9, second.getResponse().getHeaders().getContentLength());
+        assertTrue(store.weightedSize() > 0);
+    }
+
+    @Test
+    @DisplayName("查詢參數順序和結尾的 / 不影響快取 key，未選擇的參數被忽略，指定的 header 會區分")
+    void testCacheKeyNormalization() {
+        List<String> allParams = List.of();
+        List<String> accept = List.of("accept");
+
+        assertEquals(key("/product/1?b=2&a=1", allParams, accept), key("/product/1/?a=1&b=2", allParams, accept));
+        assertNotEquals(key("/product/1?a=1", allParams, accept), key("/product/1?a=2", allParams, accept));
+        assertEquals(key("/product/1?a=1&trace=x", List.of("a"), accept),
+                key("/product/1?trace=y&a=1", List.of("a"), accept));
+
+        MockServerWebExchange json = MockServerWebExchange.from(MockServerHttpRequest.get("/product/1")
+                .header(HttpHeaders.ACCEPT, "application/json"));
+        MockServerWebExchange binary = MockServerWebExchange.from(MockServerHttpRequest.get("/product/1")
+                .header(HttpHeaders.ACCEPT, "application/x-compact-binary"));
+        assertNotEquals(ResponseCacheGatewayFilterFactory.cacheKey(json, allParams, accept),
+                ResponseCacheGatewayFilterFactory.cacheKey(binary, allParams, accept));
+    }
+
+    @Test
+    @DisplayName("同一個 key 同時未命中時只轉發一次，等待中的請求共用回應")
+    void testRequestCollapsing() {
+        GatewayFilter filter = factory.apply(new ResponseCacheGatewayFilterFactory.Config());
+        GatewayFilterChain slowBackend = backend(HttpStatus.OK, "product-2", Duration.ofMillis(200));
+
+        List<MockServerWebExchange> exchanges = List.of(exchange("/product/2"), exchange("/product/2"),
+                exchange("/product/2"));
+        Mono.when(exchanges.stream().map(exchange -> filter.filter(exchange, slowBackend)).toList())
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(1, backendCalls.get());
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals("product-2", exchange.getResponse().getBodyAsString().block());
+        }
+        assertEquals(2, meterRegistry.get("gateway.response.cache.collapsed").counter().count());
+    }
+
+    @Test
+    @DisplayName("非 200、Cache-Control: no-store 或超過單筆上限的回應不快取，等待中的請求自行轉發")
+    void testUncacheableResponses() {
+        GatewayFilter filter = factory.apply(new ResponseCacheGatewayFilterFactory.Config());
+
+        filter.filter(exchange("/product/3"), backend(HttpStatus.NOT_FOUND, "missing", Duration.ZERO)).block();
+        filter.filter(exchange("/product/3"), backend(HttpStatus.NOT_FOUND, "missing", Duration.ZERO)).block();
+        assertEquals(2, backendCalls.get());
+
+        GatewayFilterChain noStore = exchange -> {
+            exchange.getResponse().getHeaders().setCacheControl("no-store");
+            return backend(HttpStatus.OK, "secret", Duration.ZERO).filter(exchange);
+        };
+        filter.filter(exchange("/product/4"), noStore).block();
+        filter.filter(exchange("/product/4"), noStore).block();
+        assertEquals(4, backendCalls.get());
+
+        properties.setMaxEntryBytes(4);
+        List<MockServerWebExchange> exchanges = List.of(exchange("/product/5"), exchange("/product/5"));
+        GatewayFilterChain large = backend(HttpStatus.OK, "too-large", Duration.ofMillis(100));
+        Mono.when(exchanges.stream().map(exchange -> filter.filter(exchange, large)).toList())
+                .block(Duration.ofSeconds(5));
+        assertEquals(6, backendCalls.get());
+        assertEquals("too-large", exchanges.get(1).getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("帶 Authorization 或 Cookie 的請求只使用和儲存 Cache-Control: public 的回應")
+    void testCredentialedRequests() {
+        GatewayFilter filter = factory.apply(new ResponseCacheGatewayFilterFactory.Config());
+
+        // 匿名請求快取的回應不給帶身分的請求，帶身分的請求的回應也不存入快取
+        filter.filter(exchange("/product/6"), backend(HttpStatus.OK, "anonymous", Duration.ZERO)).block();
+        MockServerWebExchange authorized = credentialed("/product/6", HttpHeaders.AUTHORIZATION, "Bearer alice");
+        filter.filter(authorized, backend(HttpStatus.OK, "alice", Duration.ZERO)).block();
+        assertEquals("alice", authorized.getResponse().getBodyAsString().block());
+        MockServerWebExchange cookie = credentialed("/product/7", HttpHeaders.COOKIE, "session=bob");
+        filter.filter(cookie, backend(HttpStatus.OK, "bob", Duration.ZERO)).block();
+        MockServerWebExchange anonymous = exchange("/product/7");
+        filter.filter(anonymous, backend(HttpStatus.OK, "anonymous", Duration.ZERO)).block();
+        assertEquals("anonymous", anonymous.getResponse().getBodyAsString().block());
+        assertEquals(4, backendCalls.get());
+
+        // public 回應可以共用
+        GatewayFilterChain publicBackend = exchange -> {
+            exchange.getResponse().getHeaders().setCacheControl("public, max-age=30");
+            return backend(HttpStatus.OK, "shared", Duration.ZERO).filter(exchange);
+        };
+        filter.filter(credentialed("/product/8", HttpHeaders.AUTHORIZATION, "Bearer alice"), publicBackend).block();
+        MockServerWebExchange hit = credentialed("/product/8", HttpHeaders.COOKIE, "session=bob");
+        filter.filter(hit, publicBackend).block();
+        assertEquals(5, backendCalls.get());
+        assertEquals(ResponseCacheGatewayFilterFactory.HIT, hit.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("shared", hit.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("快取的 body 合計不超過 maxSizeBytes")
+    void testSizeBound() throws InterruptedException {
+        properties.setMaxSizeBytes(4 * 1024);
+        store.init();
+        GatewayFilter filter = factory.apply(new ResponseCacheGatewayFilterFactory.Config());
+
+        String body = "x".repeat(1000);
+        for (int i = 0; i < 20; i++) {
+            filter.filter(exchange("/product/" + i), backend(HttpStatus.OK, body, Duration.ZERO)).block();
+        }
+        // Caffeine 在背景執行淘汰
+        for (int i = 0; i < 100 && store.weightedSize() > properties.getMaxSizeBytes(); i++) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(store.weightedSize() <= properties.getMaxSizeBytes(), "size: " + store.weightedSize());
+    }
+
+    private MockServerWebExchange exchange(String uri) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(uri));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+
+    private MockServerWebExchange credentialed(String uri, String header, String value) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(uri).header(header, value));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+
+    private String key(String uri, List<String> queryParams, List<String> headers) {
+        return ResponseCacheGatewayFilterFactory.cacheKey(exchange(uri), queryParams, headers);
+    }
+
+    /**
+     * 模擬後端：delay 後寫回指定的狀態碼和 body
+     */
+    private GatewayFilterChain backend(HttpStatus status, String body, Duration delay) {
+        return exchange -> Mono.delay(delay).then(Mono.defer(() -> {
+            backendCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(status);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+        }));
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import java.net.ConnectException;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.config.RouteMetricsProperties;
+import com.example.metrics.RouteLatencyWindow;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * RouteMetricsGlobalFilter 單元測試
+ * 測試 outcome 與錯誤類型的分類、超過 maxRoutes 的路由合併到 other，以及寫入 RouteLatencyWindow 的錯誤判定
+ */
+@DisplayName("RouteMetricsGlobalFilter 路由指標測試")
+class RouteMetricsGlobalFilterTest {
+
+    private RouteMetricsProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RouteLatencyWindow routeLatencyWindow;
+
+    private RouteMetricsGlobalFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RouteMetricsProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        routeLatencyWindow = new RouteLatencyWindow();
+        filter = new RouteMetricsGlobalFilter();
+        ReflectionTestUtils.setField(filter, "routeMetricsProperties", properties);
+        ReflectionTestUtils.setField(filter, "routeLatencyWindow", routeLatencyWindow);
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    @DisplayName("正常完成時依狀態碼類別記錄 outcome，4xx 不算錯誤，5xx 算錯誤")
+    void testOutcomeByStatus() {
+        run("order-route", status(HttpStatus.OK));
+        run("order-route", status(HttpStatus.NOT_FOUND));
+        run("order-route", status(HttpStatus.BAD_GATEWAY));
+
+        assertEquals(1, count("order-route", "SUCCESS", "none"));
+        assertEquals(1, count("order-route", "CLIENT_ERROR", "none"));
+        assertEquals(1, count("order-route", "SERVER_ERROR", "none"));
+        assertEquals(1, routeLatencyWindow.slowest(5, 10).get(0).errors());
+    }
+
+    @Test
+    @DisplayName("依異常及其 cause 分類為 timeout / connect / other，沒有狀態碼時 outcome 為 SERVER_ERROR")
+    void testErrorClassification() {
+        run("order-route", exchange -> Mono.error(new TimeoutException("read timeout")));
+        run("order-route", exchange -> Mono.error(new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT)));
+        run("order-route", exchange -> Mono.error(new IllegalStateException("wrapped",
+                new ConnectException("Connection refused"))));
+        run("order-route", exchange -> Mono.error(new IllegalStateException("boom")));
+
+        assertEquals(2, count("order-route", "SERVER_ERROR", "timeout"));
+        assertEquals(1, count("order-route", "SERVER_ERROR", "connect"));
+        assertEquals(1, count("order-route", "SERVER_ERROR", "other"));
+        assertEquals(4, routeLatencyWindow.slowest(5, 10).get(0).errors());
+    }
+
+    @Test
+    @DisplayName("已寫出錯誤狀態碼時保留原本的 outcome")
+    void testErrorKeepsNonSuccessStatus() {
+        run("order-route", exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return Mono.error(new IllegalStateException("boom"));
+        });
+        run("order-route", exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            return Mono.error(new IllegalStateException("boom"));
+        });
+
+        assertEquals(1, count("order-route", "SERVER_ERROR", "other"));
+        assertEquals(1, count("order-route", "CLIENT_ERROR", "other"));
+    }
+
+    @Test
+    @DisplayName("用戶端取消時錯誤類型記為 cancelled")
+    void testCancelled() {
+        MockServerWebExchange exchange = exchange("order-route");
+
+        filter.filter(exchange, e -> Mono.never()).subscribe().dispose();
+
+        assertEquals(1, count("order-route", "SERVER_ERROR", "cancelled"));
+    }
+
+    @Test
+    @DisplayName("超過 maxRoutes 的新路由合併到 other，已追蹤的路由不受影響")
+    void testMaxRoutesCap() {
+        properties.setMaxRoutes(2);
+
+        run("route-a", status(HttpStatus.OK));
+        run("route-b", status(HttpStatus.OK));
+        run("route-c", status(HttpStatus.OK));
+        run("route-d", status(HttpStatus.OK));
+        run("route-a", status(HttpStatus.OK));
+
+        assertEquals(2, count("route-a", "SUCCESS", "none"));
+        assertEquals(1, count("route-b", "SUCCESS", "none"));
+        assertEquals(2, count(RouteMetricsGlobalFilter.OTHER_ROUTE, "SUCCESS", "none"));
+        assertNull(meterRegistry.find("gateway.route.upstream").tag("route", "route-c").timer());
+        assertEquals(3, routeLatencyWindow.routeCount());
+    }
+
+    @Test
+    @DisplayName("沒有匹配路由時記在 none，關閉時不記錄")
+    void testNoRouteAndDisabled() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/unknown"));
+        filter.filter(exchange, status(HttpStatus.NOT_FOUND)).block();
+        assertEquals(1, count(RouteMetricsGlobalFilter.NO_ROUTE, "CLIENT_ERROR", "none"));
+
+        properties.setEnabled(false);
+        run("order-route", status(HttpStatus.OK));
+        assertNull(meterRegistry.find("gateway.route.upstream").tag("route", "order-route").timer());
+    }
+
+    private void run(String routeId, GatewayFilterChain chain) {
+        filter.filter(exchange(routeId), chain).onErrorResume(e -> Mono.empty()).block();
+    }
+
+    private long count(String route, String outcome, String error) {
+        return meterRegistry.get("gateway.route.upstream")
+                .tags("route", route, "outcome", outcome, "error", error)
+                .timer()
+                .count();
+    }
+
+    private static GatewayFilterChain status(HttpStatus status) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(status);
+            return Mono.empty();
+        };
+    }
+
+    private static MockServerWebExchange exchange(String routeId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/order/1"));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async().id(routeId).uri("http://localhost")
+                .predicate(e -> true).build());
+        return exchange;
+    }
+}
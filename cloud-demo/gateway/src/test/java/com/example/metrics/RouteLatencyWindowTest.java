@@ -0,0 +1,123 @@
+package com.example.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * RouteLatencyWindow 單元測試
+ * 以可控制的分鐘時鐘測試分鐘桶的輪替、依查詢區間合併桶計算 p95，以及依 p95 排序和截取
+ */
+@DisplayName("RouteLatencyWindow 路由延遲窗口測試")
+class RouteLatencyWindowTest {
+
+    private final AtomicLong minute = new AtomicLong(1_000);
+
+    private RouteLatencyWindow window;
+
+    @BeforeEach
+    void setUp() {
+        window = new RouteLatencyWindow() {
+            @Override
+            long currentMinute() {
+                return minute.get();
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("只合併查詢區間內的分鐘桶，超出區間的桶不計入")
+    void testWindowCoversRecentMinutes() {
+        record("order-route", 3, 10);
+        minute.addAndGet(4);
+        record("order-route", 2, 10);
+
+        assertEquals(5, summary(5).requests());
+        assertEquals(2, summary(1).requests());
+        assertEquals(5 / 300.0, summary(5).requestsPerSecond(), 1e-9);
+
+        minute.incrementAndGet();
+        assertEquals(2, summary(5).requests());
+    }
+
+    @Test
+    @DisplayName("60 分鐘後重用同一個桶時先清除舊的統計")
+    void testBucketRotatedAfterAnHour() {
+        record("order-route", 10, 500);
+        minute.addAndGet(RouteLatencyWindow.MAX_MINUTES);
+        record("order-route", 1, 10);
+
+        RouteLatencyWindow.RouteLatencySummary summary = summary(RouteLatencyWindow.MAX_MINUTES);
+        assertEquals(1, summary.requests());
+        assertEquals(10.0, summary.maxMillis());
+    }
+
+    @Test
+    @DisplayName("p95 依查詢區間內的樣本計算，舊的慢請求移出區間後 p95 下降")
+    void testWindowedP95() {
+        record("order-route", 100, 500);
+        minute.addAndGet(10);
+        record("order-route", 95, 1);
+        record("order-route", 5, 200);
+
+        RouteLatencyWindow.RouteLatencySummary recent = summary(5);
+        assertEquals(100, recent.requests());
+        // 直方圖以 50% 遞增的桶上界估計，1ms 落在上界約 1.14ms 的桶
+        assertTrue(recent.p95Millis() >= 1 && recent.p95Millis() < 1.2, "p95: " + recent.p95Millis());
+        assertEquals(200.0, recent.maxMillis());
+
+        RouteLatencyWindow.RouteLatencySummary longer = summary(15);
+        assertEquals(200, longer.requests());
+        // 一半的樣本是 500ms，桶上界超過實際最大值時以最大值為準
+        assertEquals(500.0, longer.p95Millis());
+        assertEquals((100 * 500 + 95 + 5 * 200) / 200.0, longer.avgMillis(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("依 p95 由高到低排序，只回傳 limit 個有請求的路由")
+    void testSlowestSortedAndLimited() {
+        record("fast-route", 20, 1);
+        record("slow-route", 20, 300);
+        record("medium-route", 20, 50);
+        record("old-route", 20, 900);
+        minute.addAndGet(30);
+        record("fast-route", 20, 1);
+        record("slow-route", 20, 300);
+        record("medium-route", 20, 50);
+
+        List<RouteLatencyWindow.RouteLatencySummary> slowest = window.slowest(5, 2);
+
+        assertEquals(List.of("slow-route", "medium-route"),
+                slowest.stream().map(RouteLatencyWindow.RouteLatencySummary::route).toList());
+        assertEquals(4, window.routeCount());
+        assertEquals(3, window.slowest(5, 10).size());
+    }
+
+    @Test
+    @DisplayName("錯誤數和平均回應大小只計入查詢區間內的請求，回應大小未知時不計入總量")
+    void testErrorsAndResponseBytes() {
+        window.record("order-route", TimeUnit.MILLISECONDS.toNanos(5), 100, false);
+        window.record("order-route", TimeUnit.MILLISECONDS.toNanos(5), 300, true);
+        window.record("order-route", TimeUnit.MILLISECONDS.toNanos(5), -1, true);
+
+        RouteLatencyWindow.RouteLatencySummary summary = summary(5);
+        assertEquals(2, summary.errors());
+        assertEquals(400 / 3.0, summary.avgResponseBytes(), 1e-9);
+    }
+
+    private void record(String route, int count, long millis) {
+        for (int i = 0; i < count; i++) {
+            window.record(route, TimeUnit.MILLISECONDS.toNanos(millis), 0, false);
+        }
+    }
+
+    private RouteLatencyWindow.RouteLatencySummary summary(int minutes) {
+        return window.slowest(minutes, 1).get(0);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * CustomRoutePredicateFactory 單元測試
+ * 直接比對原始查詢字串的結果必須與 getQueryParams().getFirst 相同
+ */
+@DisplayName("CustomRoutePredicateFactory 自訂斷言測試")
+class CustomRoutePredicateFactoryTest {
+
+    private final Predicate<ServerWebExchange> predicate = predicate("test", "test");
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "test=test", "a=1&test=test", "test=other&test=test", "test=test&test=other",
+            "test", "test=", "test=tes", "test=testx", "testx=test", "x=test", "test=test%20", "test=te%73t",
+            "te%73t=test", "test=te+st", "=test", "=x&test=test", "&&test=test&", "test=test=1", "a&test=test" })
+    @DisplayName("各種查詢字串的結果與 getQueryParams().getFirst 相同")
+    void testSameAsQueryParams(String query) {
+        ServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/search?" + query).build());
+        boolean expected = "test".equals(exchange.getRequest().getQueryParams().getFirst("test"));
+
+        assertEquals(expected, predicate.test(exchange), query);
+    }
+
+    private static Predicate<ServerWebExchange> predicate(String param, String value) {
+        CustomRoutePredicateFactory.Config config = new CustomRoutePredicateFactory.Config();
+        config.setParam(param);
+        config.setValue(value);
+        return new CustomRoutePredicateFactory().apply(config);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.config.RateLimitProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * TokenBatchRateLimiter 單元測試
+ * 測試本地令牌放行、借不到令牌時的拒絕與退避、背景預取、本地令牌過期和 Redis 錯誤時的 fail-open
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("TokenBatchRateLimiter 分散式限流測試")
+class TokenBatchRateLimiterTest {
+
+    private static final TokenBatchRateLimiter.Limit LIMIT = new TokenBatchRateLimiter.Limit(10, 20, 5);
+
+    @Mock
+    private RedisTokenBucket redisTokenBucket;
+
+    private final AtomicLong clock = new AtomicLong(-TimeUnit.SECONDS.toNanos(100));
+
+    private RateLimitProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TokenBatchRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setPrefetchRatio(0);
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new TokenBatchRateLimiter() {
+            @Override
+            long nanoTime() {
+                return clock.get();
+            }
+        };
+        ReflectionTestUtils.setField(rateLimiter, "rateLimitProperties", properties);
+        ReflectionTestUtils.setField(rateLimiter, "redisTokenBucket", redisTokenBucket);
+        ReflectionTestUtils.setField(rateLimiter, "meterRegistry", meterRegistry);
+        rateLimiter.init();
+    }
+
+    @Test
+    @DisplayName("借到一批令牌後，同一批內的請求不再調用 Redis")
+    void testLocalTokensAdmitWithoutRedis() {
+        when(redisTokenBucket.borrow(anyString(), anyInt(), anyInt(), anyInt())).thenReturn(Mono.just(5L));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(acquire());
+        }
+
+        verify(redisTokenBucket, times(1)).borrow("route-a", 10, 20, 5);
+        assertEquals(5, count("gateway.ratelimit.admitted"));
+        assertEquals(5, count("gateway.ratelimit.borrowed"));
+    }
+
+    @Test
+    @DisplayName("Redis 借不到令牌時拒絕，下一個令牌產生前不再調用 Redis")
+    void testRejectAndBackOffWhenBucketIsEmpty() {
+        when(redisTokenBucket.borrow(anyString(), anyInt(), anyInt(), anyInt())).thenReturn(Mono.just(0L));
+
+        assertFalse(acquire());
+        assertFalse(acquire());
+        verify(redisTokenBucket, times(1)).borrow(anyString(), anyInt(), anyInt(), anyInt());
+
+        // replenishRate 10，100 毫秒後才有新的令牌
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertFalse(acquire());
+        verify(redisTokenBucket, times(2)).borrow(anyString(), anyInt(), anyInt(), anyInt());
+        assertEquals(3, count("gateway.ratelimit.rejected"));
+    }
+
+    @Test
+    @DisplayName("剩餘令牌低於預取比例時在背景借下一批，請求不需要等待")
+    void testPrefetchBeforeLocalTokensRunOut() {
+        properties.setPrefetchRatio(0.5);
+        when(redisTokenBucket.borrow(anyString(), anyInt(), anyInt(), anyInt())).thenReturn(Mono.just(5L));
+
+        // 第 1 個請求借 5 個，第 3 個請求後剩 2 個（< 2.5）觸發預取
+        for (int i = 0; i < 3; i++) {
+            assertTrue(acquire());
+        }
+        verify(redisTokenBucket, times(2)).borrow(anyString(), anyInt(), anyInt(), anyInt());
+
+        // 預取後本地共有 7 個令牌，且每次剩餘過低都會再預取，請求都不需等待 Redis
+        for (int i = 0; i < 7; i++) {
+            assertTrue(acquire());
+        }
+        assertEquals(10, count("gateway.ratelimit.admitted"));
+    }
+
+    @Test
+    @DisplayName("本地令牌超過有效時間後丟棄，重新向 Redis 借")
+    void testLocalTokensExpire() {
+        when(redisTokenBucket.borrow(anyString(), anyInt(), anyInt(), anyInt())).thenReturn(Mono.just(5L));
+
+        assertTrue(acquire());
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(properties.getLocalTokenTtlMillis()));
+        assertTrue(acquire());
+
+        verify(redisTokenBucket, times(2)).borrow(anyString(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Redis 錯誤或逾時時依 failOpen 放行或拒絕")
+    void testRedisFailure() {
+        properties.setRedisTimeoutMillis(50);
+        when(redisTokenBucket.borrow(anyString(), anyInt(), anyInt(), anyInt()))
+                .thenReturn(Mono.error(new IllegalStateException("redis down")))
+                .thenReturn(Mono.just(1L).delayElement(Duration.ofSeconds(5)));
+
+        assertTrue(acquire());
+        properties.setFailOpen(false);
+        assertFalse(acquire());
+
+        assertEquals(2, count("gateway.ratelimit.redis.errors"));
+        assertEquals(1, count("gateway.ratelimit.admitted"));
+        assertEquals(1, count("gateway.ratelimit.rejected"));
+    }
+
+    private boolean acquire() {
+        return rateLimiter.tryAcquire("route-a", "route-a", LIMIT).block(Duration.ofSeconds(5));
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).tag("route", "route-a").counter().count();
+    }
+}
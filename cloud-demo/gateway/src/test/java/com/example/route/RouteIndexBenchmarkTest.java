@@ -0,0 +1,84 @@
+package com.example.route;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.predicate.CustomRoutePredicateFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 路由查找的比較：依序檢查所有路由 vs RouteIndex
+ * 分別建立 10 / 100 / 1000 個路由，每個路由為 Path=/svc{i}/**，每 10 個路由多一個 Custom 斷言，
+ * 對命中前段、命中後段和都不命中的請求輸出每次查找的平均耗時。
+ * 先預熱讓 JIT 編譯完成再計時，耗時只輸出到日誌不做斷言，只斷言兩種方式匹配到相同的路由。
+ */
+@Slf4j
+@DisplayName("路由查找耗時比較")
+class RouteIndexBenchmarkTest {
+
+    private static final int[] ROUTE_COUNTS = { 10, 100, 1_000 };
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+
+    private static final int MEASURE_ITERATIONS = 5_000;
+
+    private static final CustomRoutePredicateFactory CUSTOM_FACTORY = new CustomRoutePredicateFactory();
+
+    private volatile Object sink;
+
+    @Test
+    @DisplayName("10 / 100 / 1000 個路由：輸出線性查找與索引查找的平均耗時")
+    void testRouteLookupCost() {
+        log.info(String.format("%-8s %-28s %14s %14s", "routes", "request", "linear us", "indexed us"));
+        for (int count : ROUTE_COUNTS) {
+            RouteIndexTest.Routes routes = new RouteIndexTest.Routes();
+            for (int i = 0; i < count; i++) {
+                if (i % 10 == 9) {
+                    CustomRoutePredicateFactory.Config config = new CustomRoutePredicateFactory.Config();
+                    config.setParam("version");
+                    config.setValue("v" + i);
+                    routes.add("route-" + i, "/svc" + i + "/**", CUSTOM_FACTORY.apply(config));
+                } else {
+                    routes.add("route-" + i, "/svc" + i + "/**");
+                }
+            }
+            RouteIndex index = routes.index();
+            List<Route> all = routes.list();
+
+            String[] requests = { "/svc0/items/1", "/svc" + (count - 1) + "/items?version=v" + (count - 1),
+                    "/missing/items/1" };
+            for (String request : requests) {
+                ServerWebExchange exchange = RouteIndexTest.exchange(request);
+                String path = exchange.getRequest().getPath().pathWithinApplication().value();
+                Route expected = RouteIndexTest.match(all, exchange);
+                assertEquals(expected, RouteIndexTest.match(index.candidates(RouteIndexTest.path(path)), exchange));
+
+                double linear = measure(() -> sink = RouteIndexTest.match(all, exchange));
+                double indexed = measure(() -> sink = RouteIndexTest.match(
+                        index.candidates(exchange.getRequest().getPath().pathWithinApplication()), exchange));
+                log.info(String.format("%-8d %-28s %14.2f %14.2f", count, request, linear, indexed));
+            }
+        }
+    }
+
+    /**
+     * 預熱後執行 MEASURE_ITERATIONS 次，回傳每次的平均耗時（微秒）
+     */
+    private static double measure(Runnable task) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / MEASURE_ITERATIONS;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.route;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.http.server.PathContainer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * RouteIndex 單元測試
+ * 測試前綴候選與順序、多個 pattern、無法索引的路由，以及與線性走訪的匹配結果一致
+ */
+@DisplayName("RouteIndex 路由索引測試")
+class RouteIndexTest {
+
+    private static final PathRoutePredicateFactory PATH_FACTORY = new PathRoutePredicateFactory();
+
+    @Test
+    @DisplayName("只有前綴相符和無法索引的路由列為候選，並保持原本順序")
+    void testCandidatesByPrefix() {
+        Routes routes = new Routes()
+                .add("product", "/api/product/**")
+                .add("order", "/api/order/**")
+                .add("search", "/search")
+                .addUnindexed("custom")
+                .add("api", "/api/**");
+        RouteIndex index = routes.index();
+
+        assertEquals(List.of("product", "custom", "api"), ids(index.candidates(path("/api/product/1"))));
+        assertEquals(List.of("custom", "api"), ids(index.candidates(path("/api"))));
+        assertEquals(List.of("search", "custom"), ids(index.candidates(path("/search/"))));
+        assertEquals(List.of("custom"), ids(index.candidates(path("/other"))));
+        assertEquals(1, index.unindexedCount());
+    }
+
+    @Test
+    @DisplayName("同一個 Path 斷言有多個 pattern 時每個 pattern 都能找到此路由，且不重複")
+    void testMultiplePatterns() {
+        Routes routes = new Routes()
+                .add("multi", "/x/**,/x/y/**,/z/{id}")
+                .add("other", "/y/**");
+        RouteIndex index = routes.index();
+
+        assertEquals(List.of("multi"), ids(index.candidates(path("/x/y/1"))));
+        assertEquals(List.of("multi"), ids(index.candidates(path("/z/1"))));
+        assertEquals(List.of("other"), ids(index.candidates(path("/y"))));
+    }
+
+    @Test
+    @DisplayName("SpEL 或非 / 開頭的 pattern 不索引，每次都列為候選")
+    void testUnparsablePatternIsUnindexed() {
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId("spel");
+        definition.setPredicates(List.of(new PredicateDefinition("Path=#{@paths.product}")));
+
+        assertNull(RouteIndex.pathPatterns(definition));
+        assertEquals(List.of("api", "product"), RouteIndex.literalPrefix("/api/product/**"));
+        assertEquals(List.of("files"), RouteIndex.literalPrefix("/files/*/meta"));
+        assertEquals(List.of(), RouteIndex.literalPrefix("/{version}/items"));
+    }
+
+    @Test
+    @DisplayName("隨機路由和路徑下，索引的匹配結果與依序檢查所有路由相同")
+    void testSameResultAsLinearLookup() {
+        Random random = new Random(42);
+        String[] segments = { "api", "product", "order", "v1", "v2", "items", "files", "search" };
+        String[] tails = { "", "/**", "/*", "/{id}", "/*/meta" };
+        Routes routes = new Routes();
+        for (int i = 0; i < 300; i++) {
+            StringBuilder pattern = new StringBuilder();
+            for (int depth = 0, n = 1 + random.nextInt(3); depth < n; depth++) {
+                pattern.append('/').append(segments[random.nextInt(segments.length)]);
+            }
+            pattern.append(tails[random.nextInt(tails.length)]);
+            if (i % 50 == 0) {
+                routes.addUnindexed("route-" + i);
+            } else {
+                routes.add("route-" + i, pattern.toString());
+            }
+        }
+        RouteIndex index = routes.index();
+
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder path = new StringBuilder();
+            for (int depth = 0, n = 1 + random.nextInt(4); depth < n; depth++) {
+                path.append('/').append(segments[random.nextInt(segments.length)]);
+            }
+            if (random.nextInt(4) == 0) {
+                path.append('/');
+            }
+            ServerWebExchange exchange = exchange(path.toString());
+            assertEquals(routeId(match(routes.list(), exchange)),
+                    routeId(match(index.candidates(path(path.toString())), exchange)), path.toString());
+        }
+    }
+
+    static PathContainer path(String path) {
+        return PathContainer.parsePath(path);
+    }
+
+    static ServerWebExchange exchange(String uri) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(uri).build());
+    }
+
+    /**
+     * 與 RoutePredicateHandlerMapping 相同的查找方式：依序執行斷言，取第一個通過的路由
+     */
+    static Route match(List<Route> routes, ServerWebExchange exchange) {
+        return Flux.fromIterable(routes)
+                .concatMap(route -> Mono.just(route).filterWhen(r -> r.getPredicate().apply(exchange)))
+                .next()
+                .block();
+    }
+
+    private static String routeId(Route route) {
+        return route != null ? route.getId() : null;
+    }
+
+    private static List<String> ids(List<Route> routes) {
+        return routes.stream().map(Route::getId).toList();
+    }
+
+    /**
+     * 依序建立路由和對應的路由定義
+     */
+    static final class Routes {
+
+        private final List<Route> routes = new ArrayList<>();
+
+        private final Map<String, RouteDefinition> definitions = new LinkedHashMap<>();
+
+        Routes add(String id, String patterns) {
+            return add(id, patterns, exchange -> true);
+        }
+
+        Routes add(String id, String patterns, Predicate<ServerWebExchange> extra) {
+            PathRoutePredicateFactory.Config config = new PathRoutePredicateFactory.Config();
+            config.setPatterns(List.of(patterns.split(",")));
+            routes.add(Route.async()
+                    .id(id)
+                    .uri("http://localhost")
+                    .predicate(PATH_FACTORY.apply(config).and(extra))
+                    .build());
+            RouteDefinition definition = new RouteDefinition();
+            definition.setId(id);
+            definition.setPredicates(List.of(new PredicateDefinition("Path=" + patterns)));
+            definitions.put(id, definition);
+            return this;
+        }
+
+        /**
+         * 沒有路由定義的路由，只在路徑以 /api 開頭時匹配
+         */
+        Routes addUnindexed(String id) {
+            routes.add(Route.async()
+                    .id(id)
+                    .uri("http://localhost")
+                    .predicate(exchange -> exchange.getRequest().getPath().value().startsWith("/api"))
+                    .build());
+            return this;
+        }
+
+        List<Route> list() {
+            return routes;
+        }
+
+        RouteIndex index() {
+            return RouteIndex.build(routes, definitions);
+        }
+    }
+}
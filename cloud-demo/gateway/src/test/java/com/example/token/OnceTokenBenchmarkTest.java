@@ -0,0 +1,98 @@
+package com.example.token;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * OnceToken 各種產生方式的每次成本
+ * 以多個線程同時產生 token（模擬事件迴圈線程），輸出每個 token 的平均耗時，
+ * 並換算 50k RPS 時佔用的 CPU 核心比例。legacy 為原本每次請求比對設定值再呼叫 UUID.randomUUID() 的寫法。
+ * 先預熱讓 JIT 編譯完成再計時，耗時只輸出到日誌不做斷言。
+ */
+@Slf4j
+@DisplayName("OnceToken 產生成本比較")
+class OnceTokenBenchmarkTest {
+
+    private static final int THREADS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private static final int WARMUP_ITERATIONS = 50_000;
+
+    private static final int MEASURE_ITERATIONS = 200_000;
+
+    private static final int TARGET_RPS = 50_000;
+
+    private volatile Object sink;
+
+    @Test
+    @DisplayName("uuid / id / jwt：輸出每個 token 的耗時和 50k RPS 的 CPU 佔用")
+    void testTokenCost() throws Exception {
+        TimeOrderedIdGenerator idGenerator = new TimeOrderedIdGenerator();
+        JwtTokenGenerator jwtGenerator = new JwtTokenGenerator(
+                "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8), "k1", "gateway", 300,
+                idGenerator);
+        String configValue = new String("uuid");
+
+        log.info(String.format("%-8s %8s %14s %16s", "token", "threads", "ns per token", "cores at 50k rps"));
+        report("legacy", () -> "uuid".equals(configValue) ? UUID.randomUUID().toString() : null);
+        report("uuid", () -> UUID.randomUUID().toString());
+        report("id", idGenerator::next);
+        report("jwt", jwtGenerator::next);
+
+        assertEquals(32, idGenerator.next().length());
+        assertEquals(3, jwtGenerator.next().split("\\.").length);
+    }
+
+    private void report(String name, Supplier<String> generator) throws Exception {
+        measure(generator, WARMUP_ITERATIONS);
+        double nanos = measure(generator, MEASURE_ITERATIONS);
+        log.info(String.format("%-8s %8d %14.1f %16.4f", name, THREADS, nanos, nanos * TARGET_RPS / 1e9));
+    }
+
+    /**
+     * THREADS 個線程各產生 iterations 個 token，回傳每個 token 的平均耗時（奈秒）
+     */
+    private double measure(Supplier<String> generator, int iterations) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        long[] elapsed = new long[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int index = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long begin = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    sink = generator.get();
+                }
+                elapsed[index] = System.nanoTime() - begin;
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.MINUTES.toMillis(1));
+        }
+        long total = 0;
+        for (long nanos : elapsed) {
+            total += nanos;
+        }
+        return (double) total / ((long) THREADS * iterations);
+    }
+}
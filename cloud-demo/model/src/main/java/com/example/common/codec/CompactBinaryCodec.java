@@ -0,0 +1,338 @@
+package com.example.common.codec;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.common.Result;
+import com.example.order.Order;
+import com.example.product.Product;
+
+/**
+ * 服務間調用的精簡二進位格式，用來取代 JSON 傳輸 model 模組的 Order、Product、Result
+ *
+ * JSON 每個物件都要重複欄位名稱，數字和 BigDecimal 以文字傳輸，Order 帶大量 productList 時
+ * 序列化結果大、解析慢。本格式：
+ * - 第一個位元組是格式版本，之後是一個帶型別標記的值
+ * - 整數以 zigzag varint 編碼，字串為長度 + UTF-8，BigDecimal 為 scale + unscaled 位元組
+ * - Order、Product、Result 依固定欄位順序寫入，不傳欄位名稱
+ * - 另外支援 null、Boolean、String、List、Map，可以表示 Result.data 和批次查詢的結果
+ *
+ * 欄位順序就是格式的一部分，model 類別增加欄位時只能加在最後並提高 VERSION。
+ * 兩邊服務都以 MEDIA_TYPE 協商，任何一方不支援時退回 JSON。
+ */
+public final class CompactBinaryCodec {
+
+    public static final String MEDIA_TYPE = "application/x-compact-binary";
+
+    static final byte VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte STRING = 5;
+    private static final byte DECIMAL = 6;
+    private static final byte LIST = 7;
+    private static final byte MAP = 8;
+    private static final byte PRODUCT = 16;
+    private static final byte ORDER = 17;
+    private static final byte RESULT = 18;
+
+    private CompactBinaryCodec() {
+    }
+
+    /**
+     * 類別是否可以用本格式讀寫，用於 HTTP 訊息轉換器的型別判斷
+     */
+    public static boolean supportsType(Class<?> clazz) {
+        return clazz == Product.class || clazz == Order.class || clazz == Result.class
+                || clazz == String.class || clazz == Integer.class || clazz == Long.class
+                || clazz == Boolean.class || clazz == BigDecimal.class
+                || List.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz)
+                || clazz == Collection.class;
+    }
+
+    /**
+     * 物件（包含集合內的元素）是否都可以用本格式寫入
+     */
+    public static boolean supports(Object value) {
+        if (value == null) {
+            return true;
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.stream().allMatch(CompactBinaryCodec::supports);
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.entrySet().stream().allMatch(entry -> supports(entry.getKey()) && supports(entry.getValue()));
+        }
+        if (value instanceof Result result) {
+            return supports(result.getData());
+        }
+        return supportsType(value.getClass());
+    }
+
+    public static byte[] encode(Object value) {
+        Writer writer = new Writer();
+        writer.writeByte(VERSION);
+        writer.writeValue(value);
+        return writer.toByteArray();
+    }
+
+    public static Object decode(byte[] bytes) {
+        Reader reader = new Reader(bytes);
+        byte version = reader.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported compact binary version: " + version);
+        }
+        Object value;
+        try {
+            value = reader.readValue();
+        } catch (ClassCastException e) {
+            throw new IllegalArgumentException("Malformed compact binary data: " + e.getMessage(), e);
+        }
+        if (reader.position != bytes.length) {
+            throw new IllegalArgumentException("Trailing bytes after compact binary value: "
+                    + (bytes.length - reader.position));
+        }
+        return value;
+    }
+
+    /**
+     * 解碼並確認結果符合呼叫端預期的型別，集合只檢查集合本身的型別
+     */
+    public static Object decode(byte[] bytes, Type type) {
+        Object value = decode(bytes);
+        Class<?> rawType = rawType(type);
+        if (value != null && rawType != null && !rawType.isInstance(value)) {
+            throw new IllegalArgumentException("Compact binary value of type " + value.getClass().getName()
+                    + " cannot be read as " + type.getTypeName());
+        }
+        return value;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return clazz == Object.class ? null : clazz;
+        }
+        if (type instanceof ParameterizedType parameterizedType) {
+            return rawType(parameterizedType.getRawType());
+        }
+        return null;
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer = new byte[256];
+
+        private int position;
+
+        private void writeValue(Object value) {
+            if (value == null) {
+                writeByte(NULL);
+            } else if (value instanceof Product product) {
+                writeByte(PRODUCT);
+                writeValue(product.getId());
+                writeValue(product.getProductName());
+                writeValue(product.getPrice());
+                writeValue(product.getNum());
+            } else if (value instanceof Order order) {
+                writeByte(ORDER);
+                writeValue(order.getId());
+                writeValue(order.getTotalAmount());
+                writeValue(order.getUserId());
+                writeValue(order.getUserName());
+                writeValue(order.getAddress());
+                writeValue(order.getProductList());
+            } else if (value instanceof Result result) {
+                writeByte(RESULT);
+                writeValue(result.getCode());
+                writeValue(result.getMsg());
+                writeValue(result.getData());
+            } else if (value instanceof String string) {
+                writeByte(STRING);
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                writeVarint(bytes.length);
+                writeBytes(bytes);
+            } else if (value instanceof Long number) {
+                writeByte(LONG);
+                writeVarint(zigzag(number));
+            } else if (value instanceof Integer number) {
+                writeByte(INT);
+                writeVarint(zigzag(number));
+            } else if (value instanceof BigDecimal decimal) {
+                writeByte(DECIMAL);
+                writeVarint(zigzag(decimal.scale()));
+                byte[] unscaled = decimal.unscaledValue().toByteArray();
+                writeVarint(unscaled.length);
+                writeBytes(unscaled);
+            } else if (value instanceof Boolean bool) {
+                writeByte(bool ? TRUE : FALSE);
+            } else if (value instanceof Collection<?> collection) {
+                writeByte(LIST);
+                writeVarint(collection.size());
+                for (Object element : collection) {
+                    writeValue(element);
+                }
+            } else if (value instanceof Map<?, ?> map) {
+                writeByte(MAP);
+                writeVarint(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeValue(entry.getKey());
+                    writeValue(entry.getValue());
+                }
+            } else {
+                throw new IllegalArgumentException("Type not supported by compact binary codec: "
+                        + value.getClass().getName());
+            }
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+
+        private void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeByte(byte value) {
+            ensureCapacity(1);
+            buffer[position++] = value;
+        }
+
+        private void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buffer;
+
+        private int position;
+
+        private Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private Object readValue() {
+            byte tag = readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case TRUE:
+                    return Boolean.TRUE;
+                case FALSE:
+                    return Boolean.FALSE;
+                case INT:
+                    return (int) unzigzag(readVarint());
+                case LONG:
+                    return unzigzag(readVarint());
+                case STRING: {
+                    int length = readLength();
+                    String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+                    position += length;
+                    return value;
+                }
+                case DECIMAL: {
+                    int scale = (int) unzigzag(readVarint());
+                    int length = readLength();
+                    BigInteger unscaled = new BigInteger(buffer, position, length);
+                    position += length;
+                    return new BigDecimal(unscaled, scale);
+                }
+                case LIST: {
+                    int size = readLength();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue());
+                    }
+                    return list;
+                }
+                case MAP: {
+                    int size = readLength();
+                    Map<Object, Object> map = new LinkedHashMap<>(Math.max(16, size * 4 / 3 + 1));
+                    for (int i = 0; i < size; i++) {
+                        map.put(readValue(), readValue());
+                    }
+                    return map;
+                }
+                case PRODUCT:
+                    return new Product((Long) readValue(), (String) readValue(), (BigDecimal) readValue(),
+                            (Integer) readValue());
+                case ORDER:
+                    return new Order((Long) readValue(), (BigDecimal) readValue(), (Long) readValue(),
+                            (String) readValue(), (String) readValue(), productList(readValue()));
+                case RESULT:
+                    return new Result((Integer) readValue(), (String) readValue(), readValue());
+                default:
+                    throw new IllegalArgumentException("Unknown compact binary tag " + tag + " at " + (position - 1));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<Product> productList(Object value) {
+            return (List<Product>) value;
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint at " + position);
+        }
+
+        /**
+         * 長度不可能超過剩餘的位元組數，先檢查避免惡意資料造成超大的陣列配置
+         */
+        private int readLength() {
+            long length = readVarint();
+            if (length < 0 || length > buffer.length - position) {
+                throw new IllegalArgumentException("Invalid length " + length + " at " + position);
+            }
+            return (int) length;
+        }
+
+        private byte readByte() {
+            if (position >= buffer.length) {
+                throw new IllegalArgumentException("Unexpected end of compact binary data");
+            }
+            return buffer[position++];
+        }
+    }
+}
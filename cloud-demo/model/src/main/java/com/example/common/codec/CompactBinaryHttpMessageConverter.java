@@ -0,0 +1,47 @@
+package com.example.common.codec;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.NonNull;
+
+/**
+ * Spring MVC 端的精簡二進位格式轉換器
+ *
+ * 只有在請求的 Accept / Content-Type 明確指定 CompactBinaryCodec.MEDIA_TYPE 時才會被選中，
+ * 需要加在轉換器清單的最後，Accept 為 * / * 的一般請求仍然回傳 JSON。
+ */
+public class CompactBinaryHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(CompactBinaryCodec.MEDIA_TYPE);
+
+    public CompactBinaryHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz) {
+        return CompactBinaryCodec.supportsType(clazz);
+    }
+
+    @Override
+    protected Object readInternal(@NonNull Class<?> clazz, @NonNull HttpInputMessage inputMessage) throws IOException {
+        byte[] bytes = inputMessage.getBody().readAllBytes();
+        try {
+            return CompactBinaryCodec.decode(bytes, clazz);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Invalid compact binary body: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(@NonNull Object value, @NonNull HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes = CompactBinaryCodec.encode(value);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.common.feign;
+
+import feign.Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.cloud.openfeign.loadbalancer.LoadBalancerFeignRequestTransformer;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Feign傳輸配置類
+ * 以連接池傳輸替換Feign默認的HttpURLConnection客戶端，負載均衡行為不變
+ *
+ * 不加@Configuration，避免被服務的元件掃描載入；以{@code @Import(FeignTransportConfiguration.class)}啟用。
+ * 需要包裝負載均衡客戶端的服務不導入本類，以{@link #pooledClient}建立連接池傳輸後自行註冊feignClient。
+ */
+@EnableConfigurationProperties(FeignTransportProperties.class)
+public class FeignTransportConfiguration {
+
+    // JDK HttpClient的空閒連接保活時間，JVM級別，必須在第一個HttpClient建立前設置
+    private static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
+    /**
+     * 替換spring-cloud-openfeign默認的feignClient，所有Feign客戶端共用
+     * 連接池傳輸不單獨註冊為Client類型的Bean，避免Feign按類型獲取Client時出現多個候選
+     */
+    @Bean
+    public Client feignClient(FeignTransportProperties transportProperties,
+                              MeterRegistry meterRegistry,
+                              LoadBalancerClient loadBalancerClient,
+                              LoadBalancerClientFactory loadBalancerClientFactory,
+                              ObjectProvider<LoadBalancerFeignRequestTransformer> transformers) {
+        return new FeignBlockingLoadBalancerClient(pooledClient(transportProperties, meterRegistry),
+            loadBalancerClient, loadBalancerClientFactory, transformers.orderedStream().toList());
+    }
+
+    /**
+     * 建立連接池傳輸，並在第一個HttpClient建立前按default配置設置空閒連接保活時間
+     */
+    public static PooledHttpFeignClient pooledClient(FeignTransportProperties transportProperties,
+                                                     MeterRegistry meterRegistry) {
+        if (System.getProperty(KEEP_ALIVE_PROPERTY) == null) {
+            System.setProperty(KEEP_ALIVE_PROPERTY,
+                String.valueOf(transportProperties.getDefaultPool().getKeepAliveSeconds()));
+        }
+        return new PooledHttpFeignClient(transportProperties, meterRegistry);
+    }
+}
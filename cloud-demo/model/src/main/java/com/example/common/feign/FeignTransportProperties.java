@@ -0,0 +1,136 @@
+package com.example.common.feign;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Feign連接池配置屬性類
+ *
+ * 與Feign的超時、日誌級別等配置共用spring.cloud.openfeign.client.config前綴，
+ * 連接池設定放在各客戶端配置的pool節點下，例如：
+ * spring.cloud.openfeign.client.config.seata-storage.pool.max-in-flight-requests=128
+ * 客戶端未配置pool時使用default的pool配置。
+ * 由{@link FeignTransportConfiguration}註冊，不加@Component，避免被服務的元件掃描重複註冊。
+ */
+@ConfigurationProperties(prefix = "spring.cloud.openfeign.client")
+public class FeignTransportProperties {
+
+    /**
+     * 默認配置的名稱，與FeignClientProperties一致
+     */
+    public static final String DEFAULT_CONFIG = "default";
+
+    /**
+     * 按Feign客戶端名稱的配置
+     */
+    private Map<String, ClientConfig> config = new HashMap<>();
+
+    public Map<String, ClientConfig> getConfig() {
+        return config;
+    }
+
+    public void setConfig(Map<String, ClientConfig> config) {
+        this.config = config;
+    }
+
+    /**
+     * 獲取客戶端的連接池配置，客戶端未配置時使用default配置
+     */
+    public Pool getPool(String clientName) {
+        ClientConfig clientConfig = config.get(clientName);
+        if (clientConfig != null && clientConfig.getPool() != null) {
+            return clientConfig.getPool();
+        }
+        return getDefaultPool();
+    }
+
+    public Pool getDefaultPool() {
+        ClientConfig defaultConfig = config.get(DEFAULT_CONFIG);
+        return defaultConfig != null && defaultConfig.getPool() != null ? defaultConfig.getPool() : new Pool();
+    }
+
+    public static class ClientConfig {
+
+        private Pool pool;
+
+        public Pool getPool() {
+            return pool;
+        }
+
+        public void setPool(Pool pool) {
+            this.pool = pool;
+        }
+    }
+
+    public static class Pool {
+
+        /**
+         * 是否使用連接池傳輸，關閉時退回Feign默認的HttpURLConnection
+         */
+        private boolean enabled = true;
+
+        /**
+         * 是否優先使用HTTP/2，明文連接通過h2c升級協商，服務端不支持時保持HTTP/1.1
+         */
+        private boolean http2 = true;
+
+        /**
+         * 到該服務同時進行中的請求數上限，以公平信號量在發出請求前限制，不是TCP連接數：
+         * HTTP/1.1下每個進行中的請求佔一個連接，效果等同最大連接數；
+         * HTTP/2下多個請求在同一個連接上多路復用，連接數通常只有一個
+         */
+        private int maxInFlightRequests = 64;
+
+        /**
+         * 達到請求數上限時等待名額的時間（毫秒），超時後請求失敗
+         */
+        private long acquireTimeoutMillis = 1000;
+
+        /**
+         * 空閒連接保活時間（秒），只讀取default配置，對整個JVM的HttpClient生效
+         */
+        private long keepAliveSeconds = 300;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isHttp2() {
+            return http2;
+        }
+
+        public void setHttp2(boolean http2) {
+            this.http2 = http2;
+        }
+
+        public int getMaxInFlightRequests() {
+            return maxInFlightRequests;
+        }
+
+        public void setMaxInFlightRequests(int maxInFlightRequests) {
+            this.maxInFlightRequests = maxInFlightRequests;
+        }
+
+        public long getAcquireTimeoutMillis() {
+            return acquireTimeoutMillis;
+        }
+
+        public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+            this.acquireTimeoutMillis = acquireTimeoutMillis;
+        }
+
+        public long getKeepAliveSeconds() {
+            return keepAliveSeconds;
+        }
+
+        public void setKeepAliveSeconds(long keepAliveSeconds) {
+            this.keepAliveSeconds = keepAliveSeconds;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.common.feign;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基於JDK HttpClient的Feign連接池傳輸
+ *
+ * Feign默認客戶端每個請求打開一個HttpURLConnection，連接復用依賴JVM全局的keep-alive緩存，
+ * 並發高時緩存不足，頻繁建立TCP連接。本客戶端按Feign客戶端名稱（目標服務）各自維護一個HttpClient：
+ * - 連接在請求之間保持並復用，優先通過h2c升級使用HTTP/2，一個連接上多路復用多個請求
+ * - 按目標服務以公平信號量限制同時進行中的請求數（max-in-flight-requests），達到上限時等待，
+ *   等待超時則請求失敗；HTTP/1.1下每個進行中的請求佔一個連接，因此也限制了連接數，
+ *   HTTP/2下限制的是一個連接上多路復用的請求數
+ * - 按目標服務記錄連接池指標：請求數上限、進行中、等待中、等待耗時和等待超時次數
+ *
+ * 響應體在釋放並發名額前完整讀取，不依賴調用方關閉響應流。
+ * 負載均衡由外層的FeignBlockingLoadBalancerClient完成，本客戶端收到的是已解析的實例地址。
+ */
+public class PooledHttpFeignClient implements Client {
+
+    private static final Logger logger = LoggerFactory.getLogger(PooledHttpFeignClient.class);
+
+    // JDK HttpClient不允許調用方設置的請求頭，由HttpClient自行管理
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host",
+            "upgrade");
+
+    private final FeignTransportProperties transportProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Client fallbackClient = new Client.Default(null, null);
+
+    private final Map<String, TargetPool> pools = new ConcurrentHashMap<>();
+
+    public PooledHttpFeignClient(FeignTransportProperties transportProperties, MeterRegistry meterRegistry) {
+        this.transportProperties = transportProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        String target = targetName(request);
+        FeignTransportProperties.Pool poolConfig = transportProperties.getPool(target);
+        if (!poolConfig.isEnabled()) {
+            return fallbackClient.execute(request, options);
+        }
+        return pools.computeIfAbsent(target, name -> new TargetPool(name, poolConfig, options))
+                .execute(request, options);
+    }
+
+    private static String targetName(Request request) {
+        if (request.requestTemplate() != null && request.requestTemplate().feignTarget() != null) {
+            return request.requestTemplate().feignTarget().name();
+        }
+        return URI.create(request.url()).getHost();
+    }
+
+    /**
+     * 單個目標服務的連接池
+     */
+    private final class TargetPool {
+
+        private final String name;
+
+        private final int maxInFlightRequests;
+
+        private final long acquireTimeoutMillis;
+
+        private final HttpClient httpClient;
+
+        private final Semaphore permits;
+
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private final Timer acquireTimer;
+
+        private final Counter acquireTimeoutCounter;
+
+        private TargetPool(String name, FeignTransportProperties.Pool poolConfig, Request.Options options) {
+            this.name = name;
+            this.maxInFlightRequests = poolConfig.getMaxInFlightRequests();
+            this.acquireTimeoutMillis = poolConfig.getAcquireTimeoutMillis();
+            // 限制的是進行中的請求而不是連接，HttpClient自行管理連接；公平模式下按到達順序獲得名額
+            this.permits = new Semaphore(maxInFlightRequests, true);
+            // 連接超時在建立HttpClient時固定，取該目標第一個請求的Feign連接超時配置
+            this.httpClient = HttpClient.newBuilder()
+                    .version(poolConfig.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofMillis(options.connectTimeoutMillis()))
+                    .followRedirects(options.isFollowRedirects()
+                            ? HttpClient.Redirect.NORMAL : HttpClient.Redirect.NEVER)
+                    .build();
+
+            Gauge.builder("feign.pool.max", () -> maxInFlightRequests)
+                    .description("Maximum concurrent requests to the target service")
+                    .tag("target", name)
+                    .register(meterRegistry);
+            Gauge.builder("feign.pool.leased", () -> maxInFlightRequests - permits.availablePermits())
+                    .description("Requests currently in flight to the target service")
+                    .tag("target", name)
+                    .register(meterRegistry);
+            Gauge.builder("feign.pool.pending", pending, AtomicInteger::get)
+                    .description("Requests waiting for an in-flight slot")
+                    .tag("target", name)
+                    .register(meterRegistry);
+            acquireTimer = Timer.builder("feign.pool.acquire")
+                    .description("Time spent waiting for an in-flight slot")
+                    .tag("target", name)
+                    .register(meterRegistry);
+            acquireTimeoutCounter = Counter.builder("feign.pool.acquire.timeout")
+                    .description("Requests failed because no in-flight slot became free in time")
+                    .tag("target", name)
+                    .register(meterRegistry);
+            logger.info("Feign connection pool created - target: {}, maxInFlightRequests: {}, http2: {}",
+                    name, maxInFlightRequests, poolConfig.isHttp2());
+        }
+
+        private Response execute(Request request, Request.Options options) throws IOException {
+            acquire();
+            try {
+                HttpResponse<byte[]> response = httpClient.send(toHttpRequest(request, options),
+                        HttpResponse.BodyHandlers.ofByteArray());
+                return toFeignResponse(request, response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Feign request interrupted: " + request.url());
+            } finally {
+                permits.release();
+            }
+        }
+
+        private void acquire() throws IOException {
+            long start = System.nanoTime();
+            pending.incrementAndGet();
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for Feign connection to " + name);
+            } finally {
+                pending.decrementAndGet();
+                acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (!acquired) {
+                acquireTimeoutCounter.increment();
+                // IOException由Feign包裝為RetryableException，按Retryer配置重試
+                throw new IOException(String.format(
+                        "Feign connection pool exhausted - target: %s, maxInFlightRequests: %d", name, maxInFlightRequests));
+            }
+        }
+    }
+
+    private static HttpRequest toHttpRequest(Request request, Request.Options options) {
+        byte[] body = request.body();
+        HttpRequest.BodyPublisher publisher = body == null || body.length == 0
+                ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.url()))
+                .timeout(Duration.ofMillis(options.readTimeoutMillis()))
+                .method(request.httpMethod().name(), publisher);
+        request.headers().forEach((name, values) -> {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+        return builder.build();
+    }
+
+    private static Response toFeignResponse(Request request, HttpResponse<byte[]> response) {
+        Map<String, Collection<String>> headers = new LinkedHashMap<>();
+        response.headers().map().forEach(headers::put);
+        return Response.builder()
+                .status(response.statusCode())
+                .request(request)
+                .protocolVersion(response.version() == HttpClient.Version.HTTP_2
+                        ? Request.ProtocolVersion.HTTP_2 : Request.ProtocolVersion.HTTP_1_1)
+                .headers(headers)
+                .body(response.body())
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.common.idempotent;
+
+import com.example.common.idempotent.IdempotencyStore.IdempotencyRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * 冪等AOP切面
+ *
+ * 攔截@Idempotent註解的方法，以「服務名:操作名:冪等鍵」為存儲鍵：
+ * - 已完成：直接返回保存的結果，不執行方法，也就不會獲取分布式鎖和訪問資料庫
+ * - 處理中：返回409，由客戶端稍後重試
+ * - 不存在：寫入處理中標記後執行，成功時保存結果，失敗時清除標記允許重試
+ *
+ * 保存結果時同時記錄請求參數指紋，冪等鍵被用於不同參數的請求時返回422。
+ * 由{@link IdempotencyConfiguration}註冊。
+ *
+ * @author system
+ */
+@Aspect
+@Order(0) // 在分布式鎖切面之前執行，重複請求不佔用鎖
+public class IdempotencyAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyAspect.class);
+
+    private final IdempotencyStore idempotencyStore;
+
+    private final IdempotencyProperties idempotencyProperties;
+
+    private final ObjectMapper objectMapper;
+
+    private final String serviceName;
+
+    public IdempotencyAspect(IdempotencyStore idempotencyStore, IdempotencyProperties idempotencyProperties,
+                             ObjectMapper objectMapper, String serviceName) {
+        this.idempotencyStore = idempotencyStore;
+        this.idempotencyProperties = idempotencyProperties;
+        this.objectMapper = objectMapper;
+        this.serviceName = serviceName;
+    }
+
+    @Around("@annotation(idempotent)")
+    public Object around(ProceedingJoinPoint joinPoint, Idempotent idempotent) throws Throwable {
+        String idempotencyKey = currentIdempotencyKey();
+        if (!idempotencyProperties.isEnabled() || !StringUtils.hasText(idempotencyKey)) {
+            return joinPoint.proceed();
+        }
+
+        String storeKey = idempotencyProperties.getKeyPrefix() + serviceName + ":" + idempotent.value() + ":" + idempotencyKey;
+        String fingerprint = Integer.toHexString(Arrays.deepHashCode(joinPoint.getArgs()));
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+
+        IdempotencyRecord record = idempotencyStore.get(storeKey);
+        if (record == null && idempotencyStore.tryBegin(storeKey, fingerprint)) {
+            return execute(joinPoint, idempotent, storeKey, fingerprint);
+        }
+        if (record == null) {
+            record = idempotencyStore.get(storeKey);
+        }
+        return replay(record, fingerprint, idempotencyKey, method);
+    }
+
+    private Object execute(ProceedingJoinPoint joinPoint, Idempotent idempotent, String storeKey,
+                           String fingerprint) throws Throwable {
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            idempotencyStore.abort(storeKey);
+            throw e;
+        }
+
+        long ttl = idempotent.ttl() > 0 ? idempotent.ttl() : idempotencyProperties.getResultTtl();
+        try {
+            if (result instanceof ResponseEntity<?> response) {
+                idempotencyStore.complete(storeKey, fingerprint, response.getStatusCode().value(),
+                        objectMapper.writeValueAsString(response.getBody()), ttl);
+            } else {
+                idempotencyStore.complete(storeKey, fingerprint, 200, objectMapper.writeValueAsString(result), ttl);
+            }
+        } catch (Exception e) {
+            // 結果無法保存時清除標記，重複請求將重新執行
+            logger.warn("Failed to save idempotent result for key: {}, error: {}", storeKey, e.getMessage());
+            idempotencyStore.abort(storeKey);
+        }
+        return result;
+    }
+
+    private Object replay(IdempotencyRecord record, String fingerprint, String idempotencyKey,
+                          Method method) throws Exception {
+        if (record == null || !record.isCompleted()) {
+            throw IdempotencyException.inProgress(idempotencyKey);
+        }
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw IdempotencyException.mismatch(idempotencyKey);
+        }
+
+        logger.debug("Replaying idempotent result for key: {} in method: {}", idempotencyKey, method.getName());
+        if (ResponseEntity.class.isAssignableFrom(method.getReturnType())) {
+            return ResponseEntity.status(record.getStatus()).body(objectMapper.readValue(record.getBody(), Object.class));
+        }
+        return objectMapper.readValue(record.getBody(),
+                objectMapper.getTypeFactory().constructType(method.getGenericReturnType()));
+    }
+
+    private String currentIdempotencyKey() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getHeader(idempotencyProperties.getHeaderName());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.common.idempotent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 請求冪等配置
+ *
+ * 註冊冪等記錄存儲和@Idempotent切面，由需要冪等去重的服務以@Import啟用；
+ * 沒有RedissonClient時只做本地去重。
+ */
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfiguration {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(IdempotencyProperties idempotencyProperties,
+                                             ObjectProvider<RedissonClient> redissonClient) {
+        return new IdempotencyStore(idempotencyProperties, redissonClient.getIfAvailable());
+    }
+
+    @Bean
+    public IdempotencyAspect idempotencyAspect(IdempotencyStore idempotencyStore,
+                                               IdempotencyProperties idempotencyProperties,
+                                               ObjectMapper objectMapper,
+                                               @Value("${spring.application.name}") String serviceName) {
+        return new IdempotencyAspect(idempotencyStore, idempotencyProperties, objectMapper, serviceName);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.common.idempotent;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 冪等校驗異常
+ * 相同冪等鍵的請求正在處理中，或冪等鍵被用於不同的請求參數
+ */
+public class IdempotencyException extends ResponseStatusException {
+
+    public IdempotencyException(HttpStatus status, String message) {
+        super(status, message);
+    }
+
+    /**
+     * 相同冪等鍵的首次請求尚未完成
+     */
+    public static IdempotencyException inProgress(String idempotencyKey) {
+        return new IdempotencyException(HttpStatus.CONFLICT, "相同冪等鍵的請求正在處理中: " + idempotencyKey);
+    }
+
+    /**
+     * 冪等鍵已用於參數不同的請求
+     */
+    public static IdempotencyException mismatch(String idempotencyKey) {
+        return new IdempotencyException(HttpStatus.UNPROCESSABLE_ENTITY, "冪等鍵已用於不同的請求參數: " + idempotencyKey);
+    }
+}
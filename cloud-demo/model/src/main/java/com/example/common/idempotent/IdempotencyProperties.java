@@ -0,0 +1,102 @@
+package com.example.common.idempotent;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 請求冪等配置屬性類
+ * 控制冪等鍵請求頭、結果保存時間以及本地/Redis兩級存儲；由{@link IdempotencyConfiguration}註冊
+ */
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * 是否啟用冪等去重，關閉時所有請求直接執行
+     */
+    private boolean enabled = true;
+
+    /**
+     * 冪等鍵請求頭，未攜帶時不做去重
+     */
+    private String headerName = "Idempotency-Key";
+
+    /**
+     * Redis鍵前綴
+     */
+    private String keyPrefix = "idempotency:";
+
+    /**
+     * 執行結果保存時間（秒），覆蓋客戶端和Feign的重試窗口
+     */
+    private long resultTtl = 600;
+
+    /**
+     * 處理中標記的保存時間（秒），實例崩潰時到期後允許重新執行
+     */
+    private long pendingTtl = 60;
+
+    /**
+     * 本地緩存最大條目數
+     */
+    private long localMaximumSize = 10000;
+
+    /**
+     * 本地緩存過期時間（秒），不應超過resultTtl
+     */
+    private long localTtl = 60;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getHeaderName() {
+        return headerName;
+    }
+
+    public void setHeaderName(String headerName) {
+        this.headerName = headerName;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public long getResultTtl() {
+        return resultTtl;
+    }
+
+    public void setResultTtl(long resultTtl) {
+        this.resultTtl = resultTtl;
+    }
+
+    public long getPendingTtl() {
+        return pendingTtl;
+    }
+
+    public void setPendingTtl(long pendingTtl) {
+        this.pendingTtl = pendingTtl;
+    }
+
+    public long getLocalMaximumSize() {
+        return localMaximumSize;
+    }
+
+    public void setLocalMaximumSize(long localMaximumSize) {
+        this.localMaximumSize = localMaximumSize;
+    }
+
+    public long getLocalTtl() {
+        return localTtl;
+    }
+
+    public void setLocalTtl(long localTtl) {
+        this.localTtl = localTtl;
+    }
+}
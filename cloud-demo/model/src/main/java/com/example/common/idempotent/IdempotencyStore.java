@@ -0,0 +1,188 @@
+package com.example.common.idempotent;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 冪等記錄兩級存儲
+ *
+ * 本地緩存命中時不訪問Redis；Redis負責跨實例去重和處理中標記的互斥。
+ * Redis不可用時退化為僅本地去重，與分布式鎖的降級策略一致。
+ *
+ * 記錄以緊湊字符串保存：
+ * - 處理中：P|參數指紋
+ * - 已完成：D|參數指紋|HTTP狀態碼|結果JSON
+ */
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private static final String PENDING = "P";
+
+    private static final String DONE = "D";
+
+    private static final String SEPARATOR = "|";
+
+    private final IdempotencyProperties idempotencyProperties;
+
+    private final RedissonClient redissonClient;
+
+    private final Cache<String, String> localCache;
+
+    /**
+     * @param redissonClient Redis客戶端，為null時只做本地去重
+     */
+    public IdempotencyStore(IdempotencyProperties idempotencyProperties, RedissonClient redissonClient) {
+        this.idempotencyProperties = idempotencyProperties;
+        this.redissonClient = redissonClient;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(idempotencyProperties.getLocalMaximumSize())
+                .expireAfterWrite(idempotencyProperties.getLocalTtl(), TimeUnit.SECONDS)
+                .build();
+        logger.info("IdempotencyStore initialized - header: {}, resultTtl: {}s, redis: {}",
+                idempotencyProperties.getHeaderName(), idempotencyProperties.getResultTtl(), redissonClient != null);
+    }
+
+    /**
+     * 查詢冪等記錄，先查本地再查Redis
+     *
+     * @return 冪等記錄，不存在時返回null
+     */
+    public IdempotencyRecord get(String key) {
+        String value = localCache.getIfPresent(key);
+        if (value == null) {
+            value = redisGet(key);
+            if (value != null && value.startsWith(DONE)) {
+                localCache.put(key, value);
+            }
+        }
+        return value != null ? IdempotencyRecord.decode(value) : null;
+    }
+
+    /**
+     * 寫入處理中標記，僅當記錄不存在時成功
+     *
+     * @return 是否由當前請求執行
+     */
+    public boolean tryBegin(String key, String fingerprint) {
+        String pending = PENDING + SEPARATOR + fingerprint;
+        if (localCache.asMap().putIfAbsent(key, pending) != null) {
+            return false;
+        }
+        if (redissonClient == null) {
+            return true;
+        }
+        try {
+            if (bucket(key).setIfAbsent(pending, Duration.ofSeconds(idempotencyProperties.getPendingTtl()))) {
+                return true;
+            }
+            localCache.asMap().remove(key, pending);
+            return false;
+        } catch (Exception e) {
+            logger.warn("Redis unavailable for idempotency key: {}, falling back to local store, error: {}",
+                    key, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * 保存執行結果，覆蓋處理中標記
+     */
+    public void complete(String key, String fingerprint, int status, String body, long ttlSeconds) {
+        String value = DONE + SEPARATOR + fingerprint + SEPARATOR + status + SEPARATOR + body;
+        localCache.put(key, value);
+        if (redissonClient == null) {
+            return;
+        }
+        try {
+            bucket(key).set(value, Duration.ofSeconds(ttlSeconds));
+        } catch (Exception e) {
+            logger.warn("Failed to store idempotency result for key: {}, error: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * 執行失敗時清除處理中標記，允許重試重新執行
+     */
+    public void abort(String key) {
+        localCache.invalidate(key);
+        if (redissonClient == null) {
+            return;
+        }
+        try {
+            bucket(key).delete();
+        } catch (Exception e) {
+            // 處理中標記到期後自動清除
+            logger.warn("Failed to clear idempotency key: {}, error: {}", key, e.getMessage());
+        }
+    }
+
+    private String redisGet(String key) {
+        if (redissonClient == null) {
+            return null;
+        }
+        try {
+            return bucket(key).get();
+        } catch (Exception e) {
+            logger.warn("Failed to read idempotency key: {}, error: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private RBucket<String> bucket(String key) {
+        return redissonClient.getBucket(key, StringCodec.INSTANCE);
+    }
+
+    /**
+     * 冪等記錄
+     */
+    public static final class IdempotencyRecord {
+
+        private final boolean completed;
+
+        private final String fingerprint;
+
+        private final int status;
+
+        private final String body;
+
+        private IdempotencyRecord(boolean completed, String fingerprint, int status, String body) {
+            this.completed = completed;
+            this.fingerprint = fingerprint;
+            this.status = status;
+            this.body = body;
+        }
+
+        static IdempotencyRecord decode(String value) {
+            String[] parts = value.split("\\" + SEPARATOR, 4);
+            if (DONE.equals(parts[0]) && parts.length == 4) {
+                return new IdempotencyRecord(true, parts[1], Integer.parseInt(parts[2]), parts[3]);
+            }
+            return new IdempotencyRecord(false, parts.length > 1 ? parts[1] : "", 0, null);
+        }
+
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.common.idempotent;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 冪等註解
+ * 標記在控制器方法上，攜帶冪等鍵請求頭的重複請求直接返回首次執行的結果，
+ * 不再獲取分布式鎖、不再訪問資料庫
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent {
+
+    /**
+     * 操作名稱，與冪等鍵共同組成存儲鍵，區分不同接口
+     */
+    String value();
+
+    /**
+     * 結果保存時間（秒），小於等於0時使用idempotency.result-ttl
+     */
+    long ttl() default -1;
+}
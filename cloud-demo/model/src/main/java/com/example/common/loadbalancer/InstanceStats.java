@@ -0,0 +1,72 @@
+package com.example.common.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 單一實例的負載統計：進行中的請求數和 peak EWMA 延遲
+ *
+ * peak EWMA：延遲高於目前的平均值時直接採用新的延遲，變慢的實例馬上被避開；
+ * 低於平均值時依距離上次更新的時間加權平均，平均值隨時間衰減，閒置的慢實例一段時間後會再被嘗試。
+ */
+final class InstanceStats {
+
+    /**
+     * 還沒有延遲樣本且已有請求進行中時的成本，在第一個回應之前只分配一個請求
+     */
+    static final double PENDING_PENALTY = Double.MAX_VALUE / 1e6;
+
+    private final double decayNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private double ewmaNanos;
+
+    private long lastUpdateNanos;
+
+    private boolean sampled;
+
+    InstanceStats(long decayNanos) {
+        this.decayNanos = Math.max(1, decayNanos);
+    }
+
+    void start() {
+        inFlight.incrementAndGet();
+    }
+
+    void finish() {
+        inFlight.updateAndGet(count -> Math.max(0, count - 1));
+    }
+
+    synchronized void observe(long latencyNanos, long now) {
+        if (!sampled) {
+            ewmaNanos = latencyNanos;
+            sampled = true;
+        } else if (latencyNanos > ewmaNanos) {
+            ewmaNanos = latencyNanos;
+        } else {
+            double weight = Math.exp(-Math.max(0, now - lastUpdateNanos) / decayNanos);
+            ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+        }
+        lastUpdateNanos = now;
+    }
+
+    /**
+     * 成本 = 衰減後的 EWMA 延遲 × (進行中的請求數 + 1)，越低越優先
+     */
+    synchronized double cost(long now) {
+        int pending = inFlight.get();
+        if (!sampled) {
+            return pending == 0 ? 0 : PENDING_PENALTY;
+        }
+        double decayed = ewmaNanos * Math.exp(-Math.max(0, now - lastUpdateNanos) / decayNanos);
+        return decayed * (pending + 1);
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    synchronized double ewmaNanos() {
+        return ewmaNanos;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.common.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpStatusCode;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 延遲感知的負載均衡器，取代預設的輪詢（RoundRobinLoadBalancer）
+ *
+ * 選擇實例時隨機取兩個實例（power of two choices），選成本較低的一個，
+ * 成本 = peak EWMA 延遲 × (進行中的請求數 + 1) ÷ Nacos 權重，變慢或積壓請求的實例分到的流量隨之減少；
+ * 只比較兩個實例，選擇的成本固定，也避免所有請求同時湧向同一個「目前最快」的實例。
+ *
+ * 延遲和進行中的請求數由 LoadBalancerLifecycle 的回呼記錄，
+ * Gateway 的 ReactiveLoadBalancerClientFilter 和 Feign 的 FeignBlockingLoadBalancerClient 都會呼叫。
+ * 啟用方式：@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyAwareLoadBalancer.class);
+
+    static final String NACOS_WEIGHT = "nacos.weight";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+
+    private final String serviceId;
+
+    private final LatencyAwareLoadBalancerProperties properties;
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId, LatencyAwareLoadBalancerProperties properties) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.properties = properties;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            ServiceInstance instance = choose(instances);
+            if (instance == null) {
+                log.warn("No servers available for service: {}", serviceId);
+                return new EmptyResponse();
+            }
+            if (supplier instanceof SelectedInstanceCallback callback) {
+                callback.selectedServiceInstance(instance);
+            }
+            return new DefaultResponse(instance);
+        });
+    }
+
+    /**
+     * 從候選實例中隨機取兩個，回傳成本較低的一個
+     */
+    ServiceInstance choose(List<ServiceInstance> instances) {
+        List<ServiceInstance> candidates = properties.isUseNacosWeight() ? withWeight(instances) : instances;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        pruneStats(instances);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        long now = System.nanoTime();
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return cost(a, now) <= cost(b, now) ? a : b;
+    }
+
+    private double cost(ServiceInstance instance, long now) {
+        InstanceStats instanceStats = stats.get(key(instance));
+        double cost = instanceStats != null ? instanceStats.cost(now) : 0;
+        return properties.isUseNacosWeight() ? cost / weight(instance) : cost;
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() != null) {
+            request.getContext().setRequestStartTime(System.nanoTime());
+        }
+        stats(lbResponse.getServer()).start();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        InstanceStats instanceStats = stats(lbResponse.getServer());
+        instanceStats.finish();
+        if (completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        long now = System.nanoTime();
+        Request<RequestDataContext> request = completionContext.getLoadBalancerRequest();
+        long startTime = request != null && request.getContext() != null
+                ? request.getContext().getRequestStartTime() : 0;
+        long latency = startTime > 0 ? now - startTime : 0;
+        if (isFailure(completionContext)) {
+            latency = Math.max(latency, TimeUnit.MILLISECONDS.toNanos(properties.getFailurePenaltyMillis()));
+        } else if (startTime <= 0) {
+            return;
+        }
+        instanceStats.observe(latency, now);
+    }
+
+    private static boolean isFailure(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> context) {
+        if (context.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        ResponseData response = context.getClientResponse();
+        HttpStatusCode status = response != null ? response.getHttpStatus() : null;
+        return status != null && status.is5xxServerError();
+    }
+
+    InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance),
+                key -> new InstanceStats(TimeUnit.MILLISECONDS.toNanos(properties.getDecayTimeMillis())));
+    }
+
+    /**
+     * 實例下線後移除統計，避免統計數量只增不減
+     */
+    private void pruneStats(List<ServiceInstance> instances) {
+        if (stats.size() <= instances.size() * 2 + 16) {
+            return;
+        }
+        Set<String> current = new HashSet<>();
+        for (ServiceInstance instance : instances) {
+            current.add(key(instance));
+        }
+        stats.keySet().retainAll(current);
+    }
+
+    /**
+     * 權重大於 0 的實例；所有實例權重都是 0 時不過濾
+     */
+    private static List<ServiceInstance> withWeight(List<ServiceInstance> instances) {
+        List<ServiceInstance> weighted = null;
+        for (int i = 0; i < instances.size(); i++) {
+            ServiceInstance instance = instances.get(i);
+            if (weight(instance) > 0) {
+                if (weighted != null) {
+                    weighted.add(instance);
+                }
+            } else if (weighted == null) {
+                weighted = new ArrayList<>(instances.subList(0, i));
+            }
+        }
+        if (weighted == null) {
+            return instances;
+        }
+        return weighted.isEmpty() ? instances : weighted;
+    }
+
+    static double weight(ServiceInstance instance) {
+        Map<String, String> metadata = instance.getMetadata();
+        String weight = metadata != null ? metadata.get(NACOS_WEIGHT) : null;
+        if (weight == null) {
+            return 1;
+        }
+        try {
+            return Math.max(0, Double.parseDouble(weight));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+}
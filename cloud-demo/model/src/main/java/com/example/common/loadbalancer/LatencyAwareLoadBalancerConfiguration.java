@@ -0,0 +1,26 @@
+package com.example.common.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * 延遲感知負載均衡的配置，建立在每個服務各自的子容器中
+ * 不加 @Configuration，避免被服務的元件掃描載入到主容器；以
+ * {@code @LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)} 啟用
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    /**
+     * 取代預設的 RoundRobinLoadBalancer；回傳實際型別，LoadBalancerLifecycle 的回呼才找得到此 Bean
+     */
+    @Bean
+    public LatencyAwareLoadBalancer latencyAwareLoadBalancer(Environment environment,
+                                                             LoadBalancerClientFactory loadBalancerClientFactory) {
+        String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(name, ServiceInstanceListSupplier.class), name,
+                LatencyAwareLoadBalancerProperties.from(environment));
+    }
+}
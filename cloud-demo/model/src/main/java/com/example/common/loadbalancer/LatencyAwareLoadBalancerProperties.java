@@ -0,0 +1,41 @@
+package com.example.common.loadbalancer;
+
+import org.springframework.core.env.PropertyResolver;
+
+import lombok.Data;
+
+/**
+ * 延遲感知負載均衡的設定 -> LatencyAwareLoadBalancer
+ * 負載均衡器建立在每個服務各自的子容器中，設定直接從 Environment 讀取，前綴 loadbalancer.latency-aware
+ */
+@Data
+public class LatencyAwareLoadBalancerProperties {
+
+    static final String PREFIX = "loadbalancer.latency-aware.";
+
+    /**
+     * EWMA 的衰減時間（毫秒），越短越快反映最近的延遲；沒有新請求的實例，延遲也會依此時間衰減，之後再被嘗試
+     */
+    private long decayTimeMillis = 10_000;
+
+    /**
+     * 請求失敗或回應 5xx 時計入的延遲（毫秒），讓出錯的實例暫時少分到請求
+     */
+    private long failurePenaltyMillis = 1_000;
+
+    /**
+     * 是否依 Nacos 實例的權重（metadata nacos.weight）分配，權重 0 的實例不分配請求
+     */
+    private boolean useNacosWeight = true;
+
+    public static LatencyAwareLoadBalancerProperties from(PropertyResolver resolver) {
+        LatencyAwareLoadBalancerProperties properties = new LatencyAwareLoadBalancerProperties();
+        properties.setDecayTimeMillis(resolver.getProperty(PREFIX + "decay-time-millis", Long.class,
+                properties.getDecayTimeMillis()));
+        properties.setFailurePenaltyMillis(resolver.getProperty(PREFIX + "failure-penalty-millis", Long.class,
+                properties.getFailurePenaltyMillis()));
+        properties.setUseNacosWeight(resolver.getProperty(PREFIX + "use-nacos-weight", Boolean.class,
+                properties.isUseNacosWeight()));
+        return properties;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.common.shard;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * storage_tbl分表配置
+ *
+ * 註冊分表屬性和路由器，由讀寫storage_tbl的服務以@Import啟用；
+ * 各服務再以自身的Mapper接口建立{@link StorageShardInterceptor}。
+ */
+@EnableConfigurationProperties(StorageShardProperties.class)
+public class StorageShardConfiguration {
+
+    @Bean
+    public StorageShardRouter storageShardRouter(StorageShardProperties shardProperties) {
+        return new StorageShardRouter(shardProperties);
+    }
+}
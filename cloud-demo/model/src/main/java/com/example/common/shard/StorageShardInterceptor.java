@@ -0,0 +1,199 @@
+package com.example.common.shard;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * storage_tbl分表攔截器
+ *
+ * 在語句預編譯前按商品編碼將SQL中的邏輯表名改寫為實際分表名。
+ * 改寫發生在Seata AT數據源代理解析SQL之前，undo_log記錄的是實際分表。
+ *
+ * 各分表的主鍵獨立自增，只憑主鍵無法確定記錄所在的分表，扇出到所有分表也可能命中多條記錄。
+ * 分表模式下建立攔截器時檢查Mapper接口，存在無法從參數確定商品編碼的方法（如按主鍵操作）時
+ * 拒絕啟動，而不是在調用時才失敗。
+ */
+@Intercepts({
+    @Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class})
+})
+public class StorageShardInterceptor implements Interceptor {
+
+    private static final String COMMODITY_CODE_PARAM = "commodityCode";
+
+    // 未使用@Param的方法只能按位置取得商品編碼
+    private static final String FIRST_POSITIONAL_PARAM = "param1";
+
+    // 未使用@Param的單個List參數由MyBatis包裝為list
+    private static final String LIST_PARAM = "list";
+
+    private final StorageShardRouter shardRouter;
+
+    private final String statementPrefix;
+
+    private final Pattern logicTablePattern;
+
+    /**
+     * @param shardRouter 分片路由器
+     * @param mapperType 讀寫storage_tbl的Mapper接口，只改寫該接口的語句
+     * @throws IllegalStateException 分表模式下Mapper接口存在無法路由的方法
+     */
+    public StorageShardInterceptor(StorageShardRouter shardRouter, Class<?> mapperType) {
+        this.shardRouter = shardRouter;
+        this.statementPrefix = mapperType.getName() + ".";
+        this.logicTablePattern = Pattern.compile("\\b" + Pattern.quote(shardRouter.getLogicTableName()) + "\\b",
+                Pattern.CASE_INSENSITIVE);
+        if (shardRouter.isSharded()) {
+            List<String> unroutable = unroutableMethods(mapperType);
+            if (!unroutable.isEmpty()) {
+                throw new IllegalStateException("分表模式下無法從參數確定商品編碼，請移除或改寫這些方法: "
+                        + mapperType.getName() + unroutable);
+            }
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!shardRouter.isSharded()) {
+            return invocation.proceed();
+        }
+
+        MetaObject handler = SystemMetaObject.forObject(invocation.getTarget());
+        // RoutingStatementHandler將實際處理委派給delegate
+        while (handler.hasGetter("delegate")) {
+            handler = SystemMetaObject.forObject(handler.getValue("delegate"));
+        }
+        MappedStatement statement = (MappedStatement) handler.getValue("mappedStatement");
+        if (!statement.getId().startsWith(statementPrefix)) {
+            return invocation.proceed();
+        }
+
+        BoundSql boundSql = (BoundSql) handler.getValue("boundSql");
+        String commodityCode = resolveCommodityCode(boundSql.getParameterObject());
+        if (commodityCode == null) {
+            // 方法簽名已在啟動時檢查，這裡只會是記錄的商品編碼為空
+            throw new IllegalStateException("分表模式下商品編碼不能為空，拒絕執行語句: " + statement.getId());
+        }
+
+        Matcher matcher = logicTablePattern.matcher(boundSql.getSql());
+        handler.setValue("boundSql.sql", matcher.replaceAll(Matcher.quoteReplacement(shardRouter.tableOf(commodityCode))));
+        return invocation.proceed();
+    }
+
+    /**
+     * 從語句參數解析商品編碼，無法確定時返回null
+     * 集合參數（批量語句）要求所有元素位於同一分片
+     */
+    String resolveCommodityCode(Object parameter) {
+        if (parameter == null) {
+            return null;
+        }
+        if (parameter instanceof String commodityCode) {
+            return commodityCode;
+        }
+        if (parameter instanceof Map<?, ?> params) {
+            if (params.containsKey(COMMODITY_CODE_PARAM) && params.get(COMMODITY_CODE_PARAM) instanceof String code) {
+                return code;
+            }
+            if (params.containsKey(FIRST_POSITIONAL_PARAM)) {
+                Object first = params.get(FIRST_POSITIONAL_PARAM);
+                return first instanceof Collection<?> records ? resolveSingleShard(records) : resolveCommodityCode(first);
+            }
+            if (params.containsKey(LIST_PARAM) && params.get(LIST_PARAM) instanceof Collection<?> records) {
+                return resolveSingleShard(records);
+            }
+            return null;
+        }
+        if (parameter instanceof Collection<?> records) {
+            return resolveSingleShard(records);
+        }
+        return commodityCodeOf(parameter);
+    }
+
+    /**
+     * 批量語句取第一條記錄的商品編碼，並校驗所有記錄屬於同一分片
+     */
+    private String resolveSingleShard(Collection<?> records) {
+        String routingCode = null;
+        int shard = -1;
+        for (Object record : records) {
+            String code = record == null ? null : commodityCodeOf(record);
+            if (code == null) {
+                return null;
+            }
+            int recordShard = shardRouter.shardOf(code);
+            if (routingCode == null) {
+                routingCode = code;
+                shard = recordShard;
+            } else if (recordShard != shard) {
+                throw new IllegalArgumentException("批量語句的記錄跨越多個分片，請先按分片拆分: "
+                        + routingCode + ", " + code);
+            }
+        }
+        return routingCode;
+    }
+
+    /**
+     * 讀取記錄的commodityCode屬性
+     */
+    private static String commodityCodeOf(Object record) {
+        MetaObject metaObject = SystemMetaObject.forObject(record);
+        if (!metaObject.hasGetter(COMMODITY_CODE_PARAM)) {
+            return null;
+        }
+        return metaObject.getValue(COMMODITY_CODE_PARAM) instanceof String code ? code : null;
+    }
+
+    /**
+     * 按與resolveCommodityCode相同的規則檢查方法簽名，返回無法路由的方法名
+     */
+    static List<String> unroutableMethods(Class<?> mapperType) {
+        List<String> unroutable = new ArrayList<>();
+        for (Method method : mapperType.getMethods()) {
+            if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            if (!isRoutable(method)) {
+                unroutable.add(method.getName());
+            }
+        }
+        return unroutable;
+    }
+
+    private static boolean isRoutable(Method method) {
+        for (Annotation[] annotations : method.getParameterAnnotations()) {
+            for (Annotation annotation : annotations) {
+                if (annotation instanceof Param param && COMMODITY_CODE_PARAM.equals(param.value())) {
+                    return true;
+                }
+            }
+        }
+        if (method.getParameterCount() == 0) {
+            return false;
+        }
+        Class<?> first = method.getParameterTypes()[0];
+        return first == String.class
+                || Collection.class.isAssignableFrom(first)
+                || MetaClass.forClass(first, new DefaultReflectorFactory()).hasGetter(COMMODITY_CODE_PARAM);
+    }
+}
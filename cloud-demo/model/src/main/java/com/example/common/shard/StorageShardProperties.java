@@ -0,0 +1,51 @@
+package com.example.common.shard;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 庫存分表配置屬性類
+ * storage_tbl按商品編碼雜湊拆分為多張邏輯表，seata-business與seata-storage必須保持一致；
+ * 由{@link StorageShardConfiguration}註冊
+ */
+@ConfigurationProperties(prefix = "storage.shard")
+public class StorageShardProperties {
+
+    /**
+     * 分表數量，1表示不分表，直接使用原表名
+     */
+    private int count = 1;
+
+    /**
+     * 邏輯表名，分表名格式為：{tableName}_{分片序號}
+     */
+    private String tableName = "storage_tbl";
+
+    /**
+     * 批量操作按分片並行執行時的最大並行度，不應超過資料庫連接池大小；只用於seata-business的批量操作
+     */
+    private int parallelism = 4;
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.common.shard;
+
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 庫存分片路由器
+ *
+ * 按商品編碼雜湊計算storage_tbl的分片。使用String.hashCode（規範定義、跨JVM穩定），
+ * 確保seata-business和seata-storage兩個服務對同一商品路由到同一張表。
+ * 由{@link StorageShardConfiguration}註冊。
+ *
+ * @author system
+ */
+public class StorageShardRouter {
+
+    private final StorageShardProperties shardProperties;
+
+    public StorageShardRouter(StorageShardProperties shardProperties) {
+        if (shardProperties.getCount() < 1) {
+            throw new IllegalArgumentException("storage.shard.count必須大於0: " + shardProperties.getCount());
+        }
+        this.shardProperties = shardProperties;
+    }
+
+    /**
+     * 是否啟用分表
+     */
+    public boolean isSharded() {
+        return shardProperties.getCount() > 1;
+    }
+
+    public int getShardCount() {
+        return shardProperties.getCount();
+    }
+
+    public String getLogicTableName() {
+        return shardProperties.getTableName();
+    }
+
+    /**
+     * 計算商品所屬分片
+     *
+     * @param commodityCode 商品編碼，不能為空
+     * @return 分片序號，範圍[0, count)
+     */
+    public int shardOf(String commodityCode) {
+        if (!StringUtils.hasText(commodityCode)) {
+            throw new IllegalArgumentException("商品編碼不能為空，無法路由分片");
+        }
+        return Math.floorMod(commodityCode.hashCode(), shardProperties.getCount());
+    }
+
+    /**
+     * 分片對應的實際表名
+     */
+    public String tableOf(int shard) {
+        return isSharded() ? shardProperties.getTableName() + "_" + shard : shardProperties.getTableName();
+    }
+
+    /**
+     * 商品對應的實際表名
+     */
+    public String tableOf(String commodityCode) {
+        return isSharded() ? tableOf(shardOf(commodityCode)) : shardProperties.getTableName();
+    }
+
+    /**
+     * 按分片拆分列表，保持每個分片內的原始順序；分片按序號排列，保證多分片加鎖順序一致
+     *
+     * @param items 待拆分的元素
+     * @param commodityCodeExtractor 商品編碼提取函數
+     * @return 分片序號 -> 該分片的元素
+     */
+    public <T> Map<Integer, List<T>> partition(List<T> items, Function<T, String> commodityCodeExtractor) {
+        Map<Integer, List<T>> partitions = new TreeMap<>();
+        for (T item : items) {
+            int shard = isSharded() ? shardOf(commodityCodeExtractor.apply(item)) : 0;
+            partitions.computeIfAbsent(shard, k -> new ArrayList<>()).add(item);
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.common.undo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * undo_log後台清理器
+ *
+ * AT模式二階段由RM異步刪除undo log；分支先於註冊被回滾時，RM寫入log_status=1的防懸掛記錄，
+ * 這些記錄不會再被刪除，表膨脹後分支事務寫入undo log變慢。清理器按保留時間刪除這些殘留記錄：
+ * - 只刪除log_status=1（全局事務已結束）的記錄；log_status=0的記錄可能屬於未結束或仍在重試回滾的
+ *   全局事務，刪除後回滾無法完成，即使超出保留時間也不處理，只反映在行數和滯後指標上
+ * - 從最早的log_created開始按時間分區推進，每次只刪除一個分區內的一批，走ix_log_created範圍掃描
+ * - 每批單獨提交，單輪清理的批次數有上限，不長時間持有行鎖
+ * - 保留時間的截止點用數據庫時鐘計算
+ *
+ * 同時定期採樣undo_log的行數、佔用空間和清理滯後時間（最早可清理記錄超出保留時間的秒數）。
+ * 由{@link UndoLogCleanupConfiguration}註冊，AT模式的服務以@Import啟用。
+ *
+ * @author system
+ */
+public class UndoLogCleaner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UndoLogCleaner.class);
+
+    /**
+     * 全局事務已結束的防懸掛記錄，與Seata UndoLogManager的State.GlobalFinished一致
+     */
+    static final int GLOBAL_FINISHED = 1;
+
+    private static final String OLDEST_SQL = "select min(log_created) from undo_log where log_status = "
+            + GLOBAL_FINISHED;
+
+    // 等同now() - interval ? minute，INTERVAL不接受參數佔位符的數據庫（如H2）也支持timestampadd
+    private static final String CUTOFF_SQL = "select timestampadd(minute, ?, now())";
+
+    private static final String DELETE_SQL =
+            "delete from undo_log where log_status = " + GLOBAL_FINISHED
+                    + " and log_created >= ? and log_created < ? limit ?";
+
+    private static final String TABLE_STATS_SQL = "select table_rows, data_length + index_length as table_bytes "
+            + "from information_schema.tables where table_schema = database() and table_name = 'undo_log'";
+
+    private static final String COUNT_STATS_SQL =
+            "select count(*) as table_rows, coalesce(sum(length(rollback_info)), 0) as table_bytes from undo_log";
+
+    private final UndoLogCleanupProperties cleanupProperties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong rows = new AtomicLong();
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    private Counter deletedCounter;
+
+    private Timer cleanupTimer;
+
+    private ScheduledExecutorService scheduler;
+
+    // 非MySQL數據庫沒有information_schema.tables的統計列時改用count(*)
+    private volatile boolean tableStatsSupported = true;
+
+    public UndoLogCleaner(UndoLogCleanupProperties cleanupProperties, JdbcTemplate jdbcTemplate,
+                          MeterRegistry meterRegistry) {
+        this.cleanupProperties = cleanupProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void init() {
+        Gauge.builder("seata.undo.log.rows", rows, AtomicLong::get)
+                .description("Rows in undo_log")
+                .register(meterRegistry);
+        Gauge.builder("seata.undo.log.bytes", bytes, AtomicLong::get)
+                .description("Size of undo_log in bytes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("seata.undo.log.cleanup.lag", lagSeconds, AtomicLong::get)
+                .description("Seconds the oldest finished undo log is past its retention")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        deletedCounter = Counter.builder("seata.undo.log.cleanup.deleted")
+                .description("Undo logs deleted by the cleanup worker")
+                .register(meterRegistry);
+        cleanupTimer = Timer.builder("seata.undo.log.cleanup.duration")
+                .description("Time spent in one undo log cleanup run")
+                .register(meterRegistry);
+
+        if (!cleanupProperties.isEnabled()) {
+            logger.info("UndoLogCleaner disabled");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "undo-log-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = cleanupProperties.getIntervalSeconds();
+        scheduler.scheduleWithFixedDelay(this::runSafely, interval, interval, TimeUnit.SECONDS);
+        logger.info("UndoLogCleaner initialized - retention: {}min, partition: {}min, batchSize: {}, interval: {}s",
+                cleanupProperties.getRetentionMinutes(), cleanupProperties.getPartitionMinutes(),
+                cleanupProperties.getBatchSize(), interval);
+    }
+
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 執行一輪清理並刷新統計
+     *
+     * @return 本輪刪除的記錄數
+     */
+    public int cleanup() {
+        long start = System.nanoTime();
+        LocalDateTime cutoff = cutoff();
+        Duration partition = Duration.ofMinutes(Math.max(1, cleanupProperties.getPartitionMinutes()));
+        int batchSize = cleanupProperties.getBatchSize();
+        int batches = 0;
+        int deleted = 0;
+
+        LocalDateTime oldest = oldest();
+        while (oldest != null && oldest.isBefore(cutoff) && batches < cleanupProperties.getMaxBatchesPerRun()) {
+            LocalDateTime partitionEnd = oldest.plus(partition);
+            if (partitionEnd.isAfter(cutoff)) {
+                partitionEnd = cutoff;
+            }
+            int affected;
+            do {
+                affected = jdbcTemplate.update(DELETE_SQL, Timestamp.valueOf(oldest),
+                        Timestamp.valueOf(partitionEnd), batchSize);
+                deleted += affected;
+                batches++;
+            } while (affected == batchSize && batches < cleanupProperties.getMaxBatchesPerRun());
+            // 跳過沒有記錄的時間段，從剩餘記錄中最早的時間開始下一個分區
+            oldest = oldest();
+        }
+
+        deletedCounter.increment(deleted);
+        refreshStatistics(oldest, cutoff);
+        cleanupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (deleted > 0) {
+            logger.info("Undo log cleanup deleted {} rows in {} batches, lag: {}s", deleted, batches, lagSeconds.get());
+        }
+        return deleted;
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public long getLagSeconds() {
+        return lagSeconds.get();
+    }
+
+    private void runSafely() {
+        try {
+            cleanup();
+        } catch (Exception e) {
+            logger.warn("Undo log cleanup failed, will retry in {}s", cleanupProperties.getIntervalSeconds(), e);
+        }
+    }
+
+    /**
+     * 保留時間的截止點用數據庫時鐘計算，與Seata寫入log_created的now()一致，不受應用服務器時鐘偏差影響
+     */
+    private LocalDateTime cutoff() {
+        return jdbcTemplate.queryForObject(CUTOFF_SQL, Timestamp.class, -cleanupProperties.getRetentionMinutes())
+                .toLocalDateTime();
+    }
+
+    private LocalDateTime oldest() {
+        Timestamp oldest = jdbcTemplate.queryForObject(OLDEST_SQL, Timestamp.class);
+        return oldest == null ? null : oldest.toLocalDateTime();
+    }
+
+    private void refreshStatistics(LocalDateTime oldest, LocalDateTime cutoff) {
+        lagSeconds.set(oldest != null && oldest.isBefore(cutoff) ? Duration.between(oldest, cutoff).getSeconds() : 0);
+
+        Map<String, Object> stats = null;
+        if (tableStatsSupported) {
+            try {
+                stats = jdbcTemplate.queryForMap(TABLE_STATS_SQL);
+            } catch (DataAccessException e) {
+                tableStatsSupported = false;
+                logger.debug("information_schema table statistics unavailable, falling back to count(*)", e);
+            }
+        }
+        if (stats == null) {
+            stats = jdbcTemplate.queryForMap(COUNT_STATS_SQL);
+        }
+        rows.set(toLong(stats.get("table_rows")));
+        bytes.set(toLong(stats.get("table_bytes")));
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+}
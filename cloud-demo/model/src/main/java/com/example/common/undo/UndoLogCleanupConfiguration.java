@@ -0,0 +1,22 @@
+package com.example.common.undo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * undo_log後台清理配置類
+ *
+ * 不加@Configuration，避免被服務的元件掃描載入；使用AT模式的服務以
+ * {@code @Import(UndoLogCleanupConfiguration.class)}啟用，配置見undo-log.cleanup前綴。
+ */
+@EnableConfigurationProperties(UndoLogCleanupProperties.class)
+public class UndoLogCleanupConfiguration {
+
+    @Bean(initMethod = "init", destroyMethod = "destroy")
+    public UndoLogCleaner undoLogCleaner(UndoLogCleanupProperties cleanupProperties, JdbcTemplate jdbcTemplate,
+                                         MeterRegistry meterRegistry) {
+        return new UndoLogCleaner(cleanupProperties, jdbcTemplate, meterRegistry);
+    }
+}
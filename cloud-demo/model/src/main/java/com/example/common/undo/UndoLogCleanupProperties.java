@@ -0,0 +1,89 @@
+package com.example.common.undo;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * undo_log清理配置屬性
+ * 由{@link UndoLogCleanupConfiguration}註冊，不加@Component，避免被服務的元件掃描重複註冊
+ */
+@ConfigurationProperties(prefix = "undo-log.cleanup")
+public class UndoLogCleanupProperties {
+
+    /**
+     * 是否啟用後台清理
+     */
+    private boolean enabled = true;
+
+    /**
+     * 保留時間（分鐘），只清理超過此時間且已標記全局事務結束（log_status=1）的記錄
+     */
+    private long retentionMinutes = 1440;
+
+    /**
+     * 時間分區大小（分鐘），每次刪除只掃描一個分區內的log_created範圍
+     */
+    private long partitionMinutes = 60;
+
+    /**
+     * 單次delete的最大行數
+     */
+    private int batchSize = 1000;
+
+    /**
+     * 每輪清理最多執行的delete次數，避免單輪清理長時間佔用數據庫
+     */
+    private int maxBatchesPerRun = 100;
+
+    /**
+     * 清理與統計間隔（秒）
+     */
+    private long intervalSeconds = 60;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getRetentionMinutes() {
+        return retentionMinutes;
+    }
+
+    public void setRetentionMinutes(long retentionMinutes) {
+        this.retentionMinutes = retentionMinutes;
+    }
+
+    public long getPartitionMinutes() {
+        return partitionMinutes;
+    }
+
+    public void setPartitionMinutes(long partitionMinutes) {
+        this.partitionMinutes = partitionMinutes;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    public long getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    public void setIntervalSeconds(long intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.common.codec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.order.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * CompactBinaryCodec 與 Jackson JSON 的比較
+ * 對不同 productList 大小的 Order 輸出序列化大小、序列化和反序列化的平均耗時，
+ * 先預熱讓 JIT 編譯完成再計時。耗時只輸出到日誌不做斷言，避免受測試機器負載影響，
+ * 只斷言二進位格式比 JSON 小且解碼結果相同。
+ */
+@Slf4j
+@DisplayName("CompactBinaryCodec 與 JSON 大小、耗時比較")
+class CompactBinaryCodecBenchmarkTest {
+
+    private static final int[] PRODUCT_COUNTS = { 10, 1_000, 10_000 };
+
+    private static final int WARMUP_ITERATIONS = 200;
+
+    private static final int MEASURE_ITERATIONS = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile Object sink;
+
+    @Test
+    @DisplayName("大 productList 的 Order：二進位格式比 JSON 小，並輸出兩者的序列化耗時")
+    void testOrderPayloadSizeAndCost() throws Exception {
+        log.info(String.format("%-10s %12s %12s %14s %14s %14s %14s", "products", "json bytes", "binary bytes",
+                "json enc us", "binary enc us", "json dec us", "binary dec us"));
+        for (int products : PRODUCT_COUNTS) {
+            Order order = CompactBinaryCodecTest.order(products);
+            byte[] json = objectMapper.writeValueAsBytes(order);
+            byte[] binary = CompactBinaryCodec.encode(order);
+
+            assertEquals(order, objectMapper.readValue(json, Order.class));
+            assertEquals(order, CompactBinaryCodec.decode(binary, Order.class));
+            assertTrue(binary.length < json.length, "二進位格式應比 JSON 小");
+
+            int iterations = Math.max(5, MEASURE_ITERATIONS * 10 / Math.max(10, products / 100));
+            double jsonEncode = measure(iterations, () -> sink = objectMapper.writeValueAsBytes(order));
+            double binaryEncode = measure(iterations, () -> sink = CompactBinaryCodec.encode(order));
+            double jsonDecode = measure(iterations, () -> sink = objectMapper.readValue(json, Order.class));
+            double binaryDecode = measure(iterations, () -> sink = CompactBinaryCodec.decode(binary, Order.class));
+
+            log.info(String.format("%-10d %12d %12d %14.1f %14.1f %14.1f %14.1f", products, json.length,
+                    binary.length, jsonEncode, binaryEncode, jsonDecode, binaryDecode));
+        }
+    }
+
+    /**
+     * 預熱後執行 iterations 次，回傳每次的平均耗時（微秒）
+     */
+    private static double measure(int iterations, Task task) throws Exception {
+        for (int i = 0; i < Math.min(iterations, WARMUP_ITERATIONS); i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return (double) TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / iterations;
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+}
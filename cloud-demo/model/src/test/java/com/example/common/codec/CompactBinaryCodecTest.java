@@ -0,0 +1,120 @@
+package com.example.common.codec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.example.common.Result;
+import com.example.order.Order;
+import com.example.product.Product;
+
+/**
+ * CompactBinaryCodec 單元測試
+ * 測試 model 類別的編解碼、格式錯誤的處理，以及 Spring MVC 轉換器的讀寫
+ */
+@DisplayName("CompactBinaryCodec 精簡二進位格式測試")
+class CompactBinaryCodecTest {
+
+    @Test
+    @DisplayName("Order 及其 productList 編碼後解碼應完全相同")
+    void testOrderRoundTrip() {
+        Order order = order(100);
+
+        Object decoded = CompactBinaryCodec.decode(CompactBinaryCodec.encode(order), Order.class);
+
+        assertEquals(order, decoded);
+    }
+
+    @Test
+    @DisplayName("null 欄位、負數、高精度金額和非 ASCII 字串應保留")
+    void testEdgeValues() {
+        Product product = Product.builder()
+                .id(-1L)
+                .productName("商品名稱 ✓")
+                .price(new BigDecimal("-12345678901234567890.000123"))
+                .build();
+        Result result = Result.ok("成功", List.of(product, Map.of(Long.MAX_VALUE, Boolean.TRUE)));
+
+        Object decoded = CompactBinaryCodec.decode(CompactBinaryCodec.encode(result));
+
+        assertEquals(result, decoded);
+        assertNull(((Product) ((List<?>) ((Result) decoded).getData()).get(0)).getNum());
+    }
+
+    @Test
+    @DisplayName("解碼結果與預期型別不符、資料截斷或版本不符時應丟出 IllegalArgumentException")
+    void testMalformedData() {
+        byte[] bytes = CompactBinaryCodec.encode(order(3));
+
+        assertThrows(IllegalArgumentException.class, () -> CompactBinaryCodec.decode(bytes, Product.class));
+        assertThrows(IllegalArgumentException.class,
+                () -> CompactBinaryCodec.decode(Arrays.copyOf(bytes, bytes.length - 1)));
+        byte[] wrongVersion = bytes.clone();
+        wrongVersion[0] = 9;
+        assertThrows(IllegalArgumentException.class, () -> CompactBinaryCodec.decode(wrongVersion));
+    }
+
+    @Test
+    @DisplayName("轉換器只處理二進位格式和支援的型別，寫出的內容可以讀回")
+    void testHttpMessageConverterRoundTrip() throws Exception {
+        CompactBinaryHttpMessageConverter converter = new CompactBinaryHttpMessageConverter();
+        Order order = order(5);
+
+        assertTrue(converter.canWrite(Order.class, CompactBinaryHttpMessageConverter.MEDIA_TYPE));
+        assertFalse(converter.canWrite(Order.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(Thread.class, CompactBinaryHttpMessageConverter.MEDIA_TYPE));
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(order, CompactBinaryHttpMessageConverter.MEDIA_TYPE, output);
+        byte[] body = output.getBodyAsBytes();
+        assertEquals(body.length, output.getHeaders().getContentLength());
+        assertEquals(CompactBinaryHttpMessageConverter.MEDIA_TYPE, output.getHeaders().getContentType());
+
+        MockHttpInputMessage input = new MockHttpInputMessage(body);
+        input.getHeaders().setContentType(CompactBinaryHttpMessageConverter.MEDIA_TYPE);
+        assertEquals(order, converter.read(Order.class, input));
+    }
+
+    @Test
+    @DisplayName("轉換器讀到格式錯誤的內容時丟出 HttpMessageNotReadableException")
+    void testHttpMessageConverterMalformedBody() {
+        CompactBinaryHttpMessageConverter converter = new CompactBinaryHttpMessageConverter();
+        MockHttpInputMessage input = new MockHttpInputMessage(new byte[] { 1, 99 });
+
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(Product.class, input));
+    }
+
+    static Order order(int products) {
+        List<Product> productList = new ArrayList<>(products);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < products; i++) {
+            BigDecimal price = new BigDecimal(100 + i).movePointLeft(2);
+            productList.add(Product.builder()
+                    .id(10_000L + i)
+                    .productName("Product " + i)
+                    .price(price)
+                    .num(i % 5 + 1)
+                    .build());
+            total = total.add(price.multiply(BigDecimal.valueOf(i % 5 + 1)));
+        }
+        return Order.builder()
+                .id(1L)
+                .totalAmount(total)
+                .userId(42L)
+                .userName("John Doe")
+                .address("123 Main St, Anytown, USA")
+                .productList(productList)
+                .build();
+    }
+}
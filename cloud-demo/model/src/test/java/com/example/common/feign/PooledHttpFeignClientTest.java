@@ -0,0 +1,194 @@
+package com.example.common.feign;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+import feign.Util;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PooledHttpFeignClient單元測試
+ * 使用JDK內置HTTP服務器驗證請求轉換、連接復用、按目標服務限制進行中的請求數和連接池指標
+ */
+@DisplayName("PooledHttpFeignClient Feign連接池傳輸測試")
+class PooledHttpFeignClientTest {
+
+    private static final String TARGET = "seata-storage";
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    private volatile long handlerDelayMillis;
+
+    private FeignTransportProperties properties;
+
+    private MeterRegistry meterRegistry;
+
+    private PooledHttpFeignClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/deduct", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            sleep(handlerDelayMillis);
+            byte[] requestBody = exchange.getRequestBody().readAllBytes();
+            String body = exchange.getRequestMethod() + " " + exchange.getRequestURI().getQuery() + " "
+                + exchange.getRequestHeaders().getFirst("X-Trace") + " " + new String(requestBody, StandardCharsets.UTF_8);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("X-Served-By", "storage");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+
+        properties = new FeignTransportProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        client = new PooledHttpFeignClient(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("請求方法、查詢參數、請求頭和請求體應原樣轉發，響應狀態和頭應原樣返回")
+    void testRequestAndResponseConversion() throws Exception {
+        Response response = client.execute(request(Request.HttpMethod.POST, "count=2", "body"), options());
+
+        assertEquals(200, response.status());
+        assertEquals("POST count=2 trace-1 body", Util.toString(response.body().asReader(StandardCharsets.UTF_8)));
+        assertEquals(List.of("storage"), List.copyOf(header(response, "X-Served-By")));
+    }
+
+    @Test
+    @DisplayName("連續請求應復用同一個連接")
+    void testConnectionReused() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            client.execute(request(Request.HttpMethod.GET, "count=1", null), options()).close();
+        }
+
+        assertEquals(1, clientPorts.size(), "連續請求不應重新建立TCP連接");
+    }
+
+    @Test
+    @DisplayName("達到目標服務的進行中請求數上限時等待超時應失敗並記錄指標")
+    void testMaxInFlightRequestsEnforced() throws Exception {
+        FeignTransportProperties.Pool pool = new FeignTransportProperties.Pool();
+        pool.setMaxInFlightRequests(2);
+        pool.setAcquireTimeoutMillis(50);
+        FeignTransportProperties.ClientConfig clientConfig = new FeignTransportProperties.ClientConfig();
+        clientConfig.setPool(pool);
+        properties.getConfig().put(TARGET, clientConfig);
+        handlerDelayMillis = 500;
+
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Response>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(callers.submit(() -> client.execute(request(Request.HttpMethod.GET, "count=1", null), options())));
+            }
+            int failed = 0;
+            for (Future<Response> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    assertInstanceOf(IOException.class, e.getCause());
+                    failed++;
+                }
+            }
+            assertEquals(1, failed);
+        } finally {
+            callers.shutdown();
+        }
+
+        assertEquals(2, meterRegistry.get("feign.pool.max").tag("target", TARGET).gauge().value());
+        assertEquals(0, meterRegistry.get("feign.pool.leased").tag("target", TARGET).gauge().value());
+        assertEquals(0, meterRegistry.get("feign.pool.pending").tag("target", TARGET).gauge().value());
+        assertEquals(1, meterRegistry.get("feign.pool.acquire.timeout").tag("target", TARGET).counter().count());
+        assertEquals(3, meterRegistry.get("feign.pool.acquire").tag("target", TARGET).timer().count());
+    }
+
+    @Test
+    @DisplayName("關閉連接池時退回Feign默認客戶端且不建立連接池")
+    void testDisabledFallsBackToDefaultClient() throws Exception {
+        FeignTransportProperties.Pool pool = new FeignTransportProperties.Pool();
+        pool.setEnabled(false);
+        FeignTransportProperties.ClientConfig defaultConfig = new FeignTransportProperties.ClientConfig();
+        defaultConfig.setPool(pool);
+        properties.getConfig().put(FeignTransportProperties.DEFAULT_CONFIG, defaultConfig);
+
+        Response response = client.execute(request(Request.HttpMethod.GET, "count=1", null), options());
+
+        assertEquals(200, response.status());
+        assertNull(meterRegistry.find("feign.pool.max").gauge());
+    }
+
+    private Request request(Request.HttpMethod method, String query, String body) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/deduct?" + query;
+        RequestTemplate template = new RequestTemplate();
+        template.feignTarget(new Target.HardCodedTarget<>(StorageClient.class, TARGET, "http://" + TARGET));
+        Map<String, Collection<String>> headers = Map.of("X-Trace", List.of("trace-1"),
+            "Content-Length", List.of(String.valueOf(body == null ? 0 : body.length())));
+        return Request.create(method, url, headers, body == null ? null : body.getBytes(StandardCharsets.UTF_8),
+            StandardCharsets.UTF_8, template);
+    }
+
+    private static Request.Options options() {
+        return new Request.Options(1000, 5000);
+    }
+
+    private static Collection<String> header(Response response, String name) {
+        return response.headers().entrySet().stream()
+            .filter(entry -> entry.getKey().equalsIgnoreCase(name))
+            .findFirst()
+            .map(Map.Entry::getValue)
+            .orElse(List.of());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 只用於提供Feign目標名稱
+     */
+    interface StorageClient {
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.common.idempotent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * IdempotencyAspect單元測試
+ * 測試重複請求返回保存結果、失敗後允許重試、參數指紋校驗和處理中互斥
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("IdempotencyAspect 冪等切面測試")
+class IdempotencyAspectTest {
+
+    private static final String KEY = "req-001";
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    @Mock
+    private MethodSignature signature;
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    private IdempotencyAspect aspect;
+
+    private MockHttpServletRequest request;
+
+    private AtomicInteger invocations;
+
+    private Idempotent idempotent;
+
+    @BeforeEach
+    void setUp() throws Throwable {
+        when(redissonClient.getBucket(anyString(), eq(StringCodec.INSTANCE))).thenAnswer(invocation -> bucket(invocation.getArgument(0)));
+
+        IdempotencyProperties properties = new IdempotencyProperties();
+        IdempotencyStore store = new IdempotencyStore(properties, redissonClient);
+        aspect = new IdempotencyAspect(store, properties, new ObjectMapper(), "seata-business");
+
+        request = new MockHttpServletRequest();
+        request.addHeader(properties.getHeaderName(), KEY);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        idempotent = SampleController.class.getMethod("purchase", String.class, int.class).getAnnotation(Idempotent.class);
+        invocations = new AtomicInteger();
+        mockInvocation("purchase", new Object[]{"P0001", 1}, "business purchase success", String.class, int.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("重複請求應返回首次結果且不再執行方法")
+    void testDuplicateRequest() throws Throwable {
+        Object first = aspect.around(joinPoint, idempotent);
+        Object second = aspect.around(joinPoint, idempotent);
+
+        assertEquals("business purchase success", first);
+        assertEquals(first, second);
+        assertEquals(1, invocations.get());
+        assertTrue(redis.get("idempotency:seata-business:purchase:" + KEY).startsWith("D|"));
+    }
+
+    @Test
+    @DisplayName("其他實例保存的結果應從Redis讀取並保留狀態碼和響應體")
+    void testReplayResponseEntityFromRedis() throws Throwable {
+        mockInvocation("deduct", new Object[]{"P0001"},
+                ResponseEntity.status(HttpStatus.OK).body(Map.of("success", true)), String.class);
+        aspect.around(joinPoint, idempotent);
+
+        // 模擬另一個實例：本地緩存為空，只能從Redis讀取
+        IdempotencyProperties properties = new IdempotencyProperties();
+        IdempotencyAspect otherAspect = new IdempotencyAspect(new IdempotencyStore(properties, redissonClient),
+                properties, new ObjectMapper(), "seata-business");
+
+        ResponseEntity<?> replayed = (ResponseEntity<?>) otherAspect.around(joinPoint, idempotent);
+
+        assertEquals(1, invocations.get());
+        assertEquals(200, replayed.getStatusCode().value());
+        assertEquals(Map.of("success", true), replayed.getBody());
+    }
+
+    @Test
+    @DisplayName("執行失敗後應清除標記，重試重新執行")
+    void testRetryAfterFailure() throws Throwable {
+        doThrow(new RuntimeException("庫存不足")).doReturn("business purchase success").when(joinPoint).proceed();
+
+        assertThrows(RuntimeException.class, () -> aspect.around(joinPoint, idempotent));
+        assertTrue(redis.isEmpty());
+
+        assertEquals("business purchase success", aspect.around(joinPoint, idempotent));
+        verify(joinPoint, times(2)).proceed();
+    }
+
+    @Test
+    @DisplayName("冪等鍵用於不同參數時應返回422")
+    void testFingerprintMismatch() throws Throwable {
+        aspect.around(joinPoint, idempotent);
+        when(joinPoint.getArgs()).thenReturn(new Object[]{"P0001", 2});
+
+        IdempotencyException exception = assertThrows(IdempotencyException.class, () -> aspect.around(joinPoint, idempotent));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatusCode());
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    @DisplayName("其他實例正在處理相同冪等鍵時應返回409")
+    void testInProgressOnOtherInstance() {
+        redis.put("idempotency:seata-business:purchase:" + KEY, "P|abc");
+
+        IdempotencyException exception = assertThrows(IdempotencyException.class, () -> aspect.around(joinPoint, idempotent));
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        assertEquals(0, invocations.get());
+    }
+
+    @Test
+    @DisplayName("未攜帶冪等鍵時每次都應執行")
+    void testWithoutHeader() throws Throwable {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        aspect.around(joinPoint, idempotent);
+        aspect.around(joinPoint, idempotent);
+
+        assertEquals(2, invocations.get());
+        assertTrue(redis.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Redis不可用時應退化為本地去重")
+    void testRedisUnavailable() throws Throwable {
+        when(redissonClient.getBucket(anyString(), eq(StringCodec.INSTANCE))).thenThrow(new RuntimeException("Redis down"));
+
+        aspect.around(joinPoint, idempotent);
+        aspect.around(joinPoint, idempotent);
+
+        assertEquals(1, invocations.get());
+    }
+
+    private void mockInvocation(String methodName, Object[] args, Object result, Class<?>... parameterTypes) throws Throwable {
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(signature.getMethod()).thenReturn(SampleController.class.getMethod(methodName, parameterTypes));
+        when(joinPoint.getArgs()).thenReturn(args);
+        doAnswer(invocation -> {
+            invocations.incrementAndGet();
+            return result;
+        }).when(joinPoint).proceed();
+    }
+
+    @SuppressWarnings("unchecked")
+    private RBucket<String> bucket(String key) {
+        RBucket<String> bucket = mock(RBucket.class);
+        when(bucket.get()).thenAnswer(invocation -> redis.get(key));
+        when(bucket.setIfAbsent(anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> redis.putIfAbsent(key, invocation.getArgument(0)) == null);
+        doAnswer(invocation -> redis.put(key, invocation.getArgument(0))).when(bucket).set(anyString(), any(Duration.class));
+        when(bucket.delete()).thenAnswer(invocation -> redis.remove(key) != null);
+        return bucket;
+    }
+
+    /**
+     * 測試用控制器方法簽名
+     */
+    static class SampleController {
+
+        @Idempotent("purchase")
+        public String purchase(String commodityCode, int count) {
+            return null;
+        }
+
+        @Idempotent("purchase")
+        public ResponseEntity<Map<String, Object>> deduct(String commodityCode) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.common.loadbalancer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+/**
+ * LatencyAwareLoadBalancer 單元測試
+ * 測試慢實例和請求積壓的實例分到較少流量、Nacos 權重 0 的實例不分配流量、失敗請求的延遲懲罰
+ */
+@DisplayName("LatencyAwareLoadBalancer 延遲感知負載均衡測試")
+class LatencyAwareLoadBalancerTest {
+
+    private static final int ROUNDS = 3000;
+
+    private LatencyAwareLoadBalancerProperties properties;
+
+    private LatencyAwareLoadBalancer loadBalancer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LatencyAwareLoadBalancerProperties();
+        loadBalancer = loadBalancer(List.of());
+    }
+
+    @Test
+    @DisplayName("慢實例只在兩個候選都是它時才會被選中")
+    void slowInstanceReceivesLessTraffic() {
+        ServiceInstance fast1 = instance("fast1", null);
+        ServiceInstance fast2 = instance("fast2", null);
+        ServiceInstance slow = instance("slow", null);
+        long now = System.nanoTime();
+        loadBalancer.stats(fast1).observe(TimeUnit.MILLISECONDS.toNanos(10), now);
+        loadBalancer.stats(fast2).observe(TimeUnit.MILLISECONDS.toNanos(12), now);
+        loadBalancer.stats(slow).observe(TimeUnit.MILLISECONDS.toNanos(300), now);
+
+        Map<String, Integer> counts = choose(List.of(fast1, fast2, slow));
+
+        assertEquals(0, counts.getOrDefault("slow", 0));
+        assertTrue(counts.get("fast1") > counts.get("fast2"));
+    }
+
+    @Test
+    @DisplayName("進行中的請求越多成本越高，新請求分給沒有積壓的實例")
+    void outstandingRequestsArePenalized() {
+        ServiceInstance busy = instance("busy", null);
+        ServiceInstance idle = instance("idle", null);
+        long now = System.nanoTime();
+        loadBalancer.stats(busy).observe(TimeUnit.MILLISECONDS.toNanos(10), now);
+        loadBalancer.stats(idle).observe(TimeUnit.MILLISECONDS.toNanos(10), now);
+        Request<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext());
+        for (int i = 0; i < 5; i++) {
+            loadBalancer.onStartRequest(request, new DefaultResponse(busy));
+        }
+
+        assertEquals(ROUNDS, choose(List.of(busy, idle)).getOrDefault("idle", 0));
+        assertEquals(5, loadBalancer.stats(busy).inFlight());
+    }
+
+    @Test
+    @DisplayName("還沒有延遲樣本的實例在第一個回應前只分配一個請求")
+    void unsampledInstanceGetsSingleProbe() {
+        ServiceInstance known = instance("known", null);
+        ServiceInstance fresh = instance("fresh", null);
+        loadBalancer.stats(known).observe(TimeUnit.MILLISECONDS.toNanos(10), System.nanoTime());
+        loadBalancer.onStartRequest(new DefaultRequest<>(new RequestDataContext()), new DefaultResponse(fresh));
+
+        assertEquals(ROUNDS, choose(List.of(known, fresh)).getOrDefault("known", 0));
+    }
+
+    @Test
+    @DisplayName("Nacos 權重 0 的實例不分配流量，全部為 0 時不過濾")
+    void zeroWeightInstancesAreExcluded() {
+        ServiceInstance drained = instance("drained", "0");
+        ServiceInstance active1 = instance("active1", "1");
+        ServiceInstance active2 = instance("active2", "1.0");
+
+        Map<String, Integer> counts = choose(List.of(drained, active1, active2));
+        assertEquals(0, counts.getOrDefault("drained", 0));
+        assertEquals(ROUNDS, counts.get("active1") + counts.get("active2"));
+
+        ServiceInstance other = instance("other", "0");
+        assertEquals(ROUNDS, choose(List.of(drained, other)).values().stream().mapToInt(Integer::intValue).sum());
+
+        properties.setUseNacosWeight(false);
+        assertTrue(choose(List.of(drained, active1)).getOrDefault("drained", 0) > 0);
+    }
+
+    @Test
+    @DisplayName("失敗和 5xx 的請求以懲罰延遲計入，取消的請求不計入")
+    void failuresArePenalized() {
+        ServiceInstance instance = instance("a", null);
+        long penalty = TimeUnit.MILLISECONDS.toNanos(properties.getFailurePenaltyMillis());
+
+        complete(instance, CompletionContext.Status.DISCARD, null);
+        assertEquals(0, loadBalancer.stats(instance).inFlight());
+        assertEquals(0, loadBalancer.stats(instance).ewmaNanos());
+
+        complete(instance, CompletionContext.Status.SUCCESS, HttpStatus.OK);
+        double success = loadBalancer.stats(instance).ewmaNanos();
+        assertTrue(success > 0 && success < penalty);
+
+        complete(instance, CompletionContext.Status.SUCCESS, HttpStatus.SERVICE_UNAVAILABLE);
+        assertTrue(loadBalancer.stats(instance).ewmaNanos() >= penalty);
+
+        loadBalancer.stats(instance).observe(1, System.nanoTime() + TimeUnit.MINUTES.toNanos(10));
+        complete(instance, CompletionContext.Status.FAILED, null);
+        assertTrue(loadBalancer.stats(instance).ewmaNanos() >= penalty);
+        assertEquals(0, loadBalancer.stats(instance).inFlight());
+    }
+
+    @Test
+    @DisplayName("透過 ServiceInstanceListSupplier 選擇實例，沒有實例時回傳空回應")
+    void choosesFromSupplier() {
+        ServiceInstance instance = instance("a", null);
+
+        Response<ServiceInstance> response = loadBalancer(List.of(instance)).choose(new DefaultRequest<>()).block();
+        assertNotNull(response);
+        assertSame(instance, response.getServer());
+
+        Response<ServiceInstance> empty = loadBalancer(List.of()).choose(new DefaultRequest<>()).block();
+        assertNotNull(empty);
+        assertFalse(empty.hasServer());
+    }
+
+    private void complete(ServiceInstance instance, CompletionContext.Status status, HttpStatus httpStatus) {
+        Request<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext());
+        Response<ServiceInstance> response = new DefaultResponse(instance);
+        loadBalancer.onStartRequest(request, response);
+        ResponseData responseData = httpStatus != null
+                ? new ResponseData(httpStatus, new HttpHeaders(), null, null) : null;
+        loadBalancer.onComplete(new CompletionContext<>(status, request, response, responseData));
+    }
+
+    private Map<String, Integer> choose(List<ServiceInstance> instances) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            counts.merge(loadBalancer.choose(instances).getInstanceId(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private LatencyAwareLoadBalancer loadBalancer(List<ServiceInstance> instances) {
+        ServiceInstanceListSupplier supplier = ServiceInstanceListSuppliers.from("service-product",
+                instances.toArray(new ServiceInstance[0]));
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("supplier", supplier));
+        return new LatencyAwareLoadBalancer(beanFactory.getBeanProvider(ServiceInstanceListSupplier.class),
+                "service-product", properties);
+    }
+
+    private static int port = 8000;
+
+    private static ServiceInstance instance(String id, String weight) {
+        Map<String, String> metadata = new HashMap<>();
+        if (weight != null) {
+            metadata.put(LatencyAwareLoadBalancer.NACOS_WEIGHT, weight);
+        }
+        return new DefaultServiceInstance(id, "service-product", "10.0.0." + (port % 250), port++, false, metadata);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.common.undo;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * undo_log清理器集成測試
+ * 使用內嵌H2資料庫（MySQL模式）驗證只刪除全局事務已結束的記錄、按數據庫時鐘的保留時間分批刪除、
+ * 分區推進和統計指標
+ */
+@DisplayName("UndoLogCleaner undo_log清理測試")
+class UndoLogCleanerIntegrationTest {
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private UndoLogCleanupProperties properties;
+
+    private MeterRegistry meterRegistry;
+
+    private UndoLogCleaner cleaner;
+
+    private long branchId;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:undo_log_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE undo_log (id bigint NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                + "branch_id bigint NOT NULL, xid varchar(100) NOT NULL, context varchar(128) NOT NULL, "
+                + "rollback_info longblob NOT NULL, log_status int NOT NULL, log_created datetime NOT NULL, "
+                + "log_modified datetime NOT NULL, ext varchar(100) DEFAULT NULL, UNIQUE (xid, branch_id))");
+        jdbcTemplate.execute("CREATE INDEX ix_log_created ON undo_log (log_created)");
+
+        properties = new UndoLogCleanupProperties();
+        properties.setEnabled(false);
+        properties.setRetentionMinutes(60);
+        properties.setPartitionMinutes(30);
+        properties.setBatchSize(10);
+        meterRegistry = new SimpleMeterRegistry();
+
+        cleaner = new UndoLogCleaner(properties, jdbcTemplate, meterRegistry);
+        cleaner.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleaner.destroy();
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("只刪除超出保留時間的記錄")
+    void testRetentionRespected() {
+        insert(25, LocalDateTime.now().minusHours(3));
+        insert(5, LocalDateTime.now().minusMinutes(10));
+
+        assertEquals(25, cleaner.cleanup());
+
+        assertEquals(5, count());
+        assertEquals(0, cleaner.getLagSeconds());
+    }
+
+    @Test
+    @DisplayName("log_status=0的記錄可能屬於未結束的全局事務，超出保留時間也不刪除")
+    void testUnfinishedBranchesKept() {
+        insert(4, LocalDateTime.now().minusDays(2), 0);
+        insert(6, LocalDateTime.now().minusDays(2));
+
+        assertEquals(6, cleaner.cleanup());
+
+        assertEquals(4, count());
+        assertEquals(0, cleaner.getLagSeconds());
+        assertEquals(0, cleaner.cleanup());
+    }
+
+    @Test
+    @DisplayName("以數據庫時鐘判斷保留時間，與Seata寫入log_created的now()一致")
+    void testRetentionUsesDatabaseClock() {
+        insertAgo(3, 61);
+        insertAgo(2, 59);
+
+        assertEquals(3, cleaner.cleanup());
+
+        assertEquals(2, count());
+    }
+
+    @Test
+    @DisplayName("跨越多個時間分區和空白時間段時應全部清理")
+    void testPartitionsAndGaps() {
+        insert(3, LocalDateTime.now().minusDays(3));
+        insert(12, LocalDateTime.now().minusDays(1));
+        insert(4, LocalDateTime.now().minusMinutes(90));
+
+        assertEquals(19, cleaner.cleanup());
+
+        assertEquals(0, count());
+    }
+
+    @Test
+    @DisplayName("達到單輪批次上限時停止，並以滯後時間反映剩餘積壓")
+    void testBatchLimitReportsLag() {
+        properties.setMaxBatchesPerRun(2);
+        insert(50, LocalDateTime.now().minusHours(5));
+
+        assertEquals(20, cleaner.cleanup());
+
+        assertEquals(30, count());
+        assertTrue(cleaner.getLagSeconds() >= 4 * 3600 - 60, "積壓記錄應反映為清理滯後: " + cleaner.getLagSeconds());
+
+        properties.setMaxBatchesPerRun(100);
+        assertEquals(30, cleaner.cleanup());
+        assertEquals(0, cleaner.getLagSeconds());
+    }
+
+    @Test
+    @DisplayName("清理後應更新行數、空間、刪除數和耗時指標")
+    void testMetrics() {
+        insert(7, LocalDateTime.now().minusHours(2));
+        insert(3, LocalDateTime.now());
+
+        cleaner.cleanup();
+
+        assertEquals(3, meterRegistry.get("seata.undo.log.rows").gauge().value());
+        assertEquals(3 * 64, meterRegistry.get("seata.undo.log.bytes").gauge().value());
+        assertEquals(0, meterRegistry.get("seata.undo.log.cleanup.lag").gauge().value());
+        assertEquals(7, meterRegistry.get("seata.undo.log.cleanup.deleted").counter().count());
+        assertEquals(1, meterRegistry.get("seata.undo.log.cleanup.duration").timer().count());
+    }
+
+    private void insert(int rows, LocalDateTime created) {
+        insert(rows, created, UndoLogCleaner.GLOBAL_FINISHED);
+    }
+
+    private void insert(int rows, LocalDateTime created, int logStatus) {
+        Timestamp timestamp = Timestamp.valueOf(created);
+        for (int i = 0; i < rows; i++) {
+            long id = ++branchId;
+            jdbcTemplate.update("insert into undo_log (branch_id, xid, context, rollback_info, log_status, "
+                    + "log_created, log_modified) values (?, ?, ?, ?, ?, ?, ?)",
+                    id, "xid-" + id, "serializer=jackson", new byte[64], logStatus, timestamp, timestamp);
+        }
+    }
+
+    /**
+     * 以數據庫的now()寫入log_created，與Seata寫入undo log的方式相同
+     */
+    private void insertAgo(int rows, int minutes) {
+        for (int i = 0; i < rows; i++) {
+            long id = ++branchId;
+            jdbcTemplate.update("insert into undo_log (branch_id, xid, context, rollback_info, log_status, "
+                    + "log_created, log_modified) values (?, ?, ?, ?, ?, timestampadd(minute, ?, now()), now())",
+                    id, "xid-" + id, "serializer=jackson", new byte[64], UndoLogCleaner.GLOBAL_FINISHED, -minutes);
+        }
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("select count(*) from undo_log", Integer.class);
+    }
+}
@@ -1,10 +1,12 @@
 package com.atguigu.account;
 
 
+import com.example.common.undo.UndoLogCleanupConfiguration;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Import;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 
@@ -12,6 +14,8 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @EnableDiscoveryClient
 @SpringBootApplication
 @EnableTransactionManagement
+// undo_log後台清理，只刪除全局事務已結束的記錄
+@Import(UndoLogCleanupConfiguration.class)
 public class SeataAccountMainApplication {
 
     public static void main(String[] args) {
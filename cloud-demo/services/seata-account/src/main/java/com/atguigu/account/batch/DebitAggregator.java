@@ -0,0 +1,316 @@
+package com.atguigu.account.batch;
+
+import com.atguigu.account.config.DebitAggregationProperties;
+import com.atguigu.account.mapper.AccountTblMapper;
+import org.apache.seata.core.context.RootContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 帳戶扣款合併器
+ *
+ * 短時間窗口內到達的扣款由單個合併線程按user_id分組，同一用戶的多筆扣款合併為一條帶餘額檢查的條件更新，
+ * 熱點用戶的行鎖只需獲取一次，整批在一個事務中提交。
+ * 合併更新因餘額不足失敗時，鎖定帳戶讀取餘額，按到達順序接受餘額足夠的扣款，再以一條更新扣減，
+ * 每筆扣款各自得到成功或餘額不足的結果。
+ *
+ * 調用方等待超時時扣款可能仍會提交。帶request_id的扣款在同一事務中寫入account_debit_log，
+ * 以相同request_id重試時，已提交的扣款按主鍵去重直接返回成功，不會重複扣款。
+ *
+ * 全局事務中的扣款不經過合併：AT模式的undo log按XID記錄在分支事務的連接上，
+ * 不同全局事務的扣款不能合併到同一個本地事務。
+ */
+@Component
+public class DebitAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DebitAggregator.class);
+
+    @Autowired
+    private DebitAggregationProperties aggregationProperties;
+
+    @Autowired
+    private AccountTblMapper accountTblMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BlockingQueue<PendingDebit> queue;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Thread flushThread;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        queue = new LinkedBlockingQueue<>(aggregationProperties.getQueueCapacity());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        running = true;
+        flushThread = new Thread(this::flushLoop, "account-debit-aggregator");
+        flushThread.setDaemon(true);
+        flushThread.start();
+        logger.info("DebitAggregator initialized - enabled: {}, window: {}ms, maxBatchSize: {}",
+                aggregationProperties.isEnabled(), aggregationProperties.getWindowMillis(),
+                aggregationProperties.getMaxBatchSize());
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        flushThread.interrupt();
+        flushThread.join(aggregationProperties.getAwaitTimeoutMillis());
+    }
+
+    /**
+     * 當前扣款是否可以走合併
+     */
+    public boolean isAggregatable() {
+        return aggregationProperties.isEnabled() && running && !RootContext.inGlobalTransaction();
+    }
+
+    /**
+     * 扣減帳戶餘額並等待所在批次提交
+     *
+     * 扣款在合併器的獨立事務中提交，不隨調用方事務回滾，調用方不應持有事務等待。
+     * 隊列已滿時在調用方線程直接扣款。
+     *
+     * @param requestId 扣款請求id，為null時不去重
+     * @throws IllegalStateException 帳戶不存在或餘額不足，或等待超時（以相同requestId重試確認結果）
+     */
+    public void debit(String userId, int money, String requestId) {
+        PendingDebit pending = new PendingDebit(userId, money, requestId);
+        if (!queue.offer(pending)) {
+            transactionTemplate.executeWithoutResult(status -> debitOne(pending));
+            return;
+        }
+
+        try {
+            pending.future.get(aggregationProperties.getAwaitTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtimeException
+                    ? runtimeException : new IllegalStateException("扣款失敗", cause);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(requestId != null
+                    ? "扣款等待超時，以相同requestId重試確認結果: " + requestId
+                    : "扣款等待超時，扣款結果未知", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("扣款被中斷", e);
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingDebit> batch = new ArrayList<>(aggregationProperties.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingDebit first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // 關閉時繼續排空隊列
+                if (running) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 在窗口內收集扣款，直到窗口結束或達到單批上限
+     */
+    private void collect(List<PendingDebit> batch) throws InterruptedException {
+        int maxBatchSize = aggregationProperties.getMaxBatchSize();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(aggregationProperties.getWindowMillis());
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0 || !running) {
+                return;
+            }
+            PendingDebit next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingDebit> batch) {
+        // 同一批中重複的request_id跟隨第一筆的結果，不單獨扣款
+        Map<String, PendingDebit> byRequestId = new HashMap<>();
+        List<PendingDebit> distinct = new ArrayList<>(batch.size());
+        for (PendingDebit pending : batch) {
+            PendingDebit first = pending.requestId == null ? null : byRequestId.putIfAbsent(pending.requestId, pending);
+            if (first == null) {
+                distinct.add(pending);
+            } else {
+                first.future.whenComplete((result, failure) -> {
+                    if (failure == null) {
+                        pending.future.complete(null);
+                    } else {
+                        pending.future.completeExceptionally(failure);
+                    }
+                });
+            }
+        }
+        batch = distinct;
+
+        Map<String, List<PendingDebit>> byUser = new LinkedHashMap<>();
+        for (PendingDebit pending : batch) {
+            byUser.computeIfAbsent(pending.userId, userId -> new ArrayList<>()).add(pending);
+        }
+
+        Map<PendingDebit, RuntimeException> rejected = new LinkedHashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                rejected.clear();
+                byUser.forEach((userId, debits) -> debitUser(userId, debits, rejected));
+            });
+        } catch (Exception e) {
+            logger.warn("Aggregated debit of {} requests failed, retrying one by one, error: {}",
+                    batch.size(), e.getMessage());
+            flushOneByOne(batch);
+            return;
+        }
+        for (PendingDebit pending : batch) {
+            RuntimeException failure = rejected.get(pending);
+            if (failure == null) {
+                pending.future.complete(null);
+            } else {
+                pending.future.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * 合併扣減同一用戶的扣款，餘額不足的扣款記入rejected
+     */
+    private void debitUser(String userId, List<PendingDebit> debits, Map<PendingDebit, RuntimeException> rejected) {
+        // 已提交過的請求直接成功，其餘請求的記錄與扣款在同一事務中提交
+        List<PendingDebit> unrecorded = new ArrayList<>(debits.size());
+        for (PendingDebit pending : debits) {
+            if (!recordedBefore(pending)) {
+                unrecorded.add(pending);
+            }
+        }
+        if (unrecorded.isEmpty()) {
+            return;
+        }
+        debits = unrecorded;
+        int total = debits.stream().mapToInt(pending -> pending.money).sum();
+        if (accountTblMapper.debitIfSufficient(userId, total) > 0) {
+            return;
+        }
+
+        Integer balance = accountTblMapper.selectMoneyForUpdate(userId);
+        if (balance == null) {
+            debits.forEach(pending -> reject(pending, new IllegalStateException("帳戶不存在: " + userId), rejected));
+            return;
+        }
+        int accepted = 0;
+        for (PendingDebit pending : debits) {
+            if (balance - accepted >= pending.money) {
+                accepted += pending.money;
+            } else {
+                reject(pending, new IllegalStateException("帳戶餘額不足: " + userId), rejected);
+            }
+        }
+        if (accepted > 0) {
+            // 帳戶已在本事務中鎖定，餘額不會在兩條語句之間變化
+            accountTblMapper.debitIfSufficient(userId, accepted);
+        }
+        logger.debug("Partially applied {} debits for user {} - accepted: {}, balance: {}",
+                debits.size(), userId, accepted, balance);
+    }
+
+    /**
+     * 同一request_id的扣款是否已經提交，未提交時寫入記錄
+     */
+    private boolean recordedBefore(PendingDebit pending) {
+        return pending.requestId != null
+                && accountTblMapper.insertDebitLogIfAbsent(pending.requestId, pending.userId, pending.money) == 0;
+    }
+
+    /**
+     * 拒絕扣款，撤銷本事務中寫入的請求記錄，以相同request_id重試時重新扣款
+     */
+    private void reject(PendingDebit pending, RuntimeException failure, Map<PendingDebit, RuntimeException> rejected) {
+        if (pending.requestId != null) {
+            accountTblMapper.deleteDebitLog(pending.requestId);
+        }
+        rejected.put(pending, failure);
+    }
+
+    /**
+     * 合併失敗時逐筆重試，避免單筆扣款的錯誤影響同批其他扣款
+     */
+    private void flushOneByOne(List<PendingDebit> batch) {
+        for (PendingDebit pending : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> debitOne(pending));
+                pending.future.complete(null);
+            } catch (Exception e) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * 在當前事務中扣款，失敗時拋出異常，請求記錄隨事務回滾
+     */
+    private void debitOne(PendingDebit pending) {
+        if (recordedBefore(pending)) {
+            return;
+        }
+        if (accountTblMapper.debitIfSufficient(pending.userId, pending.money) == 0) {
+            throw new IllegalStateException("帳戶不存在或餘額不足: " + pending.userId);
+        }
+    }
+
+    private static final class PendingDebit {
+
+        private final String userId;
+
+        private final int money;
+
+        private final String requestId;
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingDebit(String userId, int money, String requestId) {
+            this.userId = userId;
+            this.money = money;
+            this.requestId = requestId;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.atguigu.account.cleanup;
+
+import com.atguigu.account.config.DebitLogProperties;
+import com.atguigu.account.mapper.AccountTblMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 扣款請求記錄後台清理器
+ *
+ * account_debit_log只需保留到調用方不再以相同request_id重試為止，超出保留時間後按批刪除，
+ * 走ix_created範圍掃描，每批單獨提交。
+ */
+@Component
+public class DebitLogCleaner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DebitLogCleaner.class);
+
+    @Autowired
+    private AccountTblMapper accountTblMapper;
+
+    @Autowired
+    private DebitLogProperties debitLogProperties;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        if (!debitLogProperties.isCleanupEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "account-debit-log-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = debitLogProperties.getCleanupIntervalSeconds();
+        scheduler.scheduleWithFixedDelay(this::runSafely, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 刪除超出保留時間的扣款請求記錄
+     *
+     * @return 本輪刪除的記錄數
+     */
+    public int cleanup() {
+        int batchSize = debitLogProperties.getCleanupBatchSize();
+        int deleted = 0;
+        int affected;
+        do {
+            affected = accountTblMapper.deleteDebitLogBefore(debitLogProperties.getRetentionMinutes(), batchSize);
+            deleted += affected;
+        } while (affected == batchSize);
+
+        if (deleted > 0) {
+            logger.info("Account debit log cleanup deleted {} rows", deleted);
+        }
+        return deleted;
+    }
+
+    private void runSafely() {
+        try {
+            cleanup();
+        } catch (Exception e) {
+            logger.warn("Account debit log cleanup failed, will retry in {}s",
+                    debitLogProperties.getCleanupIntervalSeconds(), e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.atguigu.account.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 扣款合併配置屬性
+ */
+@Component
+@ConfigurationProperties(prefix = "account.debit-aggregation")
+public class DebitAggregationProperties {
+
+    /**
+     * 是否啟用扣款合併
+     */
+    private boolean enabled = true;
+
+    /**
+     * 合併窗口（毫秒），從第一筆扣款到達開始計算
+     */
+    private long windowMillis = 5;
+
+    /**
+     * 單批最大扣款請求數
+     */
+    private int maxBatchSize = 100;
+
+    /**
+     * 等待隊列容量，隊列滿時在調用方線程直接扣款
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * 調用方等待扣款結果的超時時間（毫秒）
+     */
+    private long awaitTimeoutMillis = 3000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public void setWindowMillis(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getAwaitTimeoutMillis() {
+        return awaitTimeoutMillis;
+    }
+
+    public void setAwaitTimeoutMillis(long awaitTimeoutMillis) {
+        this.awaitTimeoutMillis = awaitTimeoutMillis;
+    }
+}
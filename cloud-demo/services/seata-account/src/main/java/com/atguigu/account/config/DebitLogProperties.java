@@ -0,0 +1,66 @@
+package com.atguigu.account.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 扣款請求記錄配置屬性
+ * account_debit_log的保留與清理
+ */
+@Component
+@ConfigurationProperties(prefix = "account.debit-log")
+public class DebitLogProperties {
+
+    /**
+     * 是否啟用後台清理
+     */
+    private boolean cleanupEnabled = true;
+
+    /**
+     * 扣款請求記錄的保留時間（分鐘），按資料庫時鐘計算；
+     * 必須大於調用方以相同request_id重試的時間和全局事務超時，期間的重試仍會被去重
+     */
+    private long retentionMinutes = 1440;
+
+    /**
+     * 清理間隔（秒）
+     */
+    private long cleanupIntervalSeconds = 60;
+
+    /**
+     * 單次delete的最大行數
+     */
+    private int cleanupBatchSize = 1000;
+
+    public boolean isCleanupEnabled() {
+        return cleanupEnabled;
+    }
+
+    public void setCleanupEnabled(boolean cleanupEnabled) {
+        this.cleanupEnabled = cleanupEnabled;
+    }
+
+    public long getRetentionMinutes() {
+        return retentionMinutes;
+    }
+
+    public void setRetentionMinutes(long retentionMinutes) {
+        this.retentionMinutes = retentionMinutes;
+    }
+
+    public long getCleanupIntervalSeconds() {
+        return cleanupIntervalSeconds;
+    }
+
+    public void setCleanupIntervalSeconds(long cleanupIntervalSeconds) {
+        this.cleanupIntervalSeconds = cleanupIntervalSeconds;
+    }
+
+    public int getCleanupBatchSize() {
+        return cleanupBatchSize;
+    }
+
+    public void setCleanupBatchSize(int cleanupBatchSize) {
+        this.cleanupBatchSize = cleanupBatchSize;
+    }
+}
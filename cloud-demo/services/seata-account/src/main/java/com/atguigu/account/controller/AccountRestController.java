@@ -18,8 +18,9 @@ public class AccountRestController {
      */
     @GetMapping("/debit")
     public String debit(@RequestParam("userId") String userId,
-                        @RequestParam("money") int money){
-        accountService.debit(userId, money);
+                        @RequestParam("money") int money,
+                        @RequestParam(value = "requestId", required = false) String requestId){
+        accountService.debit(userId, money, requestId);
         return "account debit success";
     }
 }
@@ -23,4 +23,36 @@ public interface AccountTblMapper {
     int updateByPrimaryKey(AccountTbl record);
 
     void debit(String userId, int money);
+
+    /**
+     * 餘額充足時扣減，返回影響行數，0表示帳戶不存在或餘額不足
+     */
+    int debitIfSufficient(String userId, int money);
+
+    /**
+     * 鎖定帳戶並查詢餘額
+     */
+    Integer selectMoneyForUpdate(String userId);
+
+    /**
+     * 記錄扣款請求，返回影響行數，0表示同一request_id的扣款已經提交
+     * 其他事務正在寫入同一request_id時等待其提交或回滾
+     */
+    int insertDebitLogIfAbsent(String requestId, String userId, int money);
+
+    /**
+     * 刪除扣款請求記錄，用於同一事務內被拒絕的扣款
+     */
+    int deleteDebitLog(String requestId);
+
+    /**
+     * 記錄扣款請求，同一request_id已經提交時拋出DuplicateKeyException
+     * 用於全局事務中的扣款：AT模式按插入的主鍵生成回滾記錄，insert ignore未插入時也會記錄已有的行
+     */
+    int insertDebitLog(String requestId, String userId, int money);
+
+    /**
+     * 刪除超出保留時間的扣款請求記錄，返回本次刪除的行數
+     */
+    int deleteDebitLogBefore(long retentionMinutes, int limit);
 }
@@ -6,6 +6,8 @@ public interface AccountService {
      * 從使用者帳戶中扣減
      * @param userId  使用者id
      * @param money   扣減金額
+     * @param requestId 扣款請求id，等待超時後以相同id重試不會重複扣款，為null時不去重
+     * @throws IllegalStateException 帳戶不存在或餘額不足
      */
-    void debit(String userId, int money);
+    void debit(String userId, int money, String requestId);
 }
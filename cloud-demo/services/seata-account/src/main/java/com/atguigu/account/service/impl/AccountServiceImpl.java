@@ -1,20 +1,59 @@
 package com.atguigu.account.service.impl;
 
+import com.atguigu.account.batch.DebitAggregator;
 import com.atguigu.account.mapper.AccountTblMapper;
 import com.atguigu.account.service.AccountService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
-@Transactional(rollbackFor = Exception.class)
 public class AccountServiceImpl implements AccountService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AccountServiceImpl.class);
+
     @Autowired
     AccountTblMapper accountTblMapper;
+    @Autowired
+    DebitAggregator debitAggregator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public AccountServiceImpl(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 方法本身不開事務：合併扣款在合併器的獨立事務中提交，
+     * 調用方若持有事務，等待批次提交期間會一直佔著一個連接，連接池耗盡時與合併器互相等待。
+     *
+     * 兩條路徑都按request_id在account_debit_log去重，Feign重試不會重複扣款。
+     */
     @Override
-    public void debit(String userId, int money) {
-        // 扣減帳戶餘額
-        accountTblMapper.debit(userId,money);
+    public void debit(String userId, int money, String requestId) {
+        // 不在全局事務中的扣款交給合併器，與同一窗口內同一用戶的扣款合併為一次更新
+        if (debitAggregator.isAggregatable()) {
+            debitAggregator.debit(userId, money, requestId);
+            return;
+        }
+
+        // 扣減帳戶餘額，餘額不足時拋出異常回滾全局事務；請求記錄與扣款在同一分支事務中提交，隨全局事務回滾
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (requestId != null) {
+                    accountTblMapper.insertDebitLog(requestId, userId, money);
+                }
+                if (accountTblMapper.debitIfSufficient(userId, money) == 0) {
+                    throw new IllegalStateException("帳戶不存在或餘額不足: " + userId);
+                }
+            });
+        } catch (DuplicateKeyException e) {
+            // 同一request_id的扣款已經提交（前一次請求回應超時後Feign重試），不再扣款
+            logger.debug("Debit request {} already applied, skipping retry", requestId);
+        }
     }
 }
@@ -0,0 +1,255 @@
+package com.atguigu.account.batch;
+
+import com.atguigu.account.config.DebitAggregationProperties;
+import com.atguigu.account.mapper.AccountTblMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 扣款合併器測試
+ * 使用內嵌H2資料庫（MySQL模式）驗證同一用戶的扣款合併為一次條件更新、餘額不足時逐筆部分接受、
+ * 以及按request_id去重的超時重試
+ */
+@DisplayName("DebitAggregator 扣款合併測試")
+class DebitAggregatorTest {
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private DebitAggregationProperties properties;
+
+    private final AtomicInteger debitUpdates = new AtomicInteger();
+
+    private DebitAggregator aggregator;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:account_debit_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setConnectionTimeout(250);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE account_tbl (id int NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                + "user_id varchar(255), money int DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE account_debit_log (request_id varchar(64) NOT NULL PRIMARY KEY, "
+                + "user_id varchar(255) NOT NULL, money int NOT NULL, created datetime NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+
+        SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setMapperLocations(new ClassPathResource("mapper/AccountTblMapper.xml"));
+        SqlSessionFactory sqlSessionFactory = factoryBean.getObject();
+        AccountTblMapper mapper = new SqlSessionTemplate(sqlSessionFactory).getMapper(AccountTblMapper.class);
+
+        properties = new DebitAggregationProperties();
+        properties.setWindowMillis(200);
+        properties.setMaxBatchSize(100);
+        properties.setAwaitTimeoutMillis(3000);
+
+        aggregator = new DebitAggregator();
+        ReflectionTestUtils.setField(aggregator, "aggregationProperties", properties);
+        ReflectionTestUtils.setField(aggregator, "accountTblMapper", countingDebitUpdates(mapper));
+        ReflectionTestUtils.setField(aggregator, "transactionManager", new DataSourceTransactionManager(dataSource));
+        executor = Executors.newFixedThreadPool(10);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        aggregator.destroy();
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("同一窗口內同一用戶的扣款合併為一次條件更新")
+    void testDebitsOfSameUserAreMerged() throws Exception {
+        account("U1", 1000);
+        aggregator.init();
+
+        List<Future<?>> futures = submitAll("U1", 10, 10, 10, 10, 10);
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(950, balance("U1"));
+        assertEquals(1, debitUpdates.get());
+    }
+
+    @Test
+    @DisplayName("合併扣款餘額不足時按到達順序接受餘額足夠的扣款")
+    void testPartialAcceptWhenBalanceInsufficient() throws Exception {
+        account("U1", 100);
+        aggregator.init();
+
+        List<Future<?>> futures = new ArrayList<>();
+        // 間隔入隊保證到達順序，全部落在同一個窗口內
+        for (int money : new int[] {40, 40, 40, 10}) {
+            futures.add(executor.submit(() -> aggregator.debit("U1", money, null)));
+            Thread.sleep(20);
+        }
+
+        int succeeded = 0;
+        int rejected = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                succeeded++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+                assertTrue(e.getCause().getMessage().contains("餘額不足"));
+                rejected++;
+            }
+        }
+
+        assertEquals(3, succeeded);
+        assertEquals(1, rejected);
+        assertEquals(10, balance("U1"));
+    }
+
+    @Test
+    @DisplayName("帳戶不存在時該用戶的扣款全部失敗，不影響同批其他用戶")
+    void testUnknownAccountRejected() throws Exception {
+        account("U1", 100);
+        aggregator.init();
+
+        Future<?> missing = executor.submit(() -> aggregator.debit("U404", 10, null));
+        Future<?> existing = executor.submit(() -> aggregator.debit("U1", 10, null));
+
+        existing.get(5, TimeUnit.SECONDS);
+        ExecutionException error = assertThrows(ExecutionException.class, () -> missing.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause().getMessage().contains("帳戶不存在"));
+        assertEquals(90, balance("U1"));
+    }
+
+    @Test
+    @DisplayName("相同requestId的扣款只扣一次，同一批中的重複請求跟隨第一筆的結果")
+    void testRequestIdDeduplicated() throws Exception {
+        account("U1", 100);
+        aggregator.init();
+
+        aggregator.debit("U1", 30, "R1");
+        aggregator.debit("U1", 30, "R1");
+        assertEquals(70, balance("U1"));
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(executor.submit(() -> aggregator.debit("U1", 20, "R2")));
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(50, balance("U1"));
+    }
+
+    @Test
+    @DisplayName("被拒絕的扣款不留下請求記錄，以相同requestId重試時重新扣款")
+    void testRejectedRequestCanBeRetried() {
+        account("U1", 10);
+        aggregator.init();
+
+        assertThrows(IllegalStateException.class, () -> aggregator.debit("U1", 50, "R1"));
+        assertEquals(0, logs());
+
+        jdbcTemplate.update("UPDATE account_tbl SET money = 100 WHERE user_id = 'U1'");
+        aggregator.debit("U1", 50, "R1");
+        assertEquals(50, balance("U1"));
+        assertEquals(1, logs());
+    }
+
+    @Test
+    @DisplayName("等待超時後扣款仍會提交，以相同requestId重試不會重複扣款")
+    void testRetryAfterTimeoutIsIdempotent() throws Exception {
+        properties.setWindowMillis(5);
+        properties.setAwaitTimeoutMillis(100);
+        account("U1", 100);
+        aggregator.init();
+
+        // 佔住連接池中的全部連接，合併器拿不到連接，批次無法提交
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        try {
+            IllegalStateException error = assertThrows(IllegalStateException.class,
+                    () -> aggregator.debit("U1", 30, "R1"));
+            assertTrue(error.getMessage().contains("R1"));
+        } finally {
+            first.close();
+            second.close();
+        }
+
+        properties.setAwaitTimeoutMillis(3000);
+        aggregator.debit("U1", 30, "R1");
+
+        assertEquals(70, balance("U1"));
+        assertEquals(1, logs());
+    }
+
+    private List<Future<?>> submitAll(String userId, int... amounts) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int money : amounts) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                aggregator.debit(userId, money, null);
+                return null;
+            }));
+        }
+        start.countDown();
+        return futures;
+    }
+
+    /**
+     * 記錄debitIfSufficient的調用次數
+     */
+    private AccountTblMapper countingDebitUpdates(AccountTblMapper mapper) {
+        return (AccountTblMapper) Proxy.newProxyInstance(AccountTblMapper.class.getClassLoader(),
+                new Class<?>[] {AccountTblMapper.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("debitIfSufficient")) {
+                        debitUpdates.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(mapper, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private void account(String userId, int money) {
+        jdbcTemplate.update("INSERT INTO account_tbl (user_id, money) VALUES (?, ?)", userId, money);
+    }
+
+    private int balance(String userId) {
+        return jdbcTemplate.queryForObject("SELECT money FROM account_tbl WHERE user_id = ?", Integer.class, userId);
+    }
+
+    private int logs() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account_debit_log", Integer.class);
+    }
+}
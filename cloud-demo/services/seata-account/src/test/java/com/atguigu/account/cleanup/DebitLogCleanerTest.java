@@ -0,0 +1,92 @@
+package com.atguigu.account.cleanup;
+
+import com.atguigu.account.config.DebitLogProperties;
+import com.atguigu.account.mapper.AccountTblMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 扣款請求記錄清理器測試
+ * 使用內嵌H2資料庫（MySQL模式）驗證只刪除超出保留時間的記錄，並按批刪除直到沒有過期記錄
+ */
+@DisplayName("DebitLogCleaner 扣款請求記錄清理測試")
+class DebitLogCleanerTest {
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private DebitLogProperties properties;
+
+    private DebitLogCleaner cleaner;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:account_debit_log_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE account_debit_log (request_id varchar(64) NOT NULL PRIMARY KEY, "
+                + "user_id varchar(255) NOT NULL, money int NOT NULL, created datetime NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+
+        SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setMapperLocations(new ClassPathResource("mapper/AccountTblMapper.xml"));
+        SqlSessionFactory sqlSessionFactory = factoryBean.getObject();
+
+        properties = new DebitLogProperties();
+        properties.setRetentionMinutes(60);
+        cleaner = new DebitLogCleaner();
+        ReflectionTestUtils.setField(cleaner, "accountTblMapper",
+                new SqlSessionTemplate(sqlSessionFactory).getMapper(AccountTblMapper.class));
+        ReflectionTestUtils.setField(cleaner, "debitLogProperties", properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("只刪除超出保留時間的記錄")
+    void testOnlyExpiredLogsDeleted() {
+        log("OLD", 120);
+        log("NEW", 10);
+
+        assertEquals(1, cleaner.cleanup());
+        assertEquals(0, count("OLD"));
+        assertEquals(1, count("NEW"));
+    }
+
+    @Test
+    @DisplayName("過期記錄超過單批上限時按批刪除直到刪完")
+    void testDeletesInBatches() {
+        properties.setCleanupBatchSize(2);
+        for (int i = 0; i < 5; i++) {
+            log("OLD-" + i, 120);
+        }
+
+        assertEquals(5, cleaner.cleanup());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account_debit_log", Integer.class));
+    }
+
+    private void log(String requestId, int minutesAgo) {
+        jdbcTemplate.update("INSERT INTO account_debit_log (request_id, user_id, money, created) "
+                + "VALUES (?, 'U1', 10, timestampadd(minute, ?, now()))", requestId, -minutesAgo);
+    }
+
+    private int count(String requestId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account_debit_log WHERE request_id = ?",
+                Integer.class, requestId);
+    }
+}
@@ -0,0 +1,107 @@
+package com.atguigu.account.service.impl;
+
+import com.atguigu.account.batch.DebitAggregator;
+import com.atguigu.account.config.DebitAggregationProperties;
+import com.atguigu.account.mapper.AccountTblMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.seata.core.context.RootContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 帳戶扣款服務測試
+ * 使用內嵌H2資料庫（MySQL模式）驗證全局事務中的扣款按request_id去重，Feign重試不會重複扣款
+ */
+@DisplayName("AccountServiceImpl 全局事務扣款測試")
+class AccountServiceImplTest {
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private AccountServiceImpl accountService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:account_service_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE account_tbl (id int NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                + "user_id varchar(255), money int DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE account_debit_log (request_id varchar(64) NOT NULL PRIMARY KEY, "
+                + "user_id varchar(255) NOT NULL, money int NOT NULL, created datetime NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO account_tbl (user_id, money) VALUES ('U1', 100)");
+
+        SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setMapperLocations(new ClassPathResource("mapper/AccountTblMapper.xml"));
+        SqlSessionFactory sqlSessionFactory = factoryBean.getObject();
+
+        accountService = new AccountServiceImpl(new DataSourceTransactionManager(dataSource));
+        accountService.accountTblMapper = new SqlSessionTemplate(sqlSessionFactory).getMapper(AccountTblMapper.class);
+        // 全局事務中不經過合併器，不需要啟動合併線程
+        DebitAggregator aggregator = new DebitAggregator();
+        ReflectionTestUtils.setField(aggregator, "aggregationProperties", new DebitAggregationProperties());
+        ReflectionTestUtils.setField(aggregator, "running", true);
+        accountService.debitAggregator = aggregator;
+
+        RootContext.bind("xid-1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        RootContext.unbind();
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("全局事務中以相同requestId重試只扣款一次")
+    void testRetryInGlobalTransactionIsIdempotent() {
+        accountService.debit("U1", 30, "R1");
+        accountService.debit("U1", 30, "R1");
+
+        assertEquals(70, balance());
+        assertEquals(1, logs());
+    }
+
+    @Test
+    @DisplayName("餘額不足時扣款與請求記錄一起回滾，以相同requestId重試時重新扣款")
+    void testRejectedDebitLeavesNoLog() {
+        assertThrows(IllegalStateException.class, () -> accountService.debit("U1", 500, "R1"));
+        assertEquals(0, logs());
+
+        jdbcTemplate.update("UPDATE account_tbl SET money = 1000 WHERE user_id = 'U1'");
+        accountService.debit("U1", 500, "R1");
+        assertEquals(500, balance());
+        assertEquals(1, logs());
+    }
+
+    @Test
+    @DisplayName("沒有requestId的扣款不去重")
+    void testDebitWithoutRequestId() {
+        accountService.debit("U1", 30, null);
+        accountService.debit("U1", 30, null);
+
+        assertEquals(40, balance());
+        assertEquals(0, logs());
+    }
+
+    private int balance() {
+        return jdbcTemplate.queryForObject("SELECT money FROM account_tbl WHERE user_id = 'U1'", Integer.class);
+    }
+
+    private int logs() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account_debit_log", Integer.class);
+    }
+}
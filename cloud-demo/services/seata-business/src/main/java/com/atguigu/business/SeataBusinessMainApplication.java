@@ -1,10 +1,13 @@
 package com.atguigu.business;
 
+import com.example.common.feign.FeignTransportConfiguration;
+import com.example.common.idempotent.IdempotencyConfiguration;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 
 
@@ -13,6 +16,8 @@ import org.springframework.context.annotation.EnableAspectJAutoProxy;
 // 開啟feign功能，掃描指定包下的介面，生成代理物件
 @EnableFeignClients(basePackages = "com.atguigu.business.feign")
 @EnableAspectJAutoProxy
+// Feign連接池傳輸，替換默認的HttpURLConnection客戶端；@Idempotent請求冪等去重
+@Import({FeignTransportConfiguration.class, IdempotencyConfiguration.class})
 @MapperScan(basePackages = "com.atguigu.business.mapper.storage")
 public class SeataBusinessMainApplication {
 
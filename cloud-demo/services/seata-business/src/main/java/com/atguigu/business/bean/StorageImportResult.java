@@ -0,0 +1,54 @@
+package com.atguigu.business.bean;
+
+import lombok.Data;
+import java.io.Serializable;
+
+/**
+ * 庫存批量導入結果
+ */
+@Data
+public class StorageImportResult implements Serializable {
+
+    /**
+     * 導入格式：CSV, NDJSON
+     */
+    private String format;
+
+    /**
+     * 導入模式：INSERT(僅插入), UPSERT(插入或覆蓋)
+     */
+    private String mode;
+
+    /**
+     * 已提交的記錄數
+     */
+    private long totalRecords;
+
+    /**
+     * 已提交的批次數
+     */
+    private int chunkCount;
+
+    /**
+     * 資料庫影響行數，UPSERT模式下更新的記錄計為2
+     */
+    private long affectedRows;
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 導入格式常量
+     */
+    public static class Format {
+        public static final String CSV = "CSV";
+        public static final String NDJSON = "NDJSON";
+    }
+
+    /**
+     * 導入模式常量
+     */
+    public static class Mode {
+        public static final String INSERT = "INSERT";
+        public static final String UPSERT = "UPSERT";
+    }
+}
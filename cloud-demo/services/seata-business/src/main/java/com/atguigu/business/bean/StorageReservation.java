@@ -0,0 +1,41 @@
+package com.atguigu.business.bean;
+
+import java.io.Serializable;
+import lombok.Data;
+
+/**
+ * @TableName storage_reservation
+ * TCC庫存預留記錄，同時作為二階段冪等、空回滾和防懸掛的依據
+ */
+@Data
+public class StorageReservation implements Serializable {
+
+    /**
+     * 一階段已預留，等待提交或回滾
+     */
+    public static final int STATUS_TRIED = 0;
+
+    /**
+     * 已回滾；一階段晚於回滾到達時據此拒絕預留
+     */
+    public static final int STATUS_CANCELLED = 1;
+
+    /**
+     * 已提交；一階段重複到達時據此忽略，不再扣減
+     */
+    public static final int STATUS_CONFIRMED = 2;
+
+    private Long id;
+
+    private String xid;
+
+    private Long branchId;
+
+    private String commodityCode;
+
+    private Integer count;
+
+    private Integer status;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,71 @@
+package com.atguigu.business.cache;
+
+import com.atguigu.business.bean.StorageTbl;
+import com.atguigu.business.mapper.storage.StorageTblMapper;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * StorageTblMapper寫入攔截器
+ * 所有經過StorageTblMapper的insert/update/delete執行後，失效對應商品的近端緩存
+ *
+ * 能從參數中取得商品編碼時只失效該商品；按主鍵操作的語句無法確定商品編碼，失效全部緩存
+ */
+@Component
+@Intercepts({
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class StorageCacheInvalidationInterceptor implements Interceptor {
+
+    private static final String STATEMENT_PREFIX = StorageTblMapper.class.getName() + ".";
+
+    private static final String COMMODITY_CODE_PARAM = "commodityCode";
+
+    // 延遲獲取，避免 SqlSessionFactory -> 攔截器 -> 緩存 的循環依賴
+    private final ObjectProvider<StorageTblNearCache> nearCacheProvider;
+
+    public StorageCacheInvalidationInterceptor(ObjectProvider<StorageTblNearCache> nearCacheProvider) {
+        this.nearCacheProvider = nearCacheProvider;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        if (statement.getId().startsWith(STATEMENT_PREFIX)) {
+            StorageTblNearCache nearCache = nearCacheProvider.getIfAvailable();
+            if (nearCache != null) {
+                nearCache.onWrite(resolveCommodityCode(statement, invocation.getArgs()[1]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 從語句參數解析商品編碼，無法確定時返回null
+     */
+    static String resolveCommodityCode(MappedStatement statement, Object parameter) {
+        if (parameter instanceof StorageTbl storage) {
+            // 按主鍵更新可能修改了商品編碼，舊編碼未知
+            return statement.getSqlCommandType() == SqlCommandType.INSERT ? storage.getCommodityCode() : null;
+        }
+        if (parameter instanceof Map<?, ?> params && params.containsKey(COMMODITY_CODE_PARAM)) {
+            Object commodityCode = params.get(COMMODITY_CODE_PARAM);
+            return commodityCode != null ? commodityCode.toString() : null;
+        }
+        if (parameter instanceof String commodityCode) {
+            return commodityCode;
+        }
+        return null;
+    }
+}
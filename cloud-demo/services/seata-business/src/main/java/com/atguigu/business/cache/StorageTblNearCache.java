@@ -0,0 +1,287 @@
+package com.atguigu.business.cache;
+
+import com.atguigu.business.bean.StorageTbl;
+import com.atguigu.business.config.StorageCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.seata.core.context.RootContext;
+import org.apache.seata.tm.api.transaction.TransactionHookAdapter;
+import org.apache.seata.tm.api.transaction.TransactionHookManager;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * StorageTbl近端緩存
+ *
+ * 以商品編碼為鍵緩存storage_tbl記錄，讓存在性檢查和庫存預檢查不必每次都查詢資料庫。
+ *
+ * 失效機制：
+ * 1. 本服務通過StorageTblMapper寫入時，由StorageCacheInvalidationInterceptor觸發失效
+ * 2. 事務內的寫入在事務結束後再次失效，提交成功時通過Redis頻道通知其他實例
+ * 3. 全局事務回滾（undo log還原）時再次失效並通知
+ * 4. 訂閱Redis頻道，接收seata-storage及其他實例發出的失效通知
+ * 5. 寫入後過期時間作為漏收通知時的兜底
+ *
+ * 緩存值僅用於非關鍵讀取，庫存扣減仍以資料庫條件更新為準。
+ */
+@Component
+public class StorageTblNearCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageTblNearCache.class);
+
+    /**
+     * 全部失效的通知內容
+     */
+    static final String INVALIDATE_ALL = "*";
+
+    /**
+     * 通知格式：來源實例ID|商品編碼
+     */
+    private static final String MESSAGE_SEPARATOR = "|";
+
+    @Autowired
+    private StorageCacheProperties cacheProperties;
+
+    @Autowired(required = false)
+    private RedissonClient redissonClient;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.application.name:seata-business}")
+    private String serviceName;
+
+    private Cache<String, StorageTbl> cache;
+
+    private RTopic invalidationTopic;
+
+    private int listenerId = -1;
+
+    private String instanceId;
+
+    @PostConstruct
+    public void init() {
+        instanceId = serviceName + "-" + UUID.randomUUID();
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getMaximumSize())
+                .expireAfterWrite(cacheProperties.getExpireAfterWrite(), TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "storage.near.cache");
+        }
+
+        if (cacheProperties.isEnabled()) {
+            subscribe();
+        }
+
+        logger.info("StorageTblNearCache initialized - enabled: {}, maximumSize: {}, expireAfterWrite: {}s, channel: {}",
+                cacheProperties.isEnabled(), cacheProperties.getMaximumSize(),
+                cacheProperties.getExpireAfterWrite(), cacheProperties.getInvalidationChannel());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (invalidationTopic != null && listenerId != -1) {
+            try {
+                invalidationTopic.removeListener(listenerId);
+            } catch (Exception e) {
+                logger.debug("Failed to remove storage cache invalidation listener: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 讀取庫存記錄，未命中時通過loader從資料庫載入
+     *
+     * @param commodityCode 商品編碼
+     * @param loader 資料庫載入函數
+     * @return 庫存記錄副本，不存在時返回null
+     */
+    public StorageTbl get(String commodityCode, Function<String, StorageTbl> loader) {
+        if (!cacheProperties.isEnabled() || commodityCode == null) {
+            return loader.apply(commodityCode);
+        }
+        // 事務內已寫入的商品不走緩存，避免把未提交的數據放入緩存
+        if (isPendingInCurrentTransaction(commodityCode)) {
+            return loader.apply(commodityCode);
+        }
+        return copyOf(cache.get(commodityCode, loader));
+    }
+
+    /**
+     * 用最新讀取的資料庫記錄刷新緩存
+     */
+    public void refresh(StorageTbl storage) {
+        if (!cacheProperties.isEnabled() || storage == null || storage.getCommodityCode() == null) {
+            return;
+        }
+        if (isPendingInCurrentTransaction(storage.getCommodityCode())) {
+            return;
+        }
+        cache.put(storage.getCommodityCode(), copyOf(storage));
+    }
+
+    /**
+     * 記錄一次寫入
+     * 立即失效本地緩存；若處於事務中，事務結束後再次失效並在提交後通知其他實例
+     *
+     * @param commodityCode 商品編碼，null表示無法確定具體商品，全部失效
+     */
+    public void onWrite(String commodityCode) {
+        String key = commodityCode != null ? commodityCode : INVALIDATE_ALL;
+        invalidateLocal(key);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingInvalidations().add(key);
+        } else {
+            publish(key);
+        }
+
+        registerGlobalRollbackHook(key);
+    }
+
+    /**
+     * 當前緩存條目數
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * 處理Redis頻道上的失效通知
+     */
+    void onMessage(String message) {
+        if (message == null) {
+            return;
+        }
+        int separator = message.indexOf(MESSAGE_SEPARATOR);
+        if (separator < 0) {
+            return;
+        }
+        if (message.regionMatches(0, instanceId, 0, separator) && separator == instanceId.length()) {
+            // 自己發出的通知，本地已失效
+            return;
+        }
+        String key = message.substring(separator + 1);
+        invalidateLocal(key);
+        logger.debug("Received storage cache invalidation for key: {} from: {}", key, message.substring(0, separator));
+    }
+
+    private void invalidateLocal(String key) {
+        if (INVALIDATE_ALL.equals(key)) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(key);
+        }
+    }
+
+    private void publish(String key) {
+        if (invalidationTopic == null) {
+            return;
+        }
+        try {
+            invalidationTopic.publish(instanceId + MESSAGE_SEPARATOR + key);
+        } catch (Exception e) {
+            // Redis不可用時僅依賴過期時間兜底
+            logger.warn("Failed to publish storage cache invalidation for key: {}, error: {}", key, e.getMessage());
+        }
+    }
+
+    private void subscribe() {
+        if (redissonClient == null) {
+            logger.warn("RedissonClient not available, storage cache invalidation will be local only");
+            return;
+        }
+        try {
+            invalidationTopic = redissonClient.getTopic(cacheProperties.getInvalidationChannel(), StringCodec.INSTANCE);
+            listenerId = invalidationTopic.addListener(String.class, (channel, message) -> onMessage(message));
+        } catch (Exception e) {
+            invalidationTopic = null;
+            logger.warn("Failed to subscribe storage cache invalidation channel: {}, error: {}",
+                    cacheProperties.getInvalidationChannel(), e.getMessage());
+        }
+    }
+
+    private boolean isPendingInCurrentTransaction(String commodityCode) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        return pending != null && (pending.contains(commodityCode) || pending.contains(INVALIDATE_ALL));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> pendingInvalidations() {
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> keys = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, keys);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(StorageTblNearCache.this);
+                    for (String key : keys) {
+                        invalidateLocal(key);
+                        if (status == STATUS_COMMITTED) {
+                            publish(key);
+                        }
+                    }
+                }
+            });
+            pending = keys;
+        }
+        return pending;
+    }
+
+    /**
+     * 全局事務回滾時undo log直接還原資料，不經過mapper，需要額外失效
+     */
+    private void registerGlobalRollbackHook(String key) {
+        if (!RootContext.inGlobalTransaction()) {
+            return;
+        }
+        try {
+            TransactionHookManager.registerHook(new TransactionHookAdapter() {
+                @Override
+                public void afterRollback() {
+                    invalidateLocal(key);
+                    publish(key);
+                }
+            });
+        } catch (IllegalStateException e) {
+            logger.debug("Unable to register global rollback hook for storage cache key: {}", key);
+        }
+    }
+
+    private static StorageTbl copyOf(StorageTbl source) {
+        if (source == null) {
+            return null;
+        }
+        StorageTbl copy = new StorageTbl();
+        copy.setId(source.getId());
+        copy.setCommodityCode(source.getCommodityCode());
+        copy.setCount(source.getCount());
+        return copy;
+    }
+}
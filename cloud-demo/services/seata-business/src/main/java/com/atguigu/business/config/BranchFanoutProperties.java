@@ -0,0 +1,51 @@
+package com.atguigu.business.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 全局事務分支並行執行配置屬性類
+ */
+@Component
+@ConfigurationProperties(prefix = "branch.fanout")
+public class BranchFanoutProperties {
+
+    /**
+     * 是否並行執行相互獨立的分支，關閉時在調用線程中順序執行
+     */
+    private boolean enabled = true;
+
+    /**
+     * 分支工作線程數，調用線程自身執行第一個分支
+     */
+    private int parallelism = 8;
+
+    /**
+     * 等待全部分支結束的超時時間（毫秒），應大於Feign讀取超時
+     */
+    private long timeoutMillis = 30000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+}
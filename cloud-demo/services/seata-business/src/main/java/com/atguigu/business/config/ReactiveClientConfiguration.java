@@ -0,0 +1,49 @@
+package com.atguigu.business.config;
+
+import com.atguigu.business.reactive.SeataXidExchangeFilter;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * 響應式購買流程配置類
+ * 提供負載均衡的非阻塞WebClient和有界的阻塞調度器
+ */
+@Configuration
+public class ReactiveClientConfiguration {
+
+    /**
+     * 通過服務名負載均衡的WebClient構建器，請求自動攜帶Reactor上下文中的XID
+     * 構建器是單例，使用時需先clone()再設置baseUrl
+     */
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder(ReactivePurchaseProperties purchaseProperties,
+                                                          SeataXidExchangeFilter seataXidExchangeFilter) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("purchase-reactive")
+            .maxConnections(purchaseProperties.getMaxConnections())
+            .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .responseTimeout(Duration.ofMillis(purchaseProperties.getTimeoutMillis()));
+        return WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .filter(seataXidExchangeFilter);
+    }
+
+    /**
+     * 有界阻塞調度器，線程數固定，不隨並發購買數增長
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler purchaseBlockingScheduler(ReactivePurchaseProperties purchaseProperties) {
+        return Schedulers.newBoundedElastic(purchaseProperties.getBlockingThreads(),
+            purchaseProperties.getBlockingQueueCapacity(), "purchase-blocking", 60, true);
+    }
+}
@@ -0,0 +1,77 @@
+package com.atguigu.business.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 響應式購買流程配置屬性類
+ */
+@Component
+@ConfigurationProperties(prefix = "purchase.reactive")
+public class ReactivePurchaseProperties {
+
+    /**
+     * 阻塞調度器線程數，用於Seata TM的開啟、提交、回滾RPC和JDBC操作
+     */
+    private int blockingThreads = 16;
+
+    /**
+     * 阻塞調度器排隊任務上限，超出時立即拒絕
+     */
+    private int blockingQueueCapacity = 10000;
+
+    /**
+     * WebClient到下游服務的最大連接數
+     */
+    private int maxConnections = 500;
+
+    /**
+     * 全局事務超時時間（毫秒）
+     */
+    private int globalTransactionTimeoutMillis = 60000;
+
+    /**
+     * 整個購買流程的超時時間（毫秒），超時後回滾全局事務
+     */
+    private long timeoutMillis = 30000;
+
+    public int getBlockingThreads() {
+        return blockingThreads;
+    }
+
+    public void setBlockingThreads(int blockingThreads) {
+        this.blockingThreads = blockingThreads;
+    }
+
+    public int getBlockingQueueCapacity() {
+        return blockingQueueCapacity;
+    }
+
+    public void setBlockingQueueCapacity(int blockingQueueCapacity) {
+        this.blockingQueueCapacity = blockingQueueCapacity;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getGlobalTransactionTimeoutMillis() {
+        return globalTransactionTimeoutMillis;
+    }
+
+    public void setGlobalTransactionTimeoutMillis(int globalTransactionTimeoutMillis) {
+        this.globalTransactionTimeoutMillis = globalTransactionTimeoutMillis;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+}
@@ -0,0 +1,65 @@
+package com.atguigu.business.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 庫存近端緩存配置屬性類
+ * 控制StorageTbl本地緩存的容量、過期時間以及跨服務失效通知頻道
+ */
+@Component
+@ConfigurationProperties(prefix = "storage.cache")
+public class StorageCacheProperties {
+
+    /**
+     * 是否啟用近端緩存，關閉時所有讀取直接查詢資料庫
+     */
+    private boolean enabled = true;
+
+    /**
+     * 緩存最大條目數，超過後按W-TinyLFU策略淘汰
+     */
+    private long maximumSize = 10000;
+
+    /**
+     * 寫入後過期時間（秒），作為漏收失效通知時的兜底
+     */
+    private long expireAfterWrite = 30;
+
+    /**
+     * Redis失效通知頻道，必須與seata-storage服務保持一致
+     */
+    private String invalidationChannel = "storage:cache:invalidation";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public long getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(long expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    public void setInvalidationChannel(String invalidationChannel) {
+        this.invalidationChannel = invalidationChannel;
+    }
+}
@@ -0,0 +1,38 @@
+package com.atguigu.business.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 庫存批量導入配置屬性類
+ */
+@Component
+@ConfigurationProperties(prefix = "storage.import")
+public class StorageImportProperties {
+
+    /**
+     * 默認每批提交的記錄數，請求未指定時使用
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * 請求可指定的最大批次大小，限制單條SQL長度和內存佔用
+     */
+    private int maxChunkSize = 10000;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    public void setMaxChunkSize(int maxChunkSize) {
+        this.maxChunkSize = maxChunkSize;
+    }
+}
@@ -0,0 +1,79 @@
+package com.atguigu.business.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 庫存TCC扣減配置屬性類
+ * 指定以TCC模式扣減的商品，以及storage_reservation已結束記錄的保留與清理
+ *
+ * 同一商品只能以一種模式寫入：TCC一階段直接提交庫存更新，若AT分支同時修改該行，
+ * AT回滾時後鏡像校驗失敗，分支無法自動回滾。
+ */
+@Component
+@ConfigurationProperties(prefix = "storage.tcc")
+public class StorageTccProperties {
+
+    /**
+     * 以TCC模式扣減的商品編碼，這些商品不接受AT分支寫入；其餘商品只接受AT分支寫入
+     */
+    private Set<String> commodityCodes = new HashSet<>();
+
+    /**
+     * 已提交或已回滾預留記錄的保留時間（分鐘），按資料庫時鐘計算；
+     * 必須大於全局事務超時加TC二階段重試時間，期間晚到的一階段仍會被拒絕
+     */
+    private long reservationRetentionMinutes = 1440;
+
+    /**
+     * 清理間隔（秒）
+     */
+    private long cleanupIntervalSeconds = 60;
+
+    /**
+     * 單次delete的最大行數
+     */
+    private int cleanupBatchSize = 1000;
+
+    /**
+     * 商品是否以TCC模式扣減
+     */
+    public boolean isTccCommodity(String commodityCode) {
+        return commodityCode != null && commodityCodes.contains(commodityCode);
+    }
+
+    public Set<String> getCommodityCodes() {
+        return commodityCodes;
+    }
+
+    public void setCommodityCodes(Set<String> commodityCodes) {
+        this.commodityCodes = commodityCodes;
+    }
+
+    public long getReservationRetentionMinutes() {
+        return reservationRetentionMinutes;
+    }
+
+    public void setReservationRetentionMinutes(long reservationRetentionMinutes) {
+        this.reservationRetentionMinutes = reservationRetentionMinutes;
+    }
+
+    public long getCleanupIntervalSeconds() {
+        return cleanupIntervalSeconds;
+    }
+
+    public void setCleanupIntervalSeconds(long cleanupIntervalSeconds) {
+        this.cleanupIntervalSeconds = cleanupIntervalSeconds;
+    }
+
+    public int getCleanupBatchSize() {
+        return cleanupBatchSize;
+    }
+
+    public void setCleanupBatchSize(int cleanupBatchSize) {
+        this.cleanupBatchSize = cleanupBatchSize;
+    }
+}
@@ -1,8 +1,12 @@
 package com.atguigu.business.controller;
 
+import com.atguigu.business.bean.StorageImportResult;
 import com.atguigu.business.bean.StorageOperation;
 import com.atguigu.business.service.BusinessStorageService;
+import com.example.common.idempotent.Idempotent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
@@ -11,6 +15,8 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,18 +29,24 @@ import java.util.Map;
 @RequestMapping("/business/storage")
 public class BusinessStorageController {
 
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    private static final String CSV_MEDIA_TYPE = "text/csv";
+
     @Autowired
     private BusinessStorageService businessStorageService;
 
     /**
      * 直接庫存扣減API
      * 業務服務直接操作storage_db進行庫存扣減
+     * 攜帶Idempotency-Key請求頭的重複請求直接返回首次扣減的結果
      * 
      * @param commodityCode 商品編碼
      * @param count 扣減數量
      * @param businessContext 業務上下文（可選）
      * @return 操作結果
      */
+    @Idempotent("business-deduct")
     @PostMapping("/deduct")
     public ResponseEntity<Map<String, Object>> directDeduct(
             @RequestParam @NotBlank(message = "商品編碼不能為空") String commodityCode,
@@ -90,6 +102,38 @@ public class BusinessStorageController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * 庫存批量導入API
+     * 流式讀取請求體，按批次寫入並提交，內存佔用與導入數據量無關
+     * Content-Type為application/x-ndjson時按NDJSON解析，否則按CSV解析
+     * 
+     * @param contentType 請求體類型
+     * @param mode 導入模式：upsert(默認，存在則覆蓋庫存)或insert(僅插入)
+     * @param chunkSize 每批提交的記錄數（可選）
+     * @param body 請求體數據流
+     * @return 導入結果
+     */
+    @PostMapping(value = "/import", consumes = {NDJSON_MEDIA_TYPE, CSV_MEDIA_TYPE, MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<Map<String, Object>> importStorage(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(required = false, defaultValue = "upsert") String mode,
+            @RequestParam(required = false) @Min(value = 1, message = "批次大小必須大於0") Integer chunkSize,
+            InputStream body) throws IOException {
+        
+        String format = contentType.toLowerCase().startsWith(NDJSON_MEDIA_TYPE)
+                ? StorageImportResult.Format.NDJSON : StorageImportResult.Format.CSV;
+        
+        // 執行批量導入
+        StorageImportResult result = businessStorageService.importStorage(body, format, mode.toUpperCase(), chunkSize);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "庫存導入成功");
+        response.put("data", result);
+        
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * 驗證庫存操作對象
      * 
@@ -1,10 +1,13 @@
 package com.atguigu.business.controller;
 
 import com.atguigu.business.service.BusinessService;
+import com.atguigu.business.service.ReactiveBusinessService;
+import com.example.common.idempotent.Idempotent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 
 @RestController
 public class PurchaseRestController {
@@ -12,6 +15,9 @@ public class PurchaseRestController {
     @Autowired
     BusinessService businessService;
 
+    @Autowired
+    ReactiveBusinessService reactiveBusinessService;
+
 
     /**
      * 購買
@@ -20,6 +26,7 @@ public class PurchaseRestController {
      * @param orderCount 數量
      * @return
      */
+    @Idempotent("purchase")
     @GetMapping("/purchase")
     public String purchase(@RequestParam("userId") String userId,
                            @RequestParam("commodityCode") String commodityCode,
@@ -27,4 +34,20 @@ public class PurchaseRestController {
         businessService.purchase(userId, commodityCode, orderCount);
         return "business purchase success";
     }
+
+    /**
+     * 響應式購買
+     * 返回Mono時請求以異步方式處理，等待鎖和下游響應期間不佔用Servlet線程
+     * @param userId 使用者ID
+     * @param commodityCode 商品編碼
+     * @param orderCount 數量
+     * @return
+     */
+    @GetMapping("/reactive/purchase")
+    public Mono<String> reactivePurchase(@RequestParam("userId") String userId,
+                                         @RequestParam("commodityCode") String commodityCode,
+                                         @RequestParam("count") int orderCount){
+        return reactiveBusinessService.purchase(userId, commodityCode, orderCount)
+                .thenReturn("business reactive purchase success");
+    }
 }
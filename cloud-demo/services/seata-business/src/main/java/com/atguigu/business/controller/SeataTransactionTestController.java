@@ -126,6 +126,56 @@ public class SeataTransactionTestController {
         }
     }
     
+    /**
+     * 測試TCC庫存購買流程
+     * 庫存以TCC模式預留，與AT模式的標準購買流程對照
+     * 
+     * @param userId 用戶ID
+     * @param commodityCode 商品編碼
+     * @param orderCount 訂單數量
+     * @return 操作結果
+     */
+    @PostMapping("/purchase-tcc")
+    public ResponseEntity<Map<String, Object>> testPurchaseWithTcc(
+            @RequestParam String userId,
+            @RequestParam String commodityCode,
+            @RequestParam int orderCount) {
+        
+        Map<String, Object> result = new HashMap<>();
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            logger.info("開始測試TCC庫存購買流程 - 用戶: {}, 商品: {}, 數量: {}", userId, commodityCode, orderCount);
+            
+            businessService.purchaseWithTcc(userId, commodityCode, orderCount);
+            
+            long duration = System.currentTimeMillis() - startTime;
+            result.put("success", true);
+            result.put("message", "TCC庫存購買成功");
+            result.put("duration", duration + "ms");
+            result.put("userId", userId);
+            result.put("commodityCode", commodityCode);
+            result.put("orderCount", orderCount);
+            result.put("transactionType", "global-transaction-with-tcc-storage");
+            
+            logger.info("TCC庫存購買流程測試成功 - 耗時: {}ms", duration);
+            
+            return ResponseEntity.ok(result);
+            
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            result.put("success", false);
+            result.put("message", "TCC庫存購買失敗: " + e.getMessage());
+            result.put("duration", duration + "ms");
+            result.put("error", e.getClass().getSimpleName());
+            result.put("transactionType", "global-transaction-with-tcc-storage");
+            
+            logger.error("TCC庫存購買流程測試失敗 - 耗時: {}ms, 錯誤: {}", duration, e.getMessage(), e);
+            
+            return ResponseEntity.badRequest().body(result);
+        }
+    }
+    
     /**
      * 測試事務回滾場景
      * 模擬事務回滾時分布式鎖的正確釋放
@@ -194,6 +244,7 @@ public class SeataTransactionTestController {
         Map<String, String> endpoints = new HashMap<>();
         endpoints.put("POST /api/seata-transaction-test/purchase", "測試標準購買流程（通過Feign調用）");
         endpoints.put("POST /api/seata-transaction-test/purchase-direct", "測試直接庫存操作購買流程");
+        endpoints.put("POST /api/seata-transaction-test/purchase-tcc", "測試TCC庫存購買流程");
         endpoints.put("POST /api/seata-transaction-test/test-rollback", "測試事務回滾場景");
         endpoints.put("GET /api/seata-transaction-test/info", "獲取測試說明");
         
@@ -1,5 +1,6 @@
 package com.atguigu.business.exception;
 
+import com.example.common.idempotent.IdempotencyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -82,6 +83,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
+    /**
+     * 處理冪等校驗異常
+     * 
+     * @param ex IdempotencyException
+     * @return 錯誤響應，處理中返回409，冪等鍵參數不一致返回422
+     */
+    @ExceptionHandler(IdempotencyException.class)
+    public ResponseEntity<Map<String, Object>> handleIdempotencyException(IdempotencyException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", ex.getReason());
+        response.put("error", "IdempotencyException");
+        
+        return ResponseEntity.status(ex.getStatusCode()).body(response);
+    }
+
     /**
      * 處理運行時異常
      * 
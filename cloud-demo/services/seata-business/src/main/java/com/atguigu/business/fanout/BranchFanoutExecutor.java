@@ -0,0 +1,160 @@
+package com.atguigu.business.fanout;
+
+import com.atguigu.business.config.BranchFanoutProperties;
+import com.atguigu.business.lock.LockContextHolder;
+import org.apache.seata.core.context.RootContext;
+import org.apache.seata.tm.api.transaction.TransactionHook;
+import org.apache.seata.tm.api.transaction.TransactionHookManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 全局事務分支並行執行器
+ *
+ * 將全局事務中相互獨立的分支（如扣庫存和建訂單兩個Feign調用）並行執行，
+ * 端到端延遲由各分支之和降為最慢的分支：
+ * - 工作線程綁定調用線程的XID，分支照常註冊到同一全局事務
+ * - 工作線程繼承調用線程的請求上下文和鎖上下文，冪等鍵照常傳遞，分支內相同的鎖鍵不會自我等待
+ * - 工作線程註冊的Seata事務鉤子轉交調用線程，由全局事務結束時觸發
+ * - 任一分支失敗時，取消尚未開始的分支並等待已開始的分支結束後拋出第一個異常，
+ *   由@GlobalTransactional回滾所有已註冊的分支
+ *
+ * @author system
+ */
+@Component
+public class BranchFanoutExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BranchFanoutExecutor.class);
+
+    @Autowired
+    private BranchFanoutProperties fanoutProperties;
+
+    private ExecutorService executorService;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executorService = Executors.newFixedThreadPool(Math.max(1, fanoutProperties.getParallelism()), runnable -> {
+            Thread thread = new Thread(runnable, "branch-fanout-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("BranchFanoutExecutor initialized - enabled: {}, parallelism: {}, timeout: {}ms",
+                fanoutProperties.isEnabled(), fanoutProperties.getParallelism(), fanoutProperties.getTimeoutMillis());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executorService != null) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * 並行執行相互獨立的分支，第一個分支在調用線程中執行
+     *
+     * @param branches 分支列表，彼此之間不能有先後依賴
+     * @throws RuntimeException 任一分支失敗時，所有已開始的分支結束後拋出第一個異常
+     */
+    public void runAll(List<Runnable> branches) {
+        if (!fanoutProperties.isEnabled() || branches.size() <= 1) {
+            branches.forEach(Runnable::run);
+            return;
+        }
+
+        String xid = RootContext.getXID();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        Set<String> lockKeys = LockContextHolder.snapshot();
+        logger.debug("Dispatching {} branches in parallel, xid: {}, inherited locks: {}", branches.size(), xid, lockKeys);
+
+        // 任一分支失敗後置位，尚未開始的分支不再執行；已開始的分支不能中途取消，必須等待其結束
+        AtomicBoolean aborted = new AtomicBoolean();
+        List<Future<List<TransactionHook>>> futures = new ArrayList<>(branches.size() - 1);
+        for (Runnable branch : branches.subList(1, branches.size())) {
+            futures.add(executorService.submit(() -> executeBranch(xid, requestAttributes, lockKeys, branch, aborted)));
+        }
+
+        RuntimeException failure = null;
+        try {
+            branches.get(0).run();
+        } catch (RuntimeException e) {
+            failure = e;
+            aborted.set(true);
+        }
+        failure = join(futures, failure, aborted);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * 等待全部分支結束，必須在全局事務提交或回滾之前完成，
+     * 避免決議後仍有分支在寫入
+     */
+    private RuntimeException join(List<Future<List<TransactionHook>>> futures, RuntimeException failure,
+                                  AtomicBoolean aborted) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fanoutProperties.getTimeoutMillis());
+        for (Future<List<TransactionHook>> future : futures) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                future.get(remaining, TimeUnit.NANOSECONDS).forEach(TransactionHookManager::registerHook);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                            : new RuntimeException("全局事務分支執行失敗: " + e.getCause().getMessage(), e.getCause());
+                    aborted.set(true);
+                }
+            } catch (TimeoutException e) {
+                // 超時後全局事務回滾，遲到的分支向TC註冊時會被拒絕並在本地回滾
+                aborted.set(true);
+                return failure != null ? failure : new IllegalStateException("等待全局事務分支超時");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                aborted.set(true);
+                return failure != null ? failure : new IllegalStateException("等待全局事務分支被中斷", e);
+            }
+        }
+        return failure;
+    }
+
+    private List<TransactionHook> executeBranch(String xid, RequestAttributes requestAttributes,
+                                                Set<String> lockKeys, Runnable branch, AtomicBoolean aborted) {
+        if (aborted.get()) {
+            return List.of();
+        }
+        if (xid != null) {
+            RootContext.bind(xid);
+        }
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+        LockContextHolder.inherit(lockKeys);
+        try {
+            branch.run();
+            return new ArrayList<>(TransactionHookManager.getHooks());
+        } finally {
+            TransactionHookManager.clear();
+            LockContextHolder.clearInherited();
+            RequestContextHolder.resetRequestAttributes();
+            if (xid != null) {
+                RootContext.unbind();
+            }
+        }
+    }
+}
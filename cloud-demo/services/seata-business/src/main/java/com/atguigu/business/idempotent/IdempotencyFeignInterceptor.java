@@ -0,0 +1,101 @@
+package com.atguigu.business.idempotent;
+
+import com.example.common.idempotent.IdempotencyProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.apache.seata.core.context.RootContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feign冪等鍵傳遞攔截器
+ *
+ * 為下游調用附加冪等鍵，使Feign重試在下游命中冪等結果而不是重複扣減。
+ * Feign重試複用同一個RequestTemplate，已附加的冪等鍵保持不變。
+ *
+ * 冪等鍵按邏輯調用區分：「基礎鍵:目標服務+路徑:參數摘要:序號」，序號在基礎鍵範圍內對相同調用遞增，
+ * 同一全局事務中兩次相同的合法調用得到不同的冪等鍵，不會被下游當作重複請求。
+ * - 處於全局事務中時以XID為基礎鍵：全局事務回滾後，客戶端重試會開啟新的全局事務，下游必須重新執行
+ * - 否則以客戶端傳入的冪等鍵為基礎鍵，序號只在當前請求內遞增，客戶端重試得到相同的冪等鍵
+ * - 兩者都沒有時不附加冪等鍵，下游不做去重，也不產生Redis寫入
+ */
+@Component
+public class IdempotencyFeignInterceptor implements RequestInterceptor {
+
+    private static final String SEQUENCE_ATTRIBUTE = IdempotencyFeignInterceptor.class.getName() + ".sequences";
+
+    @Autowired
+    private IdempotencyProperties idempotencyProperties;
+
+    // XID -> 調用 -> 已分配的序號；全局事務結束後不再訪問，按結果保存時間過期
+    private Cache<String, Map<String, Integer>> transactionSequences;
+
+    @PostConstruct
+    public void init() {
+        transactionSequences = Caffeine.newBuilder()
+                .expireAfterAccess(idempotencyProperties.getResultTtl(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public void apply(RequestTemplate template) {
+        String headerName = idempotencyProperties.getHeaderName();
+        if (!idempotencyProperties.isEnabled() || template.headers().containsKey(headerName)) {
+            return;
+        }
+
+        String call = logicalCall(template);
+        String xid = RootContext.getXID();
+        if (StringUtils.hasText(xid)) {
+            Map<String, Integer> sequences = transactionSequences.get(xid, k -> new ConcurrentHashMap<>());
+            template.header(headerName, xid + ":" + call + ":" + sequences.merge(call, 1, Integer::sum));
+            return;
+        }
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        String clientKey = incomingIdempotencyKey(attributes, headerName);
+        if (!StringUtils.hasText(clientKey)) {
+            return;
+        }
+        template.header(headerName, clientKey + ":" + call + ":" + requestSequences(attributes).merge(call, 1, Integer::sum));
+    }
+
+    /**
+     * 目標服務、路徑和參數摘要，參數不同的調用互不影響序號
+     */
+    private static String logicalCall(RequestTemplate template) {
+        String target = template.feignTarget() != null ? template.feignTarget().name() : "";
+        int arguments = Objects.hash(template.queryLine(), Arrays.hashCode(template.body()));
+        return target + template.path() + ":" + Integer.toHexString(arguments);
+    }
+
+    private static String incomingIdempotencyKey(RequestAttributes attributes, String headerName) {
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return servletAttributes.getRequest().getHeader(headerName);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Integer> requestSequences(RequestAttributes attributes) {
+        Object sequences = attributes.getAttribute(SEQUENCE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (sequences == null) {
+            sequences = new ConcurrentHashMap<String, Integer>();
+            attributes.setAttribute(SEQUENCE_ATTRIBUTE, sequences, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<String, Integer>) sequences;
+    }
+}
@@ -90,6 +90,13 @@ public class DistributedLockAspect {
                 );
             }
             
+            // 調用線程已持有該鎖並將當前分支分派到工作線程，直接在鎖保護下執行
+            if (LockContextHolder.isInherited(lockKey)) {
+                logger.debug("Lock: {} is held by the dispatching thread, executing method: {} under inherited lock in service: {}",
+                            lockKey, joinPoint.getSignature().toShortString(), serviceName);
+                return joinPoint.proceed();
+            }
+            
             logger.debug("Attempting to acquire distributed lock: {} for method: {} in service: {}", 
                         lockKey, joinPoint.getSignature().toShortString(), serviceName);
             
@@ -117,9 +124,11 @@ public class DistributedLockAspect {
             
             // 4. 記錄服務來源信息到鎖上下文
             recordLockContext(lockKey, distributedLockable);
+            LockContextHolder.push(lockKey);
             
-            // 5. 註冊鎖到Seata全局事務（如果存在）
-            if (transactionSynchronization != null && transactionSynchronization.isInGlobalTransaction()) {
+            // 5. 事務範圍的鎖註冊到Seata全局事務（如果存在），方法範圍的鎖在方法返回時釋放
+            if (distributedLockable.scope() == LockScope.TRANSACTION
+                    && transactionSynchronization != null && transactionSynchronization.isInGlobalTransaction()) {
                 String businessContext = StringUtils.hasText(distributedLockable.businessContext()) 
                     ? distributedLockable.businessContext() 
                     : joinPoint.getSignature().toShortString();
@@ -150,6 +159,8 @@ public class DistributedLockAspect {
         } finally {
             // 6. 釋放鎖和清理事務註冊
             if (lockAcquired && lockKey != null) {
+                LockContextHolder.pop(lockKey);
+                
                 // 如果不在全局事務中，或者事務同步器不可用，則立即釋放鎖
                 boolean shouldReleaseImmediately = transactionSynchronization == null 
                     || !transactionSynchronization.isInGlobalTransaction()
@@ -38,6 +38,13 @@ public @interface DistributedLockable {
      */
     LockFailStrategy failStrategy() default LockFailStrategy.EXCEPTION;
     
+    /**
+     * 鎖的作用範圍
+     * 默認TRANSACTION，處於全局事務中時持有到全局事務結束；
+     * METHOD在方法返回時釋放；只需保護方法內某一段代碼時改用LockTemplate
+     */
+    LockScope scope() default LockScope.TRANSACTION;
+    
     /**
      * 業務上下文描述
      * 用於日誌記錄和監控，幫助識別鎖的業務用途
@@ -0,0 +1,88 @@
+package com.atguigu.business.lock;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 鎖上下文持有者
+ *
+ * 記錄當前執行流程通過@DistributedLockable持有的鎖鍵。Redisson鎖歸屬於獲取它的線程，
+ * 調用線程把業務分支分派到工作線程時，工作線程無法重入調用線程持有的鎖；
+ * 分派前取得快照並在工作線程中繼承，工作線程遇到相同鎖鍵時視為已在鎖保護下執行，
+ * 而不是等待一個要等到自身結束才會釋放的鎖。
+ *
+ * @author system
+ */
+public final class LockContextHolder {
+
+    private static final ThreadLocal<Deque<String>> heldLocks = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private static final ThreadLocal<Set<String>> inheritedLocks = new ThreadLocal<>();
+
+    private LockContextHolder() {
+    }
+
+    /**
+     * 記錄當前線程獲取的鎖
+     */
+    public static void push(String lockKey) {
+        heldLocks.get().push(lockKey);
+    }
+
+    /**
+     * 移除當前線程最近一次記錄的鎖
+     */
+    public static void pop(String lockKey) {
+        Deque<String> locks = heldLocks.get();
+        locks.removeFirstOccurrence(lockKey);
+        if (locks.isEmpty()) {
+            heldLocks.remove();
+        }
+    }
+
+    /**
+     * 鎖鍵是否由分派當前工作線程的調用線程持有
+     */
+    public static boolean isInherited(String lockKey) {
+        Set<String> inherited = inheritedLocks.get();
+        return inherited != null && inherited.contains(lockKey);
+    }
+
+    /**
+     * 當前執行流程持有的全部鎖鍵，包括繼承自調用線程的鎖
+     */
+    public static Set<String> snapshot() {
+        Set<String> inherited = inheritedLocks.get();
+        Deque<String> held = heldLocks.get();
+        if (held.isEmpty() && inherited == null) {
+            heldLocks.remove();
+            return Collections.emptySet();
+        }
+        Set<String> snapshot = new HashSet<>(held);
+        if (inherited != null) {
+            snapshot.addAll(inherited);
+        }
+        return Collections.unmodifiableSet(snapshot);
+    }
+
+    /**
+     * 在工作線程中繼承調用線程的鎖上下文
+     */
+    public static void inherit(Set<String> lockKeys) {
+        if (lockKeys.isEmpty()) {
+            inheritedLocks.remove();
+        } else {
+            inheritedLocks.set(lockKeys);
+        }
+    }
+
+    /**
+     * 工作線程結束時清除繼承的鎖上下文
+     */
+    public static void clearInherited() {
+        inheritedLocks.remove();
+    }
+}
@@ -0,0 +1,46 @@
+package com.atguigu.business.lock;
+
+/**
+ * 鎖作用範圍枚舉
+ * 定義@DistributedLockable獲取的鎖何時釋放；只需保護方法中某一段代碼時使用LockTemplate
+ */
+public enum LockScope {
+    
+    /**
+     * 方法範圍
+     * 方法返回或拋出異常時立即釋放，即使處於全局事務中
+     * 只適用於方法內的寫入已在本地提交、不持有Seata全局鎖的場景，例如TCC一階段；
+     * AT模式下被修改的行在二階段前一直持有全局鎖，提前釋放商品鎖只會讓後續事務
+     * 從Redisson排隊變成LockConflictException重試和失敗，AT寫入應使用TRANSACTION
+     */
+    METHOD("方法範圍", "方法返回時釋放鎖"),
+    
+    /**
+     * 事務範圍
+     * 處於Seata全局事務中時，鎖註冊到全局事務並在提交或回滾後釋放；不在全局事務中時方法返回即釋放
+     * 適用於AT模式寫入熱點行和在全局事務決議前其他事務不能讀到中間狀態的場景
+     */
+    TRANSACTION("事務範圍", "全局事務結束時釋放鎖");
+    
+    private final String description;
+    private final String detail;
+    
+    LockScope(String description, String detail) {
+        this.description = description;
+        this.detail = detail;
+    }
+    
+    /**
+     * 獲取範圍描述
+     */
+    public String getDescription() {
+        return description;
+    }
+    
+    /**
+     * 獲取範圍詳細說明
+     */
+    public String getDetail() {
+        return detail;
+    }
+}
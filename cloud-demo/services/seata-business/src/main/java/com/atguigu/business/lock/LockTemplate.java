@@ -0,0 +1,133 @@
+package com.atguigu.business.lock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * 分布式鎖編程式模板
+ *
+ * 只在代碼塊執行期間持有鎖，代碼塊返回或拋出異常時立即釋放，不註冊到全局事務。
+ * 用於全局事務中只有一部分步驟需要串行化、且這一步不持有Seata全局鎖的場景：
+ * 例如TCC購買流程只在預留庫存期間持有商品鎖。AT模式的寫入在二階段前持有全局鎖，
+ * 應使用@DistributedLockable的TRANSACTION範圍，見LockScope。
+ *
+ * 鎖鍵規則與@DistributedLockable一致；調用線程已持有或從分派線程繼承了相同鎖鍵時直接執行代碼塊。
+ *
+ * @author system
+ */
+@Component
+public class LockTemplate {
+
+    private static final Logger logger = LoggerFactory.getLogger(LockTemplate.class);
+
+    @Autowired
+    private DistributedLock distributedLock;
+
+    @Autowired
+    private CrossServiceLockKeyGenerator lockKeyGenerator;
+
+    @Autowired(required = false)
+    private LockMonitorService lockMonitorService;
+
+    @Autowired(required = false)
+    private CrossServiceLockMetricsCollector metricsCollector;
+
+    @Value("${spring.application.name:seata-business}")
+    private String serviceName;
+
+    /**
+     * 在分布式鎖保護下執行代碼塊
+     *
+     * @param key 鎖鍵，例如 purchase:P0001
+     * @param waitTime 等待時間（秒）
+     * @param leaseTime 鎖持有時間（秒）
+     * @param action 需要串行化的代碼塊
+     * @return 代碼塊的返回值
+     * @throws DistributedLockException 等待時間內無法獲取鎖時拋出
+     */
+    public <T> T execute(String key, long waitTime, long leaseTime, Supplier<T> action) {
+        if (!StringUtils.hasText(key)) {
+            throw new DistributedLockException(LockErrorCode.INVALID_LOCK_KEY, "鎖鍵不能為空");
+        }
+        String lockKey = normalizeLockKey(key);
+        if (LockContextHolder.isInherited(lockKey)) {
+            return action.get();
+        }
+
+        long startTime = System.currentTimeMillis();
+        boolean acquired = distributedLock.tryLock(lockKey, waitTime, leaseTime);
+        long acquireTime = System.currentTimeMillis() - startTime;
+        if (lockMonitorService != null) {
+            lockMonitorService.recordLockEvent(lockKey, serviceName,
+                LockMonitorService.LockOperation.ACQUIRE, acquired, acquireTime);
+        }
+        if (metricsCollector != null) {
+            metricsCollector.recordLockAcquire(lockKey, serviceName, acquired, Duration.ofMillis(acquireTime));
+        }
+
+        if (!acquired) {
+            if (metricsCollector != null) {
+                metricsCollector.recordLockTimeout(lockKey, serviceName, Duration.ofSeconds(waitTime));
+            }
+            throw new DistributedLockException(LockErrorCode.LOCK_ACQUIRE_TIMEOUT, lockKey, serviceName,
+                String.format("無法獲取分布式鎖: %s，服務: %s", lockKey, serviceName));
+        }
+
+        LockContextHolder.push(lockKey);
+        try {
+            return action.get();
+        } finally {
+            LockContextHolder.pop(lockKey);
+            release(lockKey, startTime);
+        }
+    }
+
+    /**
+     * 在分布式鎖保護下執行無返回值的代碼塊
+     */
+    public void execute(String key, long waitTime, long leaseTime, Runnable action) {
+        execute(key, waitTime, leaseTime, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 與DistributedLockAspect相同的鎖鍵規範化規則
+     */
+    private String normalizeLockKey(String key) {
+        if (lockKeyGenerator.isValidStorageLockKey(key) || key.startsWith("distributed:lock:")) {
+            return key;
+        }
+        if (key.startsWith("storage:")) {
+            return lockKeyGenerator.generateStorageLockKey(key.substring("storage:".length()));
+        }
+        return "distributed:lock:" + key;
+    }
+
+    private void release(String lockKey, long startTime) {
+        long duration = System.currentTimeMillis() - startTime;
+        boolean released = true;
+        try {
+            distributedLock.unlock(lockKey);
+            logger.debug("Released block-scoped lock: {} after {} ms in service: {}", lockKey, duration, serviceName);
+        } catch (Exception e) {
+            released = false;
+            logger.error("Failed to release block-scoped lock: {} in service: {}", lockKey, serviceName, e);
+        }
+        if (lockMonitorService != null) {
+            lockMonitorService.recordLockEvent(lockKey, serviceName,
+                LockMonitorService.LockOperation.RELEASE, released, duration);
+        }
+        if (released && metricsCollector != null) {
+            metricsCollector.recordLockHold(lockKey, serviceName, Duration.ofMillis(duration));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.atguigu.business.lock;
+
+import org.redisson.api.RLockReactive;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.RedissonReactiveClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 分布式鎖響應式模板
+ *
+ * 與LockTemplate相同的鎖鍵規則和代碼塊範圍語義，基於Redisson響應式鎖，等待鎖時不佔用線程。
+ * Redisson鎖的持有者默認是線程，響應式流程在多個線程之間切換，因此每次加鎖分配一個持有者id，
+ * 用同一個id加鎖和解鎖。持有者id為負數，不會與真實線程id衝突。
+ *
+ * 不經過RedisDistributedLock的重試和熔斷降級；與阻塞鎖使用相同的Redis鍵，跨服務互斥不變。
+ *
+ * @author system
+ */
+@Component
+public class ReactiveLockTemplate {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveLockTemplate.class);
+
+    private static final AtomicLong OWNER_IDS = new AtomicLong();
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private CrossServiceLockKeyGenerator lockKeyGenerator;
+
+    @Autowired(required = false)
+    private LockMonitorService lockMonitorService;
+
+    @Autowired(required = false)
+    private CrossServiceLockMetricsCollector metricsCollector;
+
+    @Value("${spring.application.name:seata-business}")
+    private String serviceName;
+
+    private RedissonReactiveClient reactiveClient;
+
+    @PostConstruct
+    public void init() {
+        reactiveClient = redissonClient.reactive();
+    }
+
+    /**
+     * 在分布式鎖保護下執行響應式代碼塊，代碼塊完成、失敗或被取消時釋放鎖
+     *
+     * @param key 鎖鍵，例如 purchase:P0001
+     * @param waitTime 等待時間（秒）
+     * @param leaseTime 鎖持有時間（秒）
+     * @param action 需要串行化的代碼塊，獲取鎖後才訂閱
+     * @return 代碼塊的結果；等待時間內無法獲取鎖時以DistributedLockException結束
+     */
+    public <T> Mono<T> execute(String key, long waitTime, long leaseTime, Supplier<Mono<T>> action) {
+        if (!StringUtils.hasText(key)) {
+            return Mono.error(new DistributedLockException(LockErrorCode.INVALID_LOCK_KEY, "鎖鍵不能為空"));
+        }
+        return Mono.defer(() -> {
+            String lockKey = normalizeLockKey(key);
+            long ownerId = -OWNER_IDS.incrementAndGet();
+            RLockReactive lock = reactiveClient.getLock(lockKey);
+            long startTime = System.currentTimeMillis();
+
+            return lock.tryLock(waitTime, leaseTime, TimeUnit.SECONDS, ownerId).flatMap(acquired -> {
+                long acquireTime = System.currentTimeMillis() - startTime;
+                if (lockMonitorService != null) {
+                    lockMonitorService.recordLockEvent(lockKey, serviceName,
+                        LockMonitorService.LockOperation.ACQUIRE, acquired, acquireTime);
+                }
+                if (metricsCollector != null) {
+                    metricsCollector.recordLockAcquire(lockKey, serviceName, acquired, Duration.ofMillis(acquireTime));
+                }
+                if (!acquired) {
+                    if (metricsCollector != null) {
+                        metricsCollector.recordLockTimeout(lockKey, serviceName, Duration.ofSeconds(waitTime));
+                    }
+                    return Mono.error(new DistributedLockException(LockErrorCode.LOCK_ACQUIRE_TIMEOUT, lockKey,
+                        serviceName, String.format("無法獲取分布式鎖: %s，服務: %s", lockKey, serviceName)));
+                }
+
+                long lockedAt = System.currentTimeMillis();
+                return Mono.usingWhen(Mono.just(ownerId),
+                    owner -> action.get(),
+                    owner -> release(lock, lockKey, owner, lockedAt),
+                    (owner, error) -> release(lock, lockKey, owner, lockedAt),
+                    owner -> release(lock, lockKey, owner, lockedAt));
+            });
+        });
+    }
+
+    /**
+     * 與LockTemplate相同的鎖鍵規範化規則
+     */
+    private String normalizeLockKey(String key) {
+        if (lockKeyGenerator.isValidStorageLockKey(key) || key.startsWith("distributed:lock:")) {
+            return key;
+        }
+        if (key.startsWith("storage:")) {
+            return lockKeyGenerator.generateStorageLockKey(key.substring("storage:".length()));
+        }
+        return "distributed:lock:" + key;
+    }
+
+    private Mono<Void> release(RLockReactive lock, String lockKey, long ownerId, long lockedAt) {
+        return lock.unlock(ownerId)
+            .then(Mono.fromRunnable(() -> recordRelease(lockKey, true, lockedAt)))
+            .onErrorResume(e -> {
+                // 解鎖失敗時鎖在持有時間到期後自動釋放
+                logger.error("Failed to release reactive lock: {} in service: {}", lockKey, serviceName, e);
+                recordRelease(lockKey, false, lockedAt);
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private void recordRelease(String lockKey, boolean released, long lockedAt) {
+        long duration = System.currentTimeMillis() - lockedAt;
+        if (lockMonitorService != null) {
+            lockMonitorService.recordLockEvent(lockKey, serviceName,
+                LockMonitorService.LockOperation.RELEASE, released, duration);
+        }
+        if (released && metricsCollector != null) {
+            metricsCollector.recordLockHold(lockKey, serviceName, Duration.ofMillis(duration));
+        }
+        logger.debug("Released reactive lock: {} after {} ms in service: {}", lockKey, duration, serviceName);
+    }
+}
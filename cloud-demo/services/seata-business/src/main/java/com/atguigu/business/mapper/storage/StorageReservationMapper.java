@@ -0,0 +1,29 @@
+package com.atguigu.business.mapper.storage;
+
+import com.atguigu.business.bean.StorageReservation;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 針對表【storage_reservation】的資料庫操作Mapper
+ * TCC庫存預留記錄，以(xid, branch_id)唯一
+ */
+public interface StorageReservationMapper {
+
+    int insert(StorageReservation record);
+
+    /**
+     * 查詢並鎖定分支的預留記錄
+     */
+    StorageReservation selectForUpdate(@Param("xid") String xid, @Param("branchId") long branchId);
+
+    /**
+     * 按狀態條件更新，返回0表示記錄不存在或狀態已變化
+     */
+    int updateStatus(@Param("xid") String xid, @Param("branchId") long branchId,
+                     @Param("fromStatus") int fromStatus, @Param("toStatus") int toStatus);
+
+    /**
+     * 刪除超出保留時間的已提交和已回滾記錄，按資料庫時鐘計算，返回刪除行數
+     */
+    int deleteFinished(@Param("retentionMinutes") long retentionMinutes, @Param("limit") int limit);
+}
@@ -3,6 +3,8 @@ package com.atguigu.business.mapper.storage;
 import com.atguigu.business.bean.StorageTbl;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 /**
 * @author lfy
 * @description 針對表【storage_tbl】的資料庫操作Mapper
@@ -10,21 +12,43 @@ import org.apache.ibatis.annotations.Param;
 * @Entity com.atguigu.business.bean.StorageTbl
 */
 public interface StorageTblMapper {
-
-    int deleteByPrimaryKey(Long id);
+    // 分表後各分表主鍵獨立自增，不提供只按主鍵查詢或刪除的方法
 
     int insert(StorageTbl record);
 
     int insertSelective(StorageTbl record);
 
-    StorageTbl selectByPrimaryKey(Long id);
+    /**
+     * 多行批量插入，一次往返寫入多條記錄
+     * 分表模式下所有記錄必須屬於同一分片
+     */
+    int insertBatch(@Param("records") List<StorageTbl> records);
+
+    /**
+     * 多行批量插入或更新，商品編碼已存在時覆蓋庫存數量
+     * 分表模式下所有記錄必須屬於同一分片
+     * @return MySQL語義的影響行數：新增計1，更新計2，未變更計0
+     */
+    int upsertBatch(@Param("records") List<StorageTbl> records);
 
+    /**
+     * 按主鍵更新，分表模式下record必須帶商品編碼，用於定位分表
+     */
     int updateByPrimaryKeySelective(StorageTbl record);
 
+    /**
+     * 按主鍵更新，分表模式下record必須帶商品編碼，用於定位分表
+     */
     int updateByPrimaryKey(StorageTbl record);
 
     void deduct(@Param("commodityCode") String commodityCode, @Param("count") int count);
     
+    /**
+     * 庫存足夠時扣減庫存
+     * @return 影響行數，0表示商品不存在或庫存不足
+     */
+    int deductIfSufficient(@Param("commodityCode") String commodityCode, @Param("count") int count);
+    
     /**
      * 根據商品編碼查詢庫存
      */
@@ -0,0 +1,41 @@
+package com.atguigu.business.reactive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * seata-order服務的非阻塞客戶端，與OrderFeignClient調用相同的接口
+ */
+@Component
+public class OrderWebClient {
+
+    @Autowired
+    @LoadBalanced
+    private WebClient.Builder webClientBuilder;
+
+    private WebClient webClient;
+
+    @PostConstruct
+    public void init() {
+        webClient = webClientBuilder.clone().baseUrl("http://seata-order").build();
+    }
+
+    /**
+     * 建立訂單
+     */
+    public Mono<String> create(String userId, String commodityCode, int orderCount) {
+        return webClient.get()
+            .uri(uri -> uri.path("/create")
+                .queryParam("userId", userId)
+                .queryParam("commodityCode", commodityCode)
+                .queryParam("count", orderCount)
+                .build())
+            .retrieve()
+            .bodyToMono(String.class);
+    }
+}
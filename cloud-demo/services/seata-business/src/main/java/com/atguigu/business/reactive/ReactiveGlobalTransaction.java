@@ -0,0 +1,112 @@
+package com.atguigu.business.reactive;
+
+import com.atguigu.business.config.ReactivePurchaseProperties;
+import org.apache.seata.core.context.RootContext;
+import org.apache.seata.tm.api.GlobalTransaction;
+import org.apache.seata.tm.api.GlobalTransactionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 響應式全局事務模板
+ *
+ * @GlobalTransactional依賴線程綁定的XID，響應式流程中一個請求會在多個線程之間切換，
+ * 因此改為編程式開啟全局事務，XID只放在Reactor上下文中傳遞：
+ * - WebClient請求由SeataXidExchangeFilter從上下文讀取XID寫入請求頭
+ * - 阻塞操作通過blocking()在有界調度器上執行，執行期間綁定XID，結束後解綁
+ * 事務體成功時提交，失敗或被取消（例如超時）時回滾。
+ * TM的開啟、提交和回滾是阻塞RPC，同樣在有界調度器上執行。
+ *
+ * @author system
+ */
+@Component
+public class ReactiveGlobalTransaction {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveGlobalTransaction.class);
+
+    /**
+     * Reactor上下文中XID的鍵
+     */
+    public static final String XID_CONTEXT_KEY = RootContext.KEY_XID;
+
+    @Autowired
+    private ReactivePurchaseProperties purchaseProperties;
+
+    @Autowired
+    private Scheduler purchaseBlockingScheduler;
+
+    /**
+     * 在全局事務中執行事務體
+     *
+     * @param name 全局事務名稱
+     * @param body 事務體，訂閱時上下文中已有XID
+     * @return 事務體的結果，全局事務提交後發出
+     */
+    public <T> Mono<T> execute(String name, Mono<T> body) {
+        return Mono.usingWhen(
+            blocking(() -> begin(name)),
+            transaction -> body.contextWrite(Context.of(XID_CONTEXT_KEY, transaction.getXid())),
+            transaction -> blocking(() -> {
+                transaction.commit();
+                logger.debug("Reactive global transaction committed - xid: {}", transaction.getXid());
+                return transaction;
+            }),
+            (transaction, error) -> rollback(transaction, error.getMessage()),
+            transaction -> rollback(transaction, "cancelled"));
+    }
+
+    /**
+     * 在有界調度器上執行阻塞操作，上下文中有XID時在執行期間綁定到線程
+     */
+    public <T> Mono<T> blocking(Callable<T> action) {
+        return Mono.deferContextual(context -> {
+            String xid = context.getOrDefault(XID_CONTEXT_KEY, null);
+            return Mono.fromCallable(() -> {
+                if (xid == null) {
+                    return action.call();
+                }
+                RootContext.bind(xid);
+                try {
+                    return action.call();
+                } finally {
+                    RootContext.unbind();
+                }
+            }).subscribeOn(purchaseBlockingScheduler);
+        });
+    }
+
+    GlobalTransaction newTransaction() {
+        return GlobalTransactionContext.createNew();
+    }
+
+    private GlobalTransaction begin(String name) throws Exception {
+        GlobalTransaction transaction = newTransaction();
+        try {
+            transaction.begin(purchaseProperties.getGlobalTransactionTimeoutMillis(), name);
+        } finally {
+            // begin會把XID綁定到當前調度器線程，響應式流程只通過Reactor上下文傳遞XID
+            RootContext.unbind();
+        }
+        logger.debug("Reactive global transaction begun - xid: {}, name: {}", transaction.getXid(), name);
+        return transaction;
+    }
+
+    private Mono<Object> rollback(GlobalTransaction transaction, String reason) {
+        return blocking(() -> {
+            transaction.rollback();
+            logger.info("Reactive global transaction rolled back - xid: {}, reason: {}", transaction.getXid(), reason);
+            return (Object) transaction;
+        }).onErrorResume(e -> {
+            // 回滾失敗由TC按超時重試，保留事務體的原始異常
+            logger.error("Failed to roll back reactive global transaction - xid: {}", transaction.getXid(), e);
+            return Mono.empty();
+        });
+    }
+}
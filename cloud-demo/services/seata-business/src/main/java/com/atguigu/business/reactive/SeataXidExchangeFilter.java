@@ -0,0 +1,28 @@
+package com.atguigu.business.reactive;
+
+import org.apache.seata.core.context.RootContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebClient的XID傳遞過濾器
+ * 從Reactor上下文讀取XID寫入TX_XID請求頭，下游服務的Seata攔截器據此加入全局事務
+ */
+@Component
+public class SeataXidExchangeFilter implements ExchangeFilterFunction {
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            String xid = context.getOrDefault(ReactiveGlobalTransaction.XID_CONTEXT_KEY, null);
+            if (xid == null) {
+                return next.exchange(request);
+            }
+            return next.exchange(ClientRequest.from(request).header(RootContext.KEY_XID, xid).build());
+        });
+    }
+}
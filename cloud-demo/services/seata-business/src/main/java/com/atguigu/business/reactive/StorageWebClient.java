@@ -0,0 +1,40 @@
+package com.atguigu.business.reactive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * seata-storage服務的非阻塞客戶端，與StorageFeignClient調用相同的接口
+ */
+@Component
+public class StorageWebClient {
+
+    @Autowired
+    @LoadBalanced
+    private WebClient.Builder webClientBuilder;
+
+    private WebClient webClient;
+
+    @PostConstruct
+    public void init() {
+        webClient = webClientBuilder.clone().baseUrl("http://seata-storage").build();
+    }
+
+    /**
+     * 扣減庫存
+     */
+    public Mono<String> deduct(String commodityCode, int count) {
+        return webClient.get()
+            .uri(uri -> uri.path("/deduct")
+                .queryParam("commodityCode", commodityCode)
+                .queryParam("count", count)
+                .build())
+            .retrieve()
+            .bodyToMono(String.class);
+    }
+}
@@ -19,4 +19,14 @@ public interface BusinessService {
      * @param orderCount        購買數量
      */
     void purchaseWithDirectStorage(String userId, String commodityCode, int orderCount);
+    
+    /**
+     * 採購（庫存以TCC模式扣減）
+     * 庫存行不受Seata全局鎖保護，也不寫入undo_log，適用於熱點商品
+     * 
+     * @param userId            使用者id
+     * @param commodityCode     商品編號
+     * @param orderCount        購買數量
+     */
+    void purchaseWithTcc(String userId, String commodityCode, int orderCount);
 }
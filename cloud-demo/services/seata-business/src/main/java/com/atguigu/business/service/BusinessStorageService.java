@@ -1,6 +1,10 @@
 package com.atguigu.business.service;
 
+import com.atguigu.business.bean.StorageImportResult;
 import com.atguigu.business.bean.StorageOperation;
+
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -28,4 +32,17 @@ public interface BusinessStorageService {
      * @throws RuntimeException 當任何操作失敗時拋出異常
      */
     void batchStorageOperation(List<StorageOperation> operations);
-}
\ No newline at end of file
+    
+    /**
+     * 批量導入庫存
+     * 流式讀取CSV/NDJSON數據，每累積一批記錄按分片以多行語句寫入並提交
+     * 
+     * @param input 導入數據流
+     * @param format 導入格式，見StorageImportResult.Format
+     * @param mode 導入模式，見StorageImportResult.Mode
+     * @param chunkSize 每批提交的記錄數，null表示使用配置默認值
+     * @return 導入結果
+     * @throws IllegalArgumentException 數據格式錯誤時拋出，此前的批次已提交
+     */
+    StorageImportResult importStorage(InputStream input, String format, String mode, Integer chunkSize) throws IOException;
+}
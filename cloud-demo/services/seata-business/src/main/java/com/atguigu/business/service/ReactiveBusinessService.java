@@ -0,0 +1,17 @@
+package com.atguigu.business.service;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBusinessService {
+
+    /**
+     * 採購（響應式流程，通過WebClient非阻塞調用其他服務）
+     * 等待商品鎖和下游響應時不佔用線程
+     *
+     * @param userId            使用者id
+     * @param commodityCode     商品編號
+     * @param orderCount        購買數量
+     * @return 全局事務提交後完成
+     */
+    Mono<Void> purchase(String userId, String commodityCode, int orderCount);
+}
@@ -1,17 +1,24 @@
 package com.atguigu.business.service.impl;
 
+import com.atguigu.business.fanout.BranchFanoutExecutor;
+import com.atguigu.business.config.StorageTccProperties;
 import com.atguigu.business.feign.OrderFeignClient;
 import com.atguigu.business.feign.StorageFeignClient;
 import com.atguigu.business.lock.DistributedLockable;
 import com.atguigu.business.lock.LockFailStrategy;
+import com.atguigu.business.lock.LockScope;
+import com.atguigu.business.lock.LockTemplate;
 import com.atguigu.business.service.BusinessService;
 import com.atguigu.business.service.BusinessStorageService;
+import com.atguigu.business.tcc.StorageTccAction;
 import org.apache.seata.spring.annotation.GlobalTransactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 
 @Service
 public class BusinessServiceImpl implements BusinessService {
@@ -24,28 +31,49 @@ public class BusinessServiceImpl implements BusinessService {
     private OrderFeignClient orderFeignClient;
     @Autowired
     private BusinessStorageService businessStorageService;
+    @Autowired
+    private BranchFanoutExecutor branchFanoutExecutor;
+    @Autowired
+    private LockTemplate lockTemplate;
+    @Autowired
+    private StorageTccAction storageTccAction;
+    @Autowired
+    private StorageTccProperties tccProperties;
 
     @Override
     // 使用seata全域事務，分布式鎖會自動與事務生命週期同步
+    // AT模式下storage_tbl行的Seata全局鎖持有到二階段，商品鎖同樣持有到全局事務結束，
+    // 同一商品的購買在Redisson鎖上排隊，不會在提前釋放後撞上全局鎖衝突而重試失敗
     @GlobalTransactional
     @DistributedLockable(
         key = "'purchase:' + #commodityCode", 
         waitTime = 10, 
         leaseTime = 60,
         failStrategy = LockFailStrategy.EXCEPTION,
+        scope = LockScope.TRANSACTION,
         businessContext = "global-transaction-purchase"
     )
     public void purchase(String userId, String commodityCode, int orderCount) {
         logger.info("開始全局事務購買流程 - 用戶: {}, 商品: {}, 數量: {}", userId, commodityCode, orderCount);
+        // TCC扣減的商品不能再由AT分支修改，否則AT回滾時後鏡像校驗失敗
+        if (tccProperties.isTccCommodity(commodityCode)) {
+            throw new IllegalStateException("商品以TCC模式扣減，請使用purchaseWithTcc: " + commodityCode);
+        }
         
         try {
-            // 1. 扣減庫存（通過Feign調用storage服務）
-            logger.info("調用storage服務扣減庫存 - 商品: {}, 數量: {}", commodityCode, orderCount);
-            storageFeignClient.deduct(commodityCode, orderCount);
-            
-            // 2. 建立訂單（通過Feign調用order服務）
-            logger.info("調用order服務創建訂單 - 用戶: {}, 商品: {}, 數量: {}", userId, commodityCode, orderCount);
-            orderFeignClient.create(userId, commodityCode, orderCount);
+            // 扣減庫存和建立訂單互不依賴，並行執行，任一失敗由全局事務回滾另一分支
+            branchFanoutExecutor.runAll(List.of(
+                () -> {
+                    // 1. 扣減庫存（通過Feign調用storage服務）
+                    logger.info("調用storage服務扣減庫存 - 商品: {}, 數量: {}", commodityCode, orderCount);
+                    storageFeignClient.deduct(commodityCode, orderCount);
+                },
+                () -> {
+                    // 2. 建立訂單（通過Feign調用order服務）
+                    logger.info("調用order服務創建訂單 - 用戶: {}, 商品: {}, 數量: {}", userId, commodityCode, orderCount);
+                    orderFeignClient.create(userId, commodityCode, orderCount);
+                }
+            ));
             
             logger.info("全局事務購買流程完成 - 用戶: {}, 商品: {}, 數量: {}", userId, commodityCode, orderCount);
             
@@ -88,4 +116,43 @@ public class BusinessServiceImpl implements BusinessService {
             throw e;
         }
     }
+    
+    /**
+     * 庫存以TCC模式扣減的購買流程
+     * 一階段條件扣減後即提交本地事務，熱點商品行不在全局事務期間被Seata全局鎖佔用，
+     * 商品鎖因此只需持有到預留完成，建立訂單和全局事務決議期間不佔用商品鎖；
+     * 只接受配置在storage.tcc.commodity-codes中的商品，這些商品不經過AT模式的purchase
+     * 
+     * @param userId 用戶ID
+     * @param commodityCode 商品編碼
+     * @param orderCount 訂單數量
+     */
+    @Override
+    @GlobalTransactional
+    public void purchaseWithTcc(String userId, String commodityCode, int orderCount) {
+        logger.info("開始TCC庫存全局事務購買流程 - 用戶: {}, 商品: {}, 數量: {}", userId, commodityCode, orderCount);
+        
+        try {
+            branchFanoutExecutor.runAll(List.of(
+                () -> {
+                    // 1. 預留庫存（TCC一階段，全局提交時確認，回滾時歸還）
+                    logger.info("TCC預留庫存 - 商品: {}, 數量: {}", commodityCode, orderCount);
+                    lockTemplate.execute("purchase:" + commodityCode, 10, 30,
+                        () -> storageTccAction.prepare(null, commodityCode, orderCount));
+                },
+                () -> {
+                    // 2. 建立訂單（通過Feign調用order服務）
+                    logger.info("調用order服務創建訂單 - 用戶: {}, 商品: {}, 數量: {}", userId, commodityCode, orderCount);
+                    orderFeignClient.create(userId, commodityCode, orderCount);
+                }
+            ));
+            
+            logger.info("TCC庫存全局事務購買流程完成 - 用戶: {}, 商品: {}, 數量: {}", userId, commodityCode, orderCount);
+            
+        } catch (Exception e) {
+            logger.error("TCC庫存全局事務購買流程失敗 - 用戶: {}, 商品: {}, 數量: {}, 錯誤: {}", 
+                        userId, commodityCode, orderCount, e.getMessage(), e);
+            throw e;
+        }
+    }
 }
@@ -1,17 +1,27 @@
 package com.atguigu.business.service.impl;
 
+import com.atguigu.business.bean.StorageImportResult;
 import com.atguigu.business.bean.StorageOperation;
 import com.atguigu.business.bean.StorageTbl;
+import com.atguigu.business.cache.StorageTblNearCache;
+import com.atguigu.business.config.StorageImportProperties;
+import com.atguigu.business.config.StorageTccProperties;
 import com.atguigu.business.lock.DistributedLockable;
 import com.atguigu.business.lock.LockFailStrategy;
 import com.atguigu.business.mapper.storage.StorageTblMapper;
 import com.atguigu.business.service.BusinessStorageService;
+import com.atguigu.business.shard.StorageShardBatchExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 業務服務庫存操作實現類
@@ -24,6 +34,21 @@ public class BusinessStorageServiceImpl implements BusinessStorageService {
     @Autowired
     private StorageTblMapper storageTblMapper;
 
+    @Autowired
+    private StorageTblNearCache storageTblNearCache;
+
+    @Autowired
+    private StorageShardBatchExecutor shardBatchExecutor;
+
+    @Autowired
+    private StorageImportProperties importProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StorageTccProperties tccProperties;
+
     /**
      * 業務服務直接扣減庫存
      * 該方法會直接操作storage_db數據庫，繞過storage服務
@@ -54,23 +79,25 @@ public class BusinessStorageServiceImpl implements BusinessStorageService {
             if (count <= 0) {
                 throw new IllegalArgumentException("扣減數量必須大於0");
             }
+            requireAtCommodity(commodityCode);
             
-            // 檢查庫存是否存在
-            StorageTbl storage = storageTblMapper.selectByCommodityCode(commodityCode);
+            // 檢查庫存是否存在（近端緩存）
+            StorageTbl storage = getStorage(commodityCode);
             if (storage == null) {
                 throw new RuntimeException("商品不存在: " + commodityCode);
             }
             
-            // 檢查庫存是否足夠
-            if (storage.getCount() < count) {
+            // 執行庫存扣減，庫存是否足夠以資料庫條件更新為準
+            if (!deductWithPreCheck(storage, count)) {
+                StorageTbl current = loadStorage(commodityCode);
+                if (current == null) {
+                    throw new RuntimeException("商品不存在: " + commodityCode);
+                }
                 log.warn("庫存不足 - 商品編碼: {}, 當前庫存: {}, 需要扣減: {}", 
-                        commodityCode, storage.getCount(), count);
-                throw new RuntimeException("庫存不足，當前庫存: " + storage.getCount() + ", 需要扣減: " + count);
+                        commodityCode, current.getCount(), count);
+                throw new RuntimeException("庫存不足，當前庫存: " + current.getCount() + ", 需要扣減: " + count);
             }
             
-            // 執行庫存扣減
-            storageTblMapper.deduct(commodityCode, count);
-            
             log.info("庫存扣減成功 - 商品編碼: {}, 扣減數量: {}, 業務上下文: {}", 
                     commodityCode, count, businessContext);
             
@@ -83,7 +110,8 @@ public class BusinessStorageServiceImpl implements BusinessStorageService {
 
     /**
      * 批量庫存操作
-     * 支持對多個商品進行批量庫存操作
+     * 支持對多個商品進行批量庫存操作，在同一本地事務中按分片順序執行，任何操作失敗時全部回滾；
+     * 由全局事務調用時各分片作為獨立分支並行執行，由全局回滾保證原子性
      * 
      * @param operations 批量操作列表，包含多個庫存操作
      * @throws RuntimeException 當任何操作失敗時拋出異常
@@ -106,33 +134,14 @@ public class BusinessStorageServiceImpl implements BusinessStorageService {
         }
         
         try {
+            // 參數驗證，在任何寫入前完成
             for (int i = 0; i < operations.size(); i++) {
-                StorageOperation operation = operations.get(i);
-                log.info("執行第{}個操作 - 商品編碼: {}, 操作類型: {}, 數量: {}, 業務上下文: {}", 
-                        i + 1, operation.getCommodityCode(), operation.getOperationType(), 
-                        operation.getCount(), operation.getBusinessContext());
-                
-                // 參數驗證
-                validateOperation(operation, i + 1);
-                
-                // 根據操作類型執行相應的庫存操作
-                switch (operation.getOperationType()) {
-                    case StorageOperation.OperationType.DEDUCT:
-                        executeDeductOperation(operation);
-                        break;
-                    case StorageOperation.OperationType.ADD:
-                        executeAddOperation(operation);
-                        break;
-                    case StorageOperation.OperationType.SET:
-                        executeSetOperation(operation);
-                        break;
-                    default:
-                        throw new IllegalArgumentException("不支持的操作類型: " + operation.getOperationType());
-                }
-                
-                log.info("第{}個操作執行成功", i + 1);
+                validateOperation(operations.get(i), i + 1);
             }
             
+            shardBatchExecutor.execute(operations, StorageOperation::getCommodityCode,
+                    shardOperations -> shardOperations.forEach(this::executeOperation));
+            
             log.info("批量庫存操作全部完成 - 成功操作數量: {}", operations.size());
             
         } catch (Exception e) {
@@ -141,6 +150,97 @@ public class BusinessStorageServiceImpl implements BusinessStorageService {
         }
     }
     
+    /**
+     * 根據操作類型執行相應的庫存操作
+     */
+    private void executeOperation(StorageOperation operation) {
+        log.info("執行庫存操作 - 商品編碼: {}, 操作類型: {}, 數量: {}, 業務上下文: {}", 
+                operation.getCommodityCode(), operation.getOperationType(), 
+                operation.getCount(), operation.getBusinessContext());
+        
+        switch (operation.getOperationType()) {
+            case StorageOperation.OperationType.DEDUCT:
+                executeDeductOperation(operation);
+                break;
+            case StorageOperation.OperationType.ADD:
+                executeAddOperation(operation);
+                break;
+            case StorageOperation.OperationType.SET:
+                executeSetOperation(operation);
+                break;
+            default:
+                throw new IllegalArgumentException("不支持的操作類型: " + operation.getOperationType());
+        }
+    }
+    
+    /**
+     * 批量導入庫存
+     * 每批記錄按分片拆分，各分片以一條多行語句寫入並獨立提交；格式錯誤時停止導入，之前的批次保留
+     * 
+     * @param input 導入數據流
+     * @param format 導入格式，見StorageImportResult.Format
+     * @param mode 導入模式，見StorageImportResult.Mode
+     * @param chunkSize 每批提交的記錄數，null表示使用配置默認值
+     * @return 導入結果
+     */
+    @Override
+    public StorageImportResult importStorage(InputStream input, String format, String mode, Integer chunkSize) throws IOException {
+        int batchSize = chunkSize != null ? chunkSize : importProperties.getChunkSize();
+        if (batchSize <= 0 || batchSize > importProperties.getMaxChunkSize()) {
+            throw new IllegalArgumentException("批次大小必須在1到" + importProperties.getMaxChunkSize() + "之間");
+        }
+        if (!StorageImportResult.Format.CSV.equals(format) && !StorageImportResult.Format.NDJSON.equals(format)) {
+            throw new IllegalArgumentException("不支持的導入格式: " + format);
+        }
+        if (!StorageImportResult.Mode.INSERT.equals(mode) && !StorageImportResult.Mode.UPSERT.equals(mode)) {
+            throw new IllegalArgumentException("不支持的導入模式: " + mode);
+        }
+        
+        log.info("開始批量導入庫存 - 格式: {}, 模式: {}, 批次大小: {}", format, mode, batchSize);
+        
+        StorageImportResult result = new StorageImportResult();
+        result.setFormat(format);
+        result.setMode(mode);
+        
+        StorageImportReader reader = new StorageImportReader(input, format, objectMapper);
+        List<StorageTbl> chunk = new ArrayList<>(batchSize);
+        try {
+            StorageTbl record;
+            while ((record = reader.next()) != null) {
+                chunk.add(record);
+                if (chunk.size() == batchSize) {
+                    importChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, result);
+            }
+        } catch (RuntimeException e) {
+            log.error("批量導入庫存中止 - 已提交記錄數: {}, 已提交批次數: {}, 錯誤: {}", 
+                    result.getTotalRecords(), result.getChunkCount(), e.getMessage());
+            throw e;
+        }
+        
+        log.info("批量導入庫存完成 - 記錄數: {}, 批次數: {}, 影響行數: {}", 
+                result.getTotalRecords(), result.getChunkCount(), result.getAffectedRows());
+        return result;
+    }
+    
+    /**
+     * 寫入一批記錄，按分片並行執行
+     */
+    private void importChunk(List<StorageTbl> chunk, StorageImportResult result) {
+        boolean upsert = StorageImportResult.Mode.UPSERT.equals(result.getMode());
+        AtomicLong affectedRows = new AtomicLong();
+        shardBatchExecutor.execute(chunk, StorageTbl::getCommodityCode, shardRecords -> affectedRows.addAndGet(
+                upsert ? storageTblMapper.upsertBatch(shardRecords) : storageTblMapper.insertBatch(shardRecords)));
+        
+        result.setTotalRecords(result.getTotalRecords() + chunk.size());
+        result.setChunkCount(result.getChunkCount() + 1);
+        result.setAffectedRows(result.getAffectedRows() + affectedRows.get());
+    }
+    
     /**
      * 驗證操作參數
      */
@@ -157,31 +257,43 @@ public class BusinessStorageServiceImpl implements BusinessStorageService {
         if (operation.getCount() <= 0) {
             throw new IllegalArgumentException("第" + index + "個操作的數量必須大於0");
         }
+        requireAtCommodity(operation.getCommodityCode());
+    }
+    
+    /**
+     * TCC扣減的商品只能經由StorageTccAction寫入，直接修改會與其一階段提交的庫存更新交錯
+     */
+    private void requireAtCommodity(String commodityCode) {
+        if (tccProperties.isTccCommodity(commodityCode)) {
+            throw new IllegalStateException("商品以TCC模式扣減，不能直接修改庫存: " + commodityCode);
+        }
     }
     
     /**
      * 執行扣減操作
      */
     private void executeDeductOperation(StorageOperation operation) {
-        // 檢查庫存是否存在和足夠
-        StorageTbl storage = storageTblMapper.selectByCommodityCode(operation.getCommodityCode());
+        // 檢查庫存是否存在（近端緩存），庫存是否足夠以資料庫條件更新為準
+        StorageTbl storage = getStorage(operation.getCommodityCode());
         if (storage == null) {
             throw new RuntimeException("商品不存在: " + operation.getCommodityCode());
         }
-        if (storage.getCount() < operation.getCount()) {
+        if (!deductWithPreCheck(storage, operation.getCount())) {
+            StorageTbl current = loadStorage(operation.getCommodityCode());
+            if (current == null) {
+                throw new RuntimeException("商品不存在: " + operation.getCommodityCode());
+            }
             throw new RuntimeException("庫存不足，商品: " + operation.getCommodityCode() + 
-                    ", 當前庫存: " + storage.getCount() + ", 需要扣減: " + operation.getCount());
+                    ", 當前庫存: " + current.getCount() + ", 需要扣減: " + operation.getCount());
         }
-        
-        storageTblMapper.deduct(operation.getCommodityCode(), operation.getCount());
     }
     
     /**
      * 執行增加操作
      */
     private void executeAddOperation(StorageOperation operation) {
-        // 檢查商品是否存在
-        StorageTbl storage = storageTblMapper.selectByCommodityCode(operation.getCommodityCode());
+        // 檢查商品是否存在（近端緩存）
+        StorageTbl storage = getStorage(operation.getCommodityCode());
         if (storage == null) {
             throw new RuntimeException("商品不存在: " + operation.getCommodityCode());
         }
@@ -193,12 +305,44 @@ public class BusinessStorageServiceImpl implements BusinessStorageService {
      * 執行設置操作
      */
     private void executeSetOperation(StorageOperation operation) {
-        // 檢查商品是否存在
-        StorageTbl storage = storageTblMapper.selectByCommodityCode(operation.getCommodityCode());
+        // 檢查商品是否存在（近端緩存）
+        StorageTbl storage = getStorage(operation.getCommodityCode());
         if (storage == null) {
             throw new RuntimeException("商品不存在: " + operation.getCommodityCode());
         }
         
         storageTblMapper.setStock(operation.getCommodityCode(), operation.getCount());
     }
+    
+    /**
+     * 讀取庫存記錄（近端緩存），用於存在性檢查和庫存預檢查
+     */
+    private StorageTbl getStorage(String commodityCode) {
+        return storageTblNearCache.get(commodityCode, storageTblMapper::selectByCommodityCode);
+    }
+    
+    /**
+     * 以緩存庫存預檢查後扣減
+     * 緩存顯示庫存不足時回源確認，避免緩存過期造成誤判；最終以資料庫條件更新為準
+     * 
+     * @return 是否扣減成功
+     */
+    private boolean deductWithPreCheck(StorageTbl cached, int count) {
+        if (cached.getCount() < count) {
+            StorageTbl current = loadStorage(cached.getCommodityCode());
+            if (current == null || current.getCount() < count) {
+                return false;
+            }
+        }
+        return storageTblMapper.deductIfSufficient(cached.getCommodityCode(), count) > 0;
+    }
+    
+    /**
+     * 從資料庫讀取最新庫存記錄並刷新緩存
+     */
+    private StorageTbl loadStorage(String commodityCode) {
+        StorageTbl storage = storageTblMapper.selectByCommodityCode(commodityCode);
+        storageTblNearCache.refresh(storage);
+        return storage;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.atguigu.business.service.impl;
+
+import com.atguigu.business.config.ReactivePurchaseProperties;
+import com.atguigu.business.config.StorageTccProperties;
+import com.atguigu.business.lock.ReactiveLockTemplate;
+import com.atguigu.business.reactive.OrderWebClient;
+import com.atguigu.business.reactive.ReactiveGlobalTransaction;
+import com.atguigu.business.reactive.StorageWebClient;
+import com.atguigu.business.service.ReactiveBusinessService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+
+@Service
+public class ReactiveBusinessServiceImpl implements ReactiveBusinessService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveBusinessServiceImpl.class);
+
+    @Autowired
+    private ReactiveGlobalTransaction globalTransaction;
+    @Autowired
+    private ReactiveLockTemplate reactiveLockTemplate;
+    @Autowired
+    private StorageWebClient storageWebClient;
+    @Autowired
+    private OrderWebClient orderWebClient;
+    @Autowired
+    private ReactivePurchaseProperties purchaseProperties;
+    @Autowired
+    private StorageTccProperties tccProperties;
+
+    @Override
+    public Mono<Void> purchase(String userId, String commodityCode, int orderCount) {
+        // 與purchase相同，TCC扣減的商品不能由AT分支修改
+        if (tccProperties.isTccCommodity(commodityCode)) {
+            return Mono.error(new IllegalStateException("商品以TCC模式扣減，請使用purchaseWithTcc: " + commodityCode));
+        }
+        // 與purchase相同的流程：扣減庫存和建立訂單並行，任一失敗回滾全局事務；
+        // 等待全部分支結束後再回滾，不在另一分支仍在執行時發起回滾
+        Mono<Void> branches = Mono.whenDelayError(
+            storageWebClient.deduct(commodityCode, orderCount),
+            orderWebClient.create(userId, commodityCode, orderCount));
+
+        // AT模式下storage_tbl行的全局鎖持有到二階段，商品鎖同樣包住整個全局事務，與purchase的TRANSACTION範圍一致
+        return reactiveLockTemplate.execute("purchase:" + commodityCode, 10, 60,
+                () -> globalTransaction.execute("reactive-purchase", branches))
+            .timeout(Duration.ofMillis(purchaseProperties.getTimeoutMillis()))
+            .doOnSubscribe(subscription -> logger.info("開始響應式全局事務購買流程 - 用戶: {}, 商品: {}, 數量: {}",
+                userId, commodityCode, orderCount))
+            .doOnSuccess(result -> logger.info("響應式全局事務購買流程完成 - 用戶: {}, 商品: {}, 數量: {}",
+                userId, commodityCode, orderCount))
+            .doOnError(e -> logger.error("響應式全局事務購買流程失敗 - 用戶: {}, 商品: {}, 數量: {}, 錯誤: {}",
+                userId, commodityCode, orderCount, e.getMessage(), e));
+    }
+}
@@ -0,0 +1,126 @@
+package com.atguigu.business.service.impl;
+
+import com.atguigu.business.bean.StorageImportResult;
+import com.atguigu.business.bean.StorageTbl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 庫存導入記錄讀取器
+ * 逐行讀取CSV或NDJSON請求體，每次只解析一條記錄，內存佔用與數據量無關
+ *
+ * CSV格式：commodity_code,count，首行可為表頭
+ * NDJSON格式：每行一個JSON對象，如 {"commodityCode":"P0001","count":100}
+ */
+class StorageImportReader {
+
+    private static final String CSV_SEPARATOR = ",";
+
+    // 部分表格軟件導出的UTF-8 CSV帶有BOM
+    private static final String UTF8_BOM = "\uFEFF";
+
+    private final BufferedReader reader;
+
+    private final String format;
+
+    private final ObjectMapper objectMapper;
+
+    private int lineNumber;
+
+    StorageImportReader(InputStream input, String format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 讀取下一條記錄，跳過空行
+     *
+     * @return 庫存記錄，已到末尾時返回null
+     * @throws IllegalArgumentException 記錄格式錯誤時拋出，信息包含行號
+     */
+    StorageTbl next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith(UTF8_BOM)) {
+                line = line.substring(UTF8_BOM.length());
+            }
+            if (!StringUtils.hasText(line)) {
+                continue;
+            }
+            if (StorageImportResult.Format.NDJSON.equals(format)) {
+                return parseJson(line);
+            }
+            if (lineNumber == 1 && isCsvHeader(line)) {
+                continue;
+            }
+            return parseCsv(line);
+        }
+        return null;
+    }
+
+    private StorageTbl parseCsv(String line) {
+        String[] columns = line.split(CSV_SEPARATOR, -1);
+        if (columns.length != 2) {
+            throw new IllegalArgumentException(String.format("第%d行格式錯誤，應為: commodity_code,count", lineNumber));
+        }
+        return toStorage(unquote(columns[0]), unquote(columns[1]));
+    }
+
+    private StorageTbl parseJson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(String.format("第%d行不是有效的JSON: %s", lineNumber, e.getOriginalMessage()));
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException(String.format("第%d行應為JSON對象", lineNumber));
+        }
+        JsonNode commodityCode = node.has("commodityCode") ? node.get("commodityCode") : node.get("commodity_code");
+        JsonNode count = node.get("count");
+        return toStorage(commodityCode != null && !commodityCode.isNull() ? commodityCode.asText() : null,
+                count != null && !count.isNull() ? count.asText() : null);
+    }
+
+    private StorageTbl toStorage(String commodityCode, String count) {
+        if (!StringUtils.hasText(commodityCode)) {
+            throw new IllegalArgumentException(String.format("第%d行的商品編碼不能為空", lineNumber));
+        }
+        int stock;
+        try {
+            stock = Integer.parseInt(count);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("第%d行的庫存數量無效: %s", lineNumber, count));
+        }
+        if (stock < 0) {
+            throw new IllegalArgumentException(String.format("第%d行的庫存數量不能小於0", lineNumber));
+        }
+        StorageTbl storage = new StorageTbl();
+        storage.setCommodityCode(commodityCode);
+        storage.setCount(stock);
+        return storage;
+    }
+
+    private static boolean isCsvHeader(String line) {
+        String firstColumn = unquote(line.split(CSV_SEPARATOR, -1)[0]);
+        return "commodity_code".equalsIgnoreCase(firstColumn) || "commodityCode".equalsIgnoreCase(firstColumn);
+    }
+
+    private static String unquote(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1).trim();
+        }
+        return trimmed;
+    }
+}
@@ -0,0 +1,144 @@
+package com.atguigu.business.shard;
+
+import com.example.common.shard.StorageShardProperties;
+import com.example.common.shard.StorageShardRouter;
+import org.apache.seata.core.context.RootContext;
+import org.apache.seata.tm.api.transaction.TransactionHook;
+import org.apache.seata.tm.api.transaction.TransactionHookManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 庫存分片批量執行器
+ *
+ * 將批量操作按分片拆分，各分片在獨立線程和獨立本地事務中並行執行：
+ * 1. 處於Seata全局事務中：工作線程綁定XID，各分片作為獨立分支註冊，任一分片失敗由全局回滾保證原子性
+ * 2. 處於本地事務但非全局事務中：不同連接無法共享同一本地事務，退化為在調用線程中順序執行
+ * 3. 無事務：各分片各自提交
+ *
+ * @author system
+ */
+@Component
+public class StorageShardBatchExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageShardBatchExecutor.class);
+
+    @Autowired
+    private StorageShardRouter shardRouter;
+
+    @Autowired
+    private StorageShardProperties shardProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ExecutorService executorService;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threadIndex = new AtomicInteger();
+        executorService = Executors.newFixedThreadPool(Math.max(1, shardProperties.getParallelism()), runnable -> {
+            Thread thread = new Thread(runnable, "storage-shard-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("StorageShardBatchExecutor initialized - shards: {}, parallelism: {}",
+                shardRouter.getShardCount(), shardProperties.getParallelism());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executorService != null) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * 按分片拆分並執行批量操作
+     *
+     * @param items 批量操作元素
+     * @param commodityCodeExtractor 商品編碼提取函數
+     * @param shardTask 單個分片的處理邏輯，按原始順序接收該分片的元素
+     * @throws RuntimeException 任一分片失敗時，等待其他分片結束後拋出第一個異常
+     */
+    public <T> void execute(List<T> items, Function<T, String> commodityCodeExtractor, Consumer<List<T>> shardTask) {
+        Map<Integer, List<T>> partitions = shardRouter.partition(items, commodityCodeExtractor);
+        if (partitions.size() <= 1 || !canRunInParallel()) {
+            partitions.values().forEach(shardTask);
+            return;
+        }
+
+        String xid = RootContext.getXID();
+        logger.debug("Executing batch in parallel - shards: {}, items: {}, xid: {}", partitions.size(), items.size(), xid);
+
+        List<Future<List<TransactionHook>>> futures = new ArrayList<>(partitions.size());
+        for (List<T> shardItems : partitions.values()) {
+            futures.add(executorService.submit(() -> executeShard(xid, shardItems, shardTask)));
+        }
+
+        // 必須等待所有分片結束，避免全局事務回滾時仍有分片在寫入
+        RuntimeException failure = null;
+        boolean interrupted = false;
+        for (Future<List<TransactionHook>> future : futures) {
+            try {
+                // 工作線程註冊的Seata事務鉤子轉交調用線程，由全局事務結束時觸發
+                future.get().forEach(TransactionHookManager::registerHook);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                            : new RuntimeException("分片批量操作失敗: " + e.getCause().getMessage(), e.getCause());
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+                failure = new RuntimeException("分片批量操作被中斷", e);
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private boolean canRunInParallel() {
+        return RootContext.inGlobalTransaction() || !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    private <T> List<TransactionHook> executeShard(String xid, List<T> shardItems, Consumer<List<T>> shardTask) {
+        if (xid != null) {
+            RootContext.bind(xid);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> shardTask.accept(shardItems));
+            return new ArrayList<>(TransactionHookManager.getHooks());
+        } finally {
+            TransactionHookManager.clear();
+            if (xid != null) {
+                RootContext.unbind();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.atguigu.business.tcc;
+
+import com.atguigu.business.config.StorageTccProperties;
+import com.atguigu.business.mapper.storage.StorageReservationMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCC預留記錄後台清理器
+ *
+ * 已提交和已回滾的預留記錄需要保留一段時間，拒絕晚到的一階段；超出保留時間後按批刪除，
+ * 走ix_status_create範圍掃描，每批單獨提交。已預留（未決議）的記錄不刪除，由TC的二階段處理。
+ *
+ * @author system
+ */
+@Component
+public class StorageReservationCleaner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageReservationCleaner.class);
+
+    @Autowired
+    private StorageReservationMapper reservationMapper;
+
+    @Autowired
+    private StorageTccProperties tccProperties;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "storage-reservation-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = tccProperties.getCleanupIntervalSeconds();
+        scheduler.scheduleWithFixedDelay(this::runSafely, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 刪除超出保留時間的已提交和已回滾記錄
+     *
+     * @return 本輪刪除的記錄數
+     */
+    public int cleanup() {
+        int batchSize = tccProperties.getCleanupBatchSize();
+        int deleted = 0;
+        int affected;
+        do {
+            affected = reservationMapper.deleteFinished(tccProperties.getReservationRetentionMinutes(), batchSize);
+            deleted += affected;
+        } while (affected == batchSize);
+
+        if (deleted > 0) {
+            logger.info("Storage reservation cleanup deleted {} rows", deleted);
+        }
+        return deleted;
+    }
+
+    private void runSafely() {
+        try {
+            cleanup();
+        } catch (Exception e) {
+            logger.warn("Storage reservation cleanup failed, will retry in {}s",
+                    tccProperties.getCleanupIntervalSeconds(), e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.atguigu.business.tcc;
+
+import org.apache.seata.rm.tcc.api.BusinessActionContext;
+import org.apache.seata.rm.tcc.api.BusinessActionContextParameter;
+import org.apache.seata.rm.tcc.api.LocalTCC;
+import org.apache.seata.rm.tcc.api.TwoPhaseBusinessAction;
+
+/**
+ * 庫存扣減TCC操作
+ *
+ * 一階段在本地事務中寫入預留記錄並條件扣減庫存，提交後即釋放行鎖；
+ * 分支類型為TCC，SQL不經過AT代理，不生成undo_log也不申請Seata全局鎖。
+ * 二階段提交只標記預留記錄，二階段回滾按預留記錄歸還庫存。
+ * 只用於配置在storage.tcc.commodity-codes中的商品，這些商品不接受AT分支寫入。
+ *
+ * @author system
+ */
+@LocalTCC
+public interface StorageTccAction {
+
+    /**
+     * 一階段：預留庫存
+     *
+     * @param actionContext TCC上下文，由Seata注入，調用時傳null
+     * @param commodityCode 商品編碼
+     * @param count 扣減數量
+     * @throws IllegalStateException 商品未配置為TCC扣減、庫存不足，或該分支已被回滾
+     */
+    @TwoPhaseBusinessAction(name = "storageTccAction", commitMethod = "confirm", rollbackMethod = "cancel")
+    void prepare(BusinessActionContext actionContext,
+                 @BusinessActionContextParameter(paramName = "commodityCode") String commodityCode,
+                 @BusinessActionContextParameter(paramName = "count") int count);
+
+    /**
+     * 二階段提交：確認預留，冪等
+     */
+    boolean confirm(BusinessActionContext actionContext);
+
+    /**
+     * 二階段回滾：歸還預留的庫存，冪等；一階段未執行時記錄空回滾
+     */
+    boolean cancel(BusinessActionContext actionContext);
+}
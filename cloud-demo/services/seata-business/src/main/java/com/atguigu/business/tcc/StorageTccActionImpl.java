@@ -0,0 +1,135 @@
+package com.atguigu.business.tcc;
+
+import com.atguigu.business.bean.StorageReservation;
+import com.atguigu.business.config.StorageTccProperties;
+import com.atguigu.business.mapper.storage.StorageReservationMapper;
+import com.atguigu.business.mapper.storage.StorageTblMapper;
+import org.apache.seata.rm.tcc.api.BusinessActionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * 庫存扣減TCC操作實現
+ *
+ * storage_reservation以(xid, branch_id)唯一，兼作TCC防護記錄：
+ * - 二階段重複調用：按狀態條件更新，只有第一次生效
+ * - 空回滾：回滾時找不到預留記錄，寫入已回滾記錄
+ * - 懸掛：一階段晚於回滾到達時，插入預留記錄衝突並拒絕扣減
+ * - 一階段重試晚於提交到達時，預留記錄已是已提交狀態，忽略而不重複扣減
+ * 已提交和已回滾記錄由StorageReservationCleaner在保留時間後刪除。
+ *
+ * 只接受配置為TCC扣減的商品，這些商品的storage_tbl行不會被AT分支修改，
+ * 一階段提交的庫存更新不會造成AT回滾時的後鏡像校驗失敗。
+ *
+ * @author system
+ */
+@Component
+public class StorageTccActionImpl implements StorageTccAction {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageTccActionImpl.class);
+
+    @Autowired
+    private StorageTblMapper storageTblMapper;
+
+    @Autowired
+    private StorageReservationMapper reservationMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StorageTccProperties tccProperties;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void prepare(BusinessActionContext actionContext, String commodityCode, int count) {
+        String xid = actionContext.getXid();
+        long branchId = actionContext.getBranchId();
+        if (!tccProperties.isTccCommodity(commodityCode)) {
+            throw new IllegalStateException("商品未配置為TCC扣減，不能預留庫存: " + commodityCode);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                reservationMapper.insert(reservation(xid, branchId, commodityCode, count, StorageReservation.STATUS_TRIED));
+            } catch (DuplicateKeyException e) {
+                StorageReservation existing = reservationMapper.selectForUpdate(xid, branchId);
+                if (existing != null && existing.getStatus() != StorageReservation.STATUS_CANCELLED) {
+                    logger.info("Duplicate TCC prepare ignored - xid: {}, branchId: {}", xid, branchId);
+                    return;
+                }
+                throw new IllegalStateException("全局事務分支已回滾，拒絕預留庫存: " + xid);
+            }
+
+            if (storageTblMapper.deductIfSufficient(commodityCode, count) == 0) {
+                throw new IllegalStateException("商品不存在或庫存不足: " + commodityCode);
+            }
+        });
+        logger.debug("TCC prepare reserved {} of {} - xid: {}, branchId: {}", count, commodityCode, xid, branchId);
+    }
+
+    @Override
+    public boolean confirm(BusinessActionContext actionContext) {
+        // 庫存已在一階段扣減，提交只需標記預留記錄，保留到清理時拒絕晚到的重複一階段
+        reservationMapper.updateStatus(actionContext.getXid(), actionContext.getBranchId(),
+                StorageReservation.STATUS_TRIED, StorageReservation.STATUS_CONFIRMED);
+        return true;
+    }
+
+    @Override
+    public boolean cancel(BusinessActionContext actionContext) {
+        String xid = actionContext.getXid();
+        long branchId = actionContext.getBranchId();
+
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                StorageReservation existing = reservationMapper.selectForUpdate(xid, branchId);
+                if (existing == null) {
+                    // 空回滾：一階段未執行或尚未到達，寫入已回滾記錄防止其後到達的一階段扣減庫存
+                    String commodityCode = actionContext.getActionContext("commodityCode", String.class);
+                    reservationMapper.insert(reservation(xid, branchId, commodityCode, 0,
+                            StorageReservation.STATUS_CANCELLED));
+                    logger.info("TCC empty rollback recorded - xid: {}, branchId: {}", xid, branchId);
+                    return true;
+                }
+                if (reservationMapper.updateStatus(xid, branchId, StorageReservation.STATUS_TRIED,
+                        StorageReservation.STATUS_CANCELLED) == 1) {
+                    storageTblMapper.addStock(existing.getCommodityCode(), existing.getCount());
+                    logger.info("TCC cancel released {} of {} - xid: {}, branchId: {}",
+                            existing.getCount(), existing.getCommodityCode(), xid, branchId);
+                }
+                return true;
+            }));
+        } catch (DuplicateKeyException e) {
+            // 一階段正在並發寫入預留記錄，返回false由TC稍後重試回滾
+            logger.warn("TCC cancel raced with prepare, will be retried - xid: {}, branchId: {}", xid, branchId);
+            return false;
+        }
+    }
+
+    private static StorageReservation reservation(String xid, long branchId, String commodityCode, int count,
+                                                  int status) {
+        StorageReservation reservation = new StorageReservation();
+        reservation.setXid(xid);
+        reservation.setBranchId(branchId);
+        reservation.setCommodityCode(commodityCode);
+        reservation.setCount(count);
+        reservation.setStatus(status);
+        return reservation;
+    }
+}
@@ -0,0 +1,168 @@
+package com.atguigu.business.cache;
+
+import com.atguigu.business.bean.StorageTbl;
+import com.atguigu.business.config.StorageCacheProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * StorageTblNearCache單元測試
+ * 測試讀穿透緩存、寫入失效、事務同步和Redis失效通知
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("StorageTblNearCache 近端緩存測試")
+class StorageTblNearCacheTest {
+
+    private static final String CODE = "P0001";
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RTopic topic;
+
+    private StorageTblNearCache nearCache;
+
+    private AtomicInteger loadCount;
+
+    private Function<String, StorageTbl> loader;
+
+    @BeforeEach
+    void setUp() {
+        when(redissonClient.getTopic(anyString(), eq(StringCodec.INSTANCE))).thenReturn(topic);
+
+        nearCache = new StorageTblNearCache();
+        ReflectionTestUtils.setField(nearCache, "cacheProperties", new StorageCacheProperties());
+        ReflectionTestUtils.setField(nearCache, "redissonClient", redissonClient);
+        ReflectionTestUtils.setField(nearCache, "serviceName", "test-service");
+        nearCache.init();
+
+        loadCount = new AtomicInteger();
+        loader = code -> {
+            loadCount.incrementAndGet();
+            StorageTbl storage = new StorageTbl();
+            storage.setId(1);
+            storage.setCommodityCode(code);
+            storage.setCount(100);
+            return storage;
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(nearCache);
+    }
+
+    @Test
+    @DisplayName("重複讀取應只查詢一次資料庫")
+    void testReadThrough() {
+        StorageTbl first = nearCache.get(CODE, loader);
+        StorageTbl second = nearCache.get(CODE, loader);
+
+        assertEquals(1, loadCount.get());
+        assertEquals(100, second.getCount());
+        assertNotSame(first, second, "應返回副本，避免調用方修改緩存值");
+    }
+
+    @Test
+    @DisplayName("事務外寫入應立即失效並發布通知")
+    void testWriteOutsideTransaction() {
+        nearCache.get(CODE, loader);
+
+        nearCache.onWrite(CODE);
+        nearCache.get(CODE, loader);
+
+        assertEquals(2, loadCount.get());
+        verify(topic).publish(endsWith("|" + CODE));
+    }
+
+    @Test
+    @DisplayName("事務內寫入應繞過緩存，提交後失效並發布通知")
+    void testWriteInsideTransaction() {
+        nearCache.get(CODE, loader);
+        TransactionSynchronizationManager.initSynchronization();
+
+        nearCache.onWrite(CODE);
+        nearCache.get(CODE, loader);
+        nearCache.get(CODE, loader);
+        verify(topic, never()).publish(anyString());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        // 事務內兩次讀取都直接查詢資料庫，未寫入緩存
+        assertEquals(3, loadCount.get());
+        assertEquals(0, nearCache.size());
+        verify(topic, times(1)).publish(endsWith("|" + CODE));
+    }
+
+    @Test
+    @DisplayName("事務回滾後應失效本地緩存但不發布通知")
+    void testWriteInsideRolledBackTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        nearCache.onWrite(CODE);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        verify(topic, never()).publish(anyString());
+        assertNull(TransactionSynchronizationManager.getResource(nearCache));
+    }
+
+    @Test
+    @DisplayName("收到其他實例的通知應失效緩存，忽略自己發出的通知")
+    void testInvalidationMessage() {
+        nearCache.get(CODE, loader);
+
+        String instanceId = (String) ReflectionTestUtils.getField(nearCache, "instanceId");
+        nearCache.onMessage(instanceId + "|" + CODE);
+        nearCache.get(CODE, loader);
+        assertEquals(1, loadCount.get());
+
+        nearCache.onMessage("seata-storage-1|" + CODE);
+        nearCache.get(CODE, loader);
+        assertEquals(2, loadCount.get());
+
+        nearCache.onMessage("seata-storage-1|" + StorageTblNearCache.INVALIDATE_ALL);
+        assertEquals(0, nearCache.size());
+    }
+
+    @Test
+    @DisplayName("關閉緩存時應每次查詢資料庫")
+    void testDisabled() {
+        StorageCacheProperties properties = new StorageCacheProperties();
+        properties.setEnabled(false);
+        ReflectionTestUtils.setField(nearCache, "cacheProperties", properties);
+
+        nearCache.get(CODE, loader);
+        nearCache.get(CODE, loader);
+
+        assertEquals(2, loadCount.get());
+    }
+}
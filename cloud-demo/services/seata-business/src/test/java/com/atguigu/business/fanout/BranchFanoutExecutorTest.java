@@ -0,0 +1,141 @@
+package com.atguigu.business.fanout;
+
+import com.atguigu.business.config.BranchFanoutProperties;
+import com.atguigu.business.lock.LockContextHolder;
+import org.apache.seata.core.context.RootContext;
+import org.apache.seata.tm.api.transaction.TransactionHook;
+import org.apache.seata.tm.api.transaction.TransactionHookAdapter;
+import org.apache.seata.tm.api.transaction.TransactionHookManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BranchFanoutExecutor單元測試
+ * 測試分支並行執行、XID與上下文傳遞、失敗時等待其他分支結束並拋出異常
+ */
+@DisplayName("BranchFanoutExecutor 全局事務分支並行測試")
+class BranchFanoutExecutorTest {
+
+    private static final String XID = "127.0.0.1:8091:1001";
+
+    private BranchFanoutProperties properties;
+
+    private BranchFanoutExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BranchFanoutProperties();
+        executor = new BranchFanoutExecutor();
+        ReflectionTestUtils.setField(executor, "fanoutProperties", properties);
+        executor.init();
+        RootContext.bind(XID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+        RootContext.unbind();
+        TransactionHookManager.clear();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("分支並行執行，總耗時接近最慢的分支")
+    void testBranchesRunConcurrently() {
+        long start = System.nanoTime();
+        executor.runAll(List.of(() -> sleep(300), () -> sleep(300), () -> sleep(300)));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 600, "並行執行耗時應接近單個分支: " + elapsedMillis + "ms");
+    }
+
+    @Test
+    @DisplayName("工作線程應綁定XID並繼承請求上下文和鎖上下文，結束後清除")
+    void testContextPropagation() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        LockContextHolder.push("distributed:lock:purchase:P0001");
+        Map<String, Object> seen = new ConcurrentHashMap<>();
+        try {
+            executor.runAll(List.of(() -> { }, () -> {
+                seen.put("xid", RootContext.getXID());
+                seen.put("request", RequestContextHolder.getRequestAttributes() != null);
+                seen.put("lock", LockContextHolder.isInherited("distributed:lock:purchase:P0001"));
+                seen.put("thread", Thread.currentThread().getName());
+            }));
+        } finally {
+            LockContextHolder.pop("distributed:lock:purchase:P0001");
+        }
+
+        assertEquals(XID, seen.get("xid"));
+        assertEquals(true, seen.get("request"));
+        assertEquals(true, seen.get("lock"));
+        assertTrue(((String) seen.get("thread")).startsWith("branch-fanout-"));
+        assertFalse(LockContextHolder.isInherited("distributed:lock:purchase:P0001"));
+    }
+
+    @Test
+    @DisplayName("分支失敗時應等待其他分支結束後拋出原始異常")
+    void testFailureWaitsForOtherBranches() {
+        AtomicBoolean slowBranchFinished = new AtomicBoolean();
+        IllegalStateException failure = new IllegalStateException("庫存不足");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> executor.runAll(List.of(
+                () -> {
+                    // 等待另一分支開始執行，未開始的分支會被直接取消
+                    sleep(50);
+                    throw failure;
+                },
+                () -> {
+                    sleep(200);
+                    slowBranchFinished.set(true);
+                })));
+
+        assertSame(failure, thrown);
+        assertTrue(slowBranchFinished.get(), "拋出異常前已開始的分支必須結束");
+    }
+
+    @Test
+    @DisplayName("工作線程註冊的事務鉤子應轉交調用線程")
+    void testTransactionHooksHandedBack() {
+        TransactionHook hook = new TransactionHookAdapter();
+
+        executor.runAll(List.of(() -> { }, () -> TransactionHookManager.registerHook(hook)));
+
+        assertTrue(TransactionHookManager.getHooks().contains(hook));
+    }
+
+    @Test
+    @DisplayName("關閉並行時應在調用線程中按順序執行")
+    void testDisabledRunsSequentially() {
+        properties.setEnabled(false);
+        String caller = Thread.currentThread().getName();
+        Map<Integer, String> threads = new ConcurrentHashMap<>();
+
+        executor.runAll(List.of(() -> threads.put(1, Thread.currentThread().getName()),
+                () -> threads.put(2, Thread.currentThread().getName())));
+
+        assertEquals(caller, threads.get(1));
+        assertEquals(caller, threads.get(2));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
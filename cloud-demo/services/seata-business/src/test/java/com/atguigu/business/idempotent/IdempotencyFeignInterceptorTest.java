@@ -0,0 +1,143 @@
+package com.atguigu.business.idempotent;
+
+import com.atguigu.business.feign.StorageFeignClient;
+import com.example.common.idempotent.IdempotencyProperties;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Target;
+import org.apache.seata.core.context.RootContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IdempotencyFeignInterceptor單元測試
+ * 測試冪等鍵按邏輯調用區分、Feign重試保持冪等鍵，以及沒有基礎鍵時不附加冪等鍵
+ */
+@DisplayName("IdempotencyFeignInterceptor Feign冪等鍵測試")
+class IdempotencyFeignInterceptorTest {
+
+    private static final String HEADER = "Idempotency-Key";
+
+    private IdempotencyFeignInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new IdempotencyFeignInterceptor();
+        ReflectionTestUtils.setField(interceptor, "idempotencyProperties", new IdempotencyProperties());
+        interceptor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RootContext.unbind();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("同一全局事務中兩次相同的調用應得到不同的冪等鍵")
+    void testRepeatedCallsInGlobalTransaction() {
+        RootContext.bind("xid-1");
+
+        String first = key(apply(deduct("P0001", 1)));
+        String second = key(apply(deduct("P0001", 1)));
+
+        assertTrue(first.startsWith("xid-1:seata-storage/deduct:"));
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    @DisplayName("Feign重試複用RequestTemplate時冪等鍵保持不變")
+    void testRetryKeepsKey() {
+        RootContext.bind("xid-2");
+        RequestTemplate template = apply(deduct("P0001", 1));
+        String first = key(template);
+
+        interceptor.apply(template);
+
+        assertEquals(first, key(template));
+        assertEquals(1, template.headers().get(HEADER).size());
+    }
+
+    @Test
+    @DisplayName("參數不同的調用不共用序號，不同全局事務互不影響")
+    void testArgumentsAndTransactionsSeparateKeys() {
+        RootContext.bind("xid-3");
+        String deductP0001 = key(apply(deduct("P0001", 1)));
+        String deductB1234 = key(apply(deduct("B1234", 1)));
+        RootContext.unbind();
+        RootContext.bind("xid-4");
+        String otherTransaction = key(apply(deduct("P0001", 1)));
+
+        assertTrue(deductP0001.endsWith(":1"));
+        assertTrue(deductB1234.endsWith(":1"));
+        assertNotEquals(deductP0001, deductB1234);
+        assertEquals(deductP0001.replace("xid-3", "xid-4"), otherTransaction);
+    }
+
+    @Test
+    @DisplayName("客戶端冪等鍵作為基礎鍵時，序號只在當前請求內遞增")
+    void testClientKeyScopedToRequest() {
+        bindRequest("client-key");
+        String first = key(apply(deduct("P0001", 1)));
+        String second = key(apply(deduct("P0001", 1)));
+
+        // 客戶端以相同冪等鍵重試：新的請求從頭分配序號，得到與首次請求相同的冪等鍵
+        bindRequest("client-key");
+        String retried = key(apply(deduct("P0001", 1)));
+
+        assertTrue(first.startsWith("client-key:seata-storage/deduct:"));
+        assertNotEquals(first, second);
+        assertEquals(first, retried);
+    }
+
+    @Test
+    @DisplayName("不在全局事務中且沒有客戶端冪等鍵時不附加冪等鍵")
+    void testNoBaseKey() {
+        bindRequest(null);
+
+        assertFalse(apply(deduct("P0001", 1)).headers().containsKey(HEADER));
+
+        RequestContextHolder.resetRequestAttributes();
+        assertFalse(apply(deduct("P0001", 1)).headers().containsKey(HEADER));
+    }
+
+    private RequestTemplate apply(RequestTemplate template) {
+        interceptor.apply(template);
+        return template;
+    }
+
+    private static RequestTemplate deduct(String commodityCode, int count) {
+        RequestTemplate template = new RequestTemplate()
+                .method(Request.HttpMethod.GET)
+                .uri("/deduct")
+                .query("commodityCode", commodityCode)
+                .query("count", String.valueOf(count));
+        template.feignTarget(new Target.HardCodedTarget<>(StorageFeignClient.class, "seata-storage",
+                "http://seata-storage"));
+        return template;
+    }
+
+    private static String key(RequestTemplate template) {
+        Collection<String> values = template.headers().get(HEADER);
+        assertNotNull(values, "應附加冪等鍵");
+        return values.iterator().next();
+    }
+
+    private static void bindRequest(String idempotencyKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (idempotencyKey != null) {
+            request.addHeader(HEADER, idempotencyKey);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -0,0 +1,115 @@
+package com.atguigu.business.lock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * LockTemplate單元測試
+ * 測試代碼塊範圍的鎖獲取與釋放、獲取失敗處理和繼承鎖上下文
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("LockTemplate 代碼塊範圍鎖測試")
+class LockTemplateTest {
+
+    private static final String LOCK_KEY = "distributed:lock:purchase:P0001";
+
+    @Mock
+    private DistributedLock distributedLock;
+
+    @Mock
+    private CrossServiceLockKeyGenerator lockKeyGenerator;
+
+    private LockTemplate lockTemplate;
+
+    @BeforeEach
+    void setUp() {
+        lockTemplate = new LockTemplate();
+        ReflectionTestUtils.setField(lockTemplate, "distributedLock", distributedLock);
+        ReflectionTestUtils.setField(lockTemplate, "lockKeyGenerator", lockKeyGenerator);
+        ReflectionTestUtils.setField(lockTemplate, "serviceName", "seata-business");
+        when(lockKeyGenerator.isValidStorageLockKey(anyString())).thenReturn(false);
+        when(distributedLock.tryLock(anyString(), anyLong(), anyLong())).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("代碼塊執行前獲取鎖，返回後立即釋放")
+    void testLockHeldOnlyDuringBlock() {
+        String result = lockTemplate.execute("purchase:P0001", 10, 30, () -> {
+            verify(distributedLock, never()).unlock(anyString());
+            return "deducted";
+        });
+
+        assertEquals("deducted", result);
+        InOrder inOrder = inOrder(distributedLock);
+        inOrder.verify(distributedLock).tryLock(LOCK_KEY, 10, 30);
+        inOrder.verify(distributedLock).unlock(LOCK_KEY);
+    }
+
+    @Test
+    @DisplayName("代碼塊拋出異常時應釋放鎖並傳遞原始異常")
+    void testLockReleasedOnException() {
+        IllegalStateException failure = new IllegalStateException("庫存不足");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+            () -> lockTemplate.execute("purchase:P0001", 10, 30, (Runnable) () -> {
+                throw failure;
+            }));
+
+        assertSame(failure, thrown);
+        verify(distributedLock).unlock(LOCK_KEY);
+    }
+
+    @Test
+    @DisplayName("無法獲取鎖時應拋出異常且不執行代碼塊")
+    void testLockNotAcquired() {
+        when(distributedLock.tryLock(anyString(), anyLong(), anyLong())).thenReturn(false);
+        Runnable action = mock(Runnable.class);
+
+        DistributedLockException exception = assertThrows(DistributedLockException.class,
+            () -> lockTemplate.execute("purchase:P0001", 10, 30, action));
+
+        assertEquals(LockErrorCode.LOCK_ACQUIRE_TIMEOUT, exception.getErrorCode());
+        verify(action, never()).run();
+        verify(distributedLock, never()).unlock(anyString());
+    }
+
+    @Test
+    @DisplayName("分派線程已持有相同鎖鍵時應直接執行代碼塊")
+    void testInheritedLockSkipsAcquisition() {
+        LockContextHolder.inherit(Set.of(LOCK_KEY));
+        try {
+            assertEquals("deducted", lockTemplate.execute("purchase:P0001", 10, 30, () -> "deducted"));
+        } finally {
+            LockContextHolder.clearInherited();
+        }
+
+        verify(distributedLock, never()).tryLock(anyString(), anyLong(), anyLong());
+        verify(distributedLock, never()).unlock(anyString());
+    }
+
+    @Test
+    @DisplayName("庫存鎖鍵應使用鍵生成器的標準格式")
+    void testStorageLockKeyNormalized() {
+        when(lockKeyGenerator.generateStorageLockKey("P0001")).thenReturn("distributed:lock:storage:P0001");
+
+        lockTemplate.execute("storage:P0001", 5, 30, () -> { });
+
+        verify(distributedLock).tryLock("distributed:lock:storage:P0001", 5, 30);
+        verify(distributedLock).unlock("distributed:lock:storage:P0001");
+    }
+}
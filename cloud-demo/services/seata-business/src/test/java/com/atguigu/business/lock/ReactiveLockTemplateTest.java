@@ -0,0 +1,120 @@
+package com.atguigu.business.lock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.redisson.api.RLockReactive;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.RedissonReactiveClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReactiveLockTemplate單元測試
+ * 測試響應式鎖的持有者id、代碼塊結束時釋放和獲取失敗處理
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("ReactiveLockTemplate 響應式鎖測試")
+class ReactiveLockTemplateTest {
+
+    private static final String LOCK_KEY = "distributed:lock:purchase:P0001";
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RedissonReactiveClient reactiveClient;
+
+    @Mock
+    private RLockReactive lock;
+
+    @Mock
+    private CrossServiceLockKeyGenerator lockKeyGenerator;
+
+    private ReactiveLockTemplate lockTemplate;
+
+    @BeforeEach
+    void setUp() {
+        when(redissonClient.reactive()).thenReturn(reactiveClient);
+        when(reactiveClient.getLock(anyString())).thenReturn(lock);
+        when(lock.tryLock(anyLong(), anyLong(), any(TimeUnit.class), anyLong())).thenReturn(Mono.just(true));
+        when(lock.unlock(anyLong())).thenReturn(Mono.empty());
+        when(lockKeyGenerator.isValidStorageLockKey(anyString())).thenReturn(false);
+
+        lockTemplate = new ReactiveLockTemplate();
+        ReflectionTestUtils.setField(lockTemplate, "redissonClient", redissonClient);
+        ReflectionTestUtils.setField(lockTemplate, "lockKeyGenerator", lockKeyGenerator);
+        ReflectionTestUtils.setField(lockTemplate, "serviceName", "seata-business");
+        lockTemplate.init();
+    }
+
+    @Test
+    @DisplayName("代碼塊完成後用加鎖時的持有者id釋放鎖")
+    void testLockReleasedWithSameOwner() {
+        String result = lockTemplate.execute("purchase:P0001", 10, 30, () -> Mono.just("deducted"))
+            .block(Duration.ofSeconds(5));
+
+        assertEquals("deducted", result);
+        ArgumentCaptor<Long> owner = ArgumentCaptor.forClass(Long.class);
+        InOrder inOrder = inOrder(reactiveClient, lock);
+        inOrder.verify(reactiveClient).getLock(LOCK_KEY);
+        inOrder.verify(lock).tryLock(eq(10L), eq(30L), eq(TimeUnit.SECONDS), owner.capture());
+        inOrder.verify(lock).unlock(owner.getValue());
+        assertTrue(owner.getValue() < 0, "持有者id不應與線程id衝突");
+    }
+
+    @Test
+    @DisplayName("每次加鎖分配不同的持有者id")
+    void testDistinctOwners() {
+        lockTemplate.execute("purchase:P0001", 10, 30, () -> Mono.just(1)).block(Duration.ofSeconds(5));
+        lockTemplate.execute("purchase:P0001", 10, 30, () -> Mono.just(2)).block(Duration.ofSeconds(5));
+
+        ArgumentCaptor<Long> owners = ArgumentCaptor.forClass(Long.class);
+        verify(lock, times(2)).tryLock(anyLong(), anyLong(), any(TimeUnit.class), owners.capture());
+        assertNotEquals(owners.getAllValues().get(0), owners.getAllValues().get(1));
+    }
+
+    @Test
+    @DisplayName("代碼塊失敗時釋放鎖並傳遞原始異常")
+    void testLockReleasedOnError() {
+        IllegalStateException failure = new IllegalStateException("庫存不足");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+            () -> lockTemplate.execute("purchase:P0001", 10, 30, () -> Mono.error(failure))
+                .block(Duration.ofSeconds(5)));
+
+        assertSame(failure, thrown);
+        verify(lock).unlock(anyLong());
+    }
+
+    @Test
+    @DisplayName("無法獲取鎖時以異常結束且不訂閱代碼塊")
+    void testLockNotAcquired() {
+        when(lock.tryLock(anyLong(), anyLong(), any(TimeUnit.class), anyLong())).thenReturn(Mono.just(false));
+        AtomicBoolean subscribed = new AtomicBoolean();
+
+        DistributedLockException exception = assertThrows(DistributedLockException.class,
+            () -> lockTemplate.execute("purchase:P0001", 10, 30,
+                () -> Mono.fromRunnable(() -> subscribed.set(true))).block(Duration.ofSeconds(5)));
+
+        assertEquals(LockErrorCode.LOCK_ACQUIRE_TIMEOUT, exception.getErrorCode());
+        assertFalse(subscribed.get());
+        verify(lock, never()).unlock(anyLong());
+    }
+}
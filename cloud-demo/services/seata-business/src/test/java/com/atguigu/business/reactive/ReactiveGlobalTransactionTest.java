@@ -0,0 +1,147 @@
+package com.atguigu.business.reactive;
+
+import com.atguigu.business.config.ReactivePurchaseProperties;
+import org.apache.seata.core.context.RootContext;
+import org.apache.seata.tm.api.GlobalTransaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReactiveGlobalTransaction單元測試
+ * 測試全局事務的提交與回滾、XID通過Reactor上下文傳遞到WebClient請求頭和阻塞調度器
+ */
+@DisplayName("ReactiveGlobalTransaction 響應式全局事務測試")
+class ReactiveGlobalTransactionTest {
+
+    private static final String XID = "127.0.0.1:8091:2001";
+
+    private Scheduler scheduler;
+
+    private GlobalTransaction transaction;
+
+    private ReactiveGlobalTransaction globalTransaction;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        scheduler = Schedulers.newBoundedElastic(4, 10000, "test-blocking");
+        transaction = mock(GlobalTransaction.class);
+        when(transaction.getXid()).thenReturn(XID);
+        doAnswer(invocation -> {
+            // 與DefaultGlobalTransaction一致，開啟後把XID綁定到當前線程
+            RootContext.bind(XID);
+            return null;
+        }).when(transaction).begin(anyInt(), anyString());
+
+        globalTransaction = spy(new ReactiveGlobalTransaction());
+        ReflectionTestUtils.setField(globalTransaction, "purchaseProperties", new ReactivePurchaseProperties());
+        ReflectionTestUtils.setField(globalTransaction, "purchaseBlockingScheduler", scheduler);
+        doReturn(transaction).when(globalTransaction).newTransaction();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Test
+    @DisplayName("事務體成功時提交全局事務")
+    void testCommitOnSuccess() throws Exception {
+        String result = globalTransaction.execute("test", Mono.just("done")).block(Duration.ofSeconds(5));
+
+        assertEquals("done", result);
+        verify(transaction).begin(60000, "test");
+        verify(transaction).commit();
+        verify(transaction, never()).rollback();
+    }
+
+    @Test
+    @DisplayName("事務體失敗時回滾全局事務並傳遞原始異常")
+    void testRollbackOnError() throws Exception {
+        IllegalStateException failure = new IllegalStateException("庫存不足");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+            () -> globalTransaction.execute("test", Mono.error(failure)).block(Duration.ofSeconds(5)));
+
+        assertSame(failure, thrown);
+        verify(transaction).rollback();
+        verify(transaction, never()).commit();
+    }
+
+    @Test
+    @DisplayName("超時取消事務體時回滾全局事務")
+    void testRollbackOnTimeout() throws Exception {
+        Mono<String> slow = Mono.delay(Duration.ofSeconds(10)).thenReturn("late");
+
+        assertThrows(RuntimeException.class, () -> globalTransaction.execute("test", slow)
+            .timeout(Duration.ofMillis(100))
+            .block(Duration.ofSeconds(5)));
+
+        verify(transaction, timeout(2000)).rollback();
+        verify(transaction, never()).commit();
+    }
+
+    @Test
+    @DisplayName("WebClient請求頭和阻塞操作都應拿到XID，阻塞線程執行後解綁")
+    void testXidPropagation() {
+        AtomicReference<ClientRequest> captured = new AtomicReference<>();
+        WebClient webClient = WebClient.builder()
+            .filter(new SeataXidExchangeFilter())
+            .exchangeFunction(request -> {
+                captured.set(request);
+                return Mono.just(ClientResponse.create(HttpStatus.OK).body("ok").build());
+            })
+            .build();
+        Map<String, String> seen = new ConcurrentHashMap<>();
+
+        Mono<String> body = webClient.get().uri("http://seata-storage/deduct").retrieve().bodyToMono(String.class)
+            .flatMap(response -> globalTransaction.blocking(() -> {
+                seen.put("blocking", RootContext.getXID());
+                seen.put("thread", Thread.currentThread().getName());
+                return response;
+            }));
+        globalTransaction.execute("test", body).block(Duration.ofSeconds(5));
+
+        assertEquals(XID, captured.get().headers().getFirst(RootContext.KEY_XID));
+        assertEquals(XID, seen.get("blocking"));
+        assertTrue(seen.get("thread").startsWith("test-blocking"));
+        // 調度器線程已解綁，下一個任務看不到上一個事務的XID
+        assertNull(globalTransaction.blocking(RootContext::getXID).block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    @DisplayName("少量阻塞線程可同時承載大量進行中的事務")
+    void testManyInFlightTransactionsWithFewThreads() {
+        int inFlight = 1000;
+
+        long start = System.nanoTime();
+        Long committed = Flux.range(0, inFlight)
+            .flatMap(i -> globalTransaction.execute("test", Mono.delay(Duration.ofMillis(200))), inFlight)
+            .count()
+            .block(Duration.ofSeconds(30));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(inFlight, committed);
+        // 4個阻塞線程只執行開啟和提交，等待下游的200ms不佔用線程；逐個處理需要200秒
+        assertTrue(elapsedMillis < 10_000, "大量進行中的事務應並發等待: " + elapsedMillis + "ms");
+    }
+}
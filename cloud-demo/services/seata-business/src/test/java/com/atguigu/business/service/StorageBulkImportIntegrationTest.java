@@ -0,0 +1,163 @@
+package com.atguigu.business.service;
+
+import com.atguigu.business.bean.StorageImportResult;
+import com.atguigu.business.config.StorageImportProperties;
+import com.atguigu.business.mapper.storage.StorageTblMapper;
+import com.atguigu.business.service.impl.BusinessStorageServiceImpl;
+import com.atguigu.business.shard.StorageShardBatchExecutor;
+import com.example.common.shard.StorageShardInterceptor;
+import com.example.common.shard.StorageShardProperties;
+import com.example.common.shard.StorageShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.plugin.Interceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 庫存批量導入集成測試
+ * 使用內嵌H2資料庫（MySQL模式）驗證CSV/NDJSON流式導入、分批提交、UPSERT覆蓋和分表路由
+ */
+@DisplayName("庫存批量導入集成測試")
+class StorageBulkImportIntegrationTest {
+
+    private static final int SHARD_COUNT = 2;
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private StorageShardBatchExecutor shardBatchExecutor;
+
+    private BusinessStorageService businessStorageService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:storage_import_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            jdbcTemplate.execute("CREATE TABLE storage_tbl_" + shard + " ("
+                    + "id int NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                    + "commodity_code varchar(255) DEFAULT NULL UNIQUE, "
+                    + "count int DEFAULT 0)");
+        }
+
+        StorageShardProperties shardProperties = new StorageShardProperties();
+        shardProperties.setCount(SHARD_COUNT);
+        StorageShardRouter router = new StorageShardRouter(shardProperties);
+
+        SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setMapperLocations(new ClassPathResource("mapper/storage/StorageTblMapper.xml"));
+        factoryBean.setPlugins(new Interceptor[]{new StorageShardInterceptor(router, StorageTblMapper.class)});
+        StorageTblMapper mapper = new SqlSessionTemplate(factoryBean.getObject()).getMapper(StorageTblMapper.class);
+
+        shardBatchExecutor = new StorageShardBatchExecutor();
+        ReflectionTestUtils.setField(shardBatchExecutor, "shardRouter", router);
+        ReflectionTestUtils.setField(shardBatchExecutor, "shardProperties", shardProperties);
+        ReflectionTestUtils.setField(shardBatchExecutor, "transactionManager", new DataSourceTransactionManager(dataSource));
+        shardBatchExecutor.init();
+
+        BusinessStorageServiceImpl service = new BusinessStorageServiceImpl();
+        ReflectionTestUtils.setField(service, "storageTblMapper", mapper);
+        ReflectionTestUtils.setField(service, "shardBatchExecutor", shardBatchExecutor);
+        ReflectionTestUtils.setField(service, "importProperties", new StorageImportProperties());
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        businessStorageService = service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardBatchExecutor.destroy();
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("CSV導入應按批次提交並寫入對應分表")
+    void testCsvImport() throws Exception {
+        StringBuilder csv = new StringBuilder("commodity_code,count\n");
+        for (int i = 0; i < 25; i++) {
+            csv.append("P").append(i).append(',').append(i).append('\n');
+        }
+
+        StorageImportResult result = businessStorageService.importStorage(
+                body(csv.toString()), StorageImportResult.Format.CSV, StorageImportResult.Mode.INSERT, 10);
+
+        assertEquals(25, result.getTotalRecords());
+        assertEquals(3, result.getChunkCount());
+        assertEquals(25, result.getAffectedRows());
+        assertEquals(25, countRows("storage_tbl_0") + countRows("storage_tbl_1"));
+        assertTrue(countRows("storage_tbl_0") > 0 && countRows("storage_tbl_1") > 0, "記錄應分布到所有分片");
+        assertEquals(7, stockOf("P7"));
+    }
+
+    @Test
+    @DisplayName("NDJSON UPSERT導入應覆蓋已存在商品的庫存")
+    void testNdjsonUpsert() throws Exception {
+        businessStorageService.importStorage(body("P1,10\nP2,20\n"),
+                StorageImportResult.Format.CSV, StorageImportResult.Mode.INSERT, null);
+
+        String ndjson = "{\"commodityCode\":\"P1\",\"count\":100}\n"
+                + "\n"
+                + "{\"commodity_code\":\"P3\",\"count\":30}\n";
+        StorageImportResult result = businessStorageService.importStorage(
+                body(ndjson), StorageImportResult.Format.NDJSON, StorageImportResult.Mode.UPSERT, null);
+
+        assertEquals(2, result.getTotalRecords());
+        assertEquals(1, result.getChunkCount());
+        assertEquals(100, stockOf("P1"));
+        assertEquals(20, stockOf("P2"));
+        assertEquals(30, stockOf("P3"));
+    }
+
+    @Test
+    @DisplayName("格式錯誤時應報告行號並保留已提交的批次")
+    void testMalformedLine() throws Exception {
+        String csv = "P1,1\nP2,2\nP3,abc\nP4,4\n";
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                businessStorageService.importStorage(body(csv), StorageImportResult.Format.CSV,
+                        StorageImportResult.Mode.INSERT, 2));
+
+        assertTrue(exception.getMessage().contains("第3行"), exception.getMessage());
+        assertEquals(1, stockOf("P1"));
+        assertEquals(2, stockOf("P2"));
+        assertEquals(2, countRows("storage_tbl_0") + countRows("storage_tbl_1"), "出錯批次之後的記錄不應寫入");
+    }
+
+    @Test
+    @DisplayName("批次大小超出範圍時應拒絕導入")
+    void testInvalidChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> businessStorageService.importStorage(
+                body("P1,1\n"), StorageImportResult.Format.CSV, StorageImportResult.Mode.INSERT, 100_000));
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int countRows(String tableName) {
+        return jdbcTemplate.queryForObject("select count(*) from " + tableName, Integer.class);
+    }
+
+    private int stockOf(String commodityCode) {
+        String table = "storage_tbl_" + Math.floorMod(commodityCode.hashCode(), SHARD_COUNT);
+        return jdbcTemplate.queryForObject("select count from " + table + " where commodity_code = ?",
+                Integer.class, commodityCode);
+    }
+}
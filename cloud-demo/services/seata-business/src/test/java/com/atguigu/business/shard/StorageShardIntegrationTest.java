@@ -0,0 +1,224 @@
+package com.atguigu.business.shard;
+
+import com.atguigu.business.bean.StorageOperation;
+import com.atguigu.business.bean.StorageTbl;
+import com.atguigu.business.mapper.storage.StorageTblMapper;
+import com.example.common.shard.StorageShardInterceptor;
+import com.example.common.shard.StorageShardProperties;
+import com.example.common.shard.StorageShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.plugin.Interceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * storage_tbl分表集成測試
+ * 使用內嵌H2資料庫（MySQL模式）驗證商品編碼路由、無法路由的Mapper方法在啟動時被拒絕，
+ * 以及批量操作按分片拆分執行
+ */
+@DisplayName("storage_tbl 分表集成測試")
+class StorageShardIntegrationTest {
+
+    private static final int MAX_SHARDS = 4;
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<StorageShardBatchExecutor> executors = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:storage_shard_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(MAX_SHARDS * 2);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        createTable("storage_tbl");
+        for (int shard = 0; shard < MAX_SHARDS; shard++) {
+            createTable("storage_tbl_" + shard);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executors.forEach(StorageShardBatchExecutor::destroy);
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("寫入和查詢應按商品編碼路由到對應分表")
+    void testRouting() throws Exception {
+        StorageShardRouter router = router(MAX_SHARDS);
+        StorageTblMapper mapper = mapper(router);
+
+        int[] expected = new int[MAX_SHARDS];
+        for (int i = 0; i < 100; i++) {
+            String code = "P" + i;
+            mapper.insert(storage(code, 10));
+            expected[router.shardOf(code)]++;
+        }
+
+        for (int shard = 0; shard < MAX_SHARDS; shard++) {
+            assertTrue(expected[shard] > 0, "測試數據應覆蓋所有分片");
+            assertEquals(expected[shard], countRows("storage_tbl_" + shard));
+        }
+        assertEquals(0, countRows("storage_tbl"), "分表模式下不應寫入邏輯表");
+
+        assertEquals(1, mapper.deductIfSufficient("P7", 4));
+        assertEquals(0, mapper.deductIfSufficient("P7", 7));
+        assertEquals(6, mapper.selectByCommodityCode("P7").getCount());
+        assertEquals(6, jdbcTemplate.queryForObject(
+                "select count from " + router.tableOf("P7") + " where commodity_code = 'P7'", Integer.class));
+    }
+
+    @Test
+    @DisplayName("分片規則應與分表初始化腳本一致")
+    void testShardAssignmentMatchesInitScript() {
+        StorageShardRouter router = router(MAX_SHARDS);
+
+        assertEquals(1, router.shardOf("P0001"));
+        assertEquals(0, router.shardOf("B1234"));
+        assertEquals("storage_tbl_1", router.tableOf("P0001"));
+        assertEquals("storage_tbl", router(1).tableOf("P0001"), "不分表時應使用邏輯表名");
+    }
+
+    @Test
+    @DisplayName("分表模式下Mapper存在無法確定分片的方法時應在建立攔截器時拒絕")
+    void testRejectUnroutableMapperAtStartup() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new StorageShardInterceptor(router(MAX_SHARDS), ByIdMapper.class));
+        assertTrue(exception.getMessage().contains("selectById"));
+        assertFalse(exception.getMessage().contains("selectByCode"));
+
+        assertDoesNotThrow(() -> new StorageShardInterceptor(router(1), ByIdMapper.class), "不分表時不需要路由");
+        assertDoesNotThrow(() -> new StorageShardInterceptor(router(MAX_SHARDS), StorageTblMapper.class));
+    }
+
+    @Test
+    @DisplayName("跨分片的批量語句應被拒絕")
+    void testRejectCrossShardBatch() throws Exception {
+        StorageShardRouter router = router(MAX_SHARDS);
+        StorageTblMapper mapper = mapper(router);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> mapper.insertBatch(List.of(storage("P0001", 1), storage("B1234", 1))));
+        assertInstanceOf(IllegalArgumentException.class, rootCause(exception));
+        assertEquals(0, countRows("storage_tbl_0") + countRows("storage_tbl_1"));
+    }
+
+    @Test
+    @DisplayName("批量操作應按分片拆分，每個分片只處理本分片的商品並寫入對應分表")
+    void testBatchPartitionedByShard() throws Exception {
+        StorageShardRouter router = router(MAX_SHARDS);
+        StorageTblMapper mapper = mapper(router);
+        StorageShardBatchExecutor executor = executor(router, MAX_SHARDS);
+
+        List<StorageOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            String code = "S" + i;
+            mapper.insert(storage(code, 100));
+            StorageOperation operation = new StorageOperation();
+            operation.setCommodityCode(code);
+            operation.setOperationType(StorageOperation.OperationType.DEDUCT);
+            operation.setCount(1);
+            operations.add(operation);
+        }
+
+        List<List<StorageOperation>> shardBatches = Collections.synchronizedList(new ArrayList<>());
+        executor.execute(operations, StorageOperation::getCommodityCode, shardOperations -> {
+            shardBatches.add(shardOperations);
+            shardOperations.forEach(operation -> mapper.deductIfSufficient(operation.getCommodityCode(),
+                    operation.getCount()));
+        });
+
+        assertEquals(MAX_SHARDS, shardBatches.size(), "每個分片應只執行一次");
+        for (List<StorageOperation> batch : shardBatches) {
+            int shard = router.shardOf(batch.get(0).getCommodityCode());
+            for (StorageOperation operation : batch) {
+                assertEquals(shard, router.shardOf(operation.getCommodityCode()));
+                assertEquals(99, jdbcTemplate.queryForObject("select count from storage_tbl_" + shard
+                        + " where commodity_code = ?", Integer.class, operation.getCommodityCode()));
+            }
+        }
+        assertEquals(operations.size(), shardBatches.stream().mapToInt(List::size).sum());
+    }
+
+    private StorageShardRouter router(int shardCount) {
+        StorageShardProperties properties = new StorageShardProperties();
+        properties.setCount(shardCount);
+        return new StorageShardRouter(properties);
+    }
+
+    private StorageTblMapper mapper(StorageShardRouter router) throws Exception {
+        SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setMapperLocations(new ClassPathResource("mapper/storage/StorageTblMapper.xml"));
+        factoryBean.setPlugins(new Interceptor[]{new StorageShardInterceptor(router, StorageTblMapper.class)});
+        return new SqlSessionTemplate(factoryBean.getObject()).getMapper(StorageTblMapper.class);
+    }
+
+    private StorageShardBatchExecutor executor(StorageShardRouter router, int parallelism) {
+        StorageShardProperties properties = new StorageShardProperties();
+        properties.setCount(router.getShardCount());
+        properties.setParallelism(parallelism);
+
+        StorageShardBatchExecutor executor = new StorageShardBatchExecutor();
+        ReflectionTestUtils.setField(executor, "shardRouter", router);
+        ReflectionTestUtils.setField(executor, "shardProperties", properties);
+        ReflectionTestUtils.setField(executor, "transactionManager", new DataSourceTransactionManager(dataSource));
+        executor.init();
+        executors.add(executor);
+        return executor;
+    }
+
+    private void createTable(String tableName) {
+        jdbcTemplate.execute("CREATE TABLE " + tableName + " ("
+                + "id int NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                + "commodity_code varchar(255) DEFAULT NULL UNIQUE, "
+                + "count int DEFAULT 0)");
+    }
+
+    private int countRows(String tableName) {
+        return jdbcTemplate.queryForObject("select count(*) from " + tableName, Integer.class);
+    }
+
+    private static StorageTbl storage(String commodityCode, int count) {
+        StorageTbl storage = new StorageTbl();
+        storage.setCommodityCode(commodityCode);
+        storage.setCount(count);
+        return storage;
+    }
+
+    private static Throwable rootCause(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * 只能按主鍵查詢的Mapper，分表模式下無法路由
+     */
+    interface ByIdMapper {
+
+        StorageTbl selectById(Long id);
+
+        StorageTbl selectByCode(String commodityCode);
+    }
+}
@@ -0,0 +1,213 @@
+package com.atguigu.business.tcc;
+
+import com.atguigu.business.config.StorageTccProperties;
+import com.atguigu.business.mapper.storage.StorageReservationMapper;
+import com.atguigu.business.mapper.storage.StorageTblMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.seata.rm.tcc.api.BusinessActionContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 庫存TCC操作集成測試
+ * 使用內嵌H2資料庫（MySQL模式）驗證一階段預留、二階段提交與回滾、空回滾和防懸掛，
+ * 以及商品模式限制和預留記錄清理
+ */
+@DisplayName("庫存TCC操作集成測試")
+class StorageTccActionIntegrationTest {
+
+    private static final String HOT_SKU = "P0001";
+
+    private static final String AT_SKU = "B1234";
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private StorageTccActionImpl tccAction;
+
+    private StorageReservationCleaner cleaner;
+
+    private final AtomicLong branchIds = new AtomicLong();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:storage_tcc_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("CREATE TABLE storage_tbl (id int NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                + "commodity_code varchar(255) DEFAULT NULL UNIQUE, count int DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE storage_reservation (id bigint NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                + "xid varchar(128) NOT NULL, branch_id bigint NOT NULL, commodity_code varchar(255) DEFAULT NULL, "
+                + "count int NOT NULL DEFAULT 0, status tinyint NOT NULL, "
+                + "gmt_create datetime NOT NULL DEFAULT CURRENT_TIMESTAMP, UNIQUE (xid, branch_id))");
+        jdbcTemplate.update("insert into storage_tbl (commodity_code, count) values (?, ?)", HOT_SKU, 1000);
+        jdbcTemplate.update("insert into storage_tbl (commodity_code, count) values (?, ?)", AT_SKU, 1000);
+
+        SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setMapperLocations(new ClassPathResource("mapper/storage/StorageTblMapper.xml"),
+                new ClassPathResource("mapper/storage/StorageReservationMapper.xml"));
+        SqlSessionTemplate sqlSessionTemplate = new SqlSessionTemplate(factoryBean.getObject());
+
+        StorageReservationMapper reservationMapper = sqlSessionTemplate.getMapper(StorageReservationMapper.class);
+
+        StorageTccProperties tccProperties = new StorageTccProperties();
+        tccProperties.setCommodityCodes(Set.of(HOT_SKU));
+        tccProperties.setReservationRetentionMinutes(60);
+        tccProperties.setCleanupBatchSize(2);
+
+        tccAction = new StorageTccActionImpl();
+        ReflectionTestUtils.setField(tccAction, "storageTblMapper", sqlSessionTemplate.getMapper(StorageTblMapper.class));
+        ReflectionTestUtils.setField(tccAction, "reservationMapper", reservationMapper);
+        ReflectionTestUtils.setField(tccAction, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(tccAction, "tccProperties", tccProperties);
+        tccAction.init();
+
+        cleaner = new StorageReservationCleaner();
+        ReflectionTestUtils.setField(cleaner, "reservationMapper", reservationMapper);
+        ReflectionTestUtils.setField(cleaner, "tccProperties", tccProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("一階段扣減庫存，二階段提交後預留記錄標記為已提交")
+    void testPrepareAndConfirm() {
+        BusinessActionContext context = context("xid-1", 3);
+
+        tccAction.prepare(context, HOT_SKU, 3);
+        assertEquals(997, stock());
+        assertEquals(1, reservations());
+
+        assertTrue(tccAction.confirm(context));
+        assertTrue(tccAction.confirm(context), "重複提交應冪等");
+        assertEquals(997, stock());
+        assertEquals(0, reservations());
+        assertEquals(1, reservations(2));
+    }
+
+    @Test
+    @DisplayName("提交後晚到的重複一階段應被忽略，不重複扣減")
+    void testDuplicatePrepareAfterConfirm() {
+        BusinessActionContext context = context("xid-5", 3);
+
+        tccAction.prepare(context, HOT_SKU, 3);
+        tccAction.confirm(context);
+        tccAction.prepare(context, HOT_SKU, 3);
+
+        assertEquals(997, stock());
+        assertEquals(0, reservations());
+    }
+
+    @Test
+    @DisplayName("未配置為TCC扣減的商品應拒絕預留，避免與AT分支修改同一行")
+    void testRejectAtCommodity() {
+        BusinessActionContext context = context("xid-6", 1);
+
+        assertThrows(IllegalStateException.class, () -> tccAction.prepare(context, AT_SKU, 1));
+
+        assertEquals(1000, jdbcTemplate.queryForObject(
+                "select count from storage_tbl where commodity_code = ?", Integer.class, AT_SKU));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from storage_reservation", Integer.class));
+    }
+
+    @Test
+    @DisplayName("只清理超出保留時間的已提交和已回滾記錄")
+    void testCleanupFinishedReservations() {
+        insertReservation(0, 120);
+        insertReservation(1, 120);
+        insertReservation(1, 120);
+        insertReservation(2, 120);
+        insertReservation(2, 120);
+        insertReservation(1, 10);
+        insertReservation(2, 10);
+
+        assertEquals(4, cleaner.cleanup());
+
+        assertEquals(1, reservations());
+        assertEquals(1, reservations(1));
+        assertEquals(1, reservations(2));
+        assertEquals(0, cleaner.cleanup());
+    }
+
+    @Test
+    @DisplayName("二階段回滾歸還庫存，重複回滾不重複歸還")
+    void testPrepareAndCancel() {
+        BusinessActionContext context = context("xid-2", 5);
+
+        tccAction.prepare(context, HOT_SKU, 5);
+        assertTrue(tccAction.cancel(context));
+        assertTrue(tccAction.cancel(context));
+
+        assertEquals(1000, stock());
+    }
+
+    @Test
+    @DisplayName("空回滾後到達的一階段應被拒絕，不扣減庫存")
+    void testEmptyRollbackPreventsSuspension() {
+        BusinessActionContext context = context("xid-3", 2);
+
+        assertTrue(tccAction.cancel(context));
+        assertThrows(IllegalStateException.class, () -> tccAction.prepare(context, HOT_SKU, 2));
+
+        assertEquals(1000, stock());
+    }
+
+    @Test
+    @DisplayName("庫存不足時一階段失敗，不留下預留記錄")
+    void testInsufficientStock() {
+        BusinessActionContext context = context("xid-4", 2000);
+
+        assertThrows(IllegalStateException.class, () -> tccAction.prepare(context, HOT_SKU, 2000));
+
+        assertEquals(1000, stock());
+        assertEquals(0, reservations());
+    }
+
+    private BusinessActionContext context(String xid, int count) {
+        BusinessActionContext context = new BusinessActionContext();
+        context.setXid(xid);
+        context.setBranchId(branchIds.incrementAndGet());
+        context.setActionContext(new HashMap<>(Map.of("commodityCode", HOT_SKU, "count", count)));
+        return context;
+    }
+
+    private int stock() {
+        return jdbcTemplate.queryForObject("select count from storage_tbl where commodity_code = ?", Integer.class, HOT_SKU);
+    }
+
+    private int reservations() {
+        return reservations(0);
+    }
+
+    private int reservations(int status) {
+        return jdbcTemplate.queryForObject("select count(*) from storage_reservation where status = ?",
+                Integer.class, status);
+    }
+
+    private void insertReservation(int status, int minutesAgo) {
+        jdbcTemplate.update("insert into storage_reservation (xid, branch_id, commodity_code, count, status, gmt_create) "
+                        + "values (?, ?, ?, 1, ?, timestampadd(minute, ?, now()))",
+                "xid-old-" + branchIds.incrementAndGet(), branchIds.get(), HOT_SKU, status, -minutesAgo);
+    }
+}
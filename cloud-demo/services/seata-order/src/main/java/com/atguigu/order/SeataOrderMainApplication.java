@@ -1,10 +1,13 @@
 package com.atguigu.order;
 
+import com.example.common.feign.FeignTransportConfiguration;
+import com.example.common.undo.UndoLogCleanupConfiguration;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Import;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 
@@ -13,6 +16,8 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @SpringBootApplication
 @EnableTransactionManagement
 @EnableFeignClients(basePackages = "com.atguigu.order.feign")
+// Feign連接池傳輸，替換默認的HttpURLConnection客戶端；undo_log後台清理，只刪除全局事務已結束的記錄
+@Import({FeignTransportConfiguration.class, UndoLogCleanupConfiguration.class})
 public class SeataOrderMainApplication {
 
     public static void main(String[] args) {
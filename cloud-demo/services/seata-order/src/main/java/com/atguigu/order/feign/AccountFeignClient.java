@@ -8,9 +8,11 @@ import org.springframework.web.bind.annotation.RequestParam;
 public interface AccountFeignClient {
     /**
      * 扣減帳戶餘額
+     * @param requestId 扣款請求id，重試時保持不變，帳戶服務按此去重
      * @return
      */
     @GetMapping("/debit")
     String debit(@RequestParam("userId") String userId,
-                        @RequestParam("money") int money);
+                        @RequestParam("money") int money,
+                        @RequestParam("requestId") String requestId);
 }
@@ -8,6 +8,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.UUID;
+
 @Service
 public class OrderServiceImpl implements OrderService {
     @Autowired
@@ -21,8 +23,8 @@ public class OrderServiceImpl implements OrderService {
         // 1、計算訂單價格
         int orderMoney = calculate(commodityCode, orderCount);
 
-        // 2、扣減帳戶餘額
-        accountFeignClient.debit(userId, orderMoney);
+        // 2、扣減帳戶餘額，Feign重試沿用同一個請求id，帳戶服務不會重複扣款
+        accountFeignClient.debit(userId, orderMoney, UUID.randomUUID().toString());
 
         //3、儲存訂單
         OrderTbl orderTbl = new OrderTbl();
@@ -1,15 +1,20 @@
 package com.atguigu.storage;
 
+import com.example.common.idempotent.IdempotencyConfiguration;
+import com.example.common.undo.UndoLogCleanupConfiguration;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Import;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @MapperScan("com.atguigu.storage.mapper")
 @EnableDiscoveryClient
 @SpringBootApplication
 @EnableTransactionManagement
+// undo_log後台清理，只刪除全局事務已結束的記錄；@Idempotent請求冪等去重
+@Import({UndoLogCleanupConfiguration.class, IdempotencyConfiguration.class})
 public class SeataStorageMainApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,69 @@
+package com.atguigu.storage.cache;
+
+import com.atguigu.storage.bean.StorageTbl;
+import com.atguigu.storage.mapper.StorageTblMapper;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * StorageTblMapper寫入攔截器
+ * 所有經過StorageTblMapper的insert/update/delete執行後，發布對應商品的緩存失效通知
+ */
+@Component
+@Intercepts({
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class StorageCacheInvalidationInterceptor implements Interceptor {
+
+    private static final String STATEMENT_PREFIX = StorageTblMapper.class.getName() + ".";
+
+    private static final String COMMODITY_CODE_PARAM = "commodityCode";
+
+    // deduct(String, int)未使用@Param，未以-parameters編譯時只能按位置取得商品編碼
+    private static final String FIRST_POSITIONAL_PARAM = "param1";
+
+    private final ObjectProvider<StorageCacheInvalidationPublisher> publisherProvider;
+
+    public StorageCacheInvalidationInterceptor(ObjectProvider<StorageCacheInvalidationPublisher> publisherProvider) {
+        this.publisherProvider = publisherProvider;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        if (statement.getId().startsWith(STATEMENT_PREFIX)) {
+            StorageCacheInvalidationPublisher publisher = publisherProvider.getIfAvailable();
+            if (publisher != null) {
+                publisher.onWrite(resolveCommodityCode(statement, invocation.getArgs()[1]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 從語句參數解析商品編碼，無法確定時返回null
+     */
+    static String resolveCommodityCode(MappedStatement statement, Object parameter) {
+        if (parameter instanceof StorageTbl storage) {
+            // 按主鍵更新可能修改了商品編碼，舊編碼未知
+            return statement.getSqlCommandType() == SqlCommandType.INSERT ? storage.getCommodityCode() : null;
+        }
+        if (parameter instanceof Map<?, ?> params) {
+            Object commodityCode = params.containsKey(COMMODITY_CODE_PARAM) ? params.get(COMMODITY_CODE_PARAM)
+                    : params.containsKey(FIRST_POSITIONAL_PARAM) ? params.get(FIRST_POSITIONAL_PARAM) : null;
+            return commodityCode instanceof String ? (String) commodityCode : null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,107 @@
+package com.atguigu.storage.cache;
+
+import com.atguigu.storage.config.StorageCacheProperties;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 庫存緩存失效通知發布器
+ *
+ * seata-storage寫入storage_tbl後，通過Redis頻道通知seata-business等服務失效其StorageTbl近端緩存。
+ * 事務內的寫入會合併到事務提交後統一發布，回滾時不發布。
+ */
+@Component
+public class StorageCacheInvalidationPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageCacheInvalidationPublisher.class);
+
+    /**
+     * 全部失效的通知內容
+     */
+    static final String INVALIDATE_ALL = "*";
+
+    /**
+     * 通知格式：來源實例ID|商品編碼，與seata-business的StorageTblNearCache一致
+     */
+    private static final String MESSAGE_SEPARATOR = "|";
+
+    @Autowired
+    private StorageCacheProperties cacheProperties;
+
+    @Autowired(required = false)
+    private RedissonClient redissonClient;
+
+    @Value("${spring.application.name:seata-storage}")
+    private String serviceName;
+
+    private String instanceId;
+
+    @PostConstruct
+    public void init() {
+        instanceId = serviceName + "-" + UUID.randomUUID();
+        logger.info("StorageCacheInvalidationPublisher initialized - enabled: {}, channel: {}",
+                cacheProperties.isEnabled(), cacheProperties.getInvalidationChannel());
+    }
+
+    /**
+     * 記錄一次寫入，事務中時延遲到提交後發布
+     *
+     * @param commodityCode 商品編碼，null表示無法確定具體商品，通知全部失效
+     */
+    public void onWrite(String commodityCode) {
+        if (!cacheProperties.isEnabled()) {
+            return;
+        }
+        String key = commodityCode != null ? commodityCode : INVALIDATE_ALL;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingInvalidations().add(key);
+        } else {
+            publish(key);
+        }
+    }
+
+    private void publish(String key) {
+        if (redissonClient == null) {
+            return;
+        }
+        try {
+            redissonClient.getTopic(cacheProperties.getInvalidationChannel(), StringCodec.INSTANCE)
+                    .publish(instanceId + MESSAGE_SEPARATOR + key);
+        } catch (Exception e) {
+            // Redis不可用時由訂閱方的過期時間兜底
+            logger.warn("Failed to publish storage cache invalidation for key: {}, error: {}", key, e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> pendingInvalidations() {
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> keys = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, keys);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(StorageCacheInvalidationPublisher.this);
+                    if (status == STATUS_COMMITTED) {
+                        keys.forEach(StorageCacheInvalidationPublisher.this::publish);
+                    }
+                }
+            });
+            pending = keys;
+        }
+        return pending;
+    }
+}
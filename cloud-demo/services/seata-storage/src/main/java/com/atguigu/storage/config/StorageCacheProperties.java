@@ -0,0 +1,39 @@
+package com.atguigu.storage.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 庫存緩存失效通知配置屬性類
+ * seata-storage本身不緩存庫存，只在寫入後通知seata-business等服務失效其近端緩存
+ */
+@Component
+@ConfigurationProperties(prefix = "storage.cache")
+public class StorageCacheProperties {
+
+    /**
+     * 是否發送緩存失效通知
+     */
+    private boolean enabled = true;
+
+    /**
+     * Redis失效通知頻道，必須與seata-business服務保持一致
+     */
+    private String invalidationChannel = "storage:cache:invalidation";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    public void setInvalidationChannel(String invalidationChannel) {
+        this.invalidationChannel = invalidationChannel;
+    }
+}
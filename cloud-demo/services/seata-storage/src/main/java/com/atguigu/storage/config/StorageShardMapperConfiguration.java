@@ -0,0 +1,23 @@
+package com.atguigu.storage.config;
+
+import com.atguigu.storage.mapper.StorageTblMapper;
+import com.example.common.shard.StorageShardConfiguration;
+import com.example.common.shard.StorageShardInterceptor;
+import com.example.common.shard.StorageShardRouter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * storage_tbl分表配置類
+ * 以本服務的StorageTblMapper建立分表攔截器，分表模式下Mapper存在無法路由的方法時啟動失敗
+ */
+@Configuration
+@Import(StorageShardConfiguration.class)
+public class StorageShardMapperConfiguration {
+
+    @Bean
+    public StorageShardInterceptor storageShardInterceptor(StorageShardRouter shardRouter) {
+        return new StorageShardInterceptor(shardRouter, StorageTblMapper.class);
+    }
+}
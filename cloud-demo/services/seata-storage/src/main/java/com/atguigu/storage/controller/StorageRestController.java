@@ -2,6 +2,7 @@ package com.atguigu.storage.controller;
 
 
 import com.atguigu.storage.service.StorageService;
+import com.example.common.idempotent.Idempotent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -13,6 +14,11 @@ public class StorageRestController {
     @Autowired
     StorageService  storageService;
 
+    /**
+     * 扣減庫存
+     * seata-business通過Feign調用時附帶冪等鍵，Feign重試直接返回首次扣減的結果
+     */
+    @Idempotent("deduct")
     @GetMapping("/deduct")
     public String deduct(@RequestParam("commodityCode") String commodityCode,
                          @RequestParam("count") Integer count) {
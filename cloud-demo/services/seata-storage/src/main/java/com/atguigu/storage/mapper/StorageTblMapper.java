@@ -9,17 +9,20 @@ import com.atguigu.storage.bean.StorageTbl;
 * @Entity com.atguigu.storage.bean.StorageTbl
 */
 public interface StorageTblMapper {
-
-    int deleteByPrimaryKey(Long id);
+    // 分表後各分表主鍵獨立自增，不提供只按主鍵查詢或刪除的方法
 
     int insert(StorageTbl record);
 
     int insertSelective(StorageTbl record);
 
-    StorageTbl selectByPrimaryKey(Long id);
-
+    /**
+     * 按主鍵更新，分表模式下record必須帶商品編碼，用於定位分表
+     */
     int updateByPrimaryKeySelective(StorageTbl record);
 
+    /**
+     * 按主鍵更新，分表模式下record必須帶商品編碼，用於定位分表
+     */
     int updateByPrimaryKey(StorageTbl record);
 
     void deduct(String commodityCode, int count);
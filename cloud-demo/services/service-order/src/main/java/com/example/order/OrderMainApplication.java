@@ -7,13 +7,16 @@ import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
 
 import com.alibaba.cloud.nacos.NacosConfigManager;
 import com.alibaba.nacos.api.config.listener.Listener;
+import com.example.common.loadbalancer.LatencyAwareLoadBalancerConfiguration;
 
 @EnableFeignClients // 開啟FeignClient
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class) // Feign 依延遲選擇實例
 @EnableDiscoveryClient
 @SpringBootApplication
 public class OrderMainApplication {
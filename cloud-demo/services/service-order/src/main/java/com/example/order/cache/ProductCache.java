@@ -0,0 +1,201 @@
+package com.example.order.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.order.feign.ProductBatchLoader;
+import com.example.order.feign.fallback.ProductFeignClientFallback;
+import com.example.order.properties.ProductCacheProperties;
+import com.example.product.Product;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ProductFeignClient 前的商品本地快取
+ *
+ * 商品資料很少變動，createOrder 不必每次都調用 service-product：
+ * 1. 快取有上限（maximumSize），寫入後 expireAfterWriteSeconds 過期
+ * 2. 寫入超過 refreshAfterWriteSeconds 的商品被存取時，在背景重新載入（refresh-ahead），
+ *    載入完成前繼續回傳舊值；重新載入失敗或只拿到 fallback 的預設商品時保留舊值
+ * 3. 快取過期後需要重新載入，超過 staleTimeoutMillis 還沒回應時，
+ *    先回傳最後一次成功取得的商品（stale-while-revalidate），載入完成後再寫入快取
+ * 4. 最後一次成功取得的商品另外保留（lastKnownGood），保留時間比快取長，
+ *    ProductFeignClientFallback 也用它取代預設商品
+ *
+ * 載入經過 ProductBatchLoader，同時間未命中的商品合併成一次批次請求。
+ */
+@Slf4j
+@Component
+public class ProductCache {
+
+    @Autowired
+    private ProductCacheProperties cacheProperties;
+
+    @Autowired
+    private ProductBatchLoader productBatchLoader;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private AsyncLoadingCache<Long, Product> cache;
+
+    private Cache<Long, Product> lastKnownGood;
+
+    private Counter staleCounter;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getMaximumSize())
+                .refreshAfterWrite(cacheProperties.getRefreshAfterWriteSeconds(), TimeUnit.SECONDS)
+                .expireAfterWrite(cacheProperties.getExpireAfterWriteSeconds(), TimeUnit.SECONDS)
+                .recordStats()
+                .buildAsync(new ProductLoader());
+        lastKnownGood = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getLastKnownGoodMaximumSize())
+                .expireAfterWrite(cacheProperties.getLastKnownGoodExpireSeconds(), TimeUnit.SECONDS)
+                .build();
+
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "product.cache");
+            staleCounter = Counter.builder("product.cache.stale")
+                    .description("Requests served with last known good product data")
+                    .register(meterRegistry);
+        }
+        log.info("ProductCache initialized - enabled: {}, maximumSize: {}, refreshAfterWrite: {}s, expireAfterWrite: {}s",
+                cacheProperties.isEnabled(), cacheProperties.getMaximumSize(),
+                cacheProperties.getRefreshAfterWriteSeconds(), cacheProperties.getExpireAfterWriteSeconds());
+    }
+
+    /**
+     * 查詢商品，優先使用快取
+     */
+    public Product get(Long id) {
+        if (!cacheProperties.isEnabled() || id == null) {
+            return productBatchLoader.load(id);
+        }
+        return resolve(id, cache.get(id));
+    }
+
+    /**
+     * 查詢多筆商品，回傳順序與 ids 相同，未命中的商品合併成一次批次請求
+     */
+    public List<Product> getAll(List<Long> ids) {
+        if (!cacheProperties.isEnabled()) {
+            return productBatchLoader.loadAll(ids);
+        }
+        // 先發出所有載入再逐一等待，未命中的商品才會落在同一批
+        List<CompletableFuture<Product>> futures = ids.stream().map(cache::get).toList();
+        List<Product> products = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            products.add(resolve(ids.get(i), futures.get(i)));
+        }
+        return products;
+    }
+
+    /**
+     * 最後一次成功從 service-product 取得的商品，沒有時回傳 null
+     */
+    public Product getLastKnownGood(Long id) {
+        return id == null || lastKnownGood == null ? null : lastKnownGood.getIfPresent(id);
+    }
+
+    public void invalidate(Long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    private Product resolve(Long id, CompletableFuture<Product> future) {
+        Product product;
+        try {
+            product = future.get(cacheProperties.getStaleTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            Product stale = getLastKnownGood(id);
+            if (stale != null) {
+                markStale(id, "slow");
+                return stale;
+            }
+            product = await(future);
+        } catch (ExecutionException e) {
+            product = staleOrThrow(id, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("商品查詢被中斷", e);
+        }
+        if (ProductFeignClientFallback.isPlaceholder(product)) {
+            // 預設商品只回給這次請求，不留在快取裡，下次存取重新載入
+            cache.asMap().remove(id, future);
+        }
+        return product;
+    }
+
+    private Product await(CompletableFuture<Product> future) {
+        try {
+            return future.get(cacheProperties.getLoadTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtimeException
+                    ? runtimeException : new IllegalStateException("商品查詢失敗", cause);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("商品查詢等待超時", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("商品查詢被中斷", e);
+        }
+    }
+
+    private Product staleOrThrow(Long id, Throwable failure) {
+        Product stale = getLastKnownGood(id);
+        if (stale != null) {
+            markStale(id, failure.getMessage());
+            return stale;
+        }
+        throw failure instanceof RuntimeException runtimeException
+                ? runtimeException : new IllegalStateException("商品查詢失敗", failure);
+    }
+
+    private void markStale(Long id, String reason) {
+        if (staleCounter != null) {
+            staleCounter.increment();
+        }
+        log.debug("Serving last known good product {}, reason: {}", id, reason);
+    }
+
+    /**
+     * 經過 ProductBatchLoader 載入，成功取得的商品同時記為 lastKnownGood
+     */
+    private final class ProductLoader implements AsyncCacheLoader<Long, Product> {
+
+        @Override
+        public CompletableFuture<? extends Product> asyncLoad(Long id, Executor executor) {
+            return productBatchLoader.loadAsync(id).thenApply(product -> {
+                if (product != null && !ProductFeignClientFallback.isPlaceholder(product)) {
+                    lastKnownGood.put(id, product);
+                }
+                return product;
+            });
+        }
+
+        @Override
+        public CompletableFuture<? extends Product> asyncReload(Long id, Product oldValue, Executor executor) {
+            // 重新載入只拿到預設商品時保留舊值；載入失敗時 Caffeine 本身就會保留舊值
+            return asyncLoad(id, executor).thenApply(product ->
+                    product == null || ProductFeignClientFallback.isPlaceholder(product) ? oldValue : product);
+        }
+    }
+}
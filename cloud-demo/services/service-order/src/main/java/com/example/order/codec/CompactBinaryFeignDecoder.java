@@ -0,0 +1,65 @@
+package com.example.order.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import com.example.common.codec.CompactBinaryCodec;
+import com.example.common.codec.CompactBinaryHttpMessageConverter;
+
+import feign.FeignException;
+import feign.Response;
+import feign.Util;
+import feign.codec.DecodeException;
+import feign.codec.Decoder;
+
+/**
+ * Feign 回應解碼：依回應的 Content-Type 決定格式
+ * 對方回傳二進位格式時以 CompactBinaryCodec 解碼，其他格式交給原本的 SpringDecoder，
+ * 所以對方還不支援二進位格式、或只回傳 JSON 時也能正常運作
+ */
+public class CompactBinaryFeignDecoder implements Decoder {
+
+    private final Decoder delegate;
+
+    public CompactBinaryFeignDecoder(Decoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException, FeignException {
+        if (!isCompactBinary(response)) {
+            return delegate.decode(response, type);
+        }
+        if (response.body() == null) {
+            return Util.emptyValueOf(type);
+        }
+        byte[] bytes;
+        try (InputStream body = response.body().asInputStream()) {
+            bytes = Util.toByteArray(body);
+        }
+        try {
+            return CompactBinaryCodec.decode(bytes, type);
+        } catch (IllegalArgumentException e) {
+            throw new DecodeException(response.status(), "Failed to decode compact binary response: "
+                    + e.getMessage(), response.request(), e);
+        }
+    }
+
+    private static boolean isCompactBinary(Response response) {
+        Collection<String> contentType = response.headers().get(HttpHeaders.CONTENT_TYPE);
+        if (contentType == null || contentType.isEmpty()) {
+            return false;
+        }
+        try {
+            return CompactBinaryHttpMessageConverter.MEDIA_TYPE
+                    .equalsTypeAndSubtype(MediaType.parseMediaType(contentType.iterator().next()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.order.codec;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+import org.springframework.http.HttpHeaders;
+
+import com.example.common.codec.CompactBinaryCodec;
+import com.example.order.properties.BinaryCodecProperties;
+
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+
+/**
+ * Feign 請求體編碼：對開啟二進位格式的客戶端，以 CompactBinaryCodec 編碼請求體
+ * 方法上已經用 consumes 指定 Content-Type、或請求體型別不支援時，交給原本的 SpringEncoder
+ */
+public class CompactBinaryFeignEncoder implements Encoder {
+
+    private final Encoder delegate;
+
+    private final BinaryCodecProperties properties;
+
+    public CompactBinaryFeignEncoder(Encoder delegate, BinaryCodecProperties properties) {
+        this.delegate = delegate;
+        this.properties = properties;
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) throws EncodeException {
+        if (useBinary(template) && CompactBinaryCodec.supports(object)) {
+            try {
+                template.header(HttpHeaders.CONTENT_TYPE, CompactBinaryCodec.MEDIA_TYPE);
+                template.body(CompactBinaryCodec.encode(object), null);
+                return;
+            } catch (IllegalArgumentException e) {
+                throw new EncodeException("Failed to encode compact binary body: " + e.getMessage(), e);
+            }
+        }
+        delegate.encode(object, bodyType, template);
+    }
+
+    private boolean useBinary(RequestTemplate template) {
+        if (template.feignTarget() == null || !properties.isEnabledFor(template.feignTarget().name())) {
+            return false;
+        }
+        Collection<String> contentType = template.headers().get(HttpHeaders.CONTENT_TYPE);
+        return contentType == null || contentType.isEmpty();
+    }
+}
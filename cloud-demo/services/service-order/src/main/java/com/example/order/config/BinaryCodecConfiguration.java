@@ -0,0 +1,65 @@
+package com.example.order.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.example.order.codec.CompactBinaryFeignDecoder;
+import com.example.order.codec.CompactBinaryFeignEncoder;
+import com.example.common.codec.CompactBinaryHttpMessageConverter;
+import com.example.order.interceptor.CompactBinaryAcceptInterceptor;
+import com.example.order.properties.BinaryCodecProperties;
+
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import feign.optionals.OptionalDecoder;
+
+/**
+ * 服務間精簡二進位格式的設定 -> CompactBinaryCodec
+ * Feign：取代 spring-cloud-openfeign 預設的 Encoder / Decoder，外層行為與預設相同，
+ *        codec.binary.enabled 關閉時只會多一次 Content-Type 判斷
+ * Spring MVC：二進位轉換器加在清單最後，只有 Accept 明確要求時才回傳二進位格式
+ */
+@Configuration
+public class BinaryCodecConfiguration implements WebMvcConfigurer {
+
+    private final BinaryCodecProperties binaryCodecProperties;
+
+    public BinaryCodecConfiguration(BinaryCodecProperties binaryCodecProperties) {
+        this.binaryCodecProperties = binaryCodecProperties;
+    }
+
+    @Bean
+    public Decoder feignDecoder(ObjectFactory<HttpMessageConverters> messageConverters,
+                                ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        return new OptionalDecoder(new ResponseEntityDecoder(
+                new CompactBinaryFeignDecoder(new SpringDecoder(messageConverters, customizers))));
+    }
+
+    @Bean
+    public Encoder feignEncoder(ObjectFactory<HttpMessageConverters> messageConverters) {
+        return new CompactBinaryFeignEncoder(new SpringEncoder(messageConverters), binaryCodecProperties);
+    }
+
+    @Bean
+    public CompactBinaryAcceptInterceptor compactBinaryAcceptInterceptor() {
+        return new CompactBinaryAcceptInterceptor(binaryCodecProperties);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        if (binaryCodecProperties.isServerEnabled()) {
+            converters.add(new CompactBinaryHttpMessageConverter());
+        }
+    }
+}
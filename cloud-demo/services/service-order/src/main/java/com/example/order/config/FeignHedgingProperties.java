@@ -0,0 +1,174 @@
+package com.example.order.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Feign對沖請求配置屬性類
+ *
+ * 與Feign的超時、日誌級別和連接池等配置共用spring.cloud.openfeign.client.config前綴，
+ * 對沖請求設定放在各客戶端配置的hedging節點下，例如：
+ * spring.cloud.openfeign.client.config.service-product.hedging.enabled=true
+ * 客戶端未配置hedging時使用default的配置；連接池設定見共用的FeignTransportProperties。
+ */
+@Component
+@ConfigurationProperties(prefix = "spring.cloud.openfeign.client")
+public class FeignHedgingProperties {
+
+    /**
+     * 默認配置的名稱，與FeignClientProperties一致
+     */
+    public static final String DEFAULT_CONFIG = "default";
+
+    /**
+     * 按Feign客戶端名稱的配置
+     */
+    private Map<String, ClientConfig> config = new HashMap<>();
+
+    public Map<String, ClientConfig> getConfig() {
+        return config;
+    }
+
+    public void setConfig(Map<String, ClientConfig> config) {
+        this.config = config;
+    }
+
+    /**
+     * 獲取客戶端的對沖請求配置，客戶端未配置時使用default配置
+     */
+    public Hedging getHedging(String clientName) {
+        ClientConfig clientConfig = config.get(clientName);
+        if (clientConfig != null && clientConfig.getHedging() != null) {
+            return clientConfig.getHedging();
+        }
+        return getDefaultHedging();
+    }
+
+    public Hedging getDefaultHedging() {
+        ClientConfig defaultConfig = config.get(DEFAULT_CONFIG);
+        return defaultConfig != null && defaultConfig.getHedging() != null ? defaultConfig.getHedging() : new Hedging();
+    }
+
+    public static class ClientConfig {
+
+        private Hedging hedging;
+
+        public Hedging getHedging() {
+            return hedging;
+        }
+
+        public void setHedging(Hedging hedging) {
+            this.hedging = hedging;
+        }
+    }
+
+    public static class Hedging {
+
+        /**
+         * 是否對GET請求和標記了@Hedgeable的方法發送對沖請求，默認關閉，只對冪等的查詢接口開啟
+         */
+        private boolean enabled = false;
+
+        /**
+         * 對沖請求佔請求數的上限（百分比），慢實例拖慢所有請求時不會讓流量翻倍
+         */
+        private double budgetPercent = 10;
+
+        /**
+         * 額度的累積上限（次），閒置後最多連續發送這麼多對沖請求
+         */
+        private int maxBurst = 10;
+
+        /**
+         * 等待時間的下限（毫秒），觀察到的p95低於此值時以此值為準
+         */
+        private long minDelayMillis = 5;
+
+        /**
+         * 等待時間的上限（毫秒），p95高於此值時以此值為準
+         */
+        private long maxDelayMillis = 1000;
+
+        /**
+         * 延遲樣本數達到此值後才開始對沖，樣本不足時p95不可靠
+         */
+        private int minSamples = 20;
+
+        /**
+         * 延遲統計窗口（秒），p95取最近一到兩個窗口的樣本
+         */
+        private long windowSeconds = 10;
+
+        /**
+         * 執行請求的最大線程數，只讀取default配置，所有客戶端共用
+         */
+        private int maxThreads = 64;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getBudgetPercent() {
+            return budgetPercent;
+        }
+
+        public void setBudgetPercent(double budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+
+        public int getMaxBurst() {
+            return maxBurst;
+        }
+
+        public void setMaxBurst(int maxBurst) {
+            this.maxBurst = maxBurst;
+        }
+
+        public long getMinDelayMillis() {
+            return minDelayMillis;
+        }
+
+        public void setMinDelayMillis(long minDelayMillis) {
+            this.minDelayMillis = minDelayMillis;
+        }
+
+        public long getMaxDelayMillis() {
+            return maxDelayMillis;
+        }
+
+        public void setMaxDelayMillis(long maxDelayMillis) {
+            this.maxDelayMillis = maxDelayMillis;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public long getWindowSeconds() {
+            return windowSeconds;
+        }
+
+        public void setWindowSeconds(long windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+
+        public int getMaxThreads() {
+            return maxThreads;
+        }
+
+        public void setMaxThreads(int maxThreads) {
+            this.maxThreads = maxThreads;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.order.config;
+
+import com.example.common.feign.FeignTransportConfiguration;
+import com.example.common.feign.FeignTransportProperties;
+import com.example.order.feign.HedgingFeignClient;
+import feign.Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.loadbalancer.LoadBalancerFeignRequestTransformer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Feign傳輸配置類
+ * 以共用的連接池傳輸替換Feign默認的HttpURLConnection客戶端，負載均衡行為不變；
+ * 負載均衡客戶端換成HedgingFeignClient，開啟hedging的客戶端對慢的GET請求發送對沖請求
+ */
+@Configuration
+@EnableConfigurationProperties(FeignTransportProperties.class)
+public class HedgingFeignConfiguration {
+
+    /**
+     * 替換spring-cloud-openfeign默認的feignClient，所有Feign客戶端共用
+     * 連接池傳輸不單獨註冊為Client類型的Bean，避免Feign按類型獲取Client時出現多個候選
+     */
+    @Bean
+    public Client feignClient(FeignTransportProperties transportProperties,
+                              FeignHedgingProperties hedgingProperties,
+                              MeterRegistry meterRegistry,
+                              LoadBalancerClient loadBalancerClient,
+                              LoadBalancerClientFactory loadBalancerClientFactory,
+                              ObjectProvider<LoadBalancerFeignRequestTransformer> transformers) {
+        return new HedgingFeignClient(FeignTransportConfiguration.pooledClient(transportProperties, meterRegistry),
+            loadBalancerClient, loadBalancerClientFactory, transformers.orderedStream().toList(), hedgingProperties,
+            meterRegistry);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.order.controller;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -45,6 +47,15 @@ public class OrderController {
         return orderService.createOrder(userId, productId);
     }
 
+    /**
+     * 多商品訂單，例如 /create-batch?userId=1&productIds=1,2,3
+     * 所有商品以一次批次請求查詢
+     */
+    @GetMapping("/create-batch")
+    public Order createOrderWithProducts(@RequestParam Long userId, @RequestParam List<Long> productIds) {
+        return orderService.createOrder(userId, productIds);
+    }
+
     @GetMapping("/readDB")
     public String readDB() {
         log.info("readDB");
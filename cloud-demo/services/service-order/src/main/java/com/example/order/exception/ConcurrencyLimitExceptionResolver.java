@@ -0,0 +1,61 @@
+package com.example.order.exception;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import com.example.order.limit.ConcurrencyLimitException;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 處理"方法層"自適應並發限制拋出的 ConcurrencyLimitException
+ * 以 MyBlockExceptionHandler 回應，格式與 Sentinel 接口層限流相同
+ */
+@Slf4j
+@Component
+public class ConcurrencyLimitExceptionResolver implements HandlerExceptionResolver, Ordered {
+
+    /**
+     * 經過代理後可能被包裝成 UndeclaredThrowableException，往下找幾層原因
+     */
+    private static final int MAX_CAUSE_DEPTH = 5;
+
+    @Autowired
+    private MyBlockExceptionHandler myBlockExceptionHandler;
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                         Exception ex) {
+        ConcurrencyLimitException limitException = find(ex);
+        if (limitException == null) {
+            return null;
+        }
+        try {
+            myBlockExceptionHandler.handle(request, response, limitException.getResourceName(), limitException);
+        } catch (Exception e) {
+            log.warn("Failed to write concurrency limit response", e);
+        }
+        return new ModelAndView();
+    }
+
+    private static ConcurrencyLimitException find(Throwable ex) {
+        Throwable cause = ex;
+        for (int i = 0; cause != null && i < MAX_CAUSE_DEPTH; i++) {
+            if (cause instanceof ConcurrencyLimitException limitException) {
+                return limitException;
+            }
+            cause = cause.getCause();
+        }
+        return null;
+    }
+}
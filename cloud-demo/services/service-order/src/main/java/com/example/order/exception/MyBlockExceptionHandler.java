@@ -1,34 +1,63 @@
 package com.example.order.exception;
 
-import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.stereotype.Component;
 
 import com.alibaba.csp.sentinel.adapter.spring.webmvc_v6x.callback.BlockExceptionHandler;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.example.common.Result;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * 處理"接口層"Sentinel BlockException
+ *
+ * 回應內容只取決於資源名稱，每個資源第一次被限流時序列化一次並快取，之後直接寫出快取的 bytes，
+ * 服務已經過載時不再為每個被拒絕的請求建立 Result 和 JSON 字串。
  */
 @Component
 public class MyBlockExceptionHandler implements BlockExceptionHandler {
 
+    private static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+
+    /**
+     * 快取的資源數上限，資源名稱來自接口路徑和 @SentinelResource，正常情況下遠低於此值
+     */
+    private static final int MAX_CACHED_RESOURCES = 1024;
+
     private ObjectMapper objectMapper = new ObjectMapper();
 
+    private final Map<String, byte[]> responses = new ConcurrentHashMap<>();
+
     @Override
     public void handle(HttpServletRequest request, HttpServletResponse response, String resourceName, BlockException e) throws Exception {
-        response.setContentType("application/json;charset=UTF-8");
+        byte[] body = encoded(resourceName);
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(body.length);
 
-        PrintWriter writer = response.getWriter();
-        Result result = Result.error(500, "sentinel error block:" + resourceName);
+        ServletOutputStream output = response.getOutputStream();
+        output.write(body);
+        output.flush();
+    }
 
-        writer.write(objectMapper.writeValueAsString(result));
-        writer.flush();
-        writer.close();
+    /**
+     * 資源的限流回應內容
+     */
+    byte[] encoded(String resourceName) throws JsonProcessingException {
+        byte[] body = responses.get(resourceName);
+        if (body != null) {
+            return body;
+        }
+        body = objectMapper.writeValueAsBytes(Result.error(500, "sentinel error block:" + resourceName));
+        if (responses.size() < MAX_CACHED_RESOURCES) {
+            responses.putIfAbsent(resourceName, body);
+        }
+        return body;
     }
 }
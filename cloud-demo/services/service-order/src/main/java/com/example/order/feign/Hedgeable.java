@@ -0,0 +1,17 @@
+package com.example.order.feign;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 標記非 GET 但沒有副作用、可以重複發送的 Feign 方法，允許對沖 -> HedgingFeignClient
+ * 例如以 POST 傳遞 id 列表的批次查詢；GET 方法不需要標記
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Hedgeable {
+}
@@ -0,0 +1,409 @@
+package com.example.order.feign;
+
+import com.example.order.config.FeignHedgingProperties;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.cloud.openfeign.loadbalancer.LoadBalancerFeignRequestTransformer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 支持對沖請求（hedged request）的負載均衡Feign客戶端
+ *
+ * 少數慢實例會讓部分請求一直等到readTimeout。對開啟hedging的客戶端，可對沖的請求在觀察到的p95延遲內
+ * 還沒有回應時，再發送一個相同的請求，取先完成的結果並取消另一個：
+ * - 每次發送都經過負載均衡重新選擇實例，延遲感知負載均衡會避開仍有請求進行中的慢實例
+ * - 對沖請求數受額度限制，每個請求累積budgetPercent%次額度，慢實例拖慢所有請求時流量不會翻倍
+ * - 只對沖GET請求和標記了@Hedgeable的方法（如以POST傳遞id列表的批次查詢），其他非冪等請求和未開啟的客戶端
+ *   直接發送，行為與FeignBlockingLoadBalancerClient相同
+ *
+ * 繼承FeignBlockingLoadBalancerClient，配置了url的Feign客戶端仍由spring-cloud-openfeign取出內層客戶端直接發送。
+ */
+public class HedgingFeignClient extends FeignBlockingLoadBalancerClient implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgingFeignClient.class);
+
+    /**
+     * 延遲直方圖的上界：100微秒起每個桶增加25%，最後一個桶約2分鐘
+     */
+    private static final long[] BOUNDS_NANOS = new long[64];
+
+    static {
+        double bound = TimeUnit.MICROSECONDS.toNanos(100);
+        for (int i = 0; i < BOUNDS_NANOS.length; i++) {
+            BOUNDS_NANOS[i] = (long) bound;
+            bound *= 1.25;
+        }
+    }
+
+    /**
+     * 對沖額度以1/100次為單位，避免浮點累加
+     */
+    private static final long UNIT = 100;
+
+    /**
+     * 距離上次計算累積這麼多樣本後重新計算p95
+     */
+    private static final int ESTIMATE_INTERVAL = 50;
+
+    private final FeignHedgingProperties hedgingProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ExecutorService executor;
+
+    private final Map<String, TargetHedging> targets = new ConcurrentHashMap<>();
+
+    public HedgingFeignClient(Client delegate, LoadBalancerClient loadBalancerClient,
+                              LoadBalancerClientFactory loadBalancerClientFactory,
+                              List<LoadBalancerFeignRequestTransformer> transformers,
+                              FeignHedgingProperties hedgingProperties, MeterRegistry meterRegistry) {
+        super(delegate, loadBalancerClient, loadBalancerClientFactory, transformers);
+        this.hedgingProperties = hedgingProperties;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 不排隊：線程都在忙時由調用線程直接發送，不對沖
+        this.executor = new ThreadPoolExecutor(0, hedgingProperties.getDefaultHedging().getMaxThreads(),
+                60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "feign-hedge-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (!isHedgeable(request)) {
+            return send(request, options);
+        }
+        String target = targetName(request);
+        FeignHedgingProperties.Hedging hedging = hedgingProperties.getHedging(target);
+        if (!hedging.isEnabled()) {
+            return send(request, options);
+        }
+        TargetHedging targetHedging = targets.computeIfAbsent(target, TargetHedging::new);
+        targetHedging.deposit(hedging);
+        long delayNanos = targetHedging.delayNanos(hedging);
+        if (delayNanos < 0) {
+            return targetHedging.timed(request, options);
+        }
+        return targetHedging.execute(request, options, hedging, delayNanos);
+    }
+
+    /**
+     * 經過負載均衡發送一次請求
+     */
+    Response send(Request request, Request.Options options) throws IOException {
+        return super.execute(request, options);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * GET請求，或Feign方法標記了@Hedgeable
+     */
+    private static boolean isHedgeable(Request request) {
+        if (request.httpMethod() == Request.HttpMethod.GET) {
+            return true;
+        }
+        RequestTemplate template = request.requestTemplate();
+        return template != null && template.methodMetadata() != null && template.methodMetadata().method() != null
+                && template.methodMetadata().method().isAnnotationPresent(Hedgeable.class);
+    }
+
+    private static String targetName(Request request) {
+        if (request.requestTemplate() != null && request.requestTemplate().feignTarget() != null) {
+            return request.requestTemplate().feignTarget().name();
+        }
+        return URI.create(request.url()).getHost();
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException ioException) {
+            return ioException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IOException(cause);
+    }
+
+    /**
+     * 關閉已完成但沒有被採用的回應，取消或失敗的請求沒有回應需要關閉
+     */
+    private static void closeQuietly(Future<Response> discarded) {
+        if (discarded.isCancelled()) {
+            return;
+        }
+        try {
+            closeQuietly(discarded.get());
+        } catch (ExecutionException e) {
+            // 沒有被採用的請求失敗不影響結果
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Response response) {
+        try {
+            response.close();
+        } catch (RuntimeException e) {
+            logger.debug("Failed to close discarded hedged response", e);
+        }
+    }
+
+    /**
+     * 單個目標服務的延遲統計、對沖額度和指標
+     */
+    private final class TargetHedging {
+
+        private final AtomicLong budget = new AtomicLong();
+
+        private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+        private volatile AtomicLongArray current = new AtomicLongArray(BOUNDS_NANOS.length);
+
+        private volatile AtomicLongArray previous = new AtomicLongArray(BOUNDS_NANOS.length);
+
+        private final AtomicLong samplesSinceEstimate = new AtomicLong();
+
+        private volatile long p95Nanos = -1;
+
+        private final Counter sentCounter;
+
+        private final Counter wonCounter;
+
+        private final Counter budgetExhaustedCounter;
+
+        private TargetHedging(String name) {
+            sentCounter = Counter.builder("feign.hedge.sent")
+                    .description("Hedged requests sent after the primary exceeded the observed p95")
+                    .tag("target", name)
+                    .register(meterRegistry);
+            wonCounter = Counter.builder("feign.hedge.won")
+                    .description("Hedged requests that completed before the primary")
+                    .tag("target", name)
+                    .register(meterRegistry);
+            budgetExhaustedCounter = Counter.builder("feign.hedge.budget.exhausted")
+                    .description("Slow requests not hedged because the hedge budget was used up")
+                    .tag("target", name)
+                    .register(meterRegistry);
+            Gauge.builder("feign.hedge.delay", () -> p95Nanos / 1_000_000.0)
+                    .description("Observed p95 latency used as the hedge delay")
+                    .tag("target", name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+
+        private Response execute(Request request, Request.Options options, FeignHedgingProperties.Hedging hedging,
+                                 long delayNanos) throws IOException {
+            AtomicBoolean completed = new AtomicBoolean();
+            CompletionService<Response> attempts = new ExecutorCompletionService<>(executor);
+            Future<Response> primary;
+            try {
+                primary = attempts.submit(attempt(request, options, completed));
+            } catch (RejectedExecutionException e) {
+                return timed(request, options);
+            }
+            Future<Response> hedge = null;
+            try {
+                Future<Response> done = attempts.poll(delayNanos, TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    if (tryWithdraw()) {
+                        hedge = submitHedge(attempts, request, options, completed);
+                    } else {
+                        budgetExhaustedCounter.increment();
+                    }
+                    done = attempts.take();
+                }
+                try {
+                    Response response = done.get();
+                    if (done == hedge) {
+                        wonCounter.increment();
+                    }
+                    return response;
+                } catch (ExecutionException e) {
+                    if (hedge == null) {
+                        throw unwrap(e);
+                    }
+                    // 其中一個失敗時等另一個，兩個都失敗時拋出先失敗的異常
+                    Future<Response> other = attempts.take();
+                    try {
+                        Response response = other.get();
+                        if (other == hedge) {
+                            wonCounter.increment();
+                        }
+                        return response;
+                    } catch (ExecutionException ignored) {
+                        throw unwrap(e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for Feign response: " + request.url());
+            } finally {
+                completed.set(true);
+                primary.cancel(true);
+                if (hedge != null) {
+                    hedge.cancel(true);
+                }
+                // 已經完成但沒有被採用的回應
+                for (Future<Response> discarded; (discarded = attempts.poll()) != null; ) {
+                    closeQuietly(discarded);
+                }
+            }
+        }
+
+        private Future<Response> submitHedge(CompletionService<Response> attempts, Request request,
+                                             Request.Options options, AtomicBoolean completed) {
+            try {
+                Future<Response> hedge = attempts.submit(attempt(request, options, completed));
+                sentCounter.increment();
+                return hedge;
+            } catch (RejectedExecutionException e) {
+                budget.addAndGet(UNIT);
+                return null;
+            }
+        }
+
+        /**
+         * 一次發送，完成時記錄延遲；結果已被採用後才完成的回應直接關閉
+         */
+        private Callable<Response> attempt(Request request, Request.Options options, AtomicBoolean completed) {
+            return () -> {
+                Response response = timed(request, options);
+                if (completed.get()) {
+                    closeQuietly(response);
+                }
+                return response;
+            };
+        }
+
+        private Response timed(Request request, Request.Options options) throws IOException {
+            long start = System.nanoTime();
+            Response response = send(request, options);
+            record(System.nanoTime() - start);
+            return response;
+        }
+
+        private void deposit(FeignHedgingProperties.Hedging hedging) {
+            long amount = Math.round(hedging.getBudgetPercent());
+            long max = hedging.getMaxBurst() * UNIT;
+            budget.updateAndGet(balance -> Math.min(max, balance + amount));
+        }
+
+        private boolean tryWithdraw() {
+            return budget.getAndUpdate(balance -> balance >= UNIT ? balance - UNIT : balance) >= UNIT;
+        }
+
+        /**
+         * 對沖前的等待時間，樣本不足時回傳-1，不對沖
+         */
+        private long delayNanos(FeignHedgingProperties.Hedging hedging) {
+            rotate(hedging);
+            long p95 = p95Nanos;
+            if (p95 < 0 || samplesSinceEstimate.get() >= ESTIMATE_INTERVAL) {
+                p95 = estimate(hedging);
+            }
+            if (p95 < 0) {
+                return -1;
+            }
+            return Math.max(TimeUnit.MILLISECONDS.toNanos(hedging.getMinDelayMillis()),
+                    Math.min(TimeUnit.MILLISECONDS.toNanos(hedging.getMaxDelayMillis()), p95));
+        }
+
+        private void record(long latencyNanos) {
+            current.incrementAndGet(bucketIndex(latencyNanos));
+            samplesSinceEstimate.incrementAndGet();
+        }
+
+        /**
+         * 統計窗口到期時丟棄上一個窗口，p95只反映最近的延遲；閒置超過兩個窗口時全部丟棄
+         */
+        private void rotate(FeignHedgingProperties.Hedging hedging) {
+            long start = windowStart.get();
+            long now = System.nanoTime();
+            long window = TimeUnit.SECONDS.toNanos(hedging.getWindowSeconds());
+            if (now - start >= window && windowStart.compareAndSet(start, now)) {
+                previous = now - start >= 2 * window ? new AtomicLongArray(BOUNDS_NANOS.length) : current;
+                current = new AtomicLongArray(BOUNDS_NANOS.length);
+                p95Nanos = -1;
+            }
+        }
+
+        private long estimate(FeignHedgingProperties.Hedging hedging) {
+            samplesSinceEstimate.set(0);
+            AtomicLongArray latest = current;
+            AtomicLongArray older = previous;
+            long[] histogram = new long[BOUNDS_NANOS.length];
+            long total = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = latest.get(i) + older.get(i);
+                total += histogram[i];
+            }
+            if (total < hedging.getMinSamples()) {
+                p95Nanos = -1;
+                return -1;
+            }
+            long rank = (long) Math.ceil(total * 0.95);
+            long seen = 0;
+            long p95 = BOUNDS_NANOS[BOUNDS_NANOS.length - 1];
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank) {
+                    p95 = BOUNDS_NANOS[i];
+                    break;
+                }
+            }
+            p95Nanos = p95;
+            return p95;
+        }
+
+        private static int bucketIndex(long latencyNanos) {
+            for (int i = 0; i < BOUNDS_NANOS.length - 1; i++) {
+                if (latencyNanos <= BOUNDS_NANOS[i]) {
+                    return i;
+                }
+            }
+            return BOUNDS_NANOS.length - 1;
+        }
+    }
+}
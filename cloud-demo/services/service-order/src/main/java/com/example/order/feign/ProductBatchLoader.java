@@ -0,0 +1,226 @@
+package com.example.order.feign;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.order.properties.ProductBatchProperties;
+import com.example.product.Product;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 商品批次查詢（DataLoader 模式）
+ *
+ * 同時間到達的單筆商品查詢由收集線程合併：第一筆查詢到達後最多等待 maxWaitMillis，
+ * 或湊滿 maxBatchSize 筆就送出一次 POST /products/batch，重複的商品 id 只查一次。
+ * 批次請求交給 dispatch 線程池執行，收集線程立即開始收集下一批。
+ *
+ * 多商品訂單用 loadAll 一次送出所有商品 id，不必逐筆調用 /product/{id}。
+ * 批次請求失敗時，這一批的所有查詢都以同一個例外結束；
+ * Feign 開啟 sentinel fallback 時由 ProductFeignClientFallback 回傳預設商品。
+ */
+@Slf4j
+@Component
+public class ProductBatchLoader {
+
+    @Autowired
+    private ProductBatchProperties batchProperties;
+
+    @Autowired
+    private ProductFeignClient productFeignClient;
+
+    private BlockingQueue<PendingLoad> queue;
+
+    private ExecutorService dispatchExecutor;
+
+    private Thread collectThread;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        queue = new LinkedBlockingQueue<>(batchProperties.getQueueCapacity());
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 線程都在忙時由收集線程自己執行批次請求，收集暫停，形成背壓
+        dispatchExecutor = new ThreadPoolExecutor(batchProperties.getDispatchThreads(),
+                batchProperties.getDispatchThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchProperties.getDispatchThreads()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "product-batch-dispatch-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        running = true;
+        collectThread = new Thread(this::collectLoop, "product-batch-loader");
+        collectThread.setDaemon(true);
+        collectThread.start();
+        log.info("ProductBatchLoader initialized - enabled: {}, maxWait: {}ms, maxBatchSize: {}",
+                batchProperties.isEnabled(), batchProperties.getMaxWaitMillis(), batchProperties.getMaxBatchSize());
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        collectThread.interrupt();
+        collectThread.join(batchProperties.getAwaitTimeoutMillis());
+        dispatchExecutor.shutdown();
+        dispatchExecutor.awaitTermination(batchProperties.getAwaitTimeoutMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 查詢單筆商品，與同時間的其他查詢合併成一次批次請求
+     */
+    public Product load(Long id) {
+        return await(loadAsync(id));
+    }
+
+    /**
+     * 一次查詢多筆商品，回傳順序與 ids 相同
+     */
+    public List<Product> loadAll(List<Long> ids) {
+        if (!batchProperties.isEnabled() || !running) {
+            return fetch(ids);
+        }
+        List<CompletableFuture<Product>> futures = ids.stream().map(this::loadAsync).toList();
+        List<Product> products = new ArrayList<>(futures.size());
+        for (CompletableFuture<Product> future : futures) {
+            products.add(await(future));
+        }
+        return products;
+    }
+
+    public CompletableFuture<Product> loadAsync(Long id) {
+        if (!batchProperties.isEnabled() || !running) {
+            return CompletableFuture.completedFuture(productFeignClient.getProductById(id));
+        }
+        PendingLoad pending = new PendingLoad(id);
+        if (!queue.offer(pending)) {
+            return CompletableFuture.completedFuture(productFeignClient.getProductById(id));
+        }
+        return pending.future;
+    }
+
+    private Product await(CompletableFuture<Product> future) {
+        try {
+            return future.get(batchProperties.getAwaitTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtimeException
+                    ? runtimeException : new IllegalStateException("商品查詢失敗", cause);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("商品查詢等待超時", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("商品查詢被中斷", e);
+        }
+    }
+
+    private void collectLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingLoad first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<PendingLoad> batch = new ArrayList<>(batchProperties.getMaxBatchSize());
+                batch.add(first);
+                collect(batch);
+                dispatchExecutor.execute(() -> dispatch(batch));
+            } catch (InterruptedException e) {
+                // 關閉時繼續排空隊列
+                if (running) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 收集查詢直到等待時間結束，或達到單批上限
+     */
+    private void collect(List<PendingLoad> batch) throws InterruptedException {
+        int maxBatchSize = batchProperties.getMaxBatchSize();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchProperties.getMaxWaitMillis());
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0 || !running) {
+                return;
+            }
+            PendingLoad next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void dispatch(List<PendingLoad> batch) {
+        Map<Long, List<PendingLoad>> byId = new LinkedHashMap<>();
+        for (PendingLoad pending : batch) {
+            byId.computeIfAbsent(pending.id, id -> new ArrayList<>()).add(pending);
+        }
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        List<Product> products;
+        try {
+            products = fetch(ids);
+        } catch (RuntimeException e) {
+            log.warn("Batch product lookup of {} ids failed, error: {}", ids.size(), e.getMessage());
+            batch.forEach(pending -> pending.future.completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            Product product = products.get(i);
+            byId.get(ids.get(i)).forEach(pending -> pending.future.complete(product));
+        }
+    }
+
+    /**
+     * 調用批次查詢 API，超過單批上限時分段
+     */
+    private List<Product> fetch(List<Long> ids) {
+        int maxBatchSize = batchProperties.getMaxBatchSize();
+        List<Product> products = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += maxBatchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + maxBatchSize));
+            List<Product> result = productFeignClient.getProductsByIds(chunk);
+            if (result == null || result.size() != chunk.size()) {
+                throw new IllegalStateException("批次查詢回傳的商品數與請求不符, 請求: " + chunk.size()
+                        + ", 回傳: " + (result == null ? 0 : result.size()));
+            }
+            products.addAll(result);
+        }
+        return products;
+    }
+
+    private static final class PendingLoad {
+
+        private final Long id;
+
+        private final CompletableFuture<Product> future = new CompletableFuture<>();
+
+        private PendingLoad(Long id) {
+            this.id = id;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.order.feign;
 
+import java.util.List;
+
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 import com.example.order.feign.fallback.ProductFeignClientFallback;
 import com.example.product.Product;
@@ -16,6 +20,15 @@ public interface ProductFeignClient {
 
     @GetMapping("/product/{id}")
     Product getProductById(@PathVariable Long id);
+
+    /**
+     * 批次查詢商品，回傳順序與 ids 相同，查不到的位置為 null
+     * 一般不直接調用，由 ProductBatchLoader 合併同時間的單筆查詢
+     * 只讀不寫，以 POST 傳遞 id 列表是為了避免 URL 過長，可以對沖
+     */
+    @Hedgeable
+    @PostMapping("/products/batch")
+    List<Product> getProductsByIds(@RequestBody List<Long> ids);
 }
 
 /**
@@ -1,9 +1,14 @@
 package com.example.order.feign.fallback;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.example.order.cache.ProductCache;
 import com.example.order.feign.ProductFeignClient;
 import com.example.product.Product;
 
@@ -12,14 +17,52 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * 自訂 fallback 類別，當調用 product 服務失敗時，會調用這個類別中的方法
  * 需要搭配 sentinel 使用
+ *
+ * 優先回傳 ProductCache 中最後一次成功取得的商品，沒有時才回傳預設商品
  */
 @Slf4j
 @Component
 public class ProductFeignClientFallback implements ProductFeignClient {
 
+    static final String PLACEHOLDER_NAME = "Product not found";
+
+    private static final Integer PLACEHOLDER_NUM = 0;
+
+    // ProductCache 經由 ProductFeignClient 載入，延遲取得避免循環依賴
+    @Autowired
+    private ObjectProvider<ProductCache> productCache;
+
     @Override
     public Product getProductById(Long id) {
         log.error("getProductById 錯誤 fallback, id: {}", id);
-        return new Product(id, "Product not found", new BigDecimal(0), 0);
+        return lastKnownGoodOrPlaceholder(id);
+    }
+
+    @Override
+    public List<Product> getProductsByIds(List<Long> ids) {
+        log.error("getProductsByIds 錯誤 fallback, ids: {}", ids);
+        List<Product> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            products.add(lastKnownGoodOrPlaceholder(id));
+        }
+        return products;
+    }
+
+    /**
+     * 是否為 fallback 回傳的預設商品，預設商品不應寫入快取
+     */
+    public static boolean isPlaceholder(Product product) {
+        return product != null && PLACEHOLDER_NAME.equals(product.getProductName())
+                && PLACEHOLDER_NUM.equals(product.getNum());
+    }
+
+    private Product lastKnownGoodOrPlaceholder(Long id) {
+        ProductCache cache = productCache.getIfAvailable();
+        Product lastKnownGood = cache == null ? null : cache.getLastKnownGood(id);
+        if (lastKnownGood != null) {
+            return lastKnownGood;
+        }
+        // BigDecimal.ZERO 和 0 都是共用的常數，每個預設商品只建立 Product 本身
+        return new Product(id, PLACEHOLDER_NAME, BigDecimal.ZERO, PLACEHOLDER_NUM);
     }
 }
@@ -0,0 +1,38 @@
+package com.example.order.interceptor;
+
+import java.util.Collection;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import com.example.common.codec.CompactBinaryCodec;
+import com.example.order.properties.BinaryCodecProperties;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+
+/**
+ * 對開啟二進位格式的 Feign 客戶端加上 Accept 頭，優先要求二進位格式，JSON 作為備選
+ * 方法上已經用 produces 指定 Accept 時不覆蓋
+ */
+public class CompactBinaryAcceptInterceptor implements RequestInterceptor {
+
+    static final String ACCEPT = CompactBinaryCodec.MEDIA_TYPE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9";
+
+    private final BinaryCodecProperties properties;
+
+    public CompactBinaryAcceptInterceptor(BinaryCodecProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void apply(RequestTemplate template) {
+        if (template.feignTarget() == null || !properties.isEnabledFor(template.feignTarget().name())) {
+            return;
+        }
+        Collection<String> accept = template.headers().get(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isEmpty()) {
+            template.header(HttpHeaders.ACCEPT, ACCEPT);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.order.limit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 以自適應並發上限保護方法 -> AdaptiveConcurrencyLimitAspect
+ * 超過上限時拋出 ConcurrencyLimitException，由 MyBlockExceptionHandler 回應
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface AdaptiveConcurrencyLimit {
+
+    /**
+     * 限制器名稱，相同名稱的方法共用一個上限
+     */
+    String value();
+}
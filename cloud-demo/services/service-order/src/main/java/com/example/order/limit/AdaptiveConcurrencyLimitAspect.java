@@ -0,0 +1,87 @@
+package com.example.order.limit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+/**
+ * 自適應並發限制切面
+ * 排在 SentinelResourceAspect 之外，超過上限的請求不進入 Sentinel 資源，也不會被 fallback 轉成一般回應。
+ * Sentinel 的 fallback 會把方法的異常轉成一般回應，fallback 方法需呼叫 {@link #recordFallback(Throwable)}，
+ * 否則失敗會被當成成功，上限不會下降。
+ */
+@Aspect
+@Component
+@Order(1)
+public class AdaptiveConcurrencyLimitAspect {
+
+    /**
+     * 目前執行緒上進行中的受限呼叫，fallback 在同一執行緒上執行
+     */
+    private static final ThreadLocal<Call> CURRENT = new ThreadLocal<>();
+
+    @Autowired
+    private ConcurrencyLimiterRegistry concurrencyLimiterRegistry;
+
+    /**
+     * 在 fallback 中記錄被轉成一般回應的異常，切面依異常類型釋放許可
+     * 不在受限呼叫中時不做任何事
+     */
+    public static void recordFallback(Throwable e) {
+        Call call = CURRENT.get();
+        if (call != null && call.fallback == null) {
+            call.fallback = e;
+        }
+    }
+
+    @Around("@annotation(adaptiveConcurrencyLimit)")
+    public Object around(ProceedingJoinPoint joinPoint, AdaptiveConcurrencyLimit adaptiveConcurrencyLimit)
+            throws Throwable {
+        if (!concurrencyLimiterRegistry.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiterRegistry.acquire(adaptiveConcurrencyLimit.value());
+        Call previous = CURRENT.get();
+        Call call = new Call();
+        CURRENT.set(call);
+        try {
+            Object result = joinPoint.proceed();
+            if (call.fallback == null) {
+                permit.success();
+            } else {
+                release(permit, call.fallback);
+            }
+            return result;
+        } catch (Throwable e) {
+            release(permit, e);
+            throw e;
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 參數錯誤和 Sentinel 限流沒有到達下游，不影響上限；其他異常降低上限
+     */
+    private static void release(AdaptiveConcurrencyLimiter.Permit permit, Throwable e) {
+        if (e instanceof IllegalArgumentException || BlockException.isBlockException(e)) {
+            permit.ignore();
+        } else {
+            permit.dropped();
+        }
+    }
+
+    private static final class Call {
+
+        private Throwable fallback;
+    }
+}
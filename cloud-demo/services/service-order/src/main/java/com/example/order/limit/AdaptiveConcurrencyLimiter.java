@@ -0,0 +1,137 @@
+package com.example.order.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.order.properties.ConcurrencyLimitProperties;
+
+/**
+ * 自適應並發限制器（gradient 演算法）
+ *
+ * Sentinel 的 QPS 規則需要事先設定，下游變慢時固定的 QPS 仍會讓請求在線程池和連接池中堆積。
+ * 這裡不設定固定的數值，而是限制同時進行中的請求數，並依觀察到的延遲持續調整上限：
+ * - gradient = 長期平均延遲 × rttTolerance ÷ 本次延遲，限制在 0.5 ~ 1
+ * - 新上限 = 上限 × gradient + √上限，延遲不變時上限緩慢增加，延遲升高時上限依比例下降
+ * - 請求逾時或失敗時上限乘上 backoffRatio
+ * - 進行中的請求不到上限的一半時不增加上限，避免閒置時上限無限增長
+ * 超過上限的請求直接拒絕，不排隊。
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+
+    private final ConcurrencyLimitProperties properties;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, ConcurrencyLimitProperties properties) {
+        this.name = name;
+        this.properties = properties;
+        this.limit = clamp(properties.getInitialLimit());
+    }
+
+    /**
+     * 取得執行許可，超過並發上限時回傳 null
+     * 取得許可後必須呼叫 Permit 的 success、dropped 或 ignore 其中一個
+     */
+    public Permit tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > (int) limit) {
+            inFlight.decrementAndGet();
+            return null;
+        }
+        return new Permit(System.nanoTime(), current);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 依一個樣本調整上限
+     *
+     * @param rttNanos 請求耗時
+     * @param inFlightAtStart 請求開始時進行中的請求數（含本身）
+     * @param dropped 請求是否逾時或失敗
+     */
+    synchronized void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        if (dropped) {
+            limit = clamp(limit * properties.getBackoffRatio());
+            return;
+        }
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) / Math.max(1, properties.getLongWindow());
+            // 延遲長期下降後，長期平均要更快跟上，否則 gradient 一直為 1 失去作用
+            if (longRttNanos / rttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+        }
+        if (inFlightAtStart * 2 < limit) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getRttTolerance() * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing());
+    }
+
+    private double clamp(double value) {
+        return Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), value));
+    }
+
+    /**
+     * 一個已取得的執行許可
+     */
+    public final class Permit {
+
+        private final long startNanos;
+
+        private final int inFlightAtStart;
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * 請求正常完成，延遲計入上限的調整
+         */
+        public void success() {
+            release(false);
+        }
+
+        /**
+         * 請求逾時或失敗，降低上限
+         */
+        public void dropped() {
+            release(true);
+        }
+
+        /**
+         * 請求沒有到達下游（例如參數錯誤），不影響上限
+         */
+        public void ignore() {
+            inFlight.decrementAndGet();
+        }
+
+        private void release(boolean dropped) {
+            inFlight.decrementAndGet();
+            onSample(System.nanoTime() - startNanos, inFlightAtStart, dropped);
+        }
+    }
+}
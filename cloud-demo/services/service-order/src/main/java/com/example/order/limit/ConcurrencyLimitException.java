@@ -0,0 +1,29 @@
+package com.example.order.limit;
+
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+/**
+ * 超過自適應並發上限時拋出
+ * 繼承 BlockException，與 Sentinel 限流一樣由 MyBlockExceptionHandler 回應，Feign 調用時走 fallback 且不計入異常數
+ */
+public class ConcurrencyLimitException extends BlockException {
+
+    private final String resourceName;
+
+    public ConcurrencyLimitException(String resourceName, int limit) {
+        super("default", "concurrency limit exceeded: " + resourceName + ", limit: " + limit);
+        this.resourceName = resourceName;
+    }
+
+    public String getResourceName() {
+        return resourceName;
+    }
+
+    /**
+     * 拒絕不是錯誤，不需要堆疊
+     */
+    @Override
+    public Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.order.limit;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+/**
+ * 為所有 Feign 客戶端加上自適應並發限制，每個目標服務一個限制器
+ *
+ * 包在負載均衡和對沖請求之外，一次調用只佔一個名額。超過上限時拋出以 ConcurrencyLimitException 為原因的
+ * IllegalStateException：IOException 會被 Feign 包成 RetryableException 交給 Retryer 重試，拒絕後立即重試只會加重壓力。
+ * Sentinel 的 Feign 整合視為限流走 fallback，不計入異常數；逾時、連線失敗和 5xx 降低上限。
+ */
+@Component
+public class ConcurrencyLimitFeignCapability implements Capability {
+
+    @Autowired
+    private ConcurrencyLimiterRegistry concurrencyLimiterRegistry;
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            if (!concurrencyLimiterRegistry.isEnabled()) {
+                return client.execute(request, options);
+            }
+            AdaptiveConcurrencyLimiter.Permit permit;
+            try {
+                permit = concurrencyLimiterRegistry.acquire(targetName(request));
+            } catch (ConcurrencyLimitException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            Response response;
+            try {
+                response = client.execute(request, options);
+            } catch (IOException | RuntimeException e) {
+                permit.dropped();
+                throw e;
+            }
+            if (response.status() >= 500) {
+                permit.dropped();
+            } else {
+                permit.success();
+            }
+            return response;
+        };
+    }
+
+    private static String targetName(Request request) {
+        if (request.requestTemplate() != null && request.requestTemplate().feignTarget() != null) {
+            return request.requestTemplate().feignTarget().name();
+        }
+        return URI.create(request.url()).getHost();
+    }
+}
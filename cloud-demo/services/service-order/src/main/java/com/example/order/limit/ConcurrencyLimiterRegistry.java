@@ -0,0 +1,75 @@
+package com.example.order.limit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.order.properties.ConcurrencyLimitProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 依名稱建立和保存自適應並發限制器，並匯出指標：
+ * - order.concurrency.limit：目前的並發上限
+ * - order.concurrency.inflight：進行中的請求數
+ * - order.concurrency.rejected：超過上限被拒絕的請求數
+ */
+@Component
+public class ConcurrencyLimiterRegistry {
+
+    @Autowired
+    private ConcurrencyLimitProperties concurrencyLimitProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, LimiterMeters> limiters = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return concurrencyLimitProperties.isEnabled();
+    }
+
+    /**
+     * 取得執行許可，超過並發上限時記錄拒絕次數並拋出 ConcurrencyLimitException
+     */
+    public AdaptiveConcurrencyLimiter.Permit acquire(String name) throws ConcurrencyLimitException {
+        LimiterMeters limiterMeters = limiters.computeIfAbsent(name, LimiterMeters::new);
+        AdaptiveConcurrencyLimiter.Permit permit = limiterMeters.limiter.tryAcquire();
+        if (permit == null) {
+            limiterMeters.rejected.increment();
+            throw new ConcurrencyLimitException(name, limiterMeters.limiter.getLimit());
+        }
+        return permit;
+    }
+
+    AdaptiveConcurrencyLimiter limiter(String name) {
+        return limiters.computeIfAbsent(name, LimiterMeters::new).limiter;
+    }
+
+    private final class LimiterMeters {
+
+        private final AdaptiveConcurrencyLimiter limiter;
+
+        private final Counter rejected;
+
+        private LimiterMeters(String name) {
+            limiter = new AdaptiveConcurrencyLimiter(name, concurrencyLimitProperties);
+            Gauge.builder("order.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("name", name)
+                    .register(meterRegistry);
+            Gauge.builder("order.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Requests currently in flight")
+                    .tag("name", name)
+                    .register(meterRegistry);
+            rejected = Counter.builder("order.concurrency.rejected")
+                    .description("Requests rejected because the concurrency limit was reached")
+                    .tag("name", name)
+                    .register(meterRegistry);
+        }
+    }
+}
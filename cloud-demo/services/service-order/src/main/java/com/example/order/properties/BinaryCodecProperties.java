@@ -0,0 +1,38 @@
+package com.example.order.properties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 服務間精簡二進位格式的設定 -> CompactBinaryCodec
+ * 預設關閉，開啟後只對 clients 列出的 Feign 客戶端協商二進位格式，第三方 API 不受影響
+ */
+@Component
+@ConfigurationProperties(prefix = "codec.binary")
+@Data
+public class BinaryCodecProperties {
+
+    /**
+     * Feign 調用是否要求對方回傳二進位格式，並以二進位格式傳送請求體
+     */
+    private boolean enabled = false;
+
+    /**
+     * 使用二進位格式的 Feign 客戶端名稱（目標服務）
+     */
+    private List<String> clients = new ArrayList<>(List.of("service-product"));
+
+    /**
+     * 是否在 Spring MVC 端接受二進位格式的請求並依 Accept 回傳二進位格式
+     */
+    private boolean serverEnabled = true;
+
+    public boolean isEnabledFor(String clientName) {
+        return enabled && clientName != null && clients.contains(clientName);
+    }
+}
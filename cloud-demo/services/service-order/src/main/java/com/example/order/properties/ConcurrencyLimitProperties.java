@@ -0,0 +1,56 @@
+package com.example.order.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 自適應並發限制的設定 -> AdaptiveConcurrencyLimiter
+ * createOrder 和每個 Feign 目標服務各自一個限制器，共用這組設定
+ */
+@Component
+@ConfigurationProperties(prefix = "concurrency-limit")
+@Data
+public class ConcurrencyLimitProperties {
+
+    /**
+     * 是否啟用，關閉時不限制並發
+     */
+    private boolean enabled = true;
+
+    /**
+     * 啟動時的並發上限，之後依延遲調整
+     */
+    private int initialLimit = 20;
+
+    /**
+     * 並發上限的下限，延遲再高也保留這麼多並發
+     */
+    private int minLimit = 4;
+
+    /**
+     * 並發上限的上限
+     */
+    private int maxLimit = 200;
+
+    /**
+     * 每個樣本對上限的影響比例，越大調整越快但越不穩定
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * 延遲高於長期平均的這個倍數內視為正常，不降低上限
+     */
+    private double rttTolerance = 1.5;
+
+    /**
+     * 長期平均延遲的樣本數，越大越不受短暫波動影響
+     */
+    private int longWindow = 600;
+
+    /**
+     * 請求逾時或失敗時上限乘上這個比例
+     */
+    private double backoffRatio = 0.9;
+}
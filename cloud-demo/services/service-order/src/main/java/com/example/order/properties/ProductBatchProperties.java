@@ -0,0 +1,45 @@
+package com.example.order.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 商品批次查詢的設定 -> ProductBatchLoader
+ */
+@Component
+@ConfigurationProperties(prefix = "product.batch")
+@Data
+public class ProductBatchProperties {
+
+    /**
+     * 是否合併同時間的單筆商品查詢，關閉時每筆查詢直接調用 /product/{id}
+     */
+    private boolean enabled = true;
+
+    /**
+     * 單次批次請求最多的商品數，不可超過 service-product 的上限（1000）
+     */
+    private int maxBatchSize = 100;
+
+    /**
+     * 第一筆查詢到達後最多等待多久（毫秒）收集其他查詢，越大合併效果越好，但單筆查詢的延遲越高
+     */
+    private long maxWaitMillis = 2;
+
+    /**
+     * 等待合併的查詢上限，滿了之後在呼叫端線程直接查詢
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * 同時進行中的批次請求數，批次請求在獨立的線程執行，不阻塞下一批的收集
+     */
+    private int dispatchThreads = 8;
+
+    /**
+     * 呼叫端等待批次結果的時間（毫秒）
+     */
+    private long awaitTimeoutMillis = 10000;
+}
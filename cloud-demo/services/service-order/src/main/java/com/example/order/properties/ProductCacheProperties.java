@@ -0,0 +1,55 @@
+package com.example.order.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 商品本地快取的設定 -> ProductCache
+ */
+@Component
+@ConfigurationProperties(prefix = "product.cache")
+@Data
+public class ProductCacheProperties {
+
+    /**
+     * 是否啟用商品快取，關閉時每次都查詢 service-product
+     */
+    private boolean enabled = true;
+
+    /**
+     * 快取的商品數上限
+     */
+    private long maximumSize = 10000;
+
+    /**
+     * 寫入後多久（秒）被存取時在背景重新載入，重新載入完成前繼續回傳舊值
+     */
+    private long refreshAfterWriteSeconds = 30;
+
+    /**
+     * 寫入後多久（秒）過期，過期後必須重新載入
+     */
+    private long expireAfterWriteSeconds = 300;
+
+    /**
+     * 重新載入超過多久（毫秒）時先回傳最後一次成功取得的商品，載入在背景繼續
+     */
+    private long staleTimeoutMillis = 200;
+
+    /**
+     * 沒有可用的舊值時，等待載入的時間（毫秒）
+     */
+    private long loadTimeoutMillis = 10000;
+
+    /**
+     * 保留最後一次成功取得的商品數上限，供 service-product 變慢或失敗時使用
+     */
+    private long lastKnownGoodMaximumSize = 10000;
+
+    /**
+     * 最後一次成功取得的商品保留多久（秒）
+     */
+    private long lastKnownGoodExpireSeconds = 86400;
+}
@@ -1,9 +1,16 @@
 package com.example.order.service;
 
+import java.util.List;
+
 import com.example.order.Order;
 
 public interface OrderService {
 
     public Order createOrder(Long userId, Long productId);
 
+    /**
+     * 建立多商品訂單，所有商品以一次批次請求查詢
+     */
+    public Order createOrder(Long userId, List<Long> productIds);
+
 }
@@ -1,6 +1,7 @@
 package com.example.order.service.impl;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -14,7 +15,10 @@ import org.springframework.web.client.RestTemplate;
 import com.alibaba.csp.sentinel.annotation.SentinelResource;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.example.order.Order;
+import com.example.order.cache.ProductCache;
 import com.example.order.feign.ProductFeignClient;
+import com.example.order.limit.AdaptiveConcurrencyLimit;
+import com.example.order.limit.AdaptiveConcurrencyLimitAspect;
 import com.example.order.service.OrderService;
 import com.example.product.Product;
 
@@ -36,6 +40,10 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private ProductFeignClient productFeignClient;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @AdaptiveConcurrencyLimit("createOrder") // 依延遲自動調整的並發上限，不需事先設定 QPS 規則
     @SentinelResource(value = "createOrder", fallback = "createOrderFallback")
     // @SentinelResource(value = "createOrder", blockHandler = "createOrderFallback")
     @Override
@@ -44,8 +52,10 @@ public class OrderServiceImpl implements OrderService {
         // Product product = getProductForRemote(productId);
         // Product product = getProductForRemotewithLoadBalancer(productId);
         // Product product = getProductForRemotewithAnnotationLoadBalanced(productId);
-        Product product = productFeignClient.getProductById(productId);
-        
+        // Product product = productFeignClient.getProductById(productId);
+        // 優先使用本地快取，未命中時與同時間其他訂單的商品查詢合併成一次批次請求 -> ProductCache
+        Product product = productCache.get(productId);
+
         // 建立訂單
         return Order.builder()
                 .userId(userId)
@@ -57,33 +67,59 @@ public class OrderServiceImpl implements OrderService {
                 .build();
     }
 
+    @AdaptiveConcurrencyLimit("createOrder")
+    @Override
+    public Order createOrder(Long userId, List<Long> productIds) {
+        // 快取未命中的商品以一次批次請求取得，不必逐筆調用 /product/{id}
+        List<Product> products = productCache.getAll(productIds);
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (Product product : products) {
+            if (product == null) {
+                throw new IllegalArgumentException("商品不存在");
+            }
+            totalAmount = totalAmount.add(product.getPrice().multiply(BigDecimal.valueOf(product.getNum())));
+        }
+        return Order.builder()
+                .userId(userId)
+                .userName("John Doe")
+                .address("123 Main St, Anytown, USA")
+                .id(1L)
+                .totalAmount(totalAmount)
+                .productList(products)
+                .build();
+    }
+
     /**
      * 處理Sentinel @SentinelResource 丟出的 BlockException
      * blockHandler：參數為 BlockException
      */
     public Order createOrderFallback(Long userId, Long productId, BlockException e) {
-        return Order.builder()
-                .userId(404L)
-                .userName("sentinel block exception: " + e.getMessage())
-                .address("sentinel block exception: " + e.getMessage())
-                .id(404L)
-                .totalAmount(BigDecimal.ZERO)
-                .productList(Arrays.asList())
-                .build();
+        AdaptiveConcurrencyLimitAspect.recordFallback(e);
+        return fallbackOrder("sentinel block exception: " + e.getMessage());
     }
 
     /**
      * 處理Sentinel @SentinelResource 丟出的 FallbackException
      * fallback：參數為 Throwable
+     * 異常被轉成一般回應，需記錄給外層的自適應並發限制，下游失敗時降低上限
      */
     public Order createOrderFallback(Long userId, Long productId, Throwable e) {
+        AdaptiveConcurrencyLimitAspect.recordFallback(e);
+        return fallbackOrder("sentinel fallback exception: " + e.getMessage());
+    }
+
+    /**
+     * Order 是可修改的物件，每個請求各自建立，呼叫端修改回傳的訂單不會影響其他請求
+     */
+    private static Order fallbackOrder(String text) {
         return Order.builder()
                 .userId(404L)
-                .userName("sentinel fallback exception: " + e.getMessage())
-                .address("sentinel fallback exception: " + e.getMessage())
+                .userName(text)
+                .address(text)
                 .id(404L)
                 .totalAmount(BigDecimal.ZERO)
-                .productList(Arrays.asList())
+                .productList(new ArrayList<>())
                 .build();
     }
 
@@ -0,0 +1,132 @@
+package com.example.order.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.order.feign.ProductBatchLoader;
+import com.example.order.feign.fallback.ProductFeignClientFallback;
+import com.example.order.properties.ProductCacheProperties;
+import com.example.product.Product;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ProductCache 單元測試
+ * 測試快取命中、service-product 變慢或失敗時回傳最後一次成功的商品、預設商品不寫入快取，
+ * 以及 fallback 使用最後一次成功的商品
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("ProductCache 商品本地快取測試")
+class ProductCacheTest {
+
+    @Mock
+    private ProductBatchLoader productBatchLoader;
+
+    @Mock
+    private ObjectProvider<ProductCache> cacheProvider;
+
+    private ProductCacheProperties properties;
+
+    private MeterRegistry meterRegistry;
+
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        when(productBatchLoader.loadAsync(anyLong()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(product(invocation.getArgument(0))));
+
+        properties = new ProductCacheProperties();
+        properties.setStaleTimeoutMillis(50);
+        properties.setLoadTimeoutMillis(1000);
+        meterRegistry = new SimpleMeterRegistry();
+        productCache = new ProductCache();
+        ReflectionTestUtils.setField(productCache, "cacheProperties", properties);
+        ReflectionTestUtils.setField(productCache, "productBatchLoader", productBatchLoader);
+        ReflectionTestUtils.setField(productCache, "meterRegistry", meterRegistry);
+        productCache.init();
+    }
+
+    @Test
+    @DisplayName("命中快取時不再調用 service-product")
+    void testCacheHit() {
+        assertEquals(1L, productCache.get(1L).getId());
+        assertEquals(1L, productCache.get(1L).getId());
+        assertEquals(List.of(1L, 2L), productCache.getAll(List.of(1L, 2L)).stream().map(Product::getId).toList());
+
+        verify(productBatchLoader, times(1)).loadAsync(1L);
+        verify(productBatchLoader, times(1)).loadAsync(2L);
+    }
+
+    @Test
+    @DisplayName("重新載入太慢時先回傳最後一次成功的商品，載入完成後寫入快取")
+    void testStaleWhileRevalidate() {
+        productCache.get(1L);
+        productCache.invalidate(1L);
+        CompletableFuture<Product> slow = new CompletableFuture<>();
+        when(productBatchLoader.loadAsync(1L)).thenReturn(slow);
+
+        long start = System.nanoTime();
+        Product stale = productCache.get(1L);
+
+        assertEquals("Product 1", stale.getProductName());
+        assertTrue(System.nanoTime() - start < 900_000_000L, "不應等到載入超時");
+        assertEquals(1.0, meterRegistry.get("product.cache.stale").counter().count());
+
+        slow.complete(new Product(1L, "Product 1 v2", new BigDecimal(120), 2));
+        assertEquals("Product 1 v2", productCache.get(1L).getProductName());
+    }
+
+    @Test
+    @DisplayName("載入失敗時回傳最後一次成功的商品，沒有時拋出原始例外")
+    void testFailureServesLastKnownGood() {
+        productCache.get(1L);
+        productCache.invalidate(1L);
+        IllegalStateException failure = new IllegalStateException("service-product unavailable");
+        when(productBatchLoader.loadAsync(anyLong())).thenReturn(CompletableFuture.failedFuture(failure));
+
+        assertEquals("Product 1", productCache.get(1L).getProductName());
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> productCache.get(2L)));
+    }
+
+    @Test
+    @DisplayName("fallback 回傳的預設商品不寫入快取，fallback 優先回傳最後一次成功的商品")
+    void testPlaceholderNotCachedAndFallbackUsesLastKnownGood() {
+        ProductFeignClientFallback fallback = new ProductFeignClientFallback();
+        ReflectionTestUtils.setField(fallback, "productCache", cacheProvider);
+        when(cacheProvider.getIfAvailable()).thenReturn(productCache);
+        when(productBatchLoader.loadAsync(2L))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(fallback.getProductById(2L)));
+
+        assertTrue(ProductFeignClientFallback.isPlaceholder(productCache.get(2L)));
+        productCache.get(2L);
+        verify(productBatchLoader, times(2)).loadAsync(2L);
+        assertNull(productCache.getLastKnownGood(2L));
+
+        productCache.get(1L);
+        assertEquals(product(1L), fallback.getProductsByIds(List.of(1L, 2L)).get(0));
+        assertTrue(ProductFeignClientFallback.isPlaceholder(fallback.getProductsByIds(List.of(1L, 2L)).get(1)));
+    }
+
+    private static Product product(Long id) {
+        return new Product(id, "Product " + id, new BigDecimal(100), 2);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.order.codec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.common.codec.CompactBinaryCodec;
+import com.example.order.feign.ProductFeignClient;
+import com.example.order.interceptor.CompactBinaryAcceptInterceptor;
+import com.example.order.properties.BinaryCodecProperties;
+import com.example.product.Product;
+
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+import feign.codec.DecodeException;
+
+/**
+ * CompactBinaryFeignDecoder、CompactBinaryFeignEncoder 單元測試
+ * 測試 Feign 端依 Content-Type 協商格式，格式本身的測試在 model 模組的 CompactBinaryCodecTest
+ */
+@DisplayName("CompactBinary Feign 編解碼測試")
+class CompactBinaryFeignCodecTest {
+
+    private BinaryCodecProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BinaryCodecProperties();
+        properties.setEnabled(true);
+    }
+
+    @Test
+    @DisplayName("回應為二進位格式時以二進位解碼，JSON 回應交給原本的 Decoder")
+    void testFeignDecoderNegotiatesByContentType() throws Exception {
+        Product product = Product.builder()
+                .id(10_000L)
+                .productName("Product 0")
+                .price(new BigDecimal("1.00"))
+                .num(1)
+                .build();
+        List<Type> delegated = new ArrayList<>();
+        CompactBinaryFeignDecoder decoder = new CompactBinaryFeignDecoder((response, type) -> {
+            delegated.add(type);
+            return "json";
+        });
+
+        Object binary = decoder.decode(response(CompactBinaryCodec.MEDIA_TYPE, CompactBinaryCodec.encode(product)),
+                Product.class);
+        Object json = decoder.decode(response("application/json", "{}".getBytes(StandardCharsets.UTF_8)),
+                Product.class);
+
+        assertEquals(product, binary);
+        assertEquals("json", json);
+        assertEquals(List.of(Product.class), delegated);
+        assertThrows(DecodeException.class, () -> decoder.decode(
+                response(CompactBinaryCodec.MEDIA_TYPE, new byte[] { 1, 99 }), Product.class));
+    }
+
+    @Test
+    @DisplayName("只對設定的客戶端加上 Accept 並以二進位編碼請求體，已指定 Content-Type 時不覆蓋")
+    void testFeignEncoderAndAcceptInterceptor() {
+        CompactBinaryFeignEncoder encoder = new CompactBinaryFeignEncoder(
+                (object, type, template) -> template.body("json"), properties);
+        CompactBinaryAcceptInterceptor interceptor = new CompactBinaryAcceptInterceptor(properties);
+
+        RequestTemplate product = template("service-product");
+        interceptor.apply(product);
+        encoder.encode(List.of(1L, 2L), List.class, product);
+        assertEquals(List.of(CompactBinaryCodec.MEDIA_TYPE), List.copyOf(product.headers().get("Content-Type")));
+        assertTrue(product.headers().get("Accept").iterator().next().startsWith(CompactBinaryCodec.MEDIA_TYPE));
+        assertEquals(List.of(1L, 2L), CompactBinaryCodec.decode(product.body()));
+
+        RequestTemplate weather = template("weather-client");
+        interceptor.apply(weather);
+        encoder.encode(List.of(1L), List.class, weather);
+        assertNull(weather.headers().get("Accept"));
+        assertEquals("json", new String(weather.body(), StandardCharsets.UTF_8));
+
+        RequestTemplate explicitJson = template("service-product");
+        explicitJson.header("Content-Type", "application/json");
+        encoder.encode(List.of(1L), List.class, explicitJson);
+        assertEquals("json", new String(explicitJson.body(), StandardCharsets.UTF_8));
+
+        properties.setEnabled(false);
+        RequestTemplate disabled = template("service-product");
+        interceptor.apply(disabled);
+        assertNull(disabled.headers().get("Accept"));
+    }
+
+    private static Response response(String contentType, byte[] body) {
+        Map<String, Collection<String>> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", List.of(contentType));
+        return Response.builder()
+                .status(200)
+                .request(Request.create(Request.HttpMethod.GET, "http://service-product/product/1", Map.of(), null,
+                        StandardCharsets.UTF_8, new RequestTemplate()))
+                .headers(headers)
+                .body(body)
+                .build();
+    }
+
+    private static RequestTemplate template(String clientName) {
+        RequestTemplate template = new RequestTemplate();
+        template.feignTarget(new Target.HardCodedTarget<>(ProductFeignClient.class, clientName, "http://" + clientName));
+        return template;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.order.exception;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
+import com.example.common.Result;
+import com.example.order.limit.ConcurrencyLimitException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * MyBlockExceptionHandler 單元測試
+ * 測試預先序列化的回應與原本的 Result 格式相同，且同一資源重複使用同一份 bytes
+ */
+@DisplayName("MyBlockExceptionHandler 限流回應測試")
+class MyBlockExceptionHandlerTest {
+
+    private final MyBlockExceptionHandler handler = new MyBlockExceptionHandler();
+
+    @Test
+    @DisplayName("回應內容與序列化 Result 的結果相同")
+    void writesResultJson() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handler.handle(new MockHttpServletRequest(), response, "/create", new FlowException("default"));
+
+        String expected = new ObjectMapper().writeValueAsString(Result.error(500, "sentinel error block:/create"));
+        assertEquals(expected, response.getContentAsString());
+        assertEquals("application/json;charset=UTF-8", response.getContentType());
+        assertEquals(expected.length(), response.getContentLength());
+    }
+
+    @Test
+    @DisplayName("同一資源重複使用快取的 bytes，不同資源各自一份")
+    void cachesPerResource() throws Exception {
+        byte[] first = handler.encoded("createOrder");
+        assertSame(first, handler.encoded("createOrder"));
+        assertNotSame(first, handler.encoded("/create"));
+    }
+
+    @Test
+    @DisplayName("自適應並發限制的拒絕使用相同格式")
+    void concurrencyLimitUsesSameFormat() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handler.handle(new MockHttpServletRequest(), response, "createOrder",
+                new ConcurrencyLimitException("createOrder", 4));
+
+        Result result = new ObjectMapper().readValue(response.getContentAsByteArray(), Result.class);
+        assertEquals(500, result.getCode());
+        assertEquals("sentinel error block:createOrder", result.getMsg());
+    }
+}
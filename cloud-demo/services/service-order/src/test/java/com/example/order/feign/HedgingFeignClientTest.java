@@ -0,0 +1,239 @@
+package com.example.order.feign;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import com.example.order.config.FeignHedgingProperties;
+
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * HedgingFeignClient 單元測試
+ * 測試慢請求的對沖與取消、對沖額度限制、非 GET 請求和未開啟的客戶端不對沖、@Hedgeable 的批次查詢可以對沖、
+ * 失敗時採用另一個請求的結果
+ */
+@DisplayName("HedgingFeignClient 對沖請求測試")
+class HedgingFeignClientTest {
+
+    private static final String TARGET = "service-product";
+
+    private static final Request.Options OPTIONS = new Request.Options();
+
+    private final ConcurrentLinkedQueue<Attempt> script = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger sends = new AtomicInteger();
+
+    private FeignHedgingProperties.Hedging hedging;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private HedgingFeignClient client;
+
+    @BeforeEach
+    void setUp() {
+        hedging = new FeignHedgingProperties.Hedging();
+        hedging.setEnabled(true);
+        hedging.setMinDelayMillis(20);
+        hedging.setMinSamples(10);
+        FeignHedgingProperties.ClientConfig clientConfig = new FeignHedgingProperties.ClientConfig();
+        clientConfig.setHedging(hedging);
+        FeignHedgingProperties properties = new FeignHedgingProperties();
+        Map<String, FeignHedgingProperties.ClientConfig> config = new HashMap<>();
+        config.put(TARGET, clientConfig);
+        properties.setConfig(config);
+        meterRegistry = new SimpleMeterRegistry();
+        // 負載均衡由 send 取代，不需要 LoadBalancerClient
+        client = new HedgingFeignClient(null, null, null, List.of(), properties, meterRegistry) {
+            @Override
+            Response send(Request request, Request.Options options) throws IOException {
+                sends.incrementAndGet();
+                Attempt attempt = script.poll();
+                return attempt != null ? attempt.run(request) : response(request, "fast");
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.destroy();
+    }
+
+    @Test
+    @DisplayName("回應在 p95 內到達時不發送對沖請求")
+    void fastResponsesAreNotHedged() throws IOException {
+        warmUp();
+        assertEquals("fast", body(client.execute(get(), OPTIONS)));
+        assertEquals(hedging.getMinSamples() + 1, sends.get());
+        assertEquals(0, count("feign.hedge.sent"));
+    }
+
+    @Test
+    @DisplayName("超過 p95 還沒有回應時發送對沖請求，採用先完成的結果並取消另一個")
+    void slowPrimaryIsHedged() throws Exception {
+        warmUp();
+        CountDownLatch primaryCancelled = new CountDownLatch(1);
+        script.add(request -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                primaryCancelled.countDown();
+                throw new IOException(e);
+            }
+            return response(request, "slow");
+        });
+
+        long start = System.nanoTime();
+        assertEquals("fast", body(client.execute(get(), OPTIONS)));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertTrue(primaryCancelled.await(1, TimeUnit.SECONDS));
+        assertEquals(1, count("feign.hedge.sent"));
+        assertEquals(1, count("feign.hedge.won"));
+    }
+
+    @Test
+    @DisplayName("對沖額度用完後慢請求只等待原本的請求")
+    void hedgesAreLimitedByBudget() throws IOException {
+        hedging.setMaxBurst(1);
+        warmUp();
+        script.add(request -> sleep(request, 200));
+        script.add(request -> response(request, "hedge"));
+        script.add(request -> sleep(request, 200));
+
+        assertEquals("hedge", body(client.execute(get(), OPTIONS)));
+        assertEquals("slow", body(client.execute(get(), OPTIONS)));
+        assertEquals(1, count("feign.hedge.sent"));
+        assertEquals(1, count("feign.hedge.budget.exhausted"));
+    }
+
+    @Test
+    @DisplayName("非 GET 請求和未開啟 hedging 的客戶端不對沖")
+    void onlyEnabledGetRequestsAreHedged() throws IOException {
+        warmUp();
+        int warmUpSends = sends.get();
+        script.add(request -> sleep(request, 100));
+        Request post = Request.create(Request.HttpMethod.POST, "http://" + TARGET + "/products/batch", Map.of(),
+                "[1]".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, null);
+        assertEquals("slow", body(client.execute(post, OPTIONS)));
+
+        script.add(request -> sleep(request, 100));
+        Request other = Request.create(Request.HttpMethod.GET, "http://service-stock/stock/1", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        assertEquals("slow", body(client.execute(other, OPTIONS)));
+
+        assertEquals(warmUpSends + 2, sends.get());
+        assertEquals(0, count("feign.hedge.sent"));
+    }
+
+    @Test
+    @DisplayName("標記 @Hedgeable 的 POST 批次查詢與 GET 一樣對沖")
+    void hedgeablePostIsHedged() throws IOException {
+        warmUp();
+        script.add(request -> sleep(request, 1000));
+
+        assertEquals("fast", body(client.execute(batch(), OPTIONS)));
+        assertEquals(1, count("feign.hedge.sent"));
+        assertEquals(1, count("feign.hedge.won"));
+    }
+
+    @Test
+    @DisplayName("對沖後其中一個失敗時採用另一個的結果，兩個都失敗時拋出先失敗的異常")
+    void failedAttemptFallsBackToOther() {
+        hedging.setBudgetPercent(100);
+        warmUp();
+        script.add(request -> {
+            sleep(request, 100);
+            throw new IOException("primary failed");
+        });
+        script.add(request -> sleep(request, 200));
+        assertDoesNotThrow(() -> assertEquals("slow", body(client.execute(get(), OPTIONS))));
+
+        script.add(request -> {
+            sleep(request, 100);
+            throw new IOException("primary failed");
+        });
+        script.add(request -> {
+            sleep(request, 200);
+            throw new IOException("hedge failed");
+        });
+        IOException error = assertThrows(IOException.class, () -> client.execute(get(), OPTIONS));
+        assertEquals("primary failed", error.getMessage());
+    }
+
+    /**
+     * 累積足夠的延遲樣本，p95 接近 0，等待時間為 minDelayMillis
+     */
+    private void warmUp() {
+        for (int i = 0; i < hedging.getMinSamples(); i++) {
+            assertDoesNotThrow(() -> client.execute(get(), OPTIONS));
+        }
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).tag("target", TARGET).counter().count();
+    }
+
+    private static Request get() {
+        return Request.create(Request.HttpMethod.GET, "http://" + TARGET + "/product/1", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+    }
+
+    /**
+     * 經過 Feign 契約解析的 ProductFeignClient.getProductsByIds 請求，帶有方法的 MethodMetadata
+     */
+    private static Request batch() {
+        MethodMetadata metadata = new SpringMvcContract().parseAndValidateMetadata(ProductFeignClient.class).stream()
+                .filter(m -> m.method().getName().equals("getProductsByIds"))
+                .findFirst()
+                .orElseThrow();
+        RequestTemplate template = RequestTemplate.from(metadata.template());
+        return Request.create(Request.HttpMethod.POST, "http://" + TARGET + "/products/batch", Map.of(),
+                "[1]".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, template);
+    }
+
+    private static Response sleep(Request request, long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+        return response(request, "slow");
+    }
+
+    private static Response response(Request request, String body) {
+        return Response.builder()
+                .status(200)
+                .request(request)
+                .headers(Map.of())
+                .body(body, StandardCharsets.UTF_8)
+                .build();
+    }
+
+    private static String body(Response response) throws IOException {
+        return new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface Attempt {
+        Response run(Request request) throws IOException;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.order.feign;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.order.properties.ProductBatchProperties;
+import com.example.product.Product;
+
+/**
+ * ProductBatchLoader 單元測試
+ * 測試同時間的查詢合併、重複 id 去重、單批上限、批次失敗和關閉合併時的直接查詢
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("ProductBatchLoader 商品批次查詢測試")
+class ProductBatchLoaderTest {
+
+    @Mock
+    private ProductFeignClient productFeignClient;
+
+    private ProductBatchProperties properties;
+
+    private ProductBatchLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        when(productFeignClient.getProductsByIds(anyList()))
+                .thenAnswer(invocation -> ((List<Long>) invocation.getArgument(0)).stream()
+                        .map(ProductBatchLoaderTest::product).toList());
+        when(productFeignClient.getProductById(anyLong()))
+                .thenAnswer(invocation -> product(invocation.getArgument(0)));
+
+        properties = new ProductBatchProperties();
+        properties.setMaxWaitMillis(50);
+        properties.setMaxBatchSize(10);
+        properties.setAwaitTimeoutMillis(5000);
+        loader = new ProductBatchLoader();
+        ReflectionTestUtils.setField(loader, "batchProperties", properties);
+        ReflectionTestUtils.setField(loader, "productFeignClient", productFeignClient);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        loader.destroy();
+    }
+
+    @Test
+    @DisplayName("同時間的單筆查詢應合併成一次批次請求，重複 id 只查一次")
+    void testConcurrentLoadsMerged() throws Exception {
+        loader.init();
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Product>> futures = new ArrayList<>();
+            for (long id : new long[] { 1, 2, 3, 1, 2, 4 }) {
+                futures.add(callers.submit(() -> {
+                    start.await();
+                    return loader.load(id);
+                }));
+            }
+            start.countDown();
+            assertEquals(List.of(1L, 2L, 3L, 1L, 2L, 4L), ids(futures));
+        } finally {
+            callers.shutdown();
+        }
+
+        ArgumentCaptor<List<Long>> requested = ArgumentCaptor.forClass(List.class);
+        verify(productFeignClient, times(1)).getProductsByIds(requested.capture());
+        assertEquals(4, requested.getValue().size());
+        verify(productFeignClient, never()).getProductById(anyLong());
+    }
+
+    @Test
+    @DisplayName("loadAll 依請求順序回傳，超過單批上限時分成多次請求")
+    void testLoadAllSplitsByMaxBatchSize() {
+        loader.init();
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            ids.add(id);
+        }
+
+        List<Product> products = loader.loadAll(ids);
+
+        assertEquals(ids, products.stream().map(Product::getId).toList());
+        ArgumentCaptor<List<Long>> requested = ArgumentCaptor.forClass(List.class);
+        verify(productFeignClient, atLeast(3)).getProductsByIds(requested.capture());
+        assertTrue(requested.getAllValues().stream().allMatch(batch -> batch.size() <= 10));
+    }
+
+    @Test
+    @DisplayName("批次請求失敗時同一批的查詢都以相同例外結束")
+    void testBatchFailurePropagated() {
+        IllegalStateException failure = new IllegalStateException("service-product unavailable");
+        when(productFeignClient.getProductsByIds(anyList())).thenThrow(failure);
+        loader.init();
+
+        CompletableFuture<Product> first = loader.loadAsync(1L);
+        CompletableFuture<Product> second = loader.loadAsync(2L);
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> loader.load(3L)));
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+    }
+
+    @Test
+    @DisplayName("關閉合併時直接調用單筆查詢")
+    void testDisabledCallsDirectly() {
+        properties.setEnabled(false);
+        loader.init();
+
+        assertEquals(5L, loader.load(5L).getId());
+
+        verify(productFeignClient).getProductById(5L);
+        verify(productFeignClient, never()).getProductsByIds(anyList());
+    }
+
+    private static List<Long> ids(List<Future<Product>> futures) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (Future<Product> future : futures) {
+            ids.add(future.get().getId());
+        }
+        return ids;
+    }
+
+    private static Product product(Long id) {
+        return new Product(id, "Product " + id, new BigDecimal(100), 2);
+    }
+}
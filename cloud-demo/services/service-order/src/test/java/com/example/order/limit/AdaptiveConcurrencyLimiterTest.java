@@ -0,0 +1,203 @@
+package com.example.order.limit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
+import com.example.order.properties.ConcurrencyLimitProperties;
+
+import feign.Feign;
+import feign.Param;
+import feign.RequestLine;
+import feign.Retryer;
+import feign.Target;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * AdaptiveConcurrencyLimiter 單元測試
+ * 測試超過上限時拒絕、延遲穩定時上限增加、延遲升高和失敗時上限下降、閒置時不增加上限、指標匯出，
+ * 以及 Feign 拒絕不重試和 fallback 的失敗記錄
+ */
+@DisplayName("AdaptiveConcurrencyLimiter 自適應並發限制測試")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long BASE_RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private ConcurrencyLimitProperties properties;
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(20);
+        properties.setMinLimit(4);
+        properties.setMaxLimit(100);
+        limiter = new AdaptiveConcurrencyLimiter("createOrder", properties);
+    }
+
+    @Test
+    @DisplayName("進行中的請求達到上限時拒絕，釋放後可再取得")
+    void rejectsAboveLimit() {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+            assertNotNull(permit);
+            permits.add(permit);
+        }
+        assertNull(limiter.tryAcquire());
+        assertEquals(20, limiter.getInFlight());
+
+        permits.get(0).ignore();
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("延遲穩定且請求數接近上限時，上限逐漸增加到 maxLimit")
+    void limitGrowsWhileLatencyIsStable() {
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(BASE_RTT, limiter.getLimit(), false);
+        }
+        assertEquals(100, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("延遲升高時上限下降，不低於 minLimit")
+    void limitShrinksWhenLatencyRises() {
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(BASE_RTT, limiter.getLimit(), false);
+        }
+        int stable = limiter.getLimit();
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(BASE_RTT * 10, limiter.getLimit(), false);
+        }
+        assertTrue(limiter.getLimit() < stable / 2, "limit " + limiter.getLimit() + " vs " + stable);
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(BASE_RTT * 10, limiter.getLimit(), false);
+        }
+        assertTrue(limiter.getLimit() >= properties.getMinLimit());
+    }
+
+    @Test
+    @DisplayName("逾時或失敗時上限乘上 backoffRatio")
+    void droppedRequestsBackOff() {
+        limiter.onSample(BASE_RTT, 1, true);
+        assertEquals(18, limiter.getLimit());
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(BASE_RTT, 1, true);
+        }
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("進行中的請求不到上限一半時不增加上限")
+    void idleLimitDoesNotGrow() {
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(BASE_RTT, 1, false);
+        }
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("超過上限時拋出 ConcurrencyLimitException 並匯出上限和拒絕次數")
+    void registryExportsMetrics() throws ConcurrencyLimitException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        properties.setInitialLimit(4);
+        ConcurrencyLimiterRegistry registry = new ConcurrencyLimiterRegistry();
+        ReflectionTestUtils.setField(registry, "concurrencyLimitProperties", properties);
+        ReflectionTestUtils.setField(registry, "meterRegistry", meterRegistry);
+
+        for (int i = 0; i < 4; i++) {
+            registry.acquire("service-product");
+        }
+        ConcurrencyLimitException e = assertThrows(ConcurrencyLimitException.class,
+                () -> registry.acquire("service-product"));
+        assertEquals("service-product", e.getResourceName());
+
+        assertEquals(4, meterRegistry.get("order.concurrency.limit").tag("name", "service-product").gauge().value());
+        assertEquals(4, meterRegistry.get("order.concurrency.inflight").tag("name", "service-product").gauge().value());
+        assertEquals(1, meterRegistry.get("order.concurrency.rejected").tag("name", "service-product").counter()
+                .count());
+    }
+
+    @Test
+    @DisplayName("Feign 呼叫超過上限時拋出以 ConcurrencyLimitException 為原因的非受檢異常，不被 Retryer 重試")
+    void feignRejectionIsNotRetried() throws ConcurrencyLimitException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        properties.setInitialLimit(4);
+        ConcurrencyLimiterRegistry registry = new ConcurrencyLimiterRegistry();
+        ReflectionTestUtils.setField(registry, "concurrencyLimitProperties", properties);
+        ReflectionTestUtils.setField(registry, "meterRegistry", meterRegistry);
+        ConcurrencyLimitFeignCapability capability = new ConcurrencyLimitFeignCapability();
+        ReflectionTestUtils.setField(capability, "concurrencyLimiterRegistry", registry);
+        for (int i = 0; i < 4; i++) {
+            registry.acquire("service-product");
+        }
+
+        ProductApi api = Feign.builder()
+                .client((request, options) -> fail("rejected request must not reach the client"))
+                .addCapability(capability)
+                .retryer(new Retryer.Default(1, 1, 3))
+                .target(new Target.HardCodedTarget<>(ProductApi.class, "service-product", "http://service-product"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> api.product(1L));
+        assertInstanceOf(ConcurrencyLimitException.class, e.getCause());
+        assertEquals(1, meterRegistry.get("order.concurrency.rejected").tag("name", "service-product").counter()
+                .count());
+    }
+
+    @Test
+    @DisplayName("fallback 轉成一般回應的下游失敗降低上限，Sentinel 限流不影響上限")
+    void fallbackIsRecordedByAspect() throws Throwable {
+        ConcurrencyLimiterRegistry registry = new ConcurrencyLimiterRegistry();
+        ReflectionTestUtils.setField(registry, "concurrencyLimitProperties", properties);
+        ReflectionTestUtils.setField(registry, "meterRegistry", new SimpleMeterRegistry());
+        AdaptiveConcurrencyLimitAspect aspect = new AdaptiveConcurrencyLimitAspect();
+        ReflectionTestUtils.setField(aspect, "concurrencyLimiterRegistry", registry);
+        AdaptiveConcurrencyLimit annotation = getClass().getDeclaredMethod("limited")
+                .getAnnotation(AdaptiveConcurrencyLimit.class);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            AdaptiveConcurrencyLimitAspect.recordFallback(new FlowException("createOrder"));
+            return "fallback";
+        });
+        assertEquals("fallback", aspect.around(joinPoint, annotation));
+        assertEquals(20, registry.limiter("createOrder").getLimit());
+
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            AdaptiveConcurrencyLimitAspect.recordFallback(new IllegalStateException("downstream failed"));
+            return "fallback";
+        });
+        assertEquals("fallback", aspect.around(joinPoint, annotation));
+        assertEquals(18, registry.limiter("createOrder").getLimit());
+        assertEquals(0, registry.limiter("createOrder").getInFlight());
+
+        // 呼叫結束後不再記錄
+        AdaptiveConcurrencyLimitAspect.recordFallback(new IllegalStateException("outside"));
+        when(joinPoint.proceed()).thenReturn("ok");
+        assertEquals("ok", aspect.around(joinPoint, annotation));
+        assertEquals(18, registry.limiter("createOrder").getLimit());
+    }
+
+    @AdaptiveConcurrencyLimit("createOrder")
+    private void limited() {
+    }
+
+    private interface ProductApi {
+
+        @RequestLine("GET /product/{id}")
+        String product(@Param("id") Long id);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.order.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
+import com.example.order.Order;
+import com.example.product.Product;
+
+/**
+ * OrderServiceImpl fallback 單元測試
+ * 測試 fallback 訂單的內容，以及每次回傳各自的實例，修改回傳的訂單不影響之後的請求
+ */
+@DisplayName("OrderServiceImpl fallback 訂單測試")
+class OrderServiceImplTest {
+
+    private final OrderServiceImpl orderService = new OrderServiceImpl();
+
+    @Test
+    @DisplayName("限流和下游失敗的 fallback 訂單帶有對應的訊息")
+    void testFallbackContent() {
+        Order blocked = orderService.createOrderFallback(1L, 2L, new FlowException("createOrder"));
+        Order failed = orderService.createOrderFallback(1L, 2L, new IllegalStateException("product timeout"));
+
+        assertEquals(404L, blocked.getId());
+        assertTrue(blocked.getUserName().startsWith("sentinel block exception: "));
+        assertEquals("sentinel fallback exception: product timeout", failed.getUserName());
+        assertEquals(failed.getUserName(), failed.getAddress());
+        assertEquals(BigDecimal.ZERO, failed.getTotalAmount());
+        assertTrue(failed.getProductList().isEmpty());
+    }
+
+    @Test
+    @DisplayName("同一訊息的 fallback 訂單不共用實例，修改回傳的訂單不影響下一個請求")
+    void testFallbackOrdersNotShared() {
+        IllegalStateException error = new IllegalStateException("product timeout");
+        Order first = orderService.createOrderFallback(1L, 2L, error);
+        first.setUserId(7L);
+        first.setTotalAmount(BigDecimal.TEN);
+        first.getProductList().add(Product.builder().id(2L).build());
+
+        Order second = orderService.createOrderFallback(1L, 2L, error);
+
+        assertNotSame(first, second);
+        assertEquals(404L, second.getUserId());
+        assertEquals(BigDecimal.ZERO, second.getTotalAmount());
+        assertTrue(second.getProductList().isEmpty());
+        assertEquals(first.getUserName(), second.getUserName());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.product.config;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.example.common.codec.CompactBinaryHttpMessageConverter;
+
+/**
+ * 服務間精簡二進位格式 -> CompactBinaryCodec
+ * 二進位轉換器加在清單最後，只有 Accept 明確要求時才回傳二進位格式，其他請求照舊回傳 JSON
+ * 呼叫端（service-order 的 Feign）是否使用二進位格式由呼叫端的 codec.binary.enabled 決定
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "codec.binary", name = "server-enabled", matchIfMissing = true)
+public class BinaryCodecConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new CompactBinaryHttpMessageConverter());
+    }
+}
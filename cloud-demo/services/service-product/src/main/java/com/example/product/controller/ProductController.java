@@ -1,9 +1,15 @@
 package com.example.product.controller;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.example.product.Product;
 import com.example.product.service.ProductService;
@@ -13,6 +19,9 @@ import jakarta.servlet.http.HttpServletRequest;
 @RestController
 public class ProductController {
 
+    // 單次批次查詢的商品數上限，避免單一請求過大
+    private static final int MAX_BATCH_SIZE = 1000;
+
     @Autowired
     private ProductService productService;
 
@@ -24,4 +33,17 @@ public class ProductController {
 
         return productService.getProductById(id);
     }
+
+    /**
+     * 批次查詢商品，service-order 把同時間的單筆查詢合併成一次請求 -> ProductBatchLoader
+     * 回傳順序與請求的 ids 相同，查不到的位置為 null
+     */
+    @PostMapping("/products/batch")
+    public List<Product> getProducts(@RequestBody List<Long> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "too many ids: " + ids.size() + ", max: " + MAX_BATCH_SIZE);
+        }
+        return productService.getProductsByIds(ids);
+    }
 }
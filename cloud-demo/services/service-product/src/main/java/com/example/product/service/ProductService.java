@@ -1,9 +1,16 @@
 package com.example.product.service;
 
+import java.util.List;
+
 import com.example.product.Product;
 
 public interface ProductService {
 
     public Product getProductById(Long id);
 
+    /**
+     * 批次查詢商品，回傳順序與 ids 相同，查不到的位置為 null
+     */
+    public List<Product> getProductsByIds(List<Long> ids);
+
 }
@@ -1,6 +1,8 @@
 package com.example.product.service.impl;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.springframework.stereotype.Service;
 
@@ -19,4 +21,13 @@ public class ProductServiceImpl implements ProductService {
                 .num(2)
                 .build();
     }
+
+    @Override
+    public List<Product> getProductsByIds(List<Long> ids) {
+        List<Product> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            products.add(id == null ? null : getProductById(id));
+        }
+        return products;
+    }
 }
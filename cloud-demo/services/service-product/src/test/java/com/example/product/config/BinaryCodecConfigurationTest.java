@@ -0,0 +1,72 @@
+package com.example.product.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.example.common.codec.CompactBinaryCodec;
+import com.example.product.Product;
+import com.example.product.controller.ProductController;
+import com.example.product.service.impl.ProductServiceImpl;
+
+/**
+ * BinaryCodecConfiguration 單元測試
+ * 測試 Spring MVC 依 Accept 協商格式：明確要求時回傳二進位格式，其他請求仍回傳 JSON
+ */
+@DisplayName("BinaryCodecConfiguration Spring MVC 格式協商測試")
+class BinaryCodecConfigurationTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ProductController controller = new ProductController();
+        ReflectionTestUtils.setField(controller, "productService", new ProductServiceImpl());
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new MappingJackson2HttpMessageConverter());
+        new BinaryCodecConfiguration().extendMessageConverters(converters);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setMessageConverters(converters.toArray(new HttpMessageConverter<?>[0]))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Accept 優先要求二進位格式時回傳可解碼的二進位內容")
+    void testBinaryWhenRequested() throws Exception {
+        byte[] body = mockMvc.perform(get("/product/7")
+                        .header("Accept", CompactBinaryCodec.MEDIA_TYPE + ", application/json;q=0.9"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CompactBinaryCodec.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Product product = (Product) CompactBinaryCodec.decode(body, Product.class);
+        assertEquals(7L, product.getId());
+        assertEquals(new BigDecimal(100), product.getPrice());
+    }
+
+    @Test
+    @DisplayName("未指定或接受任意格式時仍回傳 JSON")
+    void testJsonByDefault() throws Exception {
+        mockMvc.perform(get("/product/7").header("Accept", "*/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/product/7"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,13 @@
+-- account_debit_log扣款請求記錄遷移腳本
+-- 已按舊版seata-sql-init.sql建表的環境執行；合併扣款等待超時時結果未知，調用方以相同request_id重試，
+-- 已提交的扣款按主鍵去重，不會重複扣款
+-- 記錄只需保留到調用方放棄重試為止，由seata-account的DebitLogCleaner按created定期刪除（account.debit-log）
+USE  `account_db`;
+CREATE TABLE IF NOT EXISTS `account_debit_log` (
+                               `request_id` varchar(64) NOT NULL,
+                               `user_id` varchar(255) NOT NULL,
+                               `money` int(11) NOT NULL,
+                               `created` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                               PRIMARY KEY (`request_id`),
+                               KEY `ix_created` (`created`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
@@ -0,0 +1,4 @@
+-- account_tbl用戶索引遷移腳本
+-- 已按舊版seata-sql-init.sql建表的環境執行；扣款按user_id更新，沒有索引時每次扣款全表掃描並鎖住掃描到的行
+USE  `account_db`;
+ALTER TABLE `account_tbl` ADD KEY `ix_user_id` (`user_id`);
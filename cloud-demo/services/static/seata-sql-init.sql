@@ -24,7 +24,8 @@ CREATE TABLE `undo_log` (
                             `log_modified` datetime NOT NULL,
                             `ext` varchar(100) DEFAULT NULL,
                             PRIMARY KEY (`id`),
-                            UNIQUE KEY `ux_undo_log` (`xid`,`branch_id`)
+                            UNIQUE KEY `ux_undo_log` (`xid`,`branch_id`),
+                            KEY `ix_log_created` (`log_created`)
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
 
 CREATE DATABASE IF NOT EXISTS `order_db`;
@@ -51,7 +52,8 @@ CREATE TABLE `undo_log` (
                             `log_modified` datetime NOT NULL,
                             `ext` varchar(100) DEFAULT NULL,
                             PRIMARY KEY (`id`),
-                            UNIQUE KEY `ux_undo_log` (`xid`,`branch_id`)
+                            UNIQUE KEY `ux_undo_log` (`xid`,`branch_id`),
+                            KEY `ix_log_created` (`log_created`)
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
 
 CREATE DATABASE IF NOT EXISTS `account_db`;
@@ -61,9 +63,20 @@ CREATE TABLE `account_tbl` (
                                `id` int(11) NOT NULL AUTO_INCREMENT,
                                `user_id` varchar(255) DEFAULT NULL,
                                `money` int(11) DEFAULT 0,
-                               PRIMARY KEY (`id`)
+                               PRIMARY KEY (`id`),
+                               KEY `ix_user_id` (`user_id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 INSERT INTO account_tbl (user_id, money) VALUES ('1', 10000);
+-- 扣款請求記錄，扣款按request_id去重，以相同request_id重試不會重複扣款；超出保留時間後由DebitLogCleaner刪除
+DROP TABLE IF EXISTS `account_debit_log`;
+CREATE TABLE `account_debit_log` (
+                               `request_id` varchar(64) NOT NULL,
+                               `user_id` varchar(255) NOT NULL,
+                               `money` int(11) NOT NULL,
+                               `created` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                               PRIMARY KEY (`request_id`),
+                               KEY `ix_created` (`created`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 -- 注意此處0.3.0+ 增加唯一索引 ux_undo_log
 DROP TABLE IF EXISTS `undo_log`;
 CREATE TABLE `undo_log` (
@@ -77,5 +90,6 @@ CREATE TABLE `undo_log` (
                             `log_modified` datetime NOT NULL,
                             `ext` varchar(100) DEFAULT NULL,
                             PRIMARY KEY (`id`),
-                            UNIQUE KEY `ux_undo_log` (`xid`,`branch_id`)
+                            UNIQUE KEY `ux_undo_log` (`xid`,`branch_id`),
+                            KEY `ix_log_created` (`log_created`)
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
\ No newline at end of file
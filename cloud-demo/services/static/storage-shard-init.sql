@@ -0,0 +1,44 @@
+-- storage_tbl分表初始化腳本（storage.shard.count = 4）
+-- 分片規則：Math.floorMod(commodity_code.hashCode(), 4)，與StorageShardRouter一致
+-- seata-business與seata-storage必須配置相同的storage.shard.count
+USE  `storage_db`;
+
+DROP TABLE IF EXISTS `storage_tbl_0`;
+CREATE TABLE `storage_tbl_0` (
+                               `id` int(11) NOT NULL AUTO_INCREMENT,
+                               `commodity_code` varchar(255) DEFAULT NULL,
+                               `count` int(11) DEFAULT 0,
+                               PRIMARY KEY (`id`),
+                               UNIQUE KEY (`commodity_code`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+DROP TABLE IF EXISTS `storage_tbl_1`;
+CREATE TABLE `storage_tbl_1` (
+                               `id` int(11) NOT NULL AUTO_INCREMENT,
+                               `commodity_code` varchar(255) DEFAULT NULL,
+                               `count` int(11) DEFAULT 0,
+                               PRIMARY KEY (`id`),
+                               UNIQUE KEY (`commodity_code`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+DROP TABLE IF EXISTS `storage_tbl_2`;
+CREATE TABLE `storage_tbl_2` (
+                               `id` int(11) NOT NULL AUTO_INCREMENT,
+                               `commodity_code` varchar(255) DEFAULT NULL,
+                               `count` int(11) DEFAULT 0,
+                               PRIMARY KEY (`id`),
+                               UNIQUE KEY (`commodity_code`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+DROP TABLE IF EXISTS `storage_tbl_3`;
+CREATE TABLE `storage_tbl_3` (
+                               `id` int(11) NOT NULL AUTO_INCREMENT,
+                               `commodity_code` varchar(255) DEFAULT NULL,
+                               `count` int(11) DEFAULT 0,
+                               PRIMARY KEY (`id`),
+                               UNIQUE KEY (`commodity_code`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- seata-sql-init.sql中的示例商品按分片規則遷移
+INSERT INTO storage_tbl_1 (commodity_code, count) VALUES ('P0001', 100);
+INSERT INTO storage_tbl_0 (commodity_code, count) VALUES ('B1234', 10);
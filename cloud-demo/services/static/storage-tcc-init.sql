@@ -0,0 +1,18 @@
+-- TCC庫存預留表初始化腳本
+-- seata-business以TCC模式扣減庫存時使用，(xid, branch_id)唯一，兼作二階段冪等、空回滾和防懸掛記錄
+-- 已提交和已回滾記錄保留到storage.tcc.reservation-retention-minutes後由seata-business清理，防止晚到的一階段扣減庫存
+USE  `storage_db`;
+
+DROP TABLE IF EXISTS `storage_reservation`;
+CREATE TABLE `storage_reservation` (
+                               `id` bigint(20) NOT NULL AUTO_INCREMENT,
+                               `xid` varchar(128) NOT NULL,
+                               `branch_id` bigint(20) NOT NULL,
+                               `commodity_code` varchar(255) DEFAULT NULL,
+                               `count` int(11) NOT NULL DEFAULT 0,
+                               `status` tinyint(4) NOT NULL COMMENT '0:已預留 1:已回滾 2:已提交',
+                               `gmt_create` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                               PRIMARY KEY (`id`),
+                               UNIQUE KEY `ux_reservation` (`xid`, `branch_id`),
+                               KEY `ix_status_create` (`status`, `gmt_create`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
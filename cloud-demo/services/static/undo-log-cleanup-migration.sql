@@ -0,0 +1,10 @@
+-- undo_log清理索引遷移腳本
+-- 已按舊版seata-sql-init.sql建表的環境執行，UndoLogCleaner按log_created範圍分批刪除時使用此索引
+USE  `storage_db`;
+ALTER TABLE `undo_log` ADD KEY `ix_log_created` (`log_created`);
+
+USE  `order_db`;
+ALTER TABLE `undo_log` ADD KEY `ix_log_created` (`log_created`);
+
+USE  `account_db`;
+ALTER TABLE `undo_log` ADD KEY `ix_log_created` (`log_created`);